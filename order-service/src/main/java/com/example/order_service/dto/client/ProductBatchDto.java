@@ -0,0 +1,9 @@
+package com.example.order_service.dto.client;
+
+import java.util.List;
+
+public record ProductBatchDto(
+        List<ProductDto> items,
+        List<Long> missingIds
+) {
+}
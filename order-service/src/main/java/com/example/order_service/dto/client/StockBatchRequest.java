@@ -0,0 +1,8 @@
+package com.example.order_service.dto.client;
+
+import java.util.List;
+
+public record StockBatchRequest(
+        List<StockLineRequest> items
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.order_service.dto.client;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record StockHoldDto(
+        UUID holdId,
+        LocalDateTime expiresAt
+) {
+}
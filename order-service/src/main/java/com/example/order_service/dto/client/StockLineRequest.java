@@ -1,6 +1,7 @@
 package com.example.order_service.dto.client;
 
-public record StockUpdateRequest(
+public record StockLineRequest(
+        Long productId,
         int quantity
 ) {
 }
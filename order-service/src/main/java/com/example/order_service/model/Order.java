@@ -6,6 +6,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
     @Entity
     @Table(name = "orders")
@@ -26,6 +27,9 @@ import java.util.List;
 
         private BigDecimal totalPrice;
 
+        // Stock hold taken in product-service; null for orders placed before holds existed
+        private UUID stockHoldId;
+
         // --- constructors  ---
 
         public Order() {}
@@ -77,4 +81,12 @@ import java.util.List;
         public void setTotalPrice(BigDecimal totalPrice) {
             this.totalPrice = totalPrice;
         }
+
+        public UUID getStockHoldId() {
+            return stockHoldId;
+        }
+
+        public void setStockHoldId(UUID stockHoldId) {
+            this.stockHoldId = stockHoldId;
+        }
     }
\ No newline at end of file
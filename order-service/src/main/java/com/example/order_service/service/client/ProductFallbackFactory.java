@@ -1,8 +1,10 @@
 package com.example.order_service.service.client;
 
+import com.example.order_service.dto.client.ProductBatchDto;
 import com.example.order_service.dto.client.ProductDto;
+import com.example.order_service.dto.client.StockBatchRequest;
+import com.example.order_service.dto.client.StockHoldDto;
 import com.example.order_service.exception.ExternalServiceException;
-import com.example.order_service.dto.client.StockUpdateRequest;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.FeignException;
@@ -12,6 +14,8 @@ import org.springframework.cloud.openfeign.FallbackFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 
@@ -57,12 +61,32 @@ public class ProductFallbackFactory implements FallbackFactory<ProductFeignClien
             }
 
             @Override
-            public void reduceStock(Long productId, StockUpdateRequest request) {
+            public ProductBatchDto getProductsByIds(List<Long> productIds) {
+                return executeFallback();
+            }
+
+            @Override
+            public void reserveStock(StockBatchRequest request) {
+                executeFallback();
+            }
+
+            @Override
+            public void releaseStock(StockBatchRequest request) {
+                executeFallback();
+            }
+
+            @Override
+            public StockHoldDto placeStockHold(StockBatchRequest request) {
+                return executeFallback();
+            }
+
+            @Override
+            public void commitStockHold(UUID holdId) {
                 executeFallback();
             }
 
             @Override
-            public void increaseStock(Long productId, StockUpdateRequest request) {
+            public void releaseStockHold(UUID holdId) {
                 executeFallback();
             }
         };
@@ -1,12 +1,19 @@
 package com.example.order_service.service.client;
 
-import com.example.order_service.dto.client.StockUpdateRequest;
+import com.example.order_service.dto.client.ProductBatchDto;
 import com.example.order_service.dto.client.ProductDto;
+import com.example.order_service.dto.client.StockBatchRequest;
+import com.example.order_service.dto.client.StockHoldDto;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+import java.util.UUID;
 
 @FeignClient(name="product-service",  fallbackFactory = ProductFallbackFactory.class)
 public interface ProductFeignClient {
@@ -14,15 +21,21 @@ public interface ProductFeignClient {
     @GetMapping(value = "/api/products/{id}", consumes = "application/json")
     ProductDto getProductById(@PathVariable("id") Long productId);
 
-    @PutMapping(value = "/internal/products/{id}/reduce-stock", consumes = "application/json")
-    void reduceStock(
-            @PathVariable("id") Long productId,
-            @RequestBody StockUpdateRequest request
-    );
-
-    @PutMapping(value = "/internal/products/{id}/increase-stock", consumes = "application/json")
-    void increaseStock(
-            @PathVariable("id") Long productId,
-            @RequestBody StockUpdateRequest request
-    );
+    @GetMapping(value = "/api/products/batch", consumes = "application/json")
+    ProductBatchDto getProductsByIds(@RequestParam("ids") List<Long> productIds);
+
+    @PostMapping(value = "/internal/products/stock/reserve", consumes = "application/json")
+    void reserveStock(@RequestBody StockBatchRequest request);
+
+    @PostMapping(value = "/internal/products/stock/release", consumes = "application/json")
+    void releaseStock(@RequestBody StockBatchRequest request);
+
+    @PostMapping(value = "/internal/products/stock/holds", consumes = "application/json")
+    StockHoldDto placeStockHold(@RequestBody StockBatchRequest request);
+
+    @PostMapping(value = "/internal/products/stock/holds/{holdId}/commit", consumes = "application/json")
+    void commitStockHold(@PathVariable("holdId") UUID holdId);
+
+    @DeleteMapping(value = "/internal/products/stock/holds/{holdId}", consumes = "application/json")
+    void releaseStockHold(@PathVariable("holdId") UUID holdId);
 }
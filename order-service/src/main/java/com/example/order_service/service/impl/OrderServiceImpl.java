@@ -2,10 +2,15 @@ package com.example.order_service.service.impl;
 
 import com.example.order_service.dto.*;
 import com.example.order_service.dto.client.CartDto;
+import com.example.order_service.dto.client.CartItemDto;
+import com.example.order_service.dto.client.ProductBatchDto;
 import com.example.order_service.dto.client.ProductDto;
-import com.example.order_service.dto.client.StockUpdateRequest;
+import com.example.order_service.dto.client.StockBatchRequest;
+import com.example.order_service.dto.client.StockHoldDto;
+import com.example.order_service.dto.client.StockLineRequest;
 import com.example.order_service.exception.AccessDeniedException;
 import com.example.order_service.exception.ConflictException;
+import com.example.order_service.exception.ExternalServiceException;
 import com.example.order_service.exception.NotFoundException;
 import com.example.order_service.mapper.OrderMapper;
 import com.example.order_service.model.Order;
@@ -17,11 +22,14 @@ import com.example.order_service.service.client.CartFeignClient;
 import com.example.order_service.service.client.ProductFeignClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -52,6 +60,31 @@ public class OrderServiceImpl implements IOrderService {
                 });
     }
 
+    private StockBatchRequest toStockBatch(List<OrderItem> items) {
+        return new StockBatchRequest(items.stream()
+                .map(item -> new StockLineRequest(item.getProductId(), item.getQuantity()))
+                .toList());
+    }
+
+    /**
+     * Turns the order's stock hold into a sale. A hold that has expired (409) or has already been swept (404)
+     * no longer guarantees the stock, so the order is cancelled instead of paid; product-service puts the
+     * stock back on its own.
+     */
+    private void commitStockHold(Order order) {
+        try {
+            productFeignClient.commitStockHold(order.getStockHoldId());
+        } catch (ExternalServiceException e) {
+            if (e.getStatus() != HttpStatus.CONFLICT && e.getStatus() != HttpStatus.NOT_FOUND) {
+                throw e;
+            }
+            log.warn("Stock hold {} for orderId={} has expired: {}", order.getStockHoldId(), order.getId(), e.getMessage());
+            order.setStatus(OrderStatus.CANCELLED);
+            orderRepository.save(order);
+            throw new ConflictException("Order reservation has expired and the order was cancelled.");
+        }
+    }
+
     @Transactional
     public OrderDetailsDto createOrder(String userId) {
         log.info("Creating order for userId={}", userId);
@@ -65,15 +98,21 @@ public class OrderServiceImpl implements IOrderService {
         Order order = new Order();
         order.setUserId(userId);
 
-        List<OrderItem> orderItems = cart.items().stream().map(cartItem -> {
-            log.debug("Fetching product info for productId={}", cartItem.productId());
-            ProductDto product = productFeignClient.getProductById(cartItem.productId());
+        List<Long> productIds = cart.items().stream()
+                .map(CartItemDto::productId)
+                .distinct()
+                .toList();
+        log.debug("Fetching product info for productIds={}", productIds);
+        ProductBatchDto batch = productFeignClient.getProductsByIds(productIds);
+        if (!batch.missingIds().isEmpty()) {
+            log.warn("Cannot create order: products not found ids={}", batch.missingIds());
+            throw new NotFoundException("Cannot find products with ids: " + batch.missingIds());
+        }
+        Map<Long, ProductDto> productsById = batch.items().stream()
+                .collect(Collectors.toMap(ProductDto::id, Function.identity()));
 
-            log.debug("Reducing stock for productId={} by quantity={}", cartItem.productId(), cartItem.quantity());
-            productFeignClient.reduceStock(
-                    cartItem.productId(),
-                    new StockUpdateRequest(cartItem.quantity())
-            );
+        List<OrderItem> orderItems = cart.items().stream().map(cartItem -> {
+            ProductDto product = productsById.get(cartItem.productId());
 
             OrderItem item = new OrderItem();
             item.setProductId(product.id());
@@ -84,6 +123,10 @@ public class OrderServiceImpl implements IOrderService {
             return item;
         }).toList();
 
+        log.debug("Holding stock for {} order items", orderItems.size());
+        StockHoldDto hold = productFeignClient.placeStockHold(toStockBatch(orderItems));
+        order.setStockHoldId(hold.holdId());
+
         BigDecimal totalPrice = orderItems.stream()
                 .map(i -> i.getPriceAtPurchase().multiply(BigDecimal.valueOf(i.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -115,6 +158,10 @@ public class OrderServiceImpl implements IOrderService {
             throw new ConflictException("Order cannot be paid. Current status: " + order.getStatus());
         }
 
+        if (order.getStockHoldId() != null) {
+            commitStockHold(order);
+        }
+
         order.setStatus(OrderStatus.PAID);
         Order completedOrder = orderRepository.save(order);
         log.info("Order paid successfully: orderId={}, userId={}", orderId, userId);
@@ -162,12 +209,12 @@ public class OrderServiceImpl implements IOrderService {
             );
         }
 
-        for (OrderItem item : order.getItems()) {
-            log.debug("Restocking productId={} quantity={}", item.getProductId(), item.getQuantity());
-            productFeignClient.increaseStock(
-                    item.getProductId(),
-                    new StockUpdateRequest(item.getQuantity())
-            );
+        if (order.getStockHoldId() != null) {
+            log.debug("Releasing stock hold {} for orderId={}", order.getStockHoldId(), orderId);
+            productFeignClient.releaseStockHold(order.getStockHoldId());
+        } else {
+            log.debug("Restocking {} items for orderId={}", order.getItems().size(), orderId);
+            productFeignClient.releaseStock(toStockBatch(order.getItems()));
         }
 
         order.setStatus(OrderStatus.CANCELLED);
@@ -3,10 +3,13 @@ package com.example.order_service.unit;
 import com.example.order_service.dto.*;
 import com.example.order_service.dto.client.CartDto;
 import com.example.order_service.dto.client.CartItemDto;
+import com.example.order_service.dto.client.ProductBatchDto;
 import com.example.order_service.dto.client.ProductDto;
-import com.example.order_service.dto.client.StockUpdateRequest;
+import com.example.order_service.dto.client.StockBatchRequest;
+import com.example.order_service.dto.client.StockHoldDto;
 import com.example.order_service.exception.AccessDeniedException;
 import com.example.order_service.exception.ConflictException;
+import com.example.order_service.exception.ExternalServiceException;
 import com.example.order_service.exception.NotFoundException;
 import com.example.order_service.model.Order;
 import com.example.order_service.model.OrderItem;
@@ -20,12 +23,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,6 +52,8 @@ class OrderServiceImplUnitTest {
     @InjectMocks
     private OrderServiceImpl orderService;
 
+    private static final UUID HOLD_ID = UUID.fromString("0f8fad5b-d9cb-469f-a165-70867728950e");
+
     // Helper methods for reflection
     private void setOrderId(Order order, Long id) {
         try {
@@ -115,8 +123,10 @@ class OrderServiceImplUnitTest {
         ProductDto product2 = createTestProductDto(102L);
 
         when(cartFeignClient.getUserCart(userId)).thenReturn(cartDto);
-        when(productFeignClient.getProductById(101L)).thenReturn(product1);
-        when(productFeignClient.getProductById(102L)).thenReturn(product2);
+        when(productFeignClient.getProductsByIds(List.of(101L, 102L)))
+                .thenReturn(new ProductBatchDto(List.of(product1, product2), List.of()));
+        when(productFeignClient.placeStockHold(any(StockBatchRequest.class)))
+                .thenReturn(new StockHoldDto(HOLD_ID, LocalDateTime.now().plusMinutes(15)));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             setOrderId(order, 1L);
@@ -140,8 +150,10 @@ class OrderServiceImplUnitTest {
         // Verify that the items have non-null IDs
         assertTrue(result.items().stream().allMatch(item -> item.id() > 0));
         verify(cartFeignClient, times(1)).getUserCart(userId);
-        verify(productFeignClient, times(2)).getProductById(anyLong());
-        verify(productFeignClient, times(2)).reduceStock(anyLong(), any(StockUpdateRequest.class));
+        verify(productFeignClient, times(1)).getProductsByIds(List.of(101L, 102L));
+        verify(productFeignClient, never()).getProductById(anyLong());
+        verify(productFeignClient, times(1)).placeStockHold(any(StockBatchRequest.class));
+        verify(productFeignClient, never()).reserveStock(any(StockBatchRequest.class));
         verify(cartFeignClient, times(1)).clearCart(userId);
         verify(orderRepository, times(1)).save(any(Order.class));
     }
@@ -159,7 +171,26 @@ class OrderServiceImplUnitTest {
                 () -> orderService.createOrder(userId));
 
         verify(cartFeignClient, times(1)).getUserCart(userId);
-        verify(productFeignClient, never()).getProductById(anyLong());
+        verify(productFeignClient, never()).getProductsByIds(anyList());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrder_WithMissingProduct_ShouldThrowException() {
+        // Arrange
+        String userId = "user123";
+        CartDto cartDto = createTestCartDto(userId);
+        ProductDto product1 = createTestProductDto(101L);
+
+        when(cartFeignClient.getUserCart(userId)).thenReturn(cartDto);
+        when(productFeignClient.getProductsByIds(List.of(101L, 102L)))
+                .thenReturn(new ProductBatchDto(List.of(product1), List.of(102L)));
+
+        // Act & Assert
+        assertThrows(NotFoundException.class,
+                () -> orderService.createOrder(userId));
+
+        verify(productFeignClient, never()).placeStockHold(any(StockBatchRequest.class));
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -218,6 +249,66 @@ class OrderServiceImplUnitTest {
         verify(orderRepository, never()).save(any(Order.class));
     }
 
+    @Test
+    void payOrder_WithStockHold_ShouldCommitHold() {
+        // Arrange
+        String userId = "user123";
+        Long orderId = 1L;
+        Order order = createTestOrder(userId, OrderStatus.PENDING);
+        order.setStockHoldId(HOLD_ID);
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any(Order.class))).thenReturn(order);
+
+        // Act
+        orderService.payOrder(userId, orderId);
+
+        // Assert
+        assertEquals(OrderStatus.PAID, order.getStatus());
+        verify(productFeignClient, times(1)).commitStockHold(HOLD_ID);
+    }
+
+    @Test
+    void payOrder_WithExpiredStockHold_ShouldCancelOrder() {
+        // Arrange
+        String userId = "user123";
+        Long orderId = 1L;
+        Order order = createTestOrder(userId, OrderStatus.PENDING);
+        order.setStockHoldId(HOLD_ID);
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        doThrow(new ExternalServiceException("Stock hold expired", HttpStatus.CONFLICT))
+                .when(productFeignClient).commitStockHold(HOLD_ID);
+
+        // Act & Assert
+        assertThrows(ConflictException.class,
+                () -> orderService.payOrder(userId, orderId));
+
+        assertEquals(OrderStatus.CANCELLED, order.getStatus());
+        verify(orderRepository, times(1)).save(order);
+        verify(productFeignClient, never()).releaseStockHold(any(UUID.class));
+    }
+
+    @Test
+    void payOrder_WhenProductServiceIsUnavailable_ShouldKeepOrderPending() {
+        // Arrange
+        String userId = "user123";
+        Long orderId = 1L;
+        Order order = createTestOrder(userId, OrderStatus.PENDING);
+        order.setStockHoldId(HOLD_ID);
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        doThrow(new ExternalServiceException("Unavailable", HttpStatus.SERVICE_UNAVAILABLE))
+                .when(productFeignClient).commitStockHold(HOLD_ID);
+
+        // Act & Assert
+        assertThrows(ExternalServiceException.class,
+                () -> orderService.payOrder(userId, orderId));
+
+        assertEquals(OrderStatus.PENDING, order.getStatus());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void getCurrentUserOrders_ShouldReturnUserOrders() {
         // Arrange
@@ -308,10 +399,30 @@ class OrderServiceImplUnitTest {
         assertNotNull(result);
         assertEquals(OrderStatus.CANCELLED, order.getStatus());
         verify(orderRepository, times(1)).findById(orderId);
-        verify(productFeignClient, times(2)).increaseStock(anyLong(), any(StockUpdateRequest.class));
+        verify(productFeignClient, times(1)).releaseStock(any(StockBatchRequest.class));
         verify(orderRepository, times(1)).save(order);
     }
 
+    @Test
+    void cancelOrder_WithStockHold_ShouldReleaseHold() {
+        // Arrange
+        String userId = "user123";
+        Long orderId = 1L;
+        Order order = createTestOrder(userId, OrderStatus.PENDING);
+        order.setStockHoldId(HOLD_ID);
+
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any(Order.class))).thenReturn(order);
+
+        // Act
+        orderService.cancelOrder(userId, false, orderId);
+
+        // Assert
+        assertEquals(OrderStatus.CANCELLED, order.getStatus());
+        verify(productFeignClient, times(1)).releaseStockHold(HOLD_ID);
+        verify(productFeignClient, never()).releaseStock(any(StockBatchRequest.class));
+    }
+
     @Test
     void cancelOrder_WithAdminAccess_ShouldCancelOrder() {
         // Arrange
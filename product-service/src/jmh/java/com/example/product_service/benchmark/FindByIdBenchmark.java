@@ -0,0 +1,61 @@
+package com.example.product_service.benchmark;
+
+import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.IProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of loading one product: straight from the database through the repository, and
+ * through the service, where it is served from the product cache after the first call.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindByIdBenchmark {
+
+    private ProductRepository repository;
+    private IProductService productService;
+    private long productId;
+
+    @Setup(Level.Trial)
+    public void createProduct(ProductServiceContext application) {
+        repository = application.bean(ProductRepository.class);
+        productService = application.bean(IProductService.class);
+        productId = productService.createProduct(new ProductRequestDto(
+                "Lookup benchmark " + System.nanoTime(),
+                "Product loaded by the lookup benchmark",
+                new BigDecimal("10.00"),
+                100
+        )).id();
+    }
+
+    @Benchmark
+    public Optional<Product> repositoryFindById() {
+        return repository.findById(productId);
+    }
+
+    @Benchmark
+    public ProductDetailsDto serviceGetProductById() {
+        return productService.getProductById(productId);
+    }
+}
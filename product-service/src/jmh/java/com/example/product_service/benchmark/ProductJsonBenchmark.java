@@ -0,0 +1,70 @@
+package com.example.product_service.benchmark;
+
+import com.example.product_service.dto.ProductPageDto;
+import com.example.product_service.dto.ProductSummaryDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of {@link ProductSummaryDto} lists, as done for every uncached listing page. The mapper
+ * is built the way Spring Boot builds the application's one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductJsonBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter pageWriter;
+    private ProductPageDto page;
+
+    @Setup
+    public void createPage() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        pageWriter = objectMapper.writerFor(ProductPageDto.class);
+        List<ProductSummaryDto> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            items.add(new ProductSummaryDto((long) i, "Product " + i, new BigDecimal("19.99").add(BigDecimal.valueOf(i)), i));
+        }
+        page = new ProductPageDto(items, "aWQ6MTAw");
+    }
+
+    @Benchmark
+    public byte[] writeSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page.items());
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] writePageWithTypedWriter() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+}
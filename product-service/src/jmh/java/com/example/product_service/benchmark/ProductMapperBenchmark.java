@@ -0,0 +1,96 @@
+package com.example.product_service.benchmark;
+
+import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductSummaryDto;
+import com.example.product_service.entity.Product;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.repository.OffRowStock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping of one listing page, with stock in the row and with stock in stripes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductMapperBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private List<Product> products;
+    private List<OffRowStock> stripes;
+
+    @Setup
+    public void createProducts() {
+        LocalDateTime now = LocalDateTime.now();
+        products = new ArrayList<>(pageSize);
+        stripes = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Description of product " + i);
+            product.setPrice(new BigDecimal("19.99").add(BigDecimal.valueOf(i)));
+            product.setStock(i);
+            product.setCreatedAt(now.minusDays(1));
+            product.setUpdatedAt(now);
+            products.add(product);
+            stripes.add(new OffRowStock(i, 8L * i, now.plusSeconds(i), i));
+        }
+    }
+
+    @Benchmark
+    public List<ProductSummaryDto> toSummaryDto() {
+        List<ProductSummaryDto> page = new ArrayList<>(products.size());
+        for (Product product : products) {
+            page.add(ProductMapper.toSummaryDto(product));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<ProductSummaryDto> toSummaryDtoWithStripes() {
+        List<ProductSummaryDto> page = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            page.add(ProductMapper.toSummaryDto(products.get(i), stripes.get(i)));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<ProductDetailsDto> toDetailsDto() {
+        List<ProductDetailsDto> page = new ArrayList<>(products.size());
+        for (Product product : products) {
+            page.add(ProductMapper.toDetailsDto(product));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<ProductDetailsDto> toDetailsDtoWithStripes() {
+        List<ProductDetailsDto> page = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            page.add(ProductMapper.toDetailsDto(products.get(i), stripes.get(i)));
+        }
+        return page;
+    }
+}
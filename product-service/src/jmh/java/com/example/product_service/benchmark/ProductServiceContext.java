@@ -0,0 +1,62 @@
+package com.example.product_service.benchmark;
+
+import com.example.product_service.ProductServiceApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The running application, shared by every benchmark of a trial. It uses a throwaway PostgreSQL container,
+ * or the database in {@code BENCHMARK_JDBC_URL} when that is set, so runs can be repeated against the same
+ * server and data volume.
+ */
+@State(Scope.Benchmark)
+public class ProductServiceContext {
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        Map<String, Object> properties = new HashMap<>();
+        String jdbcUrl = System.getenv("BENCHMARK_JDBC_URL");
+        if (jdbcUrl == null || jdbcUrl.isBlank()) {
+            postgres = new PostgreSQLContainer<>("postgres:15");
+            postgres.start();
+            properties.put("spring.datasource.url", postgres.getJdbcUrl());
+            properties.put("spring.datasource.username", postgres.getUsername());
+            properties.put("spring.datasource.password", postgres.getPassword());
+        } else {
+            properties.put("spring.datasource.url", jdbcUrl);
+            properties.put("spring.datasource.username", System.getenv("BENCHMARK_JDBC_USERNAME"));
+            properties.put("spring.datasource.password", System.getenv("BENCHMARK_JDBC_PASSWORD"));
+        }
+        properties.put("EXTERNAL_KEYCLOAK_URL", "http://localhost:8080");
+        properties.put("INTERNAL_KEYCLOAK_URL", "http://localhost:8080");
+        properties.put("API_GATEWAY_URL", "http://localhost:8080");
+        // Per-call INFO logging would otherwise dominate the measurements
+        properties.put("logging.level.root", "WARN");
+        context = new SpringApplicationBuilder(ProductServiceApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+}
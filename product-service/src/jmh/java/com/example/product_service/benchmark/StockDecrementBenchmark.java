@@ -0,0 +1,81 @@
+package com.example.product_service.benchmark;
+
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.service.IProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IProductService#reduceStock} on a single hot product from several threads, with the stock in the
+ * product row ({@code stripes = 0}) and spread across stripes.
+ * <p>
+ * With {@code holdMillis > 0} each decrement runs in a transaction that keeps going for that long afterwards,
+ * as a checkout doing more work before it commits would, so the product's lock or stripe is held meanwhile.
+ * Only then does throughput grow with the stripe count; without a hold the round trips dominate and striping
+ * makes little difference.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class StockDecrementBenchmark {
+
+    @Param({"0", "8"})
+    private int stripes;
+
+    @Param({"0", "20"})
+    private long holdMillis;
+
+    private IProductService productService;
+    private TransactionTemplate transactionTemplate;
+    private long productId;
+
+    @Setup(Level.Trial)
+    public void createProduct(ProductServiceContext application) {
+        productService = application.bean(IProductService.class);
+        transactionTemplate = application.bean(TransactionTemplate.class);
+        productId = productService.createProduct(new ProductRequestDto(
+                "Stock benchmark " + stripes + "-" + System.nanoTime(),
+                "Product decremented by the stock benchmark",
+                new BigDecimal("10.00"),
+                1_000_000_000
+        )).id();
+        if (stripes > 0) {
+            productService.enableStockStripes(productId, stripes);
+        }
+    }
+
+    @Benchmark
+    public void reduceStock() {
+        if (holdMillis == 0) {
+            productService.reduceStock(productId, 1, null);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.reduceStock(productId, 1, null);
+            try {
+                Thread.sleep(holdMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.product_service.benchmark;
+
+import com.example.product_service.dto.ProductSuggestionDto;
+import com.example.product_service.search.ProductSuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductSuggestIndex#suggest} over one million product names with skewed popularity, for random
+ * prefixes of existing names. Short prefixes match a large share of the catalog, so they show whether the
+ * top-k lookup stays independent of the number of completions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SuggestBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int PREFIXES = 4096;
+    private static final String[] BRANDS = {
+            "Acme", "Apex", "Aurora", "Nimbus", "Vertex", "Zenith", "Orion", "Pioneer", "Summit", "Titan",
+            "Nova", "Atlas", "Echo", "Lumen", "Quantum", "Falcon", "Harbor", "Polar", "Crest", "Ember"
+    };
+    private static final String[] ADJECTIVES = {
+            "Wireless", "Gaming", "Portable", "Compact", "Ergonomic", "Smart", "Ultra", "Pro", "Mini", "Classic",
+            "Rugged", "Silent", "Digital", "Premium", "Travel", "Outdoor", "Studio", "Office", "Kids", "Solar"
+    };
+    private static final String[] NOUNS = {
+            "Laptop", "Mouse", "Keyboard", "Headphones", "Monitor", "Speaker", "Charger", "Backpack", "Camera",
+            "Tablet", "Router", "Lamp", "Watch", "Drone", "Microphone", "Webcam", "Printer", "Projector",
+            "Thermostat", "Blender"
+    };
+
+    @Param({"1", "3", "8"})
+    private int prefixLength;
+
+    @Param({"10"})
+    private int limit;
+
+    private ProductSuggestIndex index;
+    private String[] prefixes;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        Random random = new Random(42);
+        String[] names = new String[PRODUCTS];
+        index = new ProductSuggestIndex();
+        for (int i = 0; i < PRODUCTS; i++) {
+            names[i] = BRANDS[random.nextInt(BRANDS.length)] + " "
+                    + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " "
+                    + (100 + random.nextInt(9900));
+            index.put(i + 1, names[i]);
+        }
+        // Roughly Zipf-distributed: a few best sellers, a long tail that never sold
+        for (int sale = 0; sale < PRODUCTS; sale++) {
+            index.addWeight((long) Math.pow(PRODUCTS, random.nextDouble()), 1);
+        }
+        prefixes = new String[PREFIXES];
+        for (int i = 0; i < PREFIXES; i++) {
+            String name = names[random.nextInt(PRODUCTS)];
+            prefixes[i] = name.substring(0, Math.min(prefixLength, name.length()));
+        }
+    }
+
+    @Benchmark
+    public List<ProductSuggestionDto> suggest(Cursor cursor) {
+        String prefix = prefixes[cursor.next];
+        cursor.next = (cursor.next + 1) % PREFIXES;
+        return index.suggest(prefix, limit);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.product_service.cache;
+
+import com.example.product_service.datasource.ReplicaMonitor;
+import com.example.product_service.event.CategoryChangedEvent;
+import com.example.product_service.event.ProductChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Catalog-wide version used to validate cached product listings. It is a database sequence rather than an
+ * in-memory counter so every instance behind the gateway agrees on it.
+ * <p>
+ * The sequence is advanced only after a change has committed, never before: a reader that sees the new
+ * version is then guaranteed to also see the new data, so a 304 can never confirm a stale listing.
+ * A transaction that changes many products advances it once.
+ */
+@Component
+public class CatalogVersion {
+    private static final String CREATE_SEQUENCE = "CREATE SEQUENCE IF NOT EXISTS catalog_version_seq";
+    private static final String CURRENT = "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM catalog_version_seq";
+    private static final String NEXT = "SELECT nextval('catalog_version_seq')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<ReplicaMonitor> replicaMonitor;
+    private final ThreadLocal<Boolean> coalescing = ThreadLocal.withInitial(() -> false);
+
+    public CatalogVersion(JdbcTemplate jdbcTemplate, ObjectProvider<ReplicaMonitor> replicaMonitor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.replicaMonitor = replicaMonitor;
+    }
+
+    @PostConstruct
+    void createSequence() {
+        jdbcTemplate.execute(CREATE_SEQUENCE);
+    }
+
+    public long current() {
+        return jdbcTemplate.queryForObject(CURRENT, Long.class);
+    }
+
+    /**
+     * Version that read-only queries are guaranteed to reflect. With read replicas this is the version every
+     * replica in use has replayed, which may trail {@link #current()} by up to the allowed replica lag.
+     */
+    public long visible() {
+        ReplicaMonitor monitor = replicaMonitor.getIfAvailable();
+        return monitor != null ? monitor.visibleVersion() : current();
+    }
+
+    public void bump() {
+        jdbcTemplate.queryForObject(NEXT, Long.class);
+    }
+
+    /**
+     * Runs work that publishes product changes outside a transaction and advances the version once afterwards,
+     * instead of once per change.
+     */
+    public void coalesce(Runnable work) {
+        coalescing.set(true);
+        try {
+            work.run();
+        } finally {
+            coalescing.set(false);
+            bump();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        bumpAfterCommit();
+    }
+
+    // Moving a category changes which products its listings (and its ancestors' listings) contain
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        bumpAfterCommit();
+    }
+
+    private void bumpAfterCommit() {
+        if (coalescing.get()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersion.this);
+                if (status == STATUS_COMMITTED) {
+                    bump();
+                }
+            }
+        });
+    }
+}
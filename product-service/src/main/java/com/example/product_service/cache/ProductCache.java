@@ -0,0 +1,97 @@
+package com.example.product_service.cache;
+
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.outbox.ProductChange;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded, TTL-limited read-through cache of product details keyed by product id.
+ * Entries are invalidated once the transaction that changed the product has committed,
+ * so a concurrent reader can never re-populate the cache with a value that is about to be overwritten.
+ * Changes made here evict as their events arrive; those of every instance evict from the change outbox.
+ */
+@Component
+public class ProductCache {
+    private static final Logger log = LoggerFactory.getLogger(ProductCache.class);
+    public static final String CACHE_NAME = "products";
+    private static final int BATCH_SIZE = 10_000;
+
+    private final Cache<Long, ProductDetailsDto> cache;
+    private final ProductChangeOutbox outbox;
+    // Where reading the change outbox resumes; null until the first catch-up
+    private volatile ProductChange.Position feedPosition;
+
+    public ProductCache(
+            ProductChangeOutbox outbox,
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.maximum-size:10000}") long maximumSize,
+            @Value("${product.cache.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.outbox = outbox;
+    }
+
+    public ProductDetailsDto get(long productId, LongFunction<ProductDetailsDto> loader) {
+        return cache.get(productId, loader::apply);
+    }
+
+    public ProductDetailsDto getIfPresent(long productId) {
+        return cache.getIfPresent(productId);
+    }
+
+    public void evict(long productId) {
+        cache.invalidate(productId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        log.debug("Evicting product {} from cache after {}", event.productId(), event.changeType());
+        evict(event.productId());
+    }
+
+    /**
+     * Evicts products changed by any instance, as recorded in the change outbox, so entries do not outlive
+     * a change made elsewhere until their TTL. For changes made here this repeats the event's eviction.
+     */
+    @Scheduled(fixedDelayString = "${product.cache.catch-up-interval:1s}")
+    public void catchUp() {
+        ProductChange.Position position = feedPosition;
+        if (position == null) {
+            // Entries loaded before the feed starts would miss the changes committed until then
+            feedPosition = ReadRouting.onPrimary(outbox::latestPosition);
+            cache.invalidateAll();
+            return;
+        }
+        List<ProductChange> changes;
+        do {
+            ProductChange.Position after = position;
+            changes = ReadRouting.onPrimary(() -> outbox.readKeysAfter(after, BATCH_SIZE));
+            for (ProductChange change : changes) {
+                evict(change.productId());
+                position = change.position();
+            }
+        } while (changes.size() == BATCH_SIZE);
+        feedPosition = position;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.product_service.cache;
+
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.outbox.ProductChange;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers "this product does not exist" without a database query, for lookups of deleted or never-existing ids.
+ * <p>
+ * A {@link ProductIdFilter} built from every product id rules out most unknown ids up to the highest id the build
+ * saw; newer ids, which may belong to products another instance just created, are always looked up. Below that
+ * mark the filter has no false negatives: products created here reach it before their transaction commits, and
+ * those created elsewhere arrive from the change outbox, which also delivers inserts that were still uncommitted
+ * while the ids were read. A rebuild re-applies every id added since the previous one began, and drops deleted ids.
+ * <p>
+ * Ids the filter lets through but the database does not have, mostly recently deleted products, go into a small
+ * negative cache with a short TTL. A lookup only records its miss if no product was created while it ran, and
+ * creations evict the id once committed, so the negative cache does not hide a new product.
+ */
+@Component
+public class ProductExistence {
+    private static final Logger log = LoggerFactory.getLogger(ProductExistence.class);
+    public static final String NEGATIVE_CACHE_NAME = "products-absent";
+    public static final String HITS = "product.existence.hits";
+    public static final String FALSE_POSITIVES = "product.existence.filter.false-positives";
+    private static final int BATCH_SIZE = 10_000;
+    // Room for the catalog to grow until the next rebuild before the false-positive rate degrades
+    private static final int HEADROOM = 2;
+    private static final long MIN_CAPACITY = 10_000;
+
+    private static final String SELECT_IDS = "SELECT id FROM products WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductChangeOutbox outbox;
+    private final double falsePositiveRate;
+    private final Cache<Long, Boolean> absent;
+    private final AtomicLong creations = new AtomicLong();
+    private final Object rebuildLock = new Object();
+    private final Counter filterHits;
+    private final Counter negativeCacheHits;
+    private final Counter falsePositives;
+    // Null until the first build has finished; until then nothing is ruled out
+    private volatile Built built;
+    // Where reading the change outbox resumes; null until the first build starts
+    private volatile ProductChange.Position feedPosition;
+    // Guarded by this
+    private Set<Long> addedSinceRebuild = new HashSet<>();
+
+    private record Built(ProductIdFilter filter, long maxId) {
+
+        boolean rulesOut(long productId) {
+            return productId <= maxId && !filter.mightContain(productId);
+        }
+    }
+
+    public ProductExistence(
+            JdbcTemplate jdbcTemplate,
+            ProductChangeOutbox outbox,
+            MeterRegistry meterRegistry,
+            @Value("${product.existence.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${product.existence.negative-cache.maximum-size:100000}") long negativeCacheSize,
+            @Value("${product.existence.negative-cache.expire-after-write:30s}") Duration negativeCacheTtl
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outbox = outbox;
+        this.falsePositiveRate = falsePositiveRate;
+        this.absent = Caffeine.newBuilder()
+                .maximumSize(negativeCacheSize)
+                .expireAfterWrite(negativeCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, absent, NEGATIVE_CACHE_NAME);
+        this.filterHits = Counter.builder(HITS).tag("source", "filter").register(meterRegistry);
+        this.negativeCacheHits = Counter.builder(HITS).tag("source", "negative-cache").register(meterRegistry);
+        this.falsePositives = Counter.builder(FALSE_POSITIVES).register(meterRegistry);
+        Gauge.builder("product.existence.filter.expected-false-positive-rate", this,
+                        existence -> existence.built != null ? existence.built.filter().expectedFalsePositiveRate() : Double.NaN)
+                .register(meterRegistry);
+        Gauge.builder("product.existence.filter.size", this,
+                        existence -> existence.built != null ? existence.built.filter().sizeInBytes() : 0)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True when the product is known not to exist, in which case the caller can answer 404 straight away.
+     */
+    public boolean isKnownAbsent(long productId) {
+        Built current = built;
+        if (current != null && current.rulesOut(productId)) {
+            filterHits.increment();
+            return true;
+        }
+        if (absent.getIfPresent(productId) != null) {
+            negativeCacheHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Taken before querying a product that {@link #isKnownAbsent} let through, and passed to {@link #recordAbsent}
+     * if the query found nothing.
+     */
+    public long beginLookup() {
+        return creations.get();
+    }
+
+    public void recordAbsent(long productId, long lookup) {
+        Built current = built;
+        if (current != null && productId <= current.maxId()) {
+            falsePositives.increment();
+        }
+        absent.put(productId, Boolean.TRUE);
+        // A product created while the lookup ran may be this one; forget the miss rather than hide it
+        if (creations.get() != lookup) {
+            absent.invalidate(productId);
+        }
+    }
+
+    /**
+     * Called for every new product id inside the transaction that inserts it, before it commits.
+     * If the transaction rolls back, the id merely stays a false positive.
+     */
+    public synchronized void added(long productId) {
+        Built current = built;
+        if (current != null) {
+            current.filter().put(productId);
+        }
+        addedSinceRebuild.add(productId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.changeType() == ChangeType.CREATED) {
+            created(event.productId());
+        }
+    }
+
+    private void created(long productId) {
+        creations.incrementAndGet();
+        absent.invalidate(productId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "product-existence-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Rebuilds the filter from the current ids, sized for the catalog to double, which also drops deleted ids.
+     */
+    @Scheduled(initialDelayString = "${product.existence.rebuild-interval:1h}",
+            fixedDelayString = "${product.existence.rebuild-interval:1h}")
+    public void rebuild() {
+        // The startup rebuild and a scheduled one must not swap in filters built from interleaved id sets
+        synchronized (rebuildLock) {
+            rebuildFilter();
+        }
+    }
+
+    private void rebuildFilter() {
+        log.info("Rebuilding product id filter");
+        long startedAt = System.nanoTime();
+        Set<Long> carried;
+        synchronized (this) {
+            carried = addedSinceRebuild;
+            addedSinceRebuild = new HashSet<>();
+        }
+        try {
+            if (feedPosition == null) {
+                // Taken before the ids are read: anything they miss is committed after it and read from the feed
+                feedPosition = ReadRouting.onPrimary(outbox::latestPosition);
+            }
+            long count = ReadRouting.onPrimary(() ->
+                    jdbcTemplate.queryForObject("SELECT count(*) FROM products", Long.class));
+            ProductIdFilter rebuilt = new ProductIdFilter(Math.max(MIN_CAPACITY, count * HEADROOM), falsePositiveRate);
+            long lastId = 0;
+            List<Long> batch;
+            do {
+                long after = lastId;
+                batch = ReadRouting.onPrimary(() -> jdbcTemplate.queryForList(SELECT_IDS, Long.class, after, BATCH_SIZE));
+                batch.forEach(rebuilt::put);
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == BATCH_SIZE);
+            synchronized (this) {
+                carried.forEach(rebuilt::put);
+                addedSinceRebuild.forEach(rebuilt::put);
+                built = new Built(rebuilt, lastId);
+            }
+            log.info("Product id filter rebuilt with {} ids up to ID {} in {} KiB in {} ms", rebuilt.insertions(),
+                    lastId, rebuilt.sizeInBytes() / 1024, (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Keep the ids for the next attempt; the old filter, if any, stays in use
+            synchronized (this) {
+                addedSinceRebuild.addAll(carried);
+            }
+            log.error("Product id filter rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies products created by any instance, as recorded in the change outbox, to the filter and the
+     * negative cache. For products created here this repeats what {@link #added} and the change event did.
+     */
+    @Scheduled(fixedDelayString = "${product.existence.catch-up-interval:1s}")
+    public void catchUp() {
+        ProductChange.Position position = feedPosition;
+        if (position == null) {
+            return;
+        }
+        List<ProductChange> changes;
+        do {
+            ProductChange.Position after = position;
+            changes = ReadRouting.onPrimary(() -> outbox.readKeysAfter(after, BATCH_SIZE));
+            for (ProductChange change : changes) {
+                if (change.changeType() == ChangeType.CREATED) {
+                    added(change.productId());
+                    created(change.productId());
+                }
+                position = change.position();
+            }
+        } while (changes.size() == BATCH_SIZE);
+        feedPosition = position;
+    }
+}
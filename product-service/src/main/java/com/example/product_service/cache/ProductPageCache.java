@@ -0,0 +1,114 @@
+package com.example.product_service.cache;
+
+import com.example.product_service.dto.ProductFilter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Listing pages kept as the exact JSON bytes sent to clients, so a hit skips the query, the DTO mapping and
+ * serialization altogether.
+ * <p>
+ * Keys carry the {@link CatalogVersion} read before the page was built. Every committed product change advances
+ * that version, so entries are never invalidated one by one: requests after a change simply look up new keys.
+ * Since a newer version makes every older entry unreachable, those are dropped as soon as a page for it is
+ * stored. The cache is bounded by the total size of the stored pages rather than by their number.
+ * <p>
+ * A miss renders on the requesting thread, outside any lock of the cache; concurrent misses on the same key wait
+ * for that one render instead of starting their own.
+ */
+@Component
+public class ProductPageCache {
+    private static final Logger log = LoggerFactory.getLogger(ProductPageCache.class);
+    public static final String CACHE_NAME = "product-pages";
+
+    public record PageKey(long catalogVersion, ProductFilter filter, String sort, String cursor, int size) {
+    }
+
+    private final AsyncCache<PageKey, byte[]> cache;
+    private volatile long newestVersion = -1;
+
+    public ProductPageCache(
+            MeterRegistry meterRegistry,
+            @Value("${product.page-cache.maximum-size:32MB}") DataSize maximumSize,
+            @Value("${product.page-cache.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((PageKey key, byte[] page) -> page.length)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached page, or renders and stores it. Concurrent misses on the same key render it once.
+     */
+    public byte[] get(PageKey key, Supplier<byte[]> renderer) {
+        CompletableFuture<byte[]> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return join(cached);
+        }
+        CompletableFuture<byte[]> rendering = new CompletableFuture<>();
+        CompletableFuture<byte[]> other = cache.asMap().putIfAbsent(key, rendering);
+        if (other != null) {
+            return join(other);
+        }
+        byte[] page;
+        try {
+            page = renderer.get();
+        } catch (RuntimeException | Error e) {
+            // A failed future is dropped from the cache, so the next request renders again
+            rendering.completeExceptionally(e);
+            throw e;
+        }
+        rendering.complete(page);
+        dropOlderThan(key.catalogVersion());
+        return page;
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    // Rethrows what another request's render failed with as it was thrown there
+    private static byte[] join(CompletableFuture<byte[]> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void dropOlderThan(long version) {
+        if (version <= newestVersion) {
+            return;
+        }
+        synchronized (this) {
+            if (version <= newestVersion) {
+                return;
+            }
+            newestVersion = version;
+        }
+        cache.asMap().keySet().removeIf(key -> key.catalogVersion() < version);
+        log.debug("Dropped listing pages older than catalog version {}", version);
+    }
+}
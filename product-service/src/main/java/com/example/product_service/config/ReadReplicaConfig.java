@@ -0,0 +1,133 @@
+package com.example.product_service.config;
+
+import com.example.product_service.cache.CatalogVersion;
+import com.example.product_service.datasource.ReplicaMonitor;
+import com.example.product_service.datasource.ReplicaPool;
+import com.example.product_service.datasource.ReplicaProperties;
+import com.example.product_service.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to read replicas when {@code product.datasource.replicas} lists any; without
+ * replicas, Spring Boot's single data source is left in place.
+ * <p>
+ * The application data source is a {@link LazyConnectionDataSourceProxy} over the primary pool. It fetches
+ * the physical connection only when the first statement runs, by which time the transaction manager has
+ * flagged a read-only transaction, and takes that connection from the replicas instead. Every pool is
+ * configured from {@code spring.datasource.hikari} and reports its own Hikari metrics under its pool name.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "product.datasource.replicas[0]", name = "url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(
+            ObjectProvider<JdbcConnectionDetails> connectionDetails,
+            DataSourceProperties properties,
+            Environment environment,
+            MeterRegistry meterRegistry
+    ) {
+        JdbcConnectionDetails primary = connectionDetails.getIfAvailable(() -> fromProperties(properties));
+        return pool("primary", primary.getJdbcUrl(), primary.getUsername(), primary.getPassword(),
+                primary.getDriverClassName(), environment, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaDataSource(
+            HikariDataSource primaryDataSource,
+            ReplicaProperties replicaProperties,
+            Environment environment,
+            MeterRegistry meterRegistry
+    ) {
+        List<ReplicaPool> replicas = new ArrayList<>();
+        for (ReplicaProperties.Replica replica : replicaProperties.replicas()) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource pool = pool(name, replica.url(),
+                    replica.username() != null ? replica.username() : primaryDataSource.getUsername(),
+                    replica.password() != null ? replica.password() : primaryDataSource.getPassword(),
+                    primaryDataSource.getDriverClassName(), environment, meterRegistry);
+            pool.setReadOnly(true);
+            replicas.add(new ReplicaPool(name, pool, meterRegistry));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    // Checked once up front, so listings do not carry version 0 until the first scheduled check
+    @Bean(initMethod = "check")
+    public ReplicaMonitor replicaMonitor(
+            CatalogVersion catalogVersion,
+            HikariDataSource primaryDataSource,
+            ReplicaRoutingDataSource replicaDataSource,
+            ReplicaProperties replicaProperties
+    ) {
+        return new ReplicaMonitor(catalogVersion, new JdbcTemplate(primaryDataSource), replicaDataSource.replicas(),
+                replicaProperties.maxReplicaLag());
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password, String driverClassName,
+                                         Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .driverClassName(driverClassName)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+
+    private static JdbcConnectionDetails fromProperties(DataSourceProperties properties) {
+        return new JdbcConnectionDetails() {
+            @Override
+            public String getUsername() {
+                return properties.determineUsername();
+            }
+
+            @Override
+            public String getPassword() {
+                return properties.determinePassword();
+            }
+
+            @Override
+            public String getJdbcUrl() {
+                return properties.determineUrl();
+            }
+
+            @Override
+            public String getDriverClassName() {
+                return properties.determineDriverClassName();
+            }
+        };
+    }
+}
@@ -42,9 +42,17 @@ public class SecurityConfig {
                         ).permitAll()
                         .requestMatchers(HttpMethod.GET, "/actuator/**").permitAll()
 
+                        .requestMatchers(HttpMethod.GET, "/api/products/export").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/products/low-stock").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/products/price-adjustments/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/products/batch").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PATCH, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/categories/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PUT, "/api/categories/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/categories/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .csrf(csrf -> csrf.disable())
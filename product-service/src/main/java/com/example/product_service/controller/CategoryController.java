@@ -0,0 +1,227 @@
+package com.example.product_service.controller;
+
+import com.example.product_service.dto.CategoryDto;
+import com.example.product_service.dto.CategoryRequestDto;
+import com.example.product_service.dto.ErrorResponseDto;
+import com.example.product_service.service.ICategoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+public class CategoryController {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryController.class);
+    private final ICategoryService categoryService;
+
+    public CategoryController(ICategoryService categoryService) {
+        this.categoryService = categoryService;
+    }
+
+    @GetMapping
+    @Operation(
+            summary = "Get all categories",
+            description = "Fetches every category ordered by ID. The tree is rebuilt from each category's parentId; "
+                    + "list a category's products, including those of its subcategories, with GET /api/products?category={id}.",
+            responses = @ApiResponse(
+                    responseCode = "200",
+                    description = "Categories retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = CategoryDto.class)),
+                            examples = @ExampleObject(value = """
+                            [
+                                { "id": 1, "name": "Electronics", "parentId": null, "createdAt": "2025-10-27T14:00:00", "updatedAt": "2025-10-27T14:00:00" },
+                                { "id": 2, "name": "Laptops", "parentId": 1, "createdAt": "2025-10-27T14:01:00", "updatedAt": "2025-10-27T14:01:00" }
+                            ]
+                            """)
+                    )
+            )
+    )
+    public ResponseEntity<List<CategoryDto>> getCategories() {
+        log.info("GET /api/categories - Fetching categories");
+        return ResponseEntity.ok(categoryService.getCategories());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(
+            summary = "Get category by ID",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Category retrieved successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = CategoryDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Category not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id) {
+        log.info("GET /api/categories/{} - Fetching category", id);
+        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    }
+
+    @PostMapping
+    @Operation(
+            summary = "Create a category (Admin only)",
+            description = "Creates a category, top-level when parentId is omitted.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "201",
+                            description = "Category created successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = CategoryDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Validation failed for one or more fields",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Parent category not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<CategoryDto> createCategory(@Valid @RequestBody CategoryRequestDto category) {
+        log.info("POST /api/categories - Creating category with name: {}", category.name());
+        CategoryDto created = categoryService.createCategory(category);
+        log.info("Created category with ID: {}", created.id());
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    @PutMapping("/{id}")
+    @Operation(
+            summary = "Update a category (Admin only)",
+            description = "Renames the category and, when parentId changes, moves it together with all of its "
+                    + "subcategories and their products.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Category updated successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = CategoryDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid fields, or the new parent lies inside the category's own subtree",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Category or parent category not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<CategoryDto> updateCategory(@PathVariable Long id, @Valid @RequestBody CategoryRequestDto category) {
+        log.info("PUT /api/categories/{} - Updating category", id);
+        CategoryDto updated = categoryService.updateCategory(id, category);
+        log.info("Updated category ID: {}", id);
+        return ResponseEntity.ok(updated);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(
+            summary = "Delete a category (Admin only)",
+            description = "Deletes an empty category. Categories that still have subcategories or products are kept.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "204",
+                            description = "Category deleted successfully"
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Category not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "The category still has subcategories or products",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                      "statusCode": 409,
+                                      "message": "Category 1 has subcategories; move or delete them first",
+                                      "timestamp": "2025-10-27T14:55:00",
+                                      "path": "/api/categories/1"
+                                    }
+                                    """)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
+        log.info("DELETE /api/categories/{} - Deleting category", id);
+        categoryService.deleteCategory(id);
+        log.info("Deleted category ID: {}", id);
+        return ResponseEntity.noContent().build();
+    }
+}
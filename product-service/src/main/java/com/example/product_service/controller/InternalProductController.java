@@ -1,16 +1,25 @@
 package com.example.product_service.controller;
 
+import com.example.product_service.dto.ProductChangeFeedDto;
+import com.example.product_service.dto.StockBatchRequest;
+import com.example.product_service.dto.StockHoldDto;
+import com.example.product_service.dto.StockLineResultDto;
 import com.example.product_service.dto.StockUpdateRequest;
+import com.example.product_service.service.IProductChangeService;
 import com.example.product_service.service.IProductService;
-import com.example.product_service.service.impl.ProductServiceImpl;
+import com.example.product_service.service.IStockReservationService;
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/internal/products")
 @Validated
@@ -18,9 +27,27 @@ import org.springframework.web.bind.annotation.*;
 public class InternalProductController {
     private static final Logger log = LoggerFactory.getLogger(InternalProductController.class);
     private final IProductService productService;
+    private final IStockReservationService reservationService;
+    private final IProductChangeService changeService;
 
-    public InternalProductController(IProductService productService) {
+    public InternalProductController(
+            IProductService productService,
+            IStockReservationService reservationService,
+            IProductChangeService changeService
+    ) {
         this.productService = productService;
+        this.reservationService = reservationService;
+        this.changeService = changeService;
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangeFeedDto> getChanges(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
+    ) {
+        log.debug("Received internal request for product changes after {}", after);
+        ProductChangeFeedDto feed = changeService.getChanges(after, limit);
+        return ResponseEntity.ok(feed);
     }
 
     @PutMapping("/{productId}/reduce-stock")
@@ -29,7 +56,7 @@ public class InternalProductController {
             @Valid @RequestBody StockUpdateRequest request
     ) {
         log.info("Received internal request to reduce stock for product ID {} by {}", productId, request.quantity());
-        productService.reduceStock(productId, request.quantity());
+        productService.reduceStock(productId, request.quantity(), request.orderReference());
         return ResponseEntity.ok().build();
     }
 
@@ -39,7 +66,42 @@ public class InternalProductController {
             @Valid @RequestBody StockUpdateRequest request
     ) {
         log.info("Received internal request to increase stock for product ID {} by {}", productId, request.quantity());
-        productService.increaseStock(productId, request.quantity());
+        productService.increaseStock(productId, request.quantity(), request.orderReference());
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/stock/reserve")
+    public ResponseEntity<List<StockLineResultDto>> reserveStock(@Valid @RequestBody StockBatchRequest request) {
+        log.info("Received internal request to reserve stock for {} lines", request.items().size());
+        List<StockLineResultDto> results = productService.reserveStock(request.items(), request.orderReference());
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/stock/release")
+    public ResponseEntity<List<StockLineResultDto>> releaseStock(@Valid @RequestBody StockBatchRequest request) {
+        log.info("Received internal request to release stock for {} lines", request.items().size());
+        List<StockLineResultDto> results = productService.releaseStock(request.items(), request.orderReference());
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/stock/holds")
+    public ResponseEntity<StockHoldDto> placeStockHold(@Valid @RequestBody StockBatchRequest request) {
+        log.info("Received internal request to hold stock for {} lines", request.items().size());
+        StockHoldDto hold = reservationService.placeHold(request.items());
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    @PostMapping("/stock/holds/{holdId}/commit")
+    public ResponseEntity<Void> commitStockHold(@PathVariable UUID holdId) {
+        log.info("Received internal request to commit stock hold {}", holdId);
+        reservationService.commitHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/stock/holds/{holdId}")
+    public ResponseEntity<Void> releaseStockHold(@PathVariable UUID holdId) {
+        log.info("Received internal request to release stock hold {}", holdId);
+        reservationService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
 }
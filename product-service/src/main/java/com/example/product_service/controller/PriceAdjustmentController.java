@@ -0,0 +1,194 @@
+package com.example.product_service.controller;
+
+import com.example.product_service.dto.ErrorResponseDto;
+import com.example.product_service.dto.PriceAdjustmentDryRunDto;
+import com.example.product_service.dto.PriceAdjustmentJobDto;
+import com.example.product_service.dto.PriceAdjustmentRequest;
+import com.example.product_service.service.IPriceAdjustmentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/products/price-adjustments")
+public class PriceAdjustmentController {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceAdjustmentController.class);
+    private final IPriceAdjustmentService priceAdjustmentService;
+
+    public PriceAdjustmentController(IPriceAdjustmentService priceAdjustmentService) {
+        this.priceAdjustmentService = priceAdjustmentService;
+    }
+
+    @PostMapping
+    @Operation(
+            summary = "Start a bulk price adjustment (Admin only)",
+            description = "Changes the price of every product matching all given selectors (id range, category "
+                    + "including its subcategories, name pattern) by the given percentage. The job runs in the "
+                    + "background in chunks; poll it for progress. New prices are rounded to cents.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "202",
+                            description = "Job queued",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = PriceAdjustmentJobDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                        "id": "3f6c2a9e-8d41-4c1b-9a57-1e2f3a4b5c6d",
+                                        "status": "QUEUED",
+                                        "percent": 5,
+                                        "minId": null,
+                                        "maxId": null,
+                                        "categoryId": 1,
+                                        "namePattern": "Laptop*",
+                                        "matched": 0,
+                                        "updated": 0,
+                                        "cancelRequested": false,
+                                        "error": null,
+                                        "createdAt": "2025-10-27T14:00:00",
+                                        "finishedAt": null
+                                    }
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid percentage, or no selector given",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Category not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<PriceAdjustmentJobDto> startJob(@Valid @RequestBody PriceAdjustmentRequest request) {
+        log.info("POST /api/products/price-adjustments - Adjusting prices by {}%", request.percent());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(priceAdjustmentService.startJob(request));
+    }
+
+    @PostMapping("/dry-run")
+    @Operation(
+            summary = "Count the products a price adjustment would change (Admin only)",
+            description = "Validates the adjustment and counts the matching products without changing anything.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Matching products counted",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = PriceAdjustmentDryRunDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                        "matched": 1250
+                                    }
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid percentage, or no selector given",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<PriceAdjustmentDryRunDto> dryRun(@Valid @RequestBody PriceAdjustmentRequest request) {
+        log.info("POST /api/products/price-adjustments/dry-run - Counting products for {}%", request.percent());
+        return ResponseEntity.ok(priceAdjustmentService.dryRun(request));
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(
+            summary = "Get a price adjustment job (Admin only)",
+            description = "Reports the job's status and progress: matched is the number of products matching when "
+                    + "the job started, updated the number repriced so far.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Job retrieved successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = PriceAdjustmentJobDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Job not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<PriceAdjustmentJobDto> getJob(@PathVariable UUID jobId) {
+        log.debug("GET /api/products/price-adjustments/{}", jobId);
+        return ResponseEntity.ok(priceAdjustmentService.getJob(jobId));
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    @Operation(
+            summary = "Cancel a price adjustment job (Admin only)",
+            description = "A queued job never starts; a running job stops before its next chunk. "
+                    + "Chunks already applied keep their new prices.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Cancellation requested",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = PriceAdjustmentJobDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Job not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "The job has already finished",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<PriceAdjustmentJobDto> cancelJob(@PathVariable UUID jobId) {
+        log.info("POST /api/products/price-adjustments/{}/cancel", jobId);
+        return ResponseEntity.ok(priceAdjustmentService.cancelJob(jobId));
+    }
+}
@@ -1,26 +1,56 @@
 package com.example.product_service.controller;
 
+import com.example.product_service.cache.ProductPageCache;
 import com.example.product_service.dto.ErrorResponseDto;
+import com.example.product_service.dto.ProductBatchDto;
+import com.example.product_service.dto.ProductBatchRequest;
 import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductFacetsDto;
+import com.example.product_service.dto.ProductFilter;
+import com.example.product_service.dto.ProductPageDto;
+import com.example.product_service.dto.ProductPatchRequest;
 import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.dto.ProductSearchPageDto;
+import com.example.product_service.dto.ProductSuggestionDto;
 import com.example.product_service.dto.ProductSummaryDto;
+import com.example.product_service.dto.StockLevelDto;
+import com.example.product_service.dto.StockStripesRequest;
 import com.example.product_service.service.IProductService;
+import com.example.product_service.service.impl.ProductServiceImpl;
+import com.example.product_service.stream.StockStreamHub;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
@@ -49,54 +79,465 @@ import java.util.List;
 public class ProductController {
 
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
+    private static final String NDJSON = "application/x-ndjson";
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
     private final IProductService productService;
+    private final ObjectMapper objectMapper;
+    private final StockStreamHub stockStreamHub;
+    private final ProductPageCache pageCache;
 
-    public ProductController(IProductService productService) {
+    public ProductController(IProductService productService, ObjectMapper objectMapper, StockStreamHub stockStreamHub,
+                             ProductPageCache pageCache) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.stockStreamHub = stockStreamHub;
+        this.pageCache = pageCache;
     }
 
     @GetMapping
     @Operation(
-            summary = "Get all products",
-            description = "Fetches a list of all available products.",
+            summary = "Get products",
+            description = "Fetches a page of products matching the optional filters. "
+                    + "Filtering by category includes the products of all its subcategories. "
+                    + "Pass the returned nextCursor to fetch the following page; it is null on the last page. "
+                    + "The ETag tracks the whole catalog; send it back in If-None-Match to get 304 when nothing changed.",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "List of products retrieved successfully",
+                            description = "Page of products retrieved successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductPageDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                        "items": [
+                                            {
+                                                "id": 1,
+                                                "name": "Laptop",
+                                                "price": 1999.99,
+                                                "stock": 15
+                                            },
+                                            {
+                                                "id": 2,
+                                                "name": "Mouse",
+                                                "price": 49.99,
+                                                "stock": 200
+                                            }
+                                        ],
+                                        "nextCursor": "aWQ6Mg"
+                                    }
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "The catalog has not changed since the ETag sent in If-None-Match"
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid cursor, sort or page size",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                      "statusCode": 400,
+                                      "message": "Invalid cursor",
+                                      "timestamp": "2025-10-27T14:55:00",
+                                      "path": "/api/products"
+                                    }
+                                    """)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<byte[]> getProducts(
+            @Parameter(description = "Minimum price (inclusive)") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price (inclusive)") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Only return products with stock available") @RequestParam(required = false) Boolean inStock,
+            @Parameter(description = "Case-sensitive name prefix") @RequestParam(required = false) String namePrefix,
+            @Parameter(description = "Only products in this category or any of its subcategories")
+            @RequestParam(required = false) Long category,
+            @Parameter(description = "Sort key: id or name") @RequestParam(required = false) String sort,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, capped at " + ProductServiceImpl.MAX_PAGE_SIZE)
+            @RequestParam(defaultValue = "" + ProductServiceImpl.DEFAULT_PAGE_SIZE) int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.info("GET /api/products - Fetching products page (sort={}, size={})", sort, size);
+        // Read the version before the page: if a change lands in between, the tag is older than the body
+        // and the next revalidation simply returns 200 again.
+        long version = productService.getCatalogVersion();
+        String etag = ProductETags.catalog(version);
+        if (ProductETags.matches(ifNoneMatch, etag)) {
+            log.debug("Products page not modified, etag={}", etag);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        ProductFilter filter = new ProductFilter(minPrice, maxPrice, inStock, namePrefix, category);
+        // The tag's version also keys the cached bytes, so they are at least as new as the tag
+        ProductPageCache.PageKey key = new ProductPageCache.PageKey(version, filter, sort, cursor, size);
+        byte[] body = pageCache.get(key, () -> {
+            ProductPageDto page = productService.getProducts(filter, sort, cursor, size);
+            log.debug("Fetched {} products", page.items().size());
+            return toJson(page);
+        });
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search products",
+            description = "Full-text search over product names and descriptions, ranked by relevance. "
+                    + "Served from an in-memory index, so results reflect committed changes without querying the database.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Search results retrieved successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductSearchPageDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                        "items": [
+                                            {
+                                                "id": 1,
+                                                "name": "Gaming Laptop",
+                                                "price": 1999.99,
+                                                "score": 4.21
+                                            }
+                                        ],
+                                        "totalHits": 1,
+                                        "page": 0,
+                                        "size": 20
+                                    }
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Blank query or invalid paging parameters",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<ProductSearchPageDto> searchProducts(
+            @Parameter(description = "Search text") @RequestParam String q,
+            @Parameter(description = "Zero-based page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size, capped at " + ProductServiceImpl.MAX_PAGE_SIZE)
+            @RequestParam(defaultValue = "" + ProductServiceImpl.DEFAULT_PAGE_SIZE) int size
+    ) {
+        log.info("GET /api/products/search - Searching products for '{}'", q);
+        ProductSearchPageDto results = productService.searchProducts(q, page, size);
+        log.debug("Search returned {} of {} hits", results.items().size(), results.totalHits());
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping("/facets")
+    @Operation(
+            summary = "Get price facets",
+            description = "Counts the products matching the same filters as the product listing, per price range, "
+                    + "along with how many of them are in stock. Served from in-memory aggregates; stock counts "
+                    + "may trail the latest stock change by about a second.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Facets retrieved successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductFacetsDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                        "total": 42,
+                                        "inStock": 37,
+                                        "priceBuckets": [
+                                            { "from": 0, "to": 10, "count": 12, "inStock": 12 },
+                                            { "from": 10, "to": 25, "count": 30, "inStock": 25 },
+                                            { "from": 25, "to": null, "count": 0, "inStock": 0 }
+                                        ]
+                                    }
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "minPrice greater than maxPrice",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<ProductFacetsDto> getProductFacets(
+            @Parameter(description = "Minimum price (inclusive)") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price (inclusive)") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Only count products with stock available") @RequestParam(required = false) Boolean inStock,
+            @Parameter(description = "Case-sensitive name prefix") @RequestParam(required = false) String namePrefix
+    ) {
+        log.info("GET /api/products/facets - Fetching price facets");
+        ProductFilter filter = new ProductFilter(minPrice, maxPrice, inStock, namePrefix, null);
+        return ResponseEntity.ok(productService.getProductFacets(filter));
+    }
+
+    @GetMapping("/low-stock")
+    @Operation(
+            summary = "Get low-stock products (Admin only)",
+            description = "Returns the products with the lowest stock, lowest first, optionally only those below a "
+                    + "stock threshold. Served from an in-memory view; stock levels may trail the latest stock "
+                    + "change by about a second.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Low-stock products retrieved successfully",
                             content = @Content(
                                     mediaType = "application/json",
                                     array = @ArraySchema(schema = @Schema(implementation = ProductSummaryDto.class)),
                                     examples = @ExampleObject(value = """
                                     [
-                                        {
-                                            "id": 1,
-                                            "name": "Laptop",
-                                            "price": 1999.99,
-                                            "stock": 15
-                                        },
-                                        {
-                                            "id": 2,
-                                            "name": "Mouse",
-                                            "price": 49.99,
-                                            "stock": 200
-                                        }
+                                        { "id": 7, "name": "Webcam", "price": 59.99, "stock": 0 },
+                                        { "id": 2, "name": "Mouse", "price": 49.99, "stock": 3 }
+                                    ]
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Limit or threshold below 1",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<List<ProductSummaryDto>> getLowStockProducts(
+            @Parameter(description = "Maximum number of products, capped at " + ProductServiceImpl.MAX_PAGE_SIZE)
+            @RequestParam(defaultValue = "" + ProductServiceImpl.DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "Only return products with stock below this value") @RequestParam(required = false) Integer below
+    ) {
+        log.info("GET /api/products/low-stock - limit={}, below={}", limit, below);
+        return ResponseEntity.ok(productService.getLowStockProducts(limit, below));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(
+            summary = "Suggest product names",
+            description = "Autocomplete for the search box: products whose normalized name starts with the prefix, "
+                    + "most popular first. Served from an in-memory index.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Suggestions retrieved successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = ProductSuggestionDto.class)),
+                                    examples = @ExampleObject(value = """
+                                    [
+                                        { "id": 1, "name": "Gaming Laptop" },
+                                        { "id": 7, "name": "Gaming Mouse" }
                                     ]
                                     """)
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Blank prefix or invalid limit",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<List<ProductSuggestionDto>> suggestProducts(
+            @Parameter(description = "Beginning of the product name") @RequestParam String prefix,
+            @Parameter(description = "Number of suggestions, capped at " + ProductServiceImpl.MAX_SUGGESTIONS)
+            @RequestParam(defaultValue = "" + ProductServiceImpl.DEFAULT_SUGGESTIONS) int limit
+    ) {
+        log.debug("GET /api/products/suggest - Suggesting products for '{}'", prefix);
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    @GetMapping("/batch")
+    @Operation(
+            summary = "Get products by IDs",
+            description = "Fetches details for up to " + ProductServiceImpl.MAX_BATCH_SIZE + " products in one call. "
+                    + "Products are returned in request order; IDs that do not exist are listed in missingIds.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Products retrieved successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductBatchDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                        "items": [
+                                            {
+                                                "id": 1,
+                                                "name": "Laptop",
+                                                "description": "High-end gaming laptop",
+                                                "price": 1999.99,
+                                                "stock": 15,
+                                                "createdAt": "2025-10-27T14:00:00",
+                                                "updatedAt": "2025-10-27T14:10:00"
+                                            }
+                                        ],
+                                        "missingIds": [999]
+                                    }
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "No IDs or too many IDs requested",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<ProductBatchDto> getProductsByIds(
+            @Parameter(description = "Comma-separated product IDs") @RequestParam List<Long> ids
+    ) {
+        log.info("GET /api/products/batch - Fetching {} products", ids.size());
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Get products by IDs (request body)",
+            description = "Same as GET /api/products/batch, for ID sets too large for a query string.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Products retrieved successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductBatchDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "No IDs or too many IDs requested",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
                     )
             }
     )
-    public ResponseEntity<List<ProductSummaryDto>> getProducts() {
-        log.info("GET /api/products - Fetching all products");
-        List<ProductSummaryDto> products = productService.getProducts();
-        log.debug("Fetched {} products", products.size());
-        return ResponseEntity.ok(products);
+    public ResponseEntity<ProductBatchDto> getProductsByIdsFromBody(@Valid @RequestBody ProductBatchRequest request) {
+        log.info("POST /api/products/batch - Fetching {} products", request.ids().size());
+        return ResponseEntity.ok(productService.getProductsByIds(request.ids()));
+    }
+
+    @GetMapping(value = "/stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream stock levels",
+            description = "Server-Sent Events stream of the stock of up to " + StockStreamHub.MAX_PRODUCTS_PER_STREAM
+                    + " products. Current levels are sent right after connecting, then a \"stock\" event whenever "
+                    + "a level changes, at most one per product per coalescing window. A \"deleted\" event reports "
+                    + "a product that does not exist or was deleted. Clients that stop reading are disconnected.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Stream opened",
+                            content = @Content(
+                                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = StockLevelDto.class),
+                                    examples = @ExampleObject(value = """
+                                    event:stock
+                                    data:{"productId":1,"stock":3}
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "No IDs or too many IDs requested",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public SseEmitter streamStock(
+            @Parameter(description = "Comma-separated product IDs") @RequestParam List<Long> ids
+    ) {
+        log.debug("GET /api/products/stock/stream - Watching {} products", ids.size());
+        return stockStreamHub.subscribe(ids);
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    @Operation(
+            summary = "Export products (Admin only)",
+            description = "Streams the full catalog as newline-delimited JSON, one product per line in ID order. "
+                    + "Pass updatedSince to export only products changed at or after that time.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Export streamed successfully",
+                            content = @Content(
+                                    mediaType = NDJSON,
+                                    schema = @Schema(implementation = ProductDetailsDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {"id":1,"name":"Laptop","description":"High-end gaming laptop","price":1999.99,"stock":15,"createdAt":"2025-10-27T14:00:00","updatedAt":"2025-10-27T14:10:00"}
+                                    {"id":2,"name":"Mouse","description":"Wireless mouse","price":49.99,"stock":120,"createdAt":"2025-10-27T14:00:00","updatedAt":"2025-10-27T14:05:00"}
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public void exportProducts(
+            @Parameter(description = "Only export products updated at or after this ISO-8601 date-time")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            HttpServletResponse response
+    ) throws IOException {
+        log.info("GET /api/products/export - updatedSince={}", updatedSince);
+        response.setContentType(NDJSON);
+
+        // Flushing is left to the servlet buffer; flushing after every product would cost one write per row.
+        ObjectWriter writer = objectMapper.writerFor(ProductDetailsDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = writer.createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            productService.exportProducts(updatedSince, product -> {
+                try {
+                    writer.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     @GetMapping("/{id}")
     @Operation(
             summary = "Get product by ID",
-            description = "Fetches detailed information about a specific product by its ID.",
+            description = "Fetches detailed information about a specific product by its ID. "
+                    + "Responses carry a strong ETag; send it back in If-None-Match to get 304 when unchanged.",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
@@ -117,6 +558,10 @@ public class ProductController {
                                     """)
                             )
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "The product has not changed since the ETag sent in If-None-Match"
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Product not found",
@@ -138,11 +583,25 @@ public class ProductController {
                     )
             }
     )
-    public ResponseEntity<ProductDetailsDto> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDetailsDto> getProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.info("GET /api/products/{} - Fetching product details", id);
+        if (ifNoneMatch != null) {
+            Optional<String> current = productService.getProductVersion(id)
+                    .map(revision -> ProductETags.product(id, revision));
+            if (current.isPresent() && ProductETags.matches(ifNoneMatch, current.get())) {
+                log.debug("Product {} not modified, etag={}", id, current.get());
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get()).cacheControl(REVALIDATE).build();
+            }
+        }
         ProductDetailsDto product = productService.getProductById(id);
         log.debug("Fetched product details: {}", product);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok()
+                .eTag(ProductETags.product(id, product.revision()))
+                .cacheControl(REVALIDATE)
+                .body(product);
     }
 
     @PostMapping
@@ -346,6 +805,75 @@ public class ProductController {
         return ResponseEntity.ok(updated);
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(
+            summary = "Partially update a product (Admin only)",
+            description = "Applies a JSON Merge Patch: only the fields present in the body are changed, and only "
+                    + "their columns are written, so editing the content of a product does not touch its stock. "
+                    + "Setting categoryId to null removes the product from its category; the other fields cannot be null.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/merge-patch+json",
+                            schema = @Schema(implementation = ProductPatchRequest.class),
+                            examples = @ExampleObject(value = """
+                                    { "description": "Updated description" }
+                                    """)
+                    )
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Product patched successfully",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductDetailsDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Validation failed for one or more fields",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Product or category not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "The product was changed concurrently",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<ProductDetailsDto> patchProduct(
+            @PathVariable Long id,
+            @Valid @RequestBody ProductPatchRequest patch
+    ) {
+        log.info("PATCH /api/products/{} - Patching product", id);
+        ProductDetailsDto patched = productService.patchProduct(id, patch);
+        log.info("Patched product ID: {}", id);
+        return ResponseEntity.ok(patched);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
             summary = "Delete a product (Admin only)",
@@ -402,4 +930,108 @@ public class ProductController {
         log.info("Deleted product ID: {}", id);
         return ResponseEntity.noContent().build();
     }
+
+    @PutMapping("/{id}/stock-stripes")
+    @Operation(
+            summary = "Enable striped stock for a hot product (Admin only)",
+            description = "Splits the product's stock evenly across the given number of sub-counters so that "
+                    + "concurrent checkouts of the product no longer queue on a single row. Calling it again "
+                    + "re-spreads the current stock over the new stripe count. Reported stock is the sum of the stripes.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = StockStripesRequest.class),
+                            examples = @ExampleObject(value = """
+                                    { "stripes": 8 }
+                                    """)
+                    )
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Stock is now striped",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductDetailsDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Stripe count out of range",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Product not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<ProductDetailsDto> enableStockStripes(
+            @PathVariable Long id,
+            @Valid @RequestBody StockStripesRequest request
+    ) {
+        log.info("PUT /api/products/{}/stock-stripes - Striping stock across {} rows", id, request.stripes());
+        return ResponseEntity.ok(productService.enableStockStripes(id, request.stripes()));
+    }
+
+    @DeleteMapping("/{id}/stock-stripes")
+    @Operation(
+            summary = "Disable striped stock (Admin only)",
+            description = "Collects the stock of all stripes back into the product row. Does nothing if the "
+                    + "product is not striped.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Stock is kept in a single row again",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductDetailsDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Product not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<ProductDetailsDto> disableStockStripes(@PathVariable Long id) {
+        log.info("DELETE /api/products/{}/stock-stripes - Collapsing striped stock", id);
+        return ResponseEntity.ok(productService.disableStockStripes(id));
+    }
+
+    private byte[] toJson(ProductPageDto page) {
+        try {
+            return objectMapper.writeValueAsBytes(page);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize products page", e);
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.example.product_service.controller;
+
+/**
+ * Strong entity tags for product responses, and If-None-Match evaluation.
+ */
+final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    /**
+     * Every committed write to a product advances its revision, so id plus revision identifies one representation.
+     */
+    static String product(long productId, String revision) {
+        return "\"p" + productId + "-" + revision + "\"";
+    }
+
+    static String catalog(long version) {
+        return "\"c" + version + "\"";
+    }
+
+    /**
+     * Weak comparison as required for If-None-Match (RFC 9110, section 13.1.2).
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
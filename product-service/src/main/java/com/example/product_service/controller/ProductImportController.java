@@ -0,0 +1,96 @@
+package com.example.product_service.controller;
+
+import com.example.product_service.dto.ErrorResponseDto;
+import com.example.product_service.dto.ProductImportResultDto;
+import com.example.product_service.importer.ImportConflictMode;
+import com.example.product_service.importer.ImportFormat;
+import com.example.product_service.service.IProductImportService;
+import com.example.product_service.service.impl.ProductImportServiceImpl;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/products")
+public class ProductImportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportController.class);
+    private final IProductImportService importService;
+
+    public ProductImportController(IProductImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(
+            summary = "Bulk import products (Admin only)",
+            description = "Streams a CSV (header: name,description,price,stock) or NDJSON upload into the catalog. "
+                    + "Products are matched on name; onConflict=update overwrites existing products, "
+                    + "onConflict=skip rejects rows whose name already exists. Invalid rows are rejected and reported "
+                    + "with their line number (at most " + ProductImportServiceImpl.MAX_REPORTED_ERRORS
+                    + " messages); valid rows are imported regardless.",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Import finished",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductImportResultDto.class),
+                                    examples = @ExampleObject(value = """
+                                    {
+                                        "inserted": 9850,
+                                        "updated": 120,
+                                        "unchanged": 28,
+                                        "rejected": 2,
+                                        "errors": [
+                                            { "line": 17, "message": "Invalid price: 12,50" },
+                                            { "line": 204, "message": "A product must have a name" }
+                                        ]
+                                    }
+                                    """)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Missing CSV header or unsupported conflict mode",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Access denied",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDto.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<ProductImportResultDto> importProducts(
+            @Parameter(description = "update (default) or skip")
+            @RequestParam(defaultValue = "update") String onConflict,
+            HttpServletRequest request
+    ) throws IOException {
+        ImportFormat format = ImportFormat.fromContentType(request.getContentType());
+        ImportConflictMode conflictMode = ImportConflictMode.fromKey(onConflict);
+        log.info("POST /api/products/import - format={}, onConflict={}", format, conflictMode);
+
+        ProductImportResultDto result = importService.importProducts(request.getInputStream(), format, conflictMode);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.product_service.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps read-only work on the primary when read replicas are configured.
+ * <p>
+ * Anything that fills state invalidated by change events (the product cache, the in-memory indexes) has to
+ * read from the primary: the event fires once the change has committed there, and a replica that has not
+ * replayed it yet would hand back the old row, which would then stay cached until the product changes again.
+ * Without replicas this simply runs the work.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> primaryOnly = ThreadLocal.withInitial(() -> false);
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (primaryOnly.get()) {
+            return work.get();
+        }
+        primaryOnly.set(true);
+        try {
+            return work.get();
+        } finally {
+            primaryOnly.set(false);
+        }
+    }
+
+    static boolean isPrimaryOnly() {
+        return primaryOnly.get();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.product_service.datasource;
+
+import com.example.product_service.cache.CatalogVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Decides which replicas may serve reads, and which catalog version their reads can be tagged with.
+ * <p>
+ * Each check samples the catalog version and then the WAL position of the primary. Every change counted in
+ * that version committed before the position was read, so a replica that has replayed up to the position
+ * has all of it. A replica's lag is the age of the newest sample it has replayed; past the configured
+ * maximum, reads go elsewhere.
+ * <p>
+ * The visible version is the oldest version the healthy replicas have all caught up to. Listing ETags use it
+ * instead of the primary's current version, so a tag never claims more than a replica read returned. To keep
+ * that true while routing changes, a replica only becomes healthy once it has caught up to the visible
+ * version, which therefore never goes backwards. A server that is not in recovery is not a streaming replica
+ * at all and counts as caught up.
+ */
+public class ReplicaMonitor {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaMonitor.class);
+    // The insert position also covers commit records that are not flushed yet
+    private static final String PRIMARY_POSITION = "SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), '0/0')::bigint";
+    private static final String REPLICA_POSITION =
+            "SELECT pg_is_in_recovery(), pg_wal_lsn_diff(pg_last_wal_replay_lsn(), '0/0')::bigint";
+
+    private final CatalogVersion catalogVersion;
+    private final JdbcTemplate primary;
+    private final List<ReplicaPool> replicas;
+    private final long maxLagNanos;
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private volatile long visibleVersion;
+
+    private record Sample(long version, long position, long takenAt) {
+    }
+
+    private record ReplayPosition(boolean inRecovery, Long position) {
+    }
+
+    public ReplicaMonitor(CatalogVersion catalogVersion, JdbcTemplate primary, List<ReplicaPool> replicas, Duration maxLag) {
+        this.catalogVersion = catalogVersion;
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    public long visibleVersion() {
+        return visibleVersion;
+    }
+
+    @Scheduled(fixedDelayString = "${product.datasource.replica-check-interval:1s}")
+    public synchronized void check() {
+        long now = System.nanoTime();
+        Sample sample;
+        try {
+            long version = catalogVersion.current();
+            sample = new Sample(version, primary.queryForObject(PRIMARY_POSITION, Long.class), now);
+        } catch (DataAccessException e) {
+            log.warn("Could not sample the primary's position: {}", e.getMessage());
+            return;
+        }
+        samples.addLast(sample);
+        // Older samples could only show a lag beyond the maximum
+        while (now - samples.peekFirst().takenAt() > maxLagNanos) {
+            samples.removeFirst();
+        }
+
+        long visible = visibleVersion;
+        long newVisible = Long.MAX_VALUE;
+        for (ReplicaPool replica : replicas) {
+            Sample replayed = replayed(replica, sample);
+            if (replayed == null) {
+                replica.markUnhealthy();
+                continue;
+            }
+            long lagNanos = now - replayed.takenAt();
+            replica.caughtUp(replayed.version(), lagNanos / 1e9);
+            boolean healthy = lagNanos <= maxLagNanos && replica.caughtUpVersion() >= visible;
+            if (healthy != replica.isHealthy()) {
+                log.info("Replica {} is now {} (lag {} ms)", replica.name(), healthy ? "in use" : "out of use",
+                        lagNanos / 1_000_000);
+            }
+            replica.setHealthy(healthy);
+            if (healthy) {
+                newVisible = Math.min(newVisible, replica.caughtUpVersion());
+            }
+        }
+        // With no replica in use every read goes to the primary, which has everything up to this sample
+        visibleVersion = newVisible == Long.MAX_VALUE ? sample.version() : newVisible;
+    }
+
+    /**
+     * Newest sample the replica has replayed, or null if it is unreachable or behind every retained sample.
+     */
+    private Sample replayed(ReplicaPool replica, Sample latest) {
+        ReplayPosition position;
+        try {
+            position = replica.jdbcTemplate().queryForObject(REPLICA_POSITION,
+                    (rs, rowNum) -> new ReplayPosition(rs.getBoolean(1), (Long) rs.getObject(2)));
+        } catch (DataAccessException e) {
+            log.warn("Could not check replica {}: {}", replica.name(), e.getMessage());
+            return null;
+        }
+        if (!position.inRecovery()) {
+            return latest;
+        }
+        if (position.position() == null) {
+            return null;
+        }
+        Iterator<Sample> newestFirst = samples.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Sample candidate = newestFirst.next();
+            if (candidate.position() <= position.position()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
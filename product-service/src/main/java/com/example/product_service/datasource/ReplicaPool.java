@@ -0,0 +1,87 @@
+package com.example.product_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connection pool of one read replica, with what {@link ReplicaMonitor} last learned about it.
+ */
+public class ReplicaPool implements Closeable {
+    private final String name;
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter reads;
+    private volatile boolean healthy;
+    private volatile long caughtUpVersion = -1;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaPool(String name, HikariDataSource dataSource, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.reads = Counter.builder("product.datasource.reads")
+                .description("Connections handed out for read-only transactions")
+                .tag("pool", name)
+                .register(meterRegistry);
+        Gauge.builder("product.datasource.replica.lag", this, pool -> pool.lagSeconds)
+                .description("Seconds the replica was behind the primary at the last check")
+                .tag("pool", name)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("product.datasource.replica.healthy", this, pool -> pool.healthy ? 1 : 0)
+                .description("Whether read-only transactions are currently sent to the replica")
+                .tag("pool", name)
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Newest catalog version whose changes the replica is known to have replayed, or -1 if none is known yet.
+     */
+    public long caughtUpVersion() {
+        return caughtUpVersion;
+    }
+
+    public Connection getConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        reads.increment();
+        return connection;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public void caughtUp(long version, double lagSeconds) {
+        this.caughtUpVersion = Math.max(caughtUpVersion, version);
+        this.lagSeconds = lagSeconds;
+    }
+
+    public void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    public void markUnhealthy() {
+        this.healthy = false;
+        this.lagSeconds = Double.NaN;
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
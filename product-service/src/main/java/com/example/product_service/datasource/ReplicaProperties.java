@@ -0,0 +1,20 @@
+package com.example.product_service.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas for {@code @Transactional(readOnly = true)} work. Username and password default to those of
+ * the primary.
+ */
+@ConfigurationProperties(prefix = "product.datasource")
+public record ReplicaProperties(
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("3s") Duration maxReplicaLag
+) {
+    public record Replica(String url, String username, String password) {
+    }
+}
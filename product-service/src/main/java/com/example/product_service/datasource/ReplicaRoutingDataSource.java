@@ -0,0 +1,79 @@
+package com.example.product_service.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+/**
+ * Hands out connections for read-only transactions: round-robin over the replicas that {@link ReplicaMonitor}
+ * last found healthy, and from the primary when there is none, when a replica cannot be reached, or inside
+ * {@link ReadRouting#onPrimary}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<ReplicaPool> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaPool> replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.primaryReads = Counter.builder("product.datasource.reads")
+                .description("Connections handed out for read-only transactions")
+                .tag("pool", "primary")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("product.datasource.replica.fallbacks")
+                .description("Read-only transactions sent to the primary because no replica was usable")
+                .register(meterRegistry);
+    }
+
+    public List<ReplicaPool> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadRouting.isPrimaryOnly()) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaPool replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isHealthy()) {
+                continue;
+            }
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                log.warn("Replica {} unavailable, marking it unhealthy: {}", replica.name(), e.getMessage());
+                replica.markUnhealthy();
+            }
+        }
+        fallbacks.increment();
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Replica connections use the configured credentials");
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(ReplicaPool::close);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.product_service.dto;
+
+import java.time.LocalDateTime;
+
+public record CategoryDto(
+        Long id,
+        String name,
+        Long parentId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
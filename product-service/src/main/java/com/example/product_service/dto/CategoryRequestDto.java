@@ -0,0 +1,14 @@
+package com.example.product_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record CategoryRequestDto(
+        @NotBlank(message = "A category must have a name")
+        @Size(max = 100, message = "Category name cannot exceed 100 characters")
+        String name,
+
+        // Null for a top-level category
+        Long parentId
+) {
+}
@@ -0,0 +1,6 @@
+package com.example.product_service.dto;
+
+public record PriceAdjustmentDryRunDto(
+        long matched
+) {
+}
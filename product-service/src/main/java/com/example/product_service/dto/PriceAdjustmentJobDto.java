@@ -0,0 +1,24 @@
+package com.example.product_service.dto;
+
+import com.example.product_service.entity.PriceAdjustmentJob.Status;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record PriceAdjustmentJobDto(
+        UUID id,
+        Status status,
+        BigDecimal percent,
+        Long minId,
+        Long maxId,
+        Long categoryId,
+        String namePattern,
+        long matched,
+        long updated,
+        boolean cancelRequested,
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt
+) {
+}
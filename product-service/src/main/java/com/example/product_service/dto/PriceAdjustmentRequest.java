@@ -0,0 +1,28 @@
+package com.example.product_service.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+public record PriceAdjustmentRequest(
+        // 5 raises prices by 5%, -10 lowers them by 10%
+        @NotNull(message = "A price adjustment must have a percentage")
+        @DecimalMin(value = "-100", inclusive = false, message = "Prices cannot be lowered by 100% or more")
+        @DecimalMax(value = "1000", message = "Prices cannot be raised by more than 1000%")
+        @Digits(integer = 4, fraction = 4, message = "Percentage allows at most 4 decimal places")
+        BigDecimal percent,
+
+        // Selectors; a product must match all given ones, and at least one is required
+        Long minId,
+        Long maxId,
+        Long categoryId,
+
+        // Case-sensitive; * matches any run of characters
+        @Size(max = 100, message = "Name pattern cannot exceed 100 characters")
+        String namePattern
+) {
+}
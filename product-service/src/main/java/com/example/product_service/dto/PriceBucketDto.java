@@ -0,0 +1,11 @@
+package com.example.product_service.dto;
+
+import java.math.BigDecimal;
+
+public record PriceBucketDto(
+        BigDecimal from,
+        BigDecimal to,
+        long count,
+        long inStock
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.product_service.dto;
+
+import java.util.List;
+
+public record ProductBatchDto(
+        List<ProductDetailsDto> items,
+        List<Long> missingIds
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.product_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ProductBatchRequest(
+        @NotEmpty(message = "At least one product ID is required")
+        @Size(max = 200, message = "Cannot request more than 200 products at once")
+        List<@NotNull(message = "Product ID is required") Long> ids
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.product_service.dto;
+
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code product} is passed through as stored in the outbox, without being parsed and serialized again.
+ */
+public record ProductChangeDto(
+        long productId,
+        ChangeType type,
+        @JsonRawValue String product,
+        LocalDateTime changedAt
+) {
+}
@@ -1,5 +1,7 @@
 package com.example.product_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -9,7 +11,11 @@ public record ProductDetailsDto(
         String description,
         BigDecimal price,
         int stock,
+        Long categoryId,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        // Identifies this state of the product for entity tags; see ProductMapper.revision
+        @JsonIgnore
+        String revision
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.product_service.dto;
+
+import java.util.List;
+
+public record ProductFacetsDto(
+        long total,
+        long inStock,
+        List<PriceBucketDto> priceBuckets
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.product_service.dto;
+
+import java.math.BigDecimal;
+
+public record ProductFilter(
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Boolean inStock,
+        String namePrefix,
+        // Matches the category and all of its descendants
+        Long categoryId
+) {
+    public static ProductFilter none() {
+        return new ProductFilter(null, null, null, null, null);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.product_service.dto;
+
+import java.util.List;
+
+public record ProductImportResultDto(
+        long inserted,
+        long updated,
+        long unchanged,
+        long rejected,
+        List<ProductImportErrorDto> errors
+) {
+}
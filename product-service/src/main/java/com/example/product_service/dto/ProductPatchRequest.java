@@ -0,0 +1,97 @@
+package com.example.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.*;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * JSON Merge Patch (RFC 7396) of a product. A field left out of the document is null here and stays unchanged;
+ * a field sent as null is an empty Optional and clears the value, which only the category allows.
+ * <p>
+ * Unlike the other request DTOs this is not a record: Jackson passes an empty Optional for every creator
+ * parameter missing from the document, while a setter is simply never called, which keeps the two apart.
+ */
+public class ProductPatchRequest {
+
+    private Optional<
+            @NotBlank(message = "A product must have a name")
+            @Size(max = 100, message = "Product name cannot exceed 100 characters")
+            String> name;
+
+    private Optional<
+            @NotBlank(message = "A product must have a description")
+            @Size(max = 1000, message = "Description cannot exceed 1000 characters")
+            String> description;
+
+    private Optional<
+            @NotNull(message = "A product must have a price")
+            @DecimalMin(value = "0.0", message = "Price cannot be negative")
+            BigDecimal> price;
+
+    private Optional<
+            @NotNull(message = "A product must have stock")
+            @Min(value = 0, message = "Stock cannot be negative")
+            Integer> stock;
+
+    // null in the document makes the product uncategorised
+    private Optional<Long> categoryId;
+
+    public ProductPatchRequest() {
+    }
+
+    public ProductPatchRequest(Optional<String> name, Optional<String> description, Optional<BigDecimal> price,
+                               Optional<Integer> stock, Optional<Long> categoryId) {
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.stock = stock;
+        this.categoryId = categoryId;
+    }
+
+    public Optional<String> name() {
+        return name;
+    }
+
+    public void setName(Optional<String> name) {
+        this.name = name;
+    }
+
+    public Optional<String> description() {
+        return description;
+    }
+
+    public void setDescription(Optional<String> description) {
+        this.description = description;
+    }
+
+    public Optional<BigDecimal> price() {
+        return price;
+    }
+
+    public void setPrice(Optional<BigDecimal> price) {
+        this.price = price;
+    }
+
+    public Optional<Integer> stock() {
+        return stock;
+    }
+
+    public void setStock(Optional<Integer> stock) {
+        this.stock = stock;
+    }
+
+    public Optional<Long> categoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Optional<Long> categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return name == null && description == null && price == null && stock == null && categoryId == null;
+    }
+}
@@ -19,6 +19,12 @@ public record ProductRequestDto (
 
         @NotNull(message = "A product must have stock")
         @Min(value = 0, message = "Stock cannot be negative")
-        Integer stock
+        Integer stock,
+
+        // Optional; null leaves the product uncategorised
+        Long categoryId
 ) {
+    public ProductRequestDto(String name, String description, BigDecimal price, Integer stock) {
+        this(name, description, price, stock, null);
+    }
 }
\ No newline at end of file
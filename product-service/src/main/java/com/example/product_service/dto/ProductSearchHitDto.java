@@ -0,0 +1,11 @@
+package com.example.product_service.dto;
+
+import java.math.BigDecimal;
+
+public record ProductSearchHitDto(
+        Long id,
+        String name,
+        BigDecimal price,
+        float score
+) {
+}
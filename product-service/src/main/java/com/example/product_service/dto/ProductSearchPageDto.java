@@ -0,0 +1,11 @@
+package com.example.product_service.dto;
+
+import java.util.List;
+
+public record ProductSearchPageDto(
+        List<ProductSearchHitDto> items,
+        int totalHits,
+        int page,
+        int size
+) {
+}
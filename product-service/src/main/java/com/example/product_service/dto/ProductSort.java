@@ -0,0 +1,25 @@
+package com.example.product_service.dto;
+
+import java.util.Arrays;
+
+public enum ProductSort {
+    ID("id"),
+    NAME("name");
+
+    private final String key;
+
+    ProductSort(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static ProductSort fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.key.equalsIgnoreCase(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort: " + key));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.product_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record StockBatchRequest(
+        @NotEmpty(message = "At least one item is required")
+        @Size(max = 200, message = "A batch cannot contain more than 200 items")
+        List<@Valid StockLineRequest> items,
+
+        // Recorded with the stock movements; optional
+        @Size(max = 64, message = "Order reference cannot exceed 64 characters")
+        String orderReference
+) {
+}
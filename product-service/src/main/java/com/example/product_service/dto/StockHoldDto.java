@@ -0,0 +1,12 @@
+package com.example.product_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record StockHoldDto(
+        UUID holdId,
+        LocalDateTime expiresAt,
+        List<StockLineResultDto> items
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.product_service.dto;
+
+public record StockLevelDto(
+        long productId,
+        int stock
+) {
+}
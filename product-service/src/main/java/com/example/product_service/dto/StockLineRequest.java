@@ -0,0 +1,13 @@
+package com.example.product_service.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record StockLineRequest(
+        @NotNull(message = "Product ID is required")
+        Long productId,
+
+        @Min(value = 1, message = "Quantity must be at least 1")
+        int quantity
+) {
+}
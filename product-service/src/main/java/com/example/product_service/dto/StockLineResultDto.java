@@ -0,0 +1,8 @@
+package com.example.product_service.dto;
+
+public record StockLineResultDto(
+        Long productId,
+        int quantity,
+        int remainingStock
+) {
+}
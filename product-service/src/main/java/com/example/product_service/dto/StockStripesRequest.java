@@ -0,0 +1,12 @@
+package com.example.product_service.dto;
+
+import com.example.product_service.inventory.StripedInventory;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+public record StockStripesRequest(
+        @Min(value = StripedInventory.MIN_STRIPES, message = "Stripe count must be at least " + StripedInventory.MIN_STRIPES)
+        @Max(value = StripedInventory.MAX_STRIPES, message = "Stripe count must be at most " + StripedInventory.MAX_STRIPES)
+        int stripes
+) {
+}
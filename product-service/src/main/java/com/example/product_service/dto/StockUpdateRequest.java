@@ -1,9 +1,14 @@
 package com.example.product_service.dto;
 
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 
 public record StockUpdateRequest(
         @Min(value = 1, message = "Quantity must be at least 1")
-        int quantity
+        int quantity,
+
+        // Recorded with the stock movement; optional
+        @Size(max = 64, message = "Order reference cannot exceed 64 characters")
+        String orderReference
 ) {
 }
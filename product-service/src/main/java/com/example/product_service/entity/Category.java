@@ -0,0 +1,44 @@
+package com.example.product_service.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * A node of the category tree. Only the direct parent is kept here; {@link CategoryPath} holds every
+ * ancestor/descendant pair, so a whole subtree is found with one indexed lookup however deep it is.
+ */
+@Entity
+@Table(name = "categories", indexes = @Index(name = "idx_categories_parent_id", columnList = "parent_id"))
+public class Category extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    @NotBlank
+    private String name;
+
+    // Null for top-level categories
+    private Long parentId;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.product_service.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Closure table of the category tree: one row for every category and each of its ancestors, plus one linking
+ * the category to itself at depth 0. The primary key leads with the ancestor, so the descendants of a category
+ * are a range scan; the index on the descendant serves the reverse lookup when a subtree is moved.
+ * Rows are maintained with set-based statements in {@code CategoryRepository}.
+ */
+@Entity
+@IdClass(CategoryPath.Key.class)
+@Table(name = "category_paths", indexes = @Index(name = "idx_category_paths_descendant_id", columnList = "descendant_id"))
+public class CategoryPath {
+
+    @Id
+    private long ancestorId;
+
+    @Id
+    private long descendantId;
+
+    @Column(nullable = false)
+    private int depth;
+
+    protected CategoryPath() {
+    }
+
+    public long getAncestorId() {
+        return ancestorId;
+    }
+
+    public long getDescendantId() {
+        return descendantId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public static class Key implements Serializable {
+        private long ancestorId;
+        private long descendantId;
+
+        protected Key() {
+        }
+
+        public Key(long ancestorId, long descendantId) {
+            this.ancestorId = ancestorId;
+            this.descendantId = descendantId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && ancestorId == key.ancestorId && descendantId == key.descendantId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ancestorId, descendantId);
+        }
+    }
+}
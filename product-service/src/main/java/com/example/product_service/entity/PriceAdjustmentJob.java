@@ -0,0 +1,143 @@
+package com.example.product_service.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A bulk repricing run. The row is the job's shared state: the worker records its progress here chunk by
+ * chunk, and a cancellation requested through any instance is picked up before the next chunk.
+ * <p>
+ * An unfinished job is run by whichever instance holds its lease. Each chunk renews the lease and records the
+ * last repriced id, so when the holder dies the lease runs out and another instance resumes after that id.
+ */
+@Entity
+@Table(name = "price_adjustment_jobs")
+public class PriceAdjustmentJob extends BaseEntity {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == CANCELLED || this == FAILED;
+        }
+    }
+
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false, precision = 9, scale = 4)
+    private BigDecimal percent;
+
+    private Long minId;
+
+    private Long maxId;
+
+    private Long categoryId;
+
+    @Column(length = 100)
+    private String namePattern;
+
+    // Products matching when the job started; products created meanwhile may raise the final count above it
+    @Column(nullable = false)
+    private long matched;
+
+    @Column(nullable = false)
+    private long updated;
+
+    @Column(nullable = false)
+    private boolean cancelRequested;
+
+    @Column(length = 500)
+    private String error;
+
+    private LocalDateTime finishedAt;
+
+    // Highest id repriced so far; a resumed job continues after it
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long lastId;
+
+    // Identifies the current claim; every write of the worker checks it, so a worker that lost its lease stops
+    private UUID leaseToken;
+
+    private LocalDateTime leaseExpiresAt;
+
+    protected PriceAdjustmentJob() {
+    }
+
+    public PriceAdjustmentJob(UUID id, BigDecimal percent, Long minId, Long maxId, Long categoryId, String namePattern) {
+        this.id = id;
+        this.status = Status.QUEUED;
+        this.percent = percent;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.categoryId = categoryId;
+        this.namePattern = namePattern;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public BigDecimal getPercent() {
+        return percent;
+    }
+
+    public Long getMinId() {
+        return minId;
+    }
+
+    public Long getMaxId() {
+        return maxId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getNamePattern() {
+        return namePattern;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public UUID getLeaseToken() {
+        return leaseToken;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+}
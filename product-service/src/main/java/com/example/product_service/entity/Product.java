@@ -4,10 +4,14 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.math.BigDecimal;
 
+// Updates write only the changed columns, so an edit never rewrites the stock snapshot the ledger folds into
+@DynamicUpdate
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_category_id", columnList = "category_id, id"))
 public class Product extends BaseEntity {
 
     @Id
@@ -18,7 +22,7 @@ public class Product extends BaseEntity {
     @NotBlank
     private String name;
 
-    @Column(nullable = false)
+    @Column(nullable = false, length = 1000)
     @NotBlank
     private String description;
 
@@ -26,10 +30,27 @@ public class Product extends BaseEntity {
     @DecimalMin(value = "0.0", inclusive = false)
     private BigDecimal price;
 
+    // Snapshot of the stock as of ledger entry stockLedgerPosition; later entries are added on read
     @Column(nullable = false)
     @Min(0)
     private int stock;
 
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long stockLedgerPosition;
+
+    // Optional; listings of a category include the products of all its descendants
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Category category;
+
+    // 0 means stock lives in this row; otherwise it is split across that many ProductStockStripe rows
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int stockStripes;
+
+    // Guards whole-row writes; stock movements go to the ledger and leave the row alone
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public Long getId() {
         return id;
     }
@@ -50,6 +71,22 @@ public class Product extends BaseEntity {
         return stock;
     }
 
+    public long getStockLedgerPosition() {
+        return stockLedgerPosition;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public int getStockStripes() {
+        return stockStripes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -65,4 +102,12 @@ public class Product extends BaseEntity {
     public void setStock(int stock) {
         this.stock = stock;
     }
+
+    public void setStockStripes(int stockStripes) {
+        this.stockStripes = stockStripes;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
 }
@@ -0,0 +1,96 @@
+package com.example.product_service.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * One sub-counter of a product in striped stock mode. The product's available stock is its own
+ * {@code stock} column plus the sum of its stripes.
+ */
+@Entity
+@Table(name = "product_stock_stripes")
+@IdClass(ProductStockStripe.Key.class)
+public class ProductStockStripe {
+
+    @Id
+    private long productId;
+
+    @Id
+    private int stripe;
+
+    @Column(nullable = false)
+    private int stock;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Committed changes of this stripe; their sum over the stripes moves with every stock write, in any commit order
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long writes;
+
+    protected ProductStockStripe() {
+    }
+
+    public ProductStockStripe(long productId, int stripe, int stock, LocalDateTime updatedAt) {
+        this.productId = productId;
+        this.stripe = stripe;
+        this.stock = stock;
+        this.updatedAt = updatedAt;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public int getStripe() {
+        return stripe;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    // Every change of the stock counts as a write
+    public void setStock(int stock) {
+        this.stock = stock;
+        this.writes++;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public static class Key implements Serializable {
+        private long productId;
+        private int stripe;
+
+        public Key() {
+        }
+
+        public Key(long productId, int stripe) {
+            this.productId = productId;
+            this.stripe = stripe;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && productId == other.productId && stripe == other.stripe;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, stripe);
+        }
+    }
+}
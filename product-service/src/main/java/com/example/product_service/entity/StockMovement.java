@@ -0,0 +1,71 @@
+package com.example.product_service.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only stock ledger. Rows are only ever inserted, through
+ * {@link com.example.product_service.inventory.StockLedger}; the mapping exists for the schema and for queries.
+ * <p>
+ * There is deliberately no foreign key to {@code products}: checking it would take a share lock on the product
+ * row for every insert, which is exactly the row the ledger keeps writers away from. Entries of a deleted product
+ * simply stay behind as its history.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_ledger", indexes = @Index(name = "idx_stock_ledger_product", columnList = "product_id, id"))
+public class StockMovement {
+
+    public enum Reason {
+        SALE, RESTOCK, HOLD, HOLD_RELEASE, ADJUSTMENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private long productId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Reason reason;
+
+    @Column(length = 64)
+    private String orderReference;
+
+    @Column(nullable = false, columnDefinition = "timestamp(6) default localtimestamp")
+    private LocalDateTime createdAt;
+
+    protected StockMovement() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getOrderReference() {
+        return orderReference;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
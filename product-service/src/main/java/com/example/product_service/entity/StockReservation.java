@@ -0,0 +1,78 @@
+package com.example.product_service.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One line of a time-limited stock hold. The quantity has already been taken out of the product's stock;
+ * committing the hold deletes its lines, releasing or expiring it deletes them and puts the stock back.
+ * Every line of a hold carries the hold's expiry and line count, so a hold that is partly gone (swept or
+ * its product deleted) can be told apart from a complete one.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_stock_reservations_hold_id", columnList = "hold_id"),
+        @Index(name = "idx_stock_reservations_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_stock_reservations_product_id", columnList = "product_id")
+})
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID holdId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Product product;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(nullable = false)
+    private int holdLines;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    protected StockReservation() {
+    }
+
+    public StockReservation(UUID holdId, Product product, int quantity, int holdLines, LocalDateTime expiresAt) {
+        this.holdId = holdId;
+        this.product = product;
+        this.quantity = quantity;
+        this.holdLines = holdLines;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getHoldId() {
+        return holdId;
+    }
+
+    public long getProductId() {
+        return product.getId();
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getHoldLines() {
+        return holdLines;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
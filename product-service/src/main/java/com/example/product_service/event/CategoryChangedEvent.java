@@ -0,0 +1,8 @@
+package com.example.product_service.event;
+
+/**
+ * Published after a category is created, renamed, moved or deleted. Which products a category listing
+ * contains depends on the tree, so this invalidates cached listings just like a product change.
+ */
+public record CategoryChangedEvent(long categoryId) {
+}
@@ -0,0 +1,25 @@
+package com.example.product_service.event;
+
+import com.example.product_service.dto.ProductDetailsDto;
+
+/**
+ * Published by the product service after every product mutation. Listeners that keep derived state
+ * (caches, indexes) should react with {@code @TransactionalEventListener} so they only observe committed changes.
+ * {@code product} carries the new state for {@code CREATED} and {@code UPDATED} and is null otherwise.
+ */
+public record ProductChangedEvent(
+        long productId,
+        ChangeType changeType,
+        ProductDetailsDto product
+) {
+    public ProductChangedEvent(long productId, ChangeType changeType) {
+        this(productId, changeType, null);
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        STOCK_CHANGED
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.product_service.event;
+
+/**
+ * Published by the product service when stock is taken for a sale or reservation. Feeds popularity
+ * signals such as the autocomplete ranking; like {@link ProductChangedEvent} it should be observed
+ * after commit, so rolled back reservations do not count.
+ */
+public record ProductDemandEvent(
+        long productId,
+        int quantity
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.product_service.exception;
+
+public class CursorExpiredException extends RuntimeException {
+    public CursorExpiredException(String message) {
+        super(message);
+    }
+}
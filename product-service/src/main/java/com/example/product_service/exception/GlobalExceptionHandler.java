@@ -4,6 +4,7 @@ import com.example.product_service.dto.ErrorResponseDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -88,6 +89,24 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponseDto> handleIllegalArgumentException(
+            IllegalArgumentException exception,
+            WebRequest webRequest
+    ) {
+        String requestPath = getRequestPath(webRequest);
+        log.warn("Invalid argument: {} at [{}]", exception.getMessage(), requestPath);
+
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                HttpStatus.BAD_REQUEST.value(),
+                exception.getMessage(),
+                LocalDateTime.now(),
+                requestPath
+        );
+
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ConflictException.class)
     public ResponseEntity<ErrorResponseDto> handleConflictException(
             ConflictException exception,
@@ -106,6 +125,62 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(StockBatchException.class)
+    public ResponseEntity<ErrorResponseDto> handleStockBatchException(
+            StockBatchException exception,
+            WebRequest webRequest
+    ) {
+        String requestPath = getRequestPath(webRequest);
+        log.warn("Stock batch rejected: {} at [{}] - {}", exception.getMessage(), requestPath, exception.getFailures());
+
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                HttpStatus.CONFLICT.value(),
+                exception.getMessage(),
+                LocalDateTime.now(),
+                requestPath,
+                exception.getFailures()
+        );
+
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(CursorExpiredException.class)
+    public ResponseEntity<ErrorResponseDto> handleCursorExpiredException(
+            CursorExpiredException exception,
+            WebRequest webRequest
+    ) {
+        String requestPath = getRequestPath(webRequest);
+        log.warn("Cursor expired: {} at [{}]", exception.getMessage(), requestPath);
+
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                HttpStatus.GONE.value(),
+                exception.getMessage(),
+                LocalDateTime.now(),
+                requestPath
+        );
+
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.GONE);
+    }
+
+    // Version checks that fail when the transaction commits, after the service could translate them itself
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException exception,
+            WebRequest webRequest
+    ) {
+        String requestPath = getRequestPath(webRequest);
+        log.warn("Concurrent modification: {} at [{}]", exception.getMessage(), requestPath);
+
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                HttpStatus.CONFLICT.value(),
+                "The resource was changed concurrently, reload it and try again",
+                LocalDateTime.now(),
+                requestPath
+        );
+
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ErrorResponseDto> handleDataIntegrityViolationException(
             DataIntegrityViolationException exception,
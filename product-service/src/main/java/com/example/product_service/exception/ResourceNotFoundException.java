@@ -3,10 +3,20 @@ package com.example.product_service.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Carries no stack trace: a missing resource is an expected answer, often to bots probing unknown ids,
+ * and filling in the trace would cost more than the rest of the 404.
+ */
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String resourceName, String fieldName, Long value) {
-        super(String.format("%s not found with the given input data %s: %s", resourceName, fieldName, value));
+        super(String.format("%s not found with the given input data %s: %s", resourceName, fieldName, value),
+                null, false, false);
+    }
+
+    public ResourceNotFoundException(String resourceName, String fieldName, String value) {
+        super(String.format("%s not found with the given input data %s: %s", resourceName, fieldName, value),
+                null, false, false);
     }
 }
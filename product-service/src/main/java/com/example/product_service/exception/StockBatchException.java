@@ -0,0 +1,16 @@
+package com.example.product_service.exception;
+
+import java.util.Map;
+
+public class StockBatchException extends RuntimeException {
+    private final Map<String, String> failures;
+
+    public StockBatchException(String message, Map<String, String> failures) {
+        super(message);
+        this.failures = failures;
+    }
+
+    public Map<String, String> getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.product_service.facet;
+
+import com.example.product_service.dto.PriceBucketDto;
+import com.example.product_service.dto.ProductFacetsDto;
+import com.example.product_service.dto.ProductFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory price histogram of the catalog, with product and in-stock counts per price bucket.
+ * <p>
+ * Every change adjusts the counts of one bucket and of one entry in a price-ordered map, so a facet request
+ * for the whole catalog costs one pass over the buckets. Price bounds that cut through a bucket are resolved
+ * from the price map for that bucket only. A name prefix cannot be pre-aggregated; it is answered from a
+ * name-ordered map by visiting just the matching products. Reads share a read lock, mutations take the
+ * write lock.
+ */
+@Component
+public class PriceFacetIndex {
+
+    private final BigDecimal[] bounds;
+    private final long[] counts;
+    private final long[] inStockCounts;
+    private final Map<Long, Fact> byId = new HashMap<>();
+    private final TreeMap<String, Fact> byName = new TreeMap<>();
+    // Products and in-stock products per distinct price
+    private final TreeMap<BigDecimal, long[]> byPrice = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Fact(long productId, String name, BigDecimal price, boolean inStock) {
+    }
+
+    public PriceFacetIndex(@Value("${product.facets.price-bounds:10,25,50,100,250,500,1000}") List<BigDecimal> bounds) {
+        this.bounds = bounds.stream().sorted().distinct().toArray(BigDecimal[]::new);
+        if (this.bounds.length == 0 || this.bounds[0].signum() <= 0) {
+            throw new IllegalArgumentException("Price facet bounds must be positive");
+        }
+        this.counts = new long[this.bounds.length + 1];
+        this.inStockCounts = new long[this.bounds.length + 1];
+    }
+
+    public void put(long productId, String name, BigDecimal price, boolean inStock) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            Fact fact = new Fact(productId, name, price, inStock);
+            byId.put(productId, fact);
+            byName.put(name, fact);
+            count(fact, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setInStock(long productId, boolean inStock) {
+        lock.writeLock().lock();
+        try {
+            Fact fact = byId.get(productId);
+            if (fact != null && fact.inStock() != inStock) {
+                removeInternal(productId);
+                Fact updated = new Fact(productId, fact.name(), fact.price(), inStock);
+                byId.put(productId, updated);
+                byName.put(updated.name(), updated);
+                count(updated, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductFacetsDto facets(ProductFilter filter) {
+        long[] matched = new long[counts.length];
+        long[] matchedInStock = new long[counts.length];
+        boolean onlyInStock = Boolean.TRUE.equals(filter.inStock());
+
+        lock.readLock().lock();
+        try {
+            if (filter.namePrefix() != null && !filter.namePrefix().isBlank()) {
+                String prefix = filter.namePrefix();
+                for (Fact fact : byName.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                    if (fact.name().startsWith(prefix) && inRange(fact.price(), filter) && (fact.inStock() || !onlyInStock)) {
+                        int bucket = bucketOf(fact.price());
+                        matched[bucket]++;
+                        matchedInStock[bucket] += fact.inStock() ? 1 : 0;
+                    }
+                }
+            } else {
+                for (int bucket = 0; bucket < counts.length; bucket++) {
+                    countBucket(bucket, filter, matched, matchedInStock);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<PriceBucketDto> buckets = new ArrayList<>(counts.length);
+        long total = 0;
+        long inStock = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            long count = onlyInStock ? matchedInStock[bucket] : matched[bucket];
+            buckets.add(new PriceBucketDto(lowerBound(bucket), upperBound(bucket), count, matchedInStock[bucket]));
+            total += count;
+            inStock += matchedInStock[bucket];
+        }
+        return new ProductFacetsDto(total, inStock, buckets);
+    }
+
+    private void countBucket(int bucket, ProductFilter filter, long[] matched, long[] matchedInStock) {
+        BigDecimal lower = lowerBound(bucket);
+        BigDecimal upper = upperBound(bucket);
+        BigDecimal min = filter.minPrice();
+        BigDecimal max = filter.maxPrice();
+        if ((max != null && max.compareTo(lower) < 0) || (min != null && upper != null && min.compareTo(upper) >= 0)) {
+            return;
+        }
+        boolean coversLower = min == null || min.compareTo(lower) <= 0;
+        boolean coversUpper = max == null || (upper != null && max.compareTo(upper) >= 0);
+        if (coversLower && coversUpper) {
+            matched[bucket] = counts[bucket];
+            matchedInStock[bucket] = inStockCounts[bucket];
+            return;
+        }
+
+        // The filter cuts through this bucket: count the distinct prices it keeps
+        BigDecimal from = coversLower ? lower : min;
+        NavigableMap<BigDecimal, long[]> prices = byPrice.tailMap(from, true);
+        if (upper != null) {
+            prices = prices.headMap(upper, false);
+        }
+        if (max != null) {
+            prices = prices.headMap(max, true);
+        }
+        for (long[] perPrice : prices.values()) {
+            matched[bucket] += perPrice[0];
+            matchedInStock[bucket] += perPrice[1];
+        }
+    }
+
+    private void removeInternal(long productId) {
+        Fact fact = byId.remove(productId);
+        if (fact != null) {
+            byName.remove(fact.name(), fact);
+            count(fact, -1);
+        }
+    }
+
+    private void count(Fact fact, int delta) {
+        int bucket = bucketOf(fact.price());
+        int inStock = fact.inStock() ? delta : 0;
+        counts[bucket] += delta;
+        inStockCounts[bucket] += inStock;
+        long[] perPrice = byPrice.computeIfAbsent(fact.price(), price -> new long[2]);
+        perPrice[0] += delta;
+        perPrice[1] += inStock;
+        if (perPrice[0] == 0) {
+            byPrice.remove(fact.price());
+        }
+    }
+
+    private static boolean inRange(BigDecimal price, ProductFilter filter) {
+        return (filter.minPrice() == null || price.compareTo(filter.minPrice()) >= 0)
+                && (filter.maxPrice() == null || price.compareTo(filter.maxPrice()) <= 0);
+    }
+
+    // Bucket i covers [bounds[i - 1], bounds[i]); the first starts at zero, the last is open-ended
+    private int bucketOf(BigDecimal price) {
+        int i = Arrays.binarySearch(bounds, price);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private BigDecimal lowerBound(int bucket) {
+        return bucket == 0 ? BigDecimal.ZERO : bounds[bucket - 1];
+    }
+
+    private BigDecimal upperBound(int bucket) {
+        return bucket == bounds.length ? null : bounds[bucket];
+    }
+}
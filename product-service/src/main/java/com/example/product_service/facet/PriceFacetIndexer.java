@@ -0,0 +1,99 @@
+package com.example.product_service.facet;
+
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.entity.Product;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.index.BackgroundRebuild;
+import com.example.product_service.index.ChangeFeedCursor;
+import com.example.product_service.index.ProductRefresh;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.OffRowStock;
+import com.example.product_service.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@link PriceFacetIndex} in sync with the database. Created and updated products carry their new state
+ * in the change event and are applied right away. Stock changes carry no state and happen on the hot path, so
+ * they only mark the product, as do changes other instances record in the change outbox; a scheduled refresh
+ * reloads marked products in batches, which lets in-stock counts trail the database by about one refresh interval.
+ */
+@Component
+public class PriceFacetIndexer {
+    private static final Logger log = LoggerFactory.getLogger(PriceFacetIndexer.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final PriceFacetIndex index;
+    private final StockLedger stockLedger;
+    private final BackgroundRebuild rebuilder;
+    private final ProductRefresh refresh;
+    private final ChangeFeedCursor feed;
+
+    public PriceFacetIndexer(PriceFacetIndex index, ProductRepository repository, StockLedger stockLedger,
+                             ProductChangeOutbox outbox) {
+        this.index = index;
+        this.stockLedger = stockLedger;
+        this.rebuilder = new BackgroundRebuild("price facets", repository, BATCH_SIZE);
+        this.refresh = new ProductRefresh(this, repository, rebuilder, BATCH_SIZE);
+        this.feed = new ChangeFeedCursor(outbox, BATCH_SIZE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        rebuilder.start("price-facet-rebuild", this::rebuild);
+    }
+
+    void rebuild() {
+        feed.start();
+        rebuilder.run(batch -> {
+            Map<Long, OffRowStock> offRow = offRowStock(batch);
+            synchronized (this) {
+                batch.stream()
+                        .filter(product -> !rebuilder.changedDuringRebuild(product.getId()))
+                        .forEach(product -> put(product, offRow));
+            }
+        }, index::size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.changeType() != ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            rebuilder.changed(event.productId());
+            refresh.changed(event.productId());
+        }
+        switch (event.changeType()) {
+            case CREATED, UPDATED -> index.put(event.productId(), event.product().name(),
+                    event.product().price(), event.product().stock() > 0);
+            case DELETED -> index.remove(event.productId());
+            case STOCK_CHANGED -> refresh.mark(event.productId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.facets.refresh-interval:1s}")
+    public void refresh() {
+        feed.catchUp(change -> refresh.mark(change.productId()));
+        int refreshed = refresh.refresh(this::offRowStock, this::put, index::remove);
+        if (refreshed > 0) {
+            log.debug("Refreshed facets for {} products", refreshed);
+        }
+    }
+
+    private Map<Long, OffRowStock> offRowStock(List<Product> products) {
+        return ReadRouting.onPrimary(() -> stockLedger.offRowStock(products));
+    }
+
+    private void put(Product product, Map<Long, OffRowStock> offRow) {
+        OffRowStock stock = offRow.get(product.getId());
+        boolean inStock = product.getStock() + (stock != null ? stock.stock() : 0) > 0;
+        index.put(product.getId(), product.getName(), product.getPrice(), inStock);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.product_service.importer;
+
+import com.example.product_service.dto.ProductRequestDto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 style CSV reader: comma separated, optional double-quoted fields with {@code ""} escapes,
+ * quoted fields may span lines, LF or CRLF line endings. The first record is a header that must name the
+ * {@code name}, {@code description}, {@code price} and {@code stock} columns, in any order.
+ */
+final class CsvProductImportReader implements ProductImportReader {
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long line = 1;
+
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private boolean unterminatedQuote;
+
+    private final int columnCount;
+    private final int nameColumn;
+    private final int descriptionColumn;
+    private final int priceColumn;
+    private final int stockColumn;
+
+    CsvProductImportReader(Reader reader) throws IOException {
+        this.reader = reader;
+        if (!readRecord() || unterminatedQuote) {
+            throw new IllegalArgumentException("CSV import must start with a header row");
+        }
+        List<String> header = fields.stream()
+                .map(column -> column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT))
+                .toList();
+        this.columnCount = header.size();
+        this.nameColumn = requireColumn(header, "name");
+        this.descriptionColumn = requireColumn(header, "description");
+        this.priceColumn = requireColumn(header, "price");
+        this.stockColumn = requireColumn(header, "stock");
+    }
+
+    private static int requireColumn(List<String> header, String column) {
+        int index = header.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("CSV header is missing the '" + column + "' column");
+        }
+        return index;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        while (true) {
+            long startLine = line;
+            if (!readRecord()) {
+                return null;
+            }
+            if (unterminatedQuote) {
+                return ImportRow.failed(startLine, "Unterminated quoted field");
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            if (fields.size() != columnCount) {
+                return ImportRow.failed(startLine,
+                        "Expected " + columnCount + " columns but found " + fields.size());
+            }
+
+            String rawPrice = fields.get(priceColumn).trim();
+            BigDecimal price = null;
+            if (!rawPrice.isEmpty()) {
+                try {
+                    price = new BigDecimal(rawPrice);
+                } catch (NumberFormatException e) {
+                    return ImportRow.failed(startLine, "Invalid price: " + rawPrice);
+                }
+            }
+
+            String rawStock = fields.get(stockColumn).trim();
+            Integer stock = null;
+            if (!rawStock.isEmpty()) {
+                try {
+                    stock = Integer.parseInt(rawStock);
+                } catch (NumberFormatException e) {
+                    return ImportRow.failed(startLine, "Invalid stock: " + rawStock);
+                }
+            }
+
+            return ImportRow.parsed(startLine, new ProductRequestDto(
+                    fields.get(nameColumn),
+                    fields.get(descriptionColumn),
+                    price,
+                    stock
+            ));
+        }
+    }
+
+    /**
+     * Reads one record into {@link #fields}. Returns false if the input was already exhausted.
+     */
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        unterminatedQuote = false;
+
+        int c = read();
+        if (c == EOF) {
+            return false;
+        }
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == EOF) {
+                    unterminatedQuote = true;
+                    fields.add(field.toString());
+                    return true;
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == EOF || c == '\n') {
+                if (c == '\n') {
+                    line++;
+                }
+                fields.add(field.toString());
+                return true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
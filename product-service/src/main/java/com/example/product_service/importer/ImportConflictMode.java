@@ -0,0 +1,30 @@
+package com.example.product_service.importer;
+
+import java.util.Arrays;
+
+/**
+ * What to do with an imported row whose name already belongs to a product.
+ */
+public enum ImportConflictMode {
+    /** Overwrite description, price and stock of the existing product. */
+    UPDATE("update"),
+    /** Leave the existing product alone and report the row as rejected. */
+    SKIP("skip");
+
+    private final String key;
+
+    ImportConflictMode(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static ImportConflictMode fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(mode -> mode.key.equalsIgnoreCase(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported conflict mode: " + key));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.product_service.importer;
+
+import com.example.product_service.dto.ProductRequestDto;
+
+/**
+ * One record read from an import file: either a parsed product or the reason it could not be parsed.
+ * {@code line} is the 1-based line of the input on which the record starts.
+ */
+public record ImportRow(long line, ProductRequestDto product, String error) {
+
+    static ImportRow parsed(long line, ProductRequestDto product) {
+        return new ImportRow(line, product, null);
+    }
+
+    static ImportRow failed(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.product_service.importer;
+
+import com.example.product_service.dto.ProductRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Newline-delimited JSON reader: one product object per line, blank lines are ignored.
+ */
+final class NdjsonProductImportReader implements ProductImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader productReader;
+    private long line;
+
+    NdjsonProductImportReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.productReader = objectMapper.readerFor(ProductRequestDto.class);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                return ImportRow.parsed(line, productReader.readValue(text));
+            } catch (JsonProcessingException e) {
+                return ImportRow.failed(line, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.product_service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull-style reader over an import upload. Records are parsed one at a time so the upload is never
+ * held in memory; malformed records come back as failed {@link ImportRow}s instead of aborting the import.
+ */
+public interface ProductImportReader {
+
+    /**
+     * Returns the next record, or {@code null} once the input is exhausted.
+     */
+    ImportRow next() throws IOException;
+
+    static ProductImportReader open(ImportFormat format, InputStream input, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        return switch (format) {
+            case CSV -> new CsvProductImportReader(reader);
+            case NDJSON -> new NdjsonProductImportReader(reader, objectMapper);
+        };
+    }
+}
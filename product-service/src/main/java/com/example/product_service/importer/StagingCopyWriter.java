@@ -0,0 +1,76 @@
+package com.example.product_service.importer;
+
+import com.example.product_service.dto.ProductRequestDto;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Encodes validated rows as CSV and feeds them to an open {@code COPY ... FROM STDIN (FORMAT csv)}
+ * in 64 KiB chunks, so the COPY runs concurrently with reading the upload.
+ */
+public final class StagingCopyWriter implements AutoCloseable {
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 4096);
+
+    public StagingCopyWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    /**
+     * Writes one staging row: {@code line, name, description, price, stock}.
+     */
+    public void write(long line, ProductRequestDto product) throws SQLException {
+        buffer.append(line).append(',');
+        appendQuoted(product.name());
+        buffer.append(',');
+        appendQuoted(product.description());
+        buffer.append(',')
+                .append(product.price().toPlainString())
+                .append(',')
+                .append(product.stock().intValue())
+                .append('\n');
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the remaining rows and completes the COPY, returning the number of rows the server stored.
+     */
+    public long finish() throws SQLException {
+        flush();
+        return copyIn.endCopy();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    private void appendQuoted(String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.product_service.index;
+
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.ProductSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Full rebuild of an in-memory product view: every product is read from the primary in id order, in batches,
+ * while committed changes keep being applied to the view from their events. Products changed while the
+ * rebuild runs are skipped by it, since the change event already carried a state at least as new as the one
+ * the rebuild read; the owner reports its events through {@link #changed} and checks
+ * {@link #changedDuringRebuild} when applying a batch, under the monitor it applies events under.
+ */
+public final class BackgroundRebuild {
+    private static final Logger log = LoggerFactory.getLogger(BackgroundRebuild.class);
+
+    private final String view;
+    private final ProductRepository repository;
+    private final int batchSize;
+    private final ChangeFence fence = new ChangeFence();
+
+    public BackgroundRebuild(String view, ProductRepository repository, int batchSize) {
+        this.view = view;
+        this.repository = repository;
+        this.batchSize = batchSize;
+    }
+
+    public void start(String threadName, Runnable rebuild) {
+        Thread thread = new Thread(rebuild, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Hands every product to {@code applyBatch} and returns whether the rebuild got through all of them.
+     * {@code size} reports the size of the rebuilt view for the log.
+     */
+    public boolean run(Consumer<List<Product>> applyBatch, IntSupplier size) {
+        log.info("Rebuilding {}", view);
+        long startedAt = System.nanoTime();
+        fence.begin();
+        try {
+            long lastId = 0;
+            List<Product> batch;
+            do {
+                long after = lastId;
+                batch = ReadRouting.onPrimary(() -> repository.findBy(ProductSpecifications.idAfter(after),
+                        query -> query.sortBy(Sort.by("id")).limit(batchSize).all()));
+                applyBatch.accept(batch);
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == batchSize);
+            log.info("Rebuilt {} with {} products in {} ms", view, size.getAsInt(),
+                    (System.nanoTime() - startedAt) / 1_000_000);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Rebuilding {} failed: {}", view, e.getMessage(), e);
+            return false;
+        } finally {
+            fence.end();
+        }
+    }
+
+    public void changed(long productId) {
+        fence.changed(productId);
+    }
+
+    public boolean changedDuringRebuild(long productId) {
+        return fence.isChanged(productId);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.product_service.index;
+
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.outbox.ProductChange;
+import com.example.product_service.outbox.ProductChangeOutbox;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Follows the change outbox for an in-memory view, so products changed by other instances reach it too.
+ * Changes made here arrive a second time this way, after their event.
+ */
+public final class ChangeFeedCursor {
+
+    private final ProductChangeOutbox outbox;
+    private final int batchSize;
+    // Where reading the change outbox resumes; null until started
+    private ProductChange.Position position;
+
+    public ChangeFeedCursor(ProductChangeOutbox outbox, int batchSize) {
+        this.outbox = outbox;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Called before the view first reads products: anything that read misses is committed after this position
+     * and arrives from the feed.
+     */
+    public synchronized void start() {
+        if (position == null) {
+            position = ReadRouting.onPrimary(outbox::latestPosition);
+        }
+    }
+
+    /**
+     * Hands every change committed since the last call to {@code apply}. The first call only starts the feed, if
+     * the view has not started it yet.
+     */
+    public synchronized void catchUp(Consumer<ProductChange> apply) {
+        if (position == null) {
+            start();
+            return;
+        }
+        List<ProductChange> changes;
+        do {
+            ProductChange.Position after = position;
+            changes = ReadRouting.onPrimary(() -> outbox.readKeysAfter(after, batchSize));
+            for (ProductChange change : changes) {
+                apply.accept(change);
+                position = change.position();
+            }
+        } while (changes.size() == batchSize);
+    }
+}
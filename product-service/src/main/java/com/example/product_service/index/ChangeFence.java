@@ -0,0 +1,37 @@
+package com.example.product_service.index;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which products a change event touched while a read of them was in flight, so the read does not
+ * overwrite the newer state the event already applied to an in-memory view.
+ * <p>
+ * The owner applies events and read results under one monitor: {@link #begin} before the read starts,
+ * {@link #changed} for every event, and {@link #isChanged} when applying what the read returned.
+ */
+final class ChangeFence {
+
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private volatile boolean reading;
+
+    void begin() {
+        changed.clear();
+        reading = true;
+    }
+
+    void changed(long productId) {
+        if (reading) {
+            changed.add(productId);
+        }
+    }
+
+    boolean isChanged(long productId) {
+        return changed.contains(productId);
+    }
+
+    void end() {
+        reading = false;
+        changed.clear();
+    }
+}
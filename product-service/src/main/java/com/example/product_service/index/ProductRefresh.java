@@ -0,0 +1,94 @@
+package com.example.product_service.index;
+
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Products of an in-memory view marked for a re-read from the database, because a change to them carried no
+ * state (a stock change) or was committed by another instance. A refresh reads the marked products in batches
+ * and applies them under the view's monitor, skipping products whose event carried a newer state while they
+ * were read, and dropping products that no longer exist.
+ * <p>
+ * The view reports events that carry state through {@link #changed}, under its monitor. What a refresh applies
+ * also counts as changed for a running {@link BackgroundRebuild}, whose batches may have been read earlier.
+ */
+public final class ProductRefresh {
+
+    private final Object monitor;
+    private final ProductRepository repository;
+    private final BackgroundRebuild rebuild;
+    private final int batchSize;
+    private final ChangeFence fence = new ChangeFence();
+    private final Set<Long> marked = ConcurrentHashMap.newKeySet();
+
+    public ProductRefresh(Object monitor, ProductRepository repository, BackgroundRebuild rebuild, int batchSize) {
+        this.monitor = monitor;
+        this.repository = repository;
+        this.rebuild = rebuild;
+        this.batchSize = batchSize;
+    }
+
+    public void mark(long productId) {
+        marked.add(productId);
+    }
+
+    public void changed(long productId) {
+        fence.changed(productId);
+    }
+
+    /**
+     * Reads the marked products, lets {@code read} load whatever else the view needs for a batch outside the
+     * monitor, then puts each product with it or removes the ids that were not found. Returns the number of
+     * products read.
+     */
+    public <T> int refresh(Function<List<Product>, T> read, BiConsumer<Product, T> put, LongConsumer remove) {
+        int refreshed = 0;
+        while (!marked.isEmpty()) {
+            List<Long> ids = new ArrayList<>(batchSize);
+            Iterator<Long> pending = marked.iterator();
+            while (pending.hasNext() && ids.size() < batchSize) {
+                ids.add(pending.next());
+                pending.remove();
+            }
+            synchronized (monitor) {
+                fence.begin();
+            }
+            try {
+                // Read after unmarking, so a change that lands meanwhile marks the product again
+                List<Product> products = ReadRouting.onPrimary(() -> repository.findAllById(ids));
+                T loaded = read.apply(products);
+                Set<Long> missing = new HashSet<>(ids);
+                synchronized (monitor) {
+                    for (Product product : products) {
+                        missing.remove(product.getId());
+                        if (!fence.isChanged(product.getId())) {
+                            put.accept(product, loaded);
+                            rebuild.changed(product.getId());
+                        }
+                    }
+                    for (long productId : missing) {
+                        remove.accept(productId);
+                        rebuild.changed(productId);
+                    }
+                }
+                refreshed += products.size();
+            } finally {
+                synchronized (monitor) {
+                    fence.end();
+                }
+            }
+        }
+        return refreshed;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.product_service.inventory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Expiry times of the stock holds placed by this instance, kept in a binary min-heap of epoch seconds so the
+ * sweeper can tell whether anything is due without querying the database. A long per hold keeps several
+ * hundred thousand outstanding holds in a few megabytes.
+ * <p>
+ * Committed and released holds are not removed: their entries simply come due and cost the sweeper one
+ * query that finds nothing, which is cheaper than the O(n) removal a heap would need.
+ */
+@Component
+public class HoldExpiryIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] heap = new long[INITIAL_CAPACITY];
+    private int size;
+
+    public HoldExpiryIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("product.stock.holds.indexed", this, HoldExpiryIndex::size)
+                .description("Hold expiry times waiting in the in-memory index")
+                .register(meterRegistry);
+    }
+
+    public synchronized void add(LocalDateTime expiresAt) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        // Rounded up, so an entry never comes due before the hold it stands for
+        long value = expiresAt.toEpochSecond(ZoneOffset.UTC) + (expiresAt.getNano() > 0 ? 1 : 0);
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    /**
+     * Removes every entry due at or before {@code now} and reports whether there was any.
+     */
+    public synchronized boolean pollDue(LocalDateTime now) {
+        long limit = now.toEpochSecond(ZoneOffset.UTC);
+        boolean due = false;
+        while (size > 0 && heap[0] <= limit) {
+            removeFirst();
+            due = true;
+        }
+        if (heap.length > INITIAL_CAPACITY && size < heap.length / 4) {
+            heap = Arrays.copyOf(heap, Math.max(INITIAL_CAPACITY, heap.length / 2));
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void removeFirst() {
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+    }
+}
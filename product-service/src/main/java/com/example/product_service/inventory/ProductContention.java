@@ -0,0 +1,50 @@
+package com.example.product_service.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts contended writes to products: admin updates that lost their version check, and stock movements or
+ * folds that found the product's ledger lock taken. Counters are tagged with the operation and with the product,
+ * so the hot products stand out; only the first {@code max-tagged-products} contended products get a tag of
+ * their own, the rest are counted under {@value #OTHER_PRODUCTS}, which keeps the number of time series bounded.
+ */
+@Component
+public class ProductContention {
+    public static final String CONTENTION = "product.write.contention";
+    public static final String OTHER_PRODUCTS = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxTaggedProducts;
+    private final Set<Long> taggedProducts = ConcurrentHashMap.newKeySet();
+
+    public ProductContention(
+            MeterRegistry meterRegistry,
+            @Value("${product.contention.max-tagged-products:100}") int maxTaggedProducts
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.maxTaggedProducts = maxTaggedProducts;
+    }
+
+    public void contended(long productId, String operation) {
+        Counter.builder(CONTENTION)
+                .tag("product", productTag(productId))
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Concurrent first contentions may overshoot the limit by a few products, which is harmless
+    private String productTag(long productId) {
+        if (taggedProducts.contains(productId)
+                || (taggedProducts.size() < maxTaggedProducts && taggedProducts.add(productId))) {
+            return String.valueOf(productId);
+        }
+        return OTHER_PRODUCTS;
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.product_service.inventory;
+
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.StockMovement.Reason;
+import com.example.product_service.repository.OffRowStock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * Append-only ledger of the stock movements of products in regular (non-striped) stock mode.
+ * <p>
+ * A product's stock is the snapshot in its row, which counts every ledger entry up to
+ * {@code stock_ledger_position}, plus the entries after that position. Movements only insert entries, so a
+ * checkout no longer leaves a dead version of the product row behind; {@link #foldPending} moves entries into
+ * the snapshot in batches.
+ * <p>
+ * Writers of a product are ordered by a transaction-scoped advisory lock on its id instead of a row lock, taken in
+ * the ledger's own {@link #LOCK_NAMESPACE} so it cannot collide with other advisory lock users of the database.
+ * Takes hold it exclusively, as they must see every earlier movement to never oversell; gives share it, since
+ * added stock cannot invalidate a concurrent check. Folding takes it exclusively too, so it only ever folds
+ * committed entries and cannot step over one that commits late. Waits for the lock are counted as contention in
+ * {@link ProductContention}. Every method must run inside the caller's transaction.
+ */
+@Component
+public class StockLedger {
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    public enum Outcome {
+        APPLIED, INSUFFICIENT, NOT_LEDGERED
+    }
+
+    /**
+     * First key of every ledger lock, in the two-int form of the advisory lock functions. The product import takes
+     * the same locks, through {@link #lockKey}.
+     */
+    public static final int LOCK_NAMESPACE = 0x4c454447;
+
+    private static final String KEY = LOCK_NAMESPACE + ", " + lockKey("CAST(? AS bigint)");
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(" + KEY + ")";
+    private static final String TRY_LOCK_SHARED = "SELECT pg_try_advisory_xact_lock_shared(" + KEY + ")";
+    private static final String LOCK = "SELECT pg_advisory_xact_lock(" + KEY + ")";
+    private static final String LOCK_SHARED = "SELECT pg_advisory_xact_lock_shared(" + KEY + ")";
+
+    private static final String SELECT_STRIPES = "SELECT stock_stripes FROM products WHERE id = ?";
+
+    private static final String SELECT_AVAILABLE = """
+            SELECT p.stock + COALESCE((
+                SELECT SUM(l.delta) FROM stock_ledger l
+                WHERE l.product_id = p.id AND l.id > p.stock_ledger_position
+            ), 0)
+            FROM products p
+            WHERE p.id = ? AND p.stock_stripes = 0
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO stock_ledger (product_id, delta, reason, order_reference) VALUES (?, ?, ?, ?)
+            """;
+
+    // Each product is read with the position of the row it was loaded from, so a fold in between cannot skew it.
+    // Gives share the lock and may commit out of id order, so the entries are counted rather than their ids maxed.
+    private static final String SELECT_PENDING = """
+            SELECT l.product_id, SUM(l.delta), MAX(l.created_at), COUNT(*)
+            FROM unnest(CAST(? AS bigint[]), CAST(? AS bigint[])) AS s(product_id, position)
+            JOIN stock_ledger l ON l.product_id = s.product_id AND l.id > s.position
+            GROUP BY l.product_id
+            """;
+
+    private static final String TRY_LOCK_ALL = """
+            SELECT id FROM unnest(CAST(? AS bigint[])) AS id
+            WHERE pg_try_advisory_xact_lock(%d, %s)
+            """.formatted(LOCK_NAMESPACE, lockKey("id"));
+
+    // Nothing else writes entries while the lock is held, so MAX(id) covers them all; created_at only dates the
+    // change, revisions do not use it.
+    private static final String FOLD = """
+            UPDATE products p
+            SET stock = p.stock + d.delta,
+                stock_ledger_position = d.position,
+                updated_at = GREATEST(p.updated_at, d.changed_at)
+            FROM (
+                SELECT l.product_id, SUM(l.delta) AS delta, MAX(l.id) AS position, MAX(l.created_at) AS changed_at
+                FROM stock_ledger l
+                JOIN products pending ON pending.id = l.product_id
+                WHERE l.product_id = ANY (CAST(? AS bigint[]))
+                  AND l.id > pending.stock_ledger_position
+                  AND pending.stock_stripes = 0
+                GROUP BY l.product_id
+            ) d
+            WHERE p.id = d.product_id
+            """;
+
+    private static final String SELECT_WITH_PENDING = """
+            SELECT p.id FROM products p
+            WHERE p.id > ? AND p.stock_stripes = 0 AND EXISTS (
+                SELECT 1 FROM stock_ledger l WHERE l.product_id = p.id AND l.id > p.stock_ledger_position
+            )
+            ORDER BY p.id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StripedInventory stripedInventory;
+    private final ProductContention contention;
+
+    public StockLedger(JdbcTemplate jdbcTemplate, StripedInventory stripedInventory, ProductContention contention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stripedInventory = stripedInventory;
+        this.contention = contention;
+    }
+
+    /**
+     * SQL for the second key of a product's ledger lock, given an SQL expression for its id: the id wrapped into an
+     * int. Ids 2^32 apart would share a lock, which only orders their writers together.
+     */
+    public static String lockKey(String productId) {
+        return "CAST((" + productId + " + 2147483648) % 4294967296 - 2147483648 AS integer)";
+    }
+
+    /**
+     * Records the removal of {@code quantity} units if the product has them. Striped and missing products are
+     * reported as {@link Outcome#NOT_LEDGERED} without taking the lock, so striped checkouts never queue on it.
+     */
+    public Outcome take(long productId, int quantity, Reason reason, String orderReference) {
+        if (!isLedgered(productId)) {
+            return Outcome.NOT_LEDGERED;
+        }
+        lock(productId, true, reason);
+        OptionalInt available = available(productId);
+        if (available.isEmpty()) {
+            return Outcome.NOT_LEDGERED;
+        }
+        if (available.getAsInt() < quantity) {
+            return Outcome.INSUFFICIENT;
+        }
+        append(productId, -quantity, reason, orderReference);
+        return Outcome.APPLIED;
+    }
+
+    /**
+     * Records the addition of {@code quantity} units. Returns false when the product is missing or striped.
+     */
+    public boolean give(long productId, int quantity, Reason reason, String orderReference) {
+        if (!isLedgered(productId)) {
+            return false;
+        }
+        lock(productId, false, reason);
+        if (!isLedgered(productId)) {
+            return false;
+        }
+        append(productId, quantity, reason, orderReference);
+        return true;
+    }
+
+    /**
+     * Locks the given products for taking, in id order, and returns the stock of those still in regular mode.
+     * The caller then records its takes with {@link #append}.
+     */
+    public Map<Long, Integer> lockAvailable(SortedSet<Long> productIds, Reason reason) {
+        Map<Long, Integer> available = new LinkedHashMap<>();
+        for (long productId : productIds) {
+            lock(productId, true, reason);
+            available(productId).ifPresent(stock -> available.put(productId, stock));
+        }
+        return available;
+    }
+
+    /**
+     * Records whatever movement brings the product's stock to {@code stock}. Returns false when the product is
+     * missing or striped.
+     */
+    public boolean adjustTo(long productId, int stock, String orderReference) {
+        lock(productId, true, Reason.ADJUSTMENT);
+        OptionalInt available = available(productId);
+        if (available.isEmpty()) {
+            return false;
+        }
+        if (available.getAsInt() != stock) {
+            append(productId, stock - available.getAsInt(), Reason.ADJUSTMENT, orderReference);
+        }
+        return true;
+    }
+
+    /**
+     * Must only be called while holding the product's lock from {@link #lockAvailable}.
+     */
+    public void append(long productId, int delta, Reason reason, String orderReference) {
+        jdbcTemplate.update(INSERT, productId, delta, reason.name(), orderReference);
+    }
+
+    /**
+     * Folds the product's pending entries into its row right away and keeps it locked until the transaction
+     * ends, so nothing is recorded for it while its stock mode changes.
+     */
+    public void foldNow(long productId) {
+        lock(productId, true, "fold");
+        jdbcTemplate.update(FOLD, (Object) new Long[]{productId});
+    }
+
+    /**
+     * Folds the pending entries of the given products into their rows in one statement and returns the products
+     * that were skipped because a writer held them; those stay pending until a later pass.
+     */
+    @Transactional
+    public Set<Long> foldPending(Collection<Long> productIds) {
+        Set<Long> busy = new HashSet<>(productIds);
+        List<Long> locked = jdbcTemplate.queryForList(TRY_LOCK_ALL, Long.class, (Object) productIds.toArray(Long[]::new));
+        locked.forEach(busy::remove);
+        busy.forEach(productId -> contention.contended(productId, "fold"));
+        if (!locked.isEmpty()) {
+            int folded = jdbcTemplate.update(FOLD, (Object) locked.toArray(Long[]::new));
+            log.debug("Folded stock ledger entries of {} products, {} busy", folded, busy.size());
+        }
+        return busy;
+    }
+
+    /**
+     * Ids of regular products with entries not yet folded, in id order after {@code afterId}.
+     */
+    public List<Long> findWithPending(long afterId, int limit) {
+        return jdbcTemplate.queryForList(SELECT_WITH_PENDING, Long.class, afterId, limit);
+    }
+
+    /**
+     * Stock the given products hold outside their row, keyed by product id: stripe totals for striped products,
+     * unfolded ledger entries for the others. Products with neither are absent.
+     */
+    public Map<Long, OffRowStock> offRowStock(Collection<Product> products) {
+        Map<Long, OffRowStock> offRow = new HashMap<>(stripedInventory.totalsFor(products));
+        List<Product> ledgered = products.stream()
+                .filter(product -> product.getStockStripes() == 0)
+                .toList();
+        if (ledgered.isEmpty()) {
+            return offRow;
+        }
+        Long[] ids = ledgered.stream().map(Product::getId).toArray(Long[]::new);
+        Long[] positions = ledgered.stream().map(Product::getStockLedgerPosition).toArray(Long[]::new);
+        jdbcTemplate.query(SELECT_PENDING, rs -> {
+            long productId = rs.getLong(1);
+            offRow.put(productId, new OffRowStock(productId, rs.getLong(2), rs.getTimestamp(3).toLocalDateTime(),
+                    rs.getLong(4)));
+        }, ids, positions);
+        return offRow;
+    }
+
+    private boolean isLedgered(long productId) {
+        List<Integer> stripes = jdbcTemplate.queryForList(SELECT_STRIPES, Integer.class, productId);
+        return !stripes.isEmpty() && stripes.get(0) == 0;
+    }
+
+    private OptionalInt available(long productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(SELECT_AVAILABLE, Integer.class, productId);
+        return stock.isEmpty() ? OptionalInt.empty() : OptionalInt.of(stock.get(0));
+    }
+
+    private void lock(long productId, boolean exclusive, Reason reason) {
+        lock(productId, exclusive, reason.name().toLowerCase());
+    }
+
+    private void lock(long productId, boolean exclusive, String operation) {
+        Boolean acquired = jdbcTemplate.queryForObject(exclusive ? TRY_LOCK : TRY_LOCK_SHARED, Boolean.class, productId);
+        if (!Boolean.TRUE.equals(acquired)) {
+            contention.contended(productId, operation);
+            jdbcTemplate.query(exclusive ? LOCK : LOCK_SHARED, (ResultSetExtractor<Void>) rs -> null, productId);
+        }
+    }
+}
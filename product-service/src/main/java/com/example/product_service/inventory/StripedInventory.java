@@ -0,0 +1,142 @@
+package com.example.product_service.inventory;
+
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.ProductStockStripe;
+import com.example.product_service.repository.OffRowStock;
+import com.example.product_service.repository.ProductStockStripeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Striped stock for hot products. The stock of a striped product is split across N sub-counter rows so
+ * that concurrent checkouts of the same product lock different rows instead of queueing on one.
+ * Every method must run inside the caller's transaction.
+ */
+@Component
+public class StripedInventory {
+    private static final Logger log = LoggerFactory.getLogger(StripedInventory.class);
+    public static final int MIN_STRIPES = 2;
+    public static final int MAX_STRIPES = 64;
+    private static final int PICK_ATTEMPTS = 8;
+
+    private final ProductStockStripeRepository stripeRepository;
+
+    public StripedInventory(ProductStockStripeRepository stripeRepository) {
+        this.stripeRepository = stripeRepository;
+    }
+
+    /**
+     * Takes {@code quantity} from the product's stripes. Returns false, without changing anything,
+     * when the stripes together hold less than that.
+     * <p>
+     * A random free stripe that covers the quantity is locked with SKIP LOCKED. When every such stripe is
+     * held by a concurrent checkout, the decrement queues on one of them at random instead. Only when no
+     * single stripe can cover the quantity are all stripes locked, in stripe order, and the quantity taken
+     * across several of them.
+     */
+    public boolean tryDecrement(long productId, int quantity) {
+        for (int attempt = 0; attempt < PICK_ATTEMPTS; attempt++) {
+            Optional<Integer> free = stripeRepository.lockAnyStripeWithStock(productId, quantity);
+            if (free.isPresent()) {
+                return stripeRepository.decrementStock(productId, free.get(), quantity) == 1;
+            }
+            List<Integer> busy = stripeRepository.findStripesWithStock(productId, quantity);
+            if (busy.isEmpty()) {
+                break;
+            }
+            int stripe = busy.get(ThreadLocalRandom.current().nextInt(busy.size()));
+            if (stripeRepository.decrementStock(productId, stripe, quantity) == 1) {
+                return true;
+            }
+        }
+
+        // Rejections (the common case once a sale is sold out) must not lock every stripe
+        if (stripeRepository.sumStock(productId) < quantity) {
+            return false;
+        }
+        List<ProductStockStripe> locked = stripeRepository.findAllByProductIdForUpdate(productId);
+        long available = locked.stream().mapToLong(ProductStockStripe::getStock).sum();
+        if (available < quantity) {
+            return false;
+        }
+        log.debug("No single stripe of product {} holds {}, taking it across stripes", productId, quantity);
+        LocalDateTime now = LocalDateTime.now();
+        int remaining = quantity;
+        for (ProductStockStripe stripe : locked) {
+            int taken = Math.min(stripe.getStock(), remaining);
+            if (taken > 0) {
+                stripe.setStock(stripe.getStock() - taken);
+                stripe.setUpdatedAt(now);
+                remaining -= taken;
+            }
+        }
+        stripeRepository.saveAll(locked);
+        return true;
+    }
+
+    /**
+     * Adds {@code quantity} to a random stripe. Returns false when the product has no such stripe,
+     * i.e. striping was switched off or resized concurrently.
+     */
+    public boolean increment(long productId, int stripes, int quantity) {
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        return stripeRepository.incrementStock(productId, stripe, quantity) == 1;
+    }
+
+    /**
+     * Locks the product's stripes and returns the stock they hold.
+     */
+    public long lockStock(long productId) {
+        return stripeRepository.findAllByProductIdForUpdate(productId).stream()
+                .mapToLong(ProductStockStripe::getStock)
+                .sum();
+    }
+
+    /**
+     * Replaces the product's stripes with {@code stripes} rows sharing {@code total} as evenly as possible.
+     * Existing rows are reused; {@code stripes == 0} removes them all.
+     */
+    public void spread(long productId, int stripes, long total) {
+        List<ProductStockStripe> current = stripeRepository.findAllByProductIdForUpdate(productId);
+        LocalDateTime now = LocalDateTime.now();
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            int share = Math.toIntExact(total / stripes + (stripe < total % stripes ? 1 : 0));
+            if (stripe < current.size()) {
+                current.get(stripe).setStock(share);
+                current.get(stripe).setUpdatedAt(now);
+            } else {
+                stripeRepository.save(new ProductStockStripe(productId, stripe, share, now));
+            }
+        }
+        if (current.size() > stripes) {
+            stripeRepository.deleteAll(current.subList(stripes, current.size()));
+        }
+        log.debug("Spread {} units of product {} across {} stripes", total, productId, stripes);
+    }
+
+    /**
+     * Stripe totals of the striped products among {@code products}, keyed by product id.
+     * Issues no query when none of them is striped.
+     */
+    public Map<Long, OffRowStock> totalsFor(Collection<Product> products) {
+        List<Long> striped = products.stream()
+                .filter(product -> product.getStockStripes() > 0)
+                .map(Product::getId)
+                .toList();
+        if (striped.isEmpty()) {
+            return Map.of();
+        }
+        return stripeRepository.findTotalsByProductIds(striped).stream()
+                .collect(Collectors.toMap(OffRowStock::productId, Function.identity()));
+    }
+}
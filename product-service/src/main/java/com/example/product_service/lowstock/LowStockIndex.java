@@ -0,0 +1,92 @@
+package com.example.product_service.lowstock;
+
+import com.example.product_service.dto.ProductSummaryDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory view of every product ordered by stock, lowest first, for finding products about to sell out.
+ * <p>
+ * Products sit in a stock-ordered tree and are also indexed by id, so a stock change finds the product's
+ * node directly and moves it in O(log n). The N lowest products are the first N nodes of the tree; with a
+ * threshold the walk simply stops at the first product at or above it. Reads share a read lock, mutations
+ * take the write lock.
+ */
+@Component
+public class LowStockIndex {
+    private static final Comparator<Entry> BY_STOCK = Comparator.comparingInt(Entry::stock)
+            .thenComparingLong(Entry::productId);
+
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private final TreeSet<Entry> byStock = new TreeSet<>(BY_STOCK);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Entry(long productId, String name, BigDecimal price, int stock) {
+    }
+
+    public void put(long productId, String name, BigDecimal price, int stock) {
+        lock.writeLock().lock();
+        try {
+            replace(byId.get(productId), new Entry(productId, name, price, stock));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = byId.remove(productId);
+            if (entry != null) {
+                byStock.remove(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} products with the lowest stock, lowest first and by id among equal stock.
+     * With {@code below}, only products whose stock is less than it are returned.
+     */
+    public List<ProductSummaryDto> lowest(int limit, Integer below) {
+        lock.readLock().lock();
+        try {
+            List<ProductSummaryDto> result = new ArrayList<>(Math.min(limit, byStock.size()));
+            for (Entry entry : byStock) {
+                if (result.size() == limit || (below != null && entry.stock() >= below)) {
+                    break;
+                }
+                result.add(new ProductSummaryDto(entry.productId(), entry.name(), entry.price(), entry.stock()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void replace(Entry previous, Entry entry) {
+        if (previous != null) {
+            byStock.remove(previous);
+        }
+        byId.put(entry.productId(), entry);
+        byStock.add(entry);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.product_service.lowstock;
+
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.entity.Product;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.index.BackgroundRebuild;
+import com.example.product_service.index.ChangeFeedCursor;
+import com.example.product_service.index.ProductRefresh;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.OffRowStock;
+import com.example.product_service.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@link LowStockIndex} in sync with the database. It is seeded once at startup; after that, created and
+ * updated products are applied straight from their change event. Stock changes carry no state and happen on
+ * the hot path, so, as for the price facets, they only mark the product, and so do changes other instances
+ * record in the change outbox; a scheduled refresh reads marked products back in batches. The view therefore
+ * trails the database by about one refresh interval, and each refreshed product costs one O(log n) move.
+ */
+@Component
+public class LowStockIndexer {
+    private static final Logger log = LoggerFactory.getLogger(LowStockIndexer.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final LowStockIndex index;
+    private final StockLedger stockLedger;
+    private final BackgroundRebuild rebuilder;
+    private final ProductRefresh refresh;
+    private final ChangeFeedCursor feed;
+
+    public LowStockIndexer(LowStockIndex index, ProductRepository repository, StockLedger stockLedger,
+                           ProductChangeOutbox outbox) {
+        this.index = index;
+        this.stockLedger = stockLedger;
+        this.rebuilder = new BackgroundRebuild("low-stock view", repository, BATCH_SIZE);
+        this.refresh = new ProductRefresh(this, repository, rebuilder, BATCH_SIZE);
+        this.feed = new ChangeFeedCursor(outbox, BATCH_SIZE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        rebuilder.start("low-stock-rebuild", this::rebuild);
+    }
+
+    void rebuild() {
+        feed.start();
+        rebuilder.run(batch -> {
+            Map<Long, OffRowStock> offRow = offRowStock(batch);
+            synchronized (this) {
+                batch.stream()
+                        .filter(product -> !rebuilder.changedDuringRebuild(product.getId()))
+                        .forEach(product -> put(product, offRow));
+            }
+        }, index::size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.changeType() != ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            rebuilder.changed(event.productId());
+            refresh.changed(event.productId());
+        }
+        switch (event.changeType()) {
+            case CREATED, UPDATED -> index.put(event.productId(), event.product().name(),
+                    event.product().price(), event.product().stock());
+            case DELETED -> index.remove(event.productId());
+            case STOCK_CHANGED -> refresh.mark(event.productId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.low-stock.refresh-interval:1s}")
+    public void refresh() {
+        feed.catchUp(change -> refresh.mark(change.productId()));
+        int refreshed = refresh.refresh(this::offRowStock, this::put, index::remove);
+        if (refreshed > 0) {
+            log.debug("Refreshed low-stock levels for {} products", refreshed);
+        }
+    }
+
+    private Map<Long, OffRowStock> offRowStock(List<Product> products) {
+        return ReadRouting.onPrimary(() -> stockLedger.offRowStock(products));
+    }
+
+    private void put(Product product, Map<Long, OffRowStock> offRow) {
+        index.put(product.getId(), product.getName(), product.getPrice(),
+                ProductMapper.toSummaryDto(product, offRow.get(product.getId())).stock());
+    }
+}
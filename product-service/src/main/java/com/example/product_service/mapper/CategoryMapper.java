@@ -0,0 +1,17 @@
+package com.example.product_service.mapper;
+
+import com.example.product_service.dto.CategoryDto;
+import com.example.product_service.entity.Category;
+
+public class CategoryMapper {
+
+    public static CategoryDto toDto(Category category) {
+        return new CategoryDto(
+                category.getId(),
+                category.getName(),
+                category.getParentId(),
+                category.getCreatedAt(),
+                category.getUpdatedAt()
+        );
+    }
+}
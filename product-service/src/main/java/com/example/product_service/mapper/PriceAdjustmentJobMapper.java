@@ -0,0 +1,25 @@
+package com.example.product_service.mapper;
+
+import com.example.product_service.dto.PriceAdjustmentJobDto;
+import com.example.product_service.entity.PriceAdjustmentJob;
+
+public class PriceAdjustmentJobMapper {
+
+    public static PriceAdjustmentJobDto toDto(PriceAdjustmentJob job) {
+        return new PriceAdjustmentJobDto(
+                job.getId(),
+                job.getStatus(),
+                job.getPercent(),
+                job.getMinId(),
+                job.getMaxId(),
+                job.getCategoryId(),
+                job.getNamePattern(),
+                job.getMatched(),
+                job.getUpdated(),
+                job.isCancelRequested(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
@@ -3,6 +3,9 @@ package com.example.product_service.mapper;
 import com.example.product_service.dto.ProductDetailsDto;
 import com.example.product_service.dto.ProductSummaryDto;
 import com.example.product_service.entity.Product;
+import com.example.product_service.repository.OffRowStock;
+
+import java.time.LocalDateTime;
 
 public class ProductMapper {
 
@@ -13,8 +16,10 @@ public class ProductMapper {
                 product.getDescription(),
                 product.getPrice(),
                 product.getStock(),
+                categoryId(product),
                 product.getCreatedAt(),
-                product.getUpdatedAt()
+                product.getUpdatedAt(),
+                revision(product, 0)
         );
     }
 
@@ -26,4 +31,60 @@ public class ProductMapper {
                 product.getStock()
         );
     }
+
+    /**
+     * Maps a product whose stock is partly held outside its row: stock is the row's own stock plus
+     * {@code offRow}, and the last change to those counts as a modification. {@code offRow} may be null
+     * when the product holds nothing outside its row.
+     */
+    public static ProductDetailsDto toDetailsDto(Product product, OffRowStock offRow) {
+        if (offRow == null) {
+            return toDetailsDto(product);
+        }
+        LocalDateTime updatedAt = offRow.updatedAt().isAfter(product.getUpdatedAt())
+                ? offRow.updatedAt()
+                : product.getUpdatedAt();
+        return new ProductDetailsDto(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                Math.toIntExact(product.getStock() + offRow.stock()),
+                categoryId(product),
+                product.getCreatedAt(),
+                updatedAt,
+                revision(product, offRow.writes())
+        );
+    }
+
+    /**
+     * Identifies one state of a product, for entity tags. The row version moves with every change of the row
+     * except a ledger fold, which moves the ledger position instead; {@code offRowWrites} counts the committed
+     * stock writes since then, see {@link OffRowStock#writes()}. Timestamps would not do: they are taken when a
+     * transaction starts, so a write committing after a later-started one would leave their maximum unchanged.
+     */
+    public static String revision(Product product, long offRowWrites) {
+        return revision(product.getVersion(), product.getStockLedgerPosition(), offRowWrites);
+    }
+
+    public static String revision(long version, long stockLedgerPosition, long offRowWrites) {
+        return version + "." + stockLedgerPosition + "." + offRowWrites;
+    }
+
+    // Reads the id off the lazy reference without loading the category
+    private static Long categoryId(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    public static ProductSummaryDto toSummaryDto(Product product, OffRowStock offRow) {
+        if (offRow == null) {
+            return toSummaryDto(product);
+        }
+        return new ProductSummaryDto(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                Math.toIntExact(product.getStock() + offRow.stock())
+        );
+    }
 }
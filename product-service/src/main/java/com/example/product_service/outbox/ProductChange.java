@@ -0,0 +1,45 @@
+package com.example.product_service.outbox;
+
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One outbox row. {@code payload} is the product as JSON for {@code CREATED} and {@code UPDATED}, null otherwise.
+ */
+public record ProductChange(
+        Position position,
+        long productId,
+        ChangeType changeType,
+        String payload,
+        LocalDateTime createdAt
+) {
+    /**
+     * Place of a change in the feed. Its string form is the cursor handed to consumers.
+     */
+    public record Position(long txId, long id) {
+        public static final Position START = new Position(0, 0);
+
+        public static Position parse(String cursor) {
+            int separator = cursor.indexOf('-');
+            try {
+                if (separator > 0) {
+                    Position position = new Position(
+                            Long.parseLong(cursor.substring(0, separator)),
+                            Long.parseLong(cursor.substring(separator + 1)));
+                    if (position.txId() > 0 && position.id() > 0) {
+                        return position;
+                    }
+                }
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid change feed cursor: " + cursor);
+        }
+
+        @Override
+        public String toString() {
+            return txId + "-" + id;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.product_service.outbox;
+
+import com.example.product_service.event.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outbox of product changes, written in the same transaction as the change itself so the feed can neither
+ * miss a committed change nor report one that rolled back.
+ * <p>
+ * Rows are ordered by {@code (tx_id, id)} rather than by id alone. Ids are handed out when a row is inserted,
+ * not when its transaction commits, so a reader going by id could move past a row that is still uncommitted
+ * and never see it. Only rows of transactions older than every transaction still running are read; anything
+ * that commits later has a higher transaction id and therefore sorts after them. The flip side is that one
+ * long-running transaction holds the feed back until it ends.
+ * <p>
+ * The table carries database defaults, so it is created here rather than through the entity model, the same
+ * way {@link com.example.product_service.cache.CatalogVersion} creates its sequence.
+ */
+@Component
+public class ProductChangeOutbox {
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS product_changes (
+                id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                tx_id bigint NOT NULL DEFAULT txid_current(),
+                product_id bigint NOT NULL,
+                change_type varchar(20) NOT NULL,
+                payload text,
+                created_at timestamp NOT NULL DEFAULT LOCALTIMESTAMP
+            )
+            """;
+    private static final String CREATE_POSITION_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_product_changes_position ON product_changes (tx_id, id)";
+    private static final String CREATE_CREATED_AT_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_product_changes_created_at ON product_changes (created_at)";
+
+    private static final String INSERT = """
+            INSERT INTO product_changes (product_id, change_type, payload) VALUES (?, ?, ?)
+            """;
+
+    private static final String SELECT_AFTER = """
+            SELECT id, tx_id, product_id, change_type, payload, created_at
+            FROM product_changes
+            WHERE (tx_id, id) > (?, ?)
+              AND tx_id < txid_snapshot_xmin(txid_current_snapshot())
+            ORDER BY tx_id, id
+            LIMIT ?
+            """;
+
+    private static final String SELECT_KEYS_AFTER = """
+            SELECT id, tx_id, product_id, change_type
+            FROM product_changes
+            WHERE (tx_id, id) > (?, ?)
+              AND tx_id < txid_snapshot_xmin(txid_current_snapshot())
+            ORDER BY tx_id, id
+            LIMIT ?
+            """;
+
+    private static final String SELECT_LATEST = """
+            SELECT tx_id, id
+            FROM product_changes
+            WHERE tx_id < txid_snapshot_xmin(txid_current_snapshot())
+            ORDER BY tx_id DESC, id DESC
+            LIMIT 1
+            """;
+
+    private static final String EXISTS = "SELECT EXISTS (SELECT 1 FROM product_changes WHERE tx_id = ? AND id = ?)";
+
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM product_changes
+            WHERE id IN (
+                SELECT id FROM product_changes
+                WHERE created_at < LOCALTIMESTAMP - make_interval(secs => ?)
+                LIMIT ?
+            )
+            """;
+
+    /**
+     * Inserts outbox rows for products merged by a bulk statement. Selecting from {@code products} lets one
+     * statement cover any number of ids; the payload is built to the same JSON shape as
+     * {@link com.example.product_service.dto.ProductDetailsDto}, with the stock held outside the row added
+     * the way {@link com.example.product_service.inventory.StockLedger#offRowStock} reads it.
+     */
+    public static final String INSERT_FROM_PRODUCTS = """
+            INSERT INTO product_changes (product_id, change_type, payload)
+            SELECT p.id, ?, json_build_object(
+                'id', p.id,
+                'name', p.name,
+                'description', p.description,
+                'price', p.price,
+                'stock', p.stock + CASE
+                    WHEN p.stock_stripes > 0 THEN
+                        (SELECT COALESCE(SUM(s.stock), 0) FROM product_stock_stripes s WHERE s.product_id = p.id)
+                    ELSE
+                        (SELECT COALESCE(SUM(l.delta), 0) FROM stock_ledger l
+                         WHERE l.product_id = p.id AND l.id > p.stock_ledger_position)
+                    END,
+                'categoryId', p.category_id,
+                'createdAt', p.created_at,
+                'updatedAt', p.updated_at
+            )::text
+            FROM products p
+            WHERE p.id = ANY(?)
+            ORDER BY p.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ProductChangeOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void createTable() {
+        jdbcTemplate.execute(CREATE_TABLE);
+        jdbcTemplate.execute(CREATE_POSITION_INDEX);
+        jdbcTemplate.execute(CREATE_CREATED_AT_INDEX);
+    }
+
+    /**
+     * Records a change. Must run inside the transaction that makes the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(ProductChangedEvent event) {
+        jdbcTemplate.update(INSERT, event.productId(), event.changeType().name(), toJson(event));
+    }
+
+    /**
+     * Records the same kind of change for many products with one statement, reading their current state
+     * from {@code products}. Must run inside the transaction that makes the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<Long> productIds, ProductChangedEvent.ChangeType changeType) {
+        jdbcTemplate.update(INSERT_FROM_PRODUCTS, changeType.name(), productIds.toArray(Long[]::new));
+    }
+
+    /**
+     * Returns up to {@code limit} committed changes that sort after the given position, oldest first.
+     */
+    public List<ProductChange> readAfter(ProductChange.Position after, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER, (rs, rowNum) -> new ProductChange(
+                new ProductChange.Position(rs.getLong("tx_id"), rs.getLong("id")),
+                rs.getLong("product_id"),
+                ProductChangedEvent.ChangeType.valueOf(rs.getString("change_type")),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toLocalDateTime()
+        ), after.txId(), after.id(), limit);
+    }
+
+    /**
+     * Same as {@link #readAfter} without the payloads and timestamps, for consumers that only need to know
+     * which products changed and how.
+     */
+    public List<ProductChange> readKeysAfter(ProductChange.Position after, int limit) {
+        return jdbcTemplate.query(SELECT_KEYS_AFTER, (rs, rowNum) -> new ProductChange(
+                new ProductChange.Position(rs.getLong("tx_id"), rs.getLong("id")),
+                rs.getLong("product_id"),
+                ProductChangedEvent.ChangeType.valueOf(rs.getString("change_type")),
+                null,
+                null
+        ), after.txId(), after.id(), limit);
+    }
+
+    /**
+     * Position of the last change readable now. Every change committed later sorts after it, so reading on
+     * from it misses nothing that was not yet visible.
+     */
+    public ProductChange.Position latestPosition() {
+        return jdbcTemplate.query(SELECT_LATEST, (rs, rowNum) -> new ProductChange.Position(
+                rs.getLong("tx_id"), rs.getLong("id"))).stream().findFirst().orElse(ProductChange.Position.START);
+    }
+
+    public boolean contains(ProductChange.Position position) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS, Boolean.class, position.txId(), position.id()));
+    }
+
+    /**
+     * Deletes up to {@code batchSize} changes older than {@code retention} and returns how many there were.
+     */
+    public int deleteOlderThan(Duration retention, int batchSize) {
+        return jdbcTemplate.update(DELETE_EXPIRED, retention.toSeconds(), batchSize);
+    }
+
+    private String toJson(ProductChangedEvent event) {
+        if (event.product() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(event.product());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product " + event.productId(), e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.product_service.repository;
+
+import com.example.product_service.entity.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Categories and their closure table. Statements that change the tree's shape must run after
+ * {@link #lockPaths()} in the same transaction, so two concurrent moves cannot build a cycle between them.
+ */
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    boolean existsByParentId(long parentId);
+
+    @Query("""
+            SELECT count(p) > 0 FROM CategoryPath p
+            WHERE p.ancestorId = :ancestorId AND p.descendantId = :descendantId
+            """)
+    boolean isAncestorOf(@Param("ancestorId") long ancestorId, @Param("descendantId") long descendantId);
+
+    // Conflicts with itself but not with readers, so tree changes queue up while listings carry on
+    @Modifying
+    @Query(value = "LOCK TABLE category_paths IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockPaths();
+
+    /**
+     * Links a new category to itself and to every ancestor of its parent, if it has one.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO category_paths (ancestor_id, descendant_id, depth)
+            SELECT ancestor_id, :id, depth + 1 FROM category_paths WHERE descendant_id = :parentId
+            UNION ALL
+            SELECT :id, :id, 0
+            """, nativeQuery = true)
+    void insertPaths(@Param("id") long id, @Param("parentId") Long parentId);
+
+    /**
+     * Unlinks the subtree rooted at the category from every ancestor outside it, keeping the subtree's own paths.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM category_paths p
+            USING category_paths subtree
+            WHERE subtree.ancestor_id = :id
+              AND p.descendant_id = subtree.descendant_id
+              AND p.ancestor_id NOT IN (SELECT descendant_id FROM category_paths WHERE ancestor_id = :id)
+            """, nativeQuery = true)
+    void detachSubtree(@Param("id") long id);
+
+    /**
+     * Links every member of the subtree rooted at the category to the new parent and all of its ancestors.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO category_paths (ancestor_id, descendant_id, depth)
+            SELECT above.ancestor_id, subtree.descendant_id, above.depth + subtree.depth + 1
+            FROM category_paths above
+            CROSS JOIN category_paths subtree
+            WHERE above.descendant_id = :parentId AND subtree.ancestor_id = :id
+            """, nativeQuery = true)
+    void attachSubtree(@Param("id") long id, @Param("parentId") long parentId);
+
+    @Modifying
+    @Query(value = "DELETE FROM category_paths WHERE descendant_id = :id", nativeQuery = true)
+    void deletePaths(@Param("id") long id);
+}
@@ -0,0 +1,12 @@
+package com.example.product_service.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock a product holds outside its own {@code stock} column, and the most recent change to it: the sum of a
+ * striped product's sub-counters, or the ledger entries of a regular product not yet folded into its row.
+ * {@code writes} counts the committed changes to that stock and is part of the product's revision; unlike
+ * {@code updatedAt}, which is a transaction start time, it moves with every commit whatever their order.
+ */
+public record OffRowStock(long productId, long stock, LocalDateTime updatedAt, long writes) {
+}
@@ -0,0 +1,77 @@
+package com.example.product_service.repository;
+
+import com.example.product_service.entity.PriceAdjustmentJob;
+import com.example.product_service.entity.PriceAdjustmentJob.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+public interface PriceAdjustmentJobRepository extends JpaRepository<PriceAdjustmentJob, UUID> {
+
+    @Query("SELECT j.cancelRequested FROM PriceAdjustmentJob j WHERE j.id = :id")
+    boolean isCancelRequested(@Param("id") UUID id);
+
+    // The writes below only apply while the caller still holds the job's lease; they return 0 once it is lost
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE PriceAdjustmentJob j
+            SET j.status = :status, j.matched = :matched, j.updatedAt = LOCAL DATETIME
+            WHERE j.id = :id AND j.leaseToken = :leaseToken
+            """)
+    int start(@Param("id") UUID id, @Param("leaseToken") UUID leaseToken, @Param("status") Status status,
+              @Param("matched") long matched);
+
+    // Runs in the transaction of the chunk it counts, so the progress can never disagree with the prices
+    @Modifying
+    @Query(value = """
+            UPDATE price_adjustment_jobs
+            SET updated = updated + :count,
+                last_id = :lastId,
+                lease_expires_at = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds),
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :id AND lease_token = :leaseToken
+            """, nativeQuery = true)
+    int addProgress(@Param("id") UUID id, @Param("leaseToken") UUID leaseToken, @Param("count") long count,
+                    @Param("lastId") long lastId, @Param("leaseSeconds") long leaseSeconds);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE PriceAdjustmentJob j
+            SET j.status = :status, j.error = :error, j.finishedAt = LOCAL DATETIME, j.leaseExpiresAt = NULL,
+                j.updatedAt = LOCAL DATETIME
+            WHERE j.id = :id AND j.leaseToken = :leaseToken
+            """)
+    int finish(@Param("id") UUID id, @Param("leaseToken") UUID leaseToken, @Param("status") Status status,
+               @Param("error") String error);
+
+    /**
+     * Gives the job up without finishing it, so any instance can claim it right away.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE PriceAdjustmentJob j
+            SET j.leaseExpiresAt = NULL, j.updatedAt = LOCAL DATETIME
+            WHERE j.id = :id AND j.leaseToken = :leaseToken
+            """)
+    int release(@Param("id") UUID id, @Param("leaseToken") UUID leaseToken);
+
+    /**
+     * Flags a job that has not finished yet. Returns 0 if the job is unknown or already finished.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE PriceAdjustmentJob j
+            SET j.cancelRequested = true, j.updatedAt = LOCAL DATETIME
+            WHERE j.id = :id AND j.finishedAt IS NULL
+            """)
+    int requestCancel(@Param("id") UUID id);
+}
@@ -1,8 +1,76 @@
 package com.example.product_service.repository;
 
 import com.example.product_service.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    /**
+     * Locks the given rows with SELECT ... FOR UPDATE. Rows are returned and locked in id order so that
+     * concurrent batches touching overlapping products always acquire their locks in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids AND p.stockStripes = 0 ORDER BY p.id")
+    List<Product> findAllUnstripedById(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids AND p.stockStripes > 0")
+    List<Product> findAllStripedById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams every product in id order through a server-side cursor, fetching 500 rows
+     * per round trip. The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllForExport();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p WHERE p.updatedAt >= :updatedSince ORDER BY p.id")
+    Stream<Product> streamUpdatedSinceForExport(@Param("updatedSince") LocalDateTime updatedSince);
+
+    @Query("SELECT p.stockStripes FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockStripesById(@Param("id") long id);
+
+    boolean existsByCategoryId(long categoryId);
+
+    /**
+     * The product's revision as {@link com.example.product_service.mapper.ProductMapper#revision} computes it
+     * from a loaded product. Stock changes do not touch the product row, so the committed writes to its stripes
+     * or its ledger entries not yet folded into the row count as well.
+     */
+    @Query(value = """
+            SELECT p.version || '.' || p.stock_ledger_position || '.' || CASE
+                WHEN p.stock_stripes > 0 THEN
+                    (SELECT COALESCE(SUM(s.writes), 0) FROM product_stock_stripes s WHERE s.product_id = p.id)
+                ELSE
+                    (SELECT COUNT(*) FROM stock_ledger l
+                     WHERE l.product_id = p.id AND l.id > p.stock_ledger_position)
+                END
+            FROM products p
+            WHERE p.id = :id
+            """, nativeQuery = true)
+    Optional<String> findRevisionById(@Param("id") long id);
 }
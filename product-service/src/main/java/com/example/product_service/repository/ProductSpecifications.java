@@ -0,0 +1,82 @@
+package com.example.product_service.repository;
+
+import com.example.product_service.dto.ProductFilter;
+import com.example.product_service.entity.CategoryPath;
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.ProductStockStripe;
+import com.example.product_service.entity.StockMovement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilter filter) {
+        Specification<Product> spec = Specification.unrestricted();
+        if (filter.minPrice() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), filter.maxPrice()));
+        }
+        if (Boolean.TRUE.equals(filter.inStock())) {
+            spec = spec.and(ProductSpecifications::inStock);
+        }
+        if (filter.namePrefix() != null && !filter.namePrefix().isBlank()) {
+            String pattern = escapeLike(filter.namePrefix()) + "%";
+            spec = spec.and((root, query, cb) -> cb.like(root.get("name"), pattern, '\\'));
+        }
+        if (filter.categoryId() != null) {
+            spec = spec.and((root, query, cb) -> inSubtree(root, query, cb, filter.categoryId()));
+        }
+        return spec;
+    }
+
+    // Striped products keep (most of) their stock in ProductStockStripe rows, the others partly in the ledger
+    private static Predicate inStock(Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Subquery<Integer> stripes = query.subquery(Integer.class);
+        Root<ProductStockStripe> stripe = stripes.from(ProductStockStripe.class);
+        stripes.select(stripe.get("stripe")).where(
+                cb.equal(stripe.get("productId"), root.get("id")),
+                cb.greaterThan(stripe.get("stock"), 0)
+        );
+        Subquery<Long> pending = query.subquery(Long.class);
+        Root<StockMovement> movement = pending.from(StockMovement.class);
+        pending.select(cb.sumAsLong(movement.get("delta"))).where(
+                cb.equal(movement.get("productId"), root.get("id")),
+                cb.greaterThan(movement.get("id"), root.get("stockLedgerPosition"))
+        );
+        return cb.or(
+                cb.greaterThan(cb.sum(root.get("stock").as(Long.class), cb.coalesce(pending, 0L)), 0L),
+                cb.and(cb.greaterThan(root.get("stockStripes"), 0), cb.exists(stripes))
+        );
+    }
+
+    // The closure table holds a row for every (ancestor, descendant) pair, so the whole subtree is one lookup
+    private static Predicate inSubtree(Root<Product> root, CriteriaQuery<?> query, CriteriaBuilder cb, long categoryId) {
+        Subquery<Long> subtree = query.subquery(Long.class);
+        Root<CategoryPath> path = subtree.from(CategoryPath.class);
+        subtree.select(path.get("descendantId")).where(cb.equal(path.get("ancestorId"), categoryId));
+        return root.get("category").get("id").in(subtree);
+    }
+
+    public static Specification<Product> idAfter(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    public static Specification<Product> nameAfter(String name) {
+        return (root, query, cb) -> cb.greaterThan(root.get("name"), name);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.product_service.repository;
+
+import com.example.product_service.entity.ProductStockStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductStockStripeRepository extends JpaRepository<ProductStockStripe, ProductStockStripe.Key> {
+
+    /**
+     * Decrements a single stripe in one conditional statement so concurrent checkouts cannot oversell it.
+     * Returns 0 when the stripe is missing or holds less than {@code quantity}.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ProductStockStripe s
+            SET s.stock = s.stock - :quantity, s.writes = s.writes + 1, s.updatedAt = LOCAL DATETIME
+            WHERE s.productId = :productId AND s.stripe = :stripe AND s.stock >= :quantity
+            """)
+    int decrementStock(@Param("productId") long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    /**
+     * Locks one random stripe that can cover {@code quantity} on its own. Stripes held by concurrent
+     * transactions are skipped rather than waited for, so this never blocks.
+     */
+    @Query(value = """
+            SELECT stripe FROM product_stock_stripes
+            WHERE product_id = :productId AND stock >= :quantity
+            ORDER BY random()
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<Integer> lockAnyStripeWithStock(@Param("productId") long productId, @Param("quantity") int quantity);
+
+    @Query("SELECT COALESCE(SUM(s.stock), 0) FROM ProductStockStripe s WHERE s.productId = :productId")
+    long sumStock(@Param("productId") long productId);
+
+    @Query("SELECT s.stripe FROM ProductStockStripe s WHERE s.productId = :productId AND s.stock >= :quantity")
+    List<Integer> findStripesWithStock(@Param("productId") long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("""
+            UPDATE ProductStockStripe s
+            SET s.stock = s.stock + :quantity, s.writes = s.writes + 1, s.updatedAt = LOCAL DATETIME
+            WHERE s.productId = :productId AND s.stripe = :stripe
+            """)
+    int incrementStock(@Param("productId") long productId, @Param("stripe") int stripe, @Param("quantity") int quantity);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStockStripe s WHERE s.productId = :productId ORDER BY s.stripe")
+    List<ProductStockStripe> findAllByProductIdForUpdate(@Param("productId") long productId);
+
+    @Query("""
+            SELECT new com.example.product_service.repository.OffRowStock(s.productId, SUM(s.stock), MAX(s.updatedAt), SUM(s.writes))
+            FROM ProductStockStripe s
+            WHERE s.productId IN :productIds
+            GROUP BY s.productId
+            """)
+    List<OffRowStock> findTotalsByProductIds(@Param("productIds") Collection<Long> productIds);
+}
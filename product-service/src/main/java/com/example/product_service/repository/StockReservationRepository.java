@@ -0,0 +1,31 @@
+package com.example.product_service.repository;
+
+import com.example.product_service.entity.StockReservation;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.holdId = :holdId ORDER BY r.id")
+    List<StockReservation> findAllByHoldIdForUpdate(@Param("holdId") UUID holdId);
+
+    /**
+     * Locks the oldest expired lines, skipping lines that a concurrent sweep, commit or release has locked,
+     * so several instances can sweep at once without waiting on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM StockReservation r WHERE r.expiresAt <= :now ORDER BY r.expiresAt")
+    List<StockReservation> findExpiredForUpdate(@Param("now") LocalDateTime now, Limit limit);
+}
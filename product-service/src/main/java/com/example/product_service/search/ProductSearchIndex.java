@@ -0,0 +1,252 @@
+package com.example.product_service.search;
+
+import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductSearchHitDto;
+import com.example.product_service.dto.ProductSearchPageDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name and description, ranked with BM25.
+ * <p>
+ * Documents get a dense internal id so postings can be kept as primitive arrays. Updates and deletes
+ * tombstone the old document instead of rewriting postings; once tombstones outnumber half of the live
+ * documents the postings are compacted in place. Reads share a read lock, mutations take the write lock.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Name terms count as if they appeared this many times, a cheap form of field boosting
+    private static final int NAME_BOOST = 3;
+    private static final int COMPACTION_MIN_DEAD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private IndexedDoc[] docs = new IndexedDoc[1024];
+    private int docCount;
+    private int liveCount;
+    private long totalLength;
+
+    // At most one idle accumulator per core is kept, however many request threads search at once
+    private final BlockingQueue<Scratch> scratchPool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private record IndexedDoc(long productId, String name, BigDecimal price, int length) {
+    }
+
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    // Score accumulator sized to the document array, pooled across queries to avoid boxing and per-query allocation
+    private static final class Scratch {
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+    }
+
+    public void index(ProductDetailsDto product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        TextAnalyzer.tokenize(product.name()).forEach(term -> frequencies.merge(term, NAME_BOOST, Integer::sum));
+        TextAnalyzer.tokenize(product.description()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(product.id());
+            if (docCount == docs.length) {
+                docs = Arrays.copyOf(docs, docCount * 2);
+            }
+            int doc = docCount++;
+            docs[doc] = new IndexedDoc(product.id(), product.name(), product.price(), length);
+            live.set(doc);
+            liveCount++;
+            totalLength += length;
+            docByProduct.put(product.id(), doc);
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new PostingList()).add(doc, frequency));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductSearchPageDto search(String query, int page, int size) {
+        List<String> terms = List.copyOf(new LinkedHashSet<>(TextAnalyzer.tokenize(query)));
+        long skipped = (long) page * size;
+
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || liveCount == 0) {
+                return new ProductSearchPageDto(List.of(), 0, page, size);
+            }
+            Scratch pooled = scratchPool.poll();
+            Scratch acc = pooled != null ? pooled : new Scratch();
+            if (acc.scores.length < docCount) {
+                acc.scores = new float[docs.length];
+                acc.touched = new int[docs.length];
+            }
+            int touchedCount = accumulate(terms, acc);
+            if (skipped >= touchedCount) {
+                release(acc, touchedCount);
+                return new ProductSearchPageDto(List.of(), touchedCount, page, size);
+            }
+            // At most one page past the matches, so this fits in an int
+            int wanted = (int) Math.min(skipped + size, touchedCount);
+
+            // Min-heap of the best `wanted` documents; ties are broken by product id for stable paging
+            PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, Math.min(wanted, touchedCount)),
+                    (a, b) -> compareHits(acc.scores, b, a));
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = acc.touched[i];
+                if (top.size() == wanted && compareHits(acc.scores, doc, top.peek()) >= 0) {
+                    continue;
+                }
+                top.offer(doc);
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+
+            Integer[] ranked = top.toArray(Integer[]::new);
+            Arrays.sort(ranked, (a, b) -> compareHits(acc.scores, a, b));
+            List<ProductSearchHitDto> hits = Arrays.stream(ranked)
+                    .skip(skipped)
+                    .map(doc -> {
+                        IndexedDoc indexed = docs[doc];
+                        return new ProductSearchHitDto(indexed.productId(), indexed.name(), indexed.price(), acc.scores[doc]);
+                    })
+                    .toList();
+
+            release(acc, touchedCount);
+            return new ProductSearchPageDto(hits, touchedCount, page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int accumulate(List<String> terms, Scratch acc) {
+        float averageLength = (float) totalLength / liveCount;
+        int touchedCount = 0;
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            // Document frequency includes tombstoned postings until the next compaction; close enough for ranking
+            double idf = Math.log(1 + (liveCount - list.size + 0.5) / (list.size + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                if (!live.get(doc)) {
+                    continue;
+                }
+                int frequency = list.frequencies[i];
+                float norm = K1 * (1 - B + B * docs[doc].length() / averageLength);
+                if (acc.scores[doc] == 0f) {
+                    acc.touched[touchedCount++] = doc;
+                }
+                acc.scores[doc] += (float) (idf * frequency * (K1 + 1) / (frequency + norm));
+            }
+        }
+        return touchedCount;
+    }
+
+    // Only a zeroed accumulator goes back to the pool; one abandoned by an exception is left to the collector
+    private void release(Scratch acc, int touchedCount) {
+        for (int i = 0; i < touchedCount; i++) {
+            acc.scores[acc.touched[i]] = 0f;
+        }
+        scratchPool.offer(acc);
+    }
+
+    private int compareHits(float[] scores, int a, int b) {
+        int byScore = Float.compare(scores[b], scores[a]);
+        return byScore != 0 ? byScore : Long.compare(docs[a].productId(), docs[b].productId());
+    }
+
+    private void removeInternal(long productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc != null) {
+            live.clear(doc);
+            liveCount--;
+            totalLength -= docs[doc].length();
+        }
+    }
+
+    private void compactIfNeeded() {
+        int dead = docCount - liveCount;
+        if (dead < COMPACTION_MIN_DEAD || dead < liveCount / 2) {
+            return;
+        }
+        int[] remap = new int[docCount];
+        IndexedDoc[] compacted = new IndexedDoc[Math.max(1024, liveCount * 2)];
+        int next = 0;
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            remap[doc] = next;
+            compacted[next] = docs[doc];
+            docByProduct.put(docs[doc].productId(), next);
+            next++;
+        }
+        postings.values().removeIf(list -> {
+            int kept = 0;
+            for (int i = 0; i < list.size; i++) {
+                if (live.get(list.docs[i])) {
+                    list.docs[kept] = remap[list.docs[i]];
+                    list.frequencies[kept] = list.frequencies[i];
+                    kept++;
+                }
+            }
+            list.size = kept;
+            return kept == 0;
+        });
+        live.clear();
+        live.set(0, next);
+        docs = compacted;
+        docCount = next;
+    }
+}
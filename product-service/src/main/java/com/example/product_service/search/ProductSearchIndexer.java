@@ -0,0 +1,115 @@
+package com.example.product_service.search;
+
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.event.ProductDemandEvent;
+import com.example.product_service.entity.Product;
+import com.example.product_service.index.BackgroundRebuild;
+import com.example.product_service.index.ChangeFeedCursor;
+import com.example.product_service.index.ProductRefresh;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps {@link ProductSearchIndex} and {@link ProductSuggestIndex} in sync with the database: a full rebuild
+ * runs on a background thread once the application is ready, and committed product changes are applied as
+ * they happen. Products created, updated or deleted by other instances are read from the change outbox and
+ * re-read from the database by a scheduled refresh. Suggestion popularity is the number of units taken on this
+ * instance since startup; it is not persisted.
+ */
+@Component
+public class ProductSearchIndexer {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexer.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final ProductSearchIndex index;
+    private final ProductSuggestIndex suggestIndex;
+    private final BackgroundRebuild rebuilder;
+    private final ProductRefresh refresh;
+    private final ChangeFeedCursor feed;
+    private volatile boolean ready;
+
+    public ProductSearchIndexer(ProductSearchIndex index, ProductSuggestIndex suggestIndex, ProductRepository repository,
+                                ProductChangeOutbox outbox) {
+        this.index = index;
+        this.suggestIndex = suggestIndex;
+        this.rebuilder = new BackgroundRebuild("product search index", repository, BATCH_SIZE);
+        this.refresh = new ProductRefresh(this, repository, rebuilder, BATCH_SIZE);
+        this.feed = new ChangeFeedCursor(outbox, BATCH_SIZE);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        rebuilder.start("product-search-rebuild", this::rebuild);
+    }
+
+    void rebuild() {
+        feed.start();
+        boolean rebuilt = rebuilder.run(batch -> {
+            synchronized (this) {
+                batch.stream()
+                        .filter(product -> !rebuilder.changedDuringRebuild(product.getId()))
+                        .forEach(this::put);
+            }
+        }, index::size);
+        if (rebuilt) {
+            ready = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        rebuilder.changed(event.productId());
+        refresh.changed(event.productId());
+        switch (event.changeType()) {
+            case CREATED, UPDATED -> {
+                index.index(event.product());
+                suggestIndex.put(event.productId(), event.product().name());
+            }
+            case DELETED -> remove(event.productId());
+            case STOCK_CHANGED -> {
+                // Stock is not part of the searchable text
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductDemand(ProductDemandEvent event) {
+        suggestIndex.addWeight(event.productId(), event.quantity());
+    }
+
+    @Scheduled(fixedDelayString = "${product.search.refresh-interval:1s}")
+    public void refresh() {
+        feed.catchUp(change -> {
+            if (change.changeType() != ChangeType.STOCK_CHANGED) {
+                refresh.mark(change.productId());
+            }
+        });
+        int refreshed = refresh.refresh(products -> null, (product, unused) -> put(product), this::remove);
+        if (refreshed > 0) {
+            log.debug("Re-indexed {} changed products", refreshed);
+        }
+    }
+
+    private void put(Product product) {
+        index.index(ProductMapper.toDetailsDto(product));
+        suggestIndex.put(product.getId(), product.getName());
+    }
+
+    private void remove(long productId) {
+        index.remove(productId);
+        suggestIndex.remove(productId);
+    }
+}
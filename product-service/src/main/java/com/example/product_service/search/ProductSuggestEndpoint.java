@@ -0,0 +1,24 @@
+package com.example.product_service.search;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the size and estimated heap footprint of the autocomplete index at {@code /actuator/suggest}.
+ */
+@Component
+@Endpoint(id = "suggest")
+public class ProductSuggestEndpoint {
+
+    private final ProductSuggestIndex suggestIndex;
+
+    public ProductSuggestEndpoint(ProductSuggestIndex suggestIndex) {
+        this.suggestIndex = suggestIndex;
+    }
+
+    @ReadOperation
+    public ProductSuggestIndex.Stats stats() {
+        return suggestIndex.stats();
+    }
+}
@@ -0,0 +1,478 @@
+package com.example.product_service.search;
+
+import com.example.product_service.dto.ProductSuggestionDto;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix autocomplete over normalized product names, ranked by a popularity weight.
+ * <p>
+ * The bulk of the names lives in an immutable snapshot: normalized keys sorted byte-wise and packed into one
+ * UTF-8 array, which is a trie flattened in depth-first order, so the completions of a prefix are one
+ * contiguous range found by binary search. A segment tree over the weights returns the heaviest k entries
+ * of that range in O(k log n) without visiting the rest. Weights change in place; renamed, added and removed
+ * products go to a small sorted overlay (removed ones are tombstoned with a negative weight) that is folded
+ * into a fresh snapshot once it reaches {@link #MAX_OVERLAY}. The fold is built outside the write lock, so
+ * readers only ever wait for the swap.
+ * <p>
+ * Mutations are serialized on the instance monitor; reads share the read lock.
+ */
+@Component
+public class ProductSuggestIndex {
+
+    static final int MAX_OVERLAY = 16_384;
+    private static final int MIN_OVERLAY = 4096;
+    // Rough per-entry overhead of the overlay's objects and map nodes, for the memory estimate
+    private static final int OVERLAY_ENTRY_OVERHEAD = 200;
+
+    private static final Comparator<Entry> ENTRY_ORDER = (a, b) -> {
+        int byKey = Arrays.compareUnsigned(a.key, b.key);
+        return byKey != 0 ? byKey : Long.compare(a.productId, b.productId);
+    };
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Snapshot snapshot = Snapshot.merge(null, List.of());
+    private final TreeSet<Entry> overlay = new TreeSet<>(ENTRY_ORDER);
+    private final Map<Long, Entry> overlayById = new HashMap<>();
+    private int removedFromSnapshot;
+
+    private static final class Entry {
+        private final byte[] key;
+        private final String name;
+        private final long productId;
+        private long weight;
+
+        Entry(byte[] key, String name, long productId, long weight) {
+            this.key = key;
+            this.name = name;
+            this.productId = productId;
+            this.weight = weight;
+        }
+    }
+
+    public record Stats(int entries, int overlayEntries, int tombstones, long memoryBytes) {
+    }
+
+    /**
+     * Adds the product or renames it, keeping the popularity it has gathered so far.
+     */
+    public synchronized void put(long productId, String name) {
+        byte[] key = key(name);
+        long weight = 0;
+        lock.writeLock().lock();
+        try {
+            Entry pending = overlayById.get(productId);
+            int position = pending == null ? snapshot.positionOf(productId) : -1;
+            if (pending != null) {
+                if (pending.name.equals(name)) {
+                    return;
+                }
+                weight = pending.weight;
+                overlay.remove(pending);
+            } else if (position >= 0) {
+                if (snapshot.name(position).equals(name)) {
+                    return;
+                }
+                weight = snapshot.weights[position];
+                snapshot.setWeight(position, -1);
+                removedFromSnapshot++;
+            }
+            Entry entry = new Entry(key, name, productId, weight);
+            overlay.add(entry);
+            overlayById.put(productId, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        foldIfNeeded();
+    }
+
+    public synchronized void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            Entry pending = overlayById.remove(productId);
+            if (pending != null) {
+                overlay.remove(pending);
+                return;
+            }
+            int position = snapshot.positionOf(productId);
+            if (position >= 0) {
+                snapshot.setWeight(position, -1);
+                removedFromSnapshot++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        foldIfNeeded();
+    }
+
+    /**
+     * Adds to the product's popularity. Unknown products are ignored.
+     */
+    public synchronized void addWeight(long productId, long amount) {
+        lock.writeLock().lock();
+        try {
+            Entry pending = overlayById.get(productId);
+            if (pending != null) {
+                pending.weight += amount;
+                return;
+            }
+            int position = snapshot.positionOf(productId);
+            if (position >= 0) {
+                snapshot.setWeight(position, snapshot.weights[position] + amount);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSuggestionDto> suggest(String prefix, int limit) {
+        byte[] key = TextAnalyzer.normalizePhrase(prefix).stripLeading().getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0 || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Entry> candidates = snapshot.top(key, limit);
+            collectOverlay(key, limit, candidates);
+            candidates.sort(Comparator.comparingLong((Entry e) -> e.weight).reversed().thenComparing(ENTRY_ORDER));
+            return candidates.stream()
+                    .limit(limit)
+                    .map(entry -> new ProductSuggestionDto(entry.productId, entry.name))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return snapshot.size - removedFromSnapshot + overlay.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long overlayBytes = 0;
+            for (Entry entry : overlay) {
+                overlayBytes += OVERLAY_ENTRY_OVERHEAD + entry.key.length + 2L * entry.name.length();
+            }
+            return new Stats(
+                    snapshot.size - removedFromSnapshot + overlay.size(),
+                    overlay.size(),
+                    removedFromSnapshot,
+                    snapshot.memoryBytes() + overlayBytes
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectOverlay(byte[] prefix, int limit, List<Entry> candidates) {
+        PriorityQueue<Entry> best = new PriorityQueue<>(Comparator.comparingLong((Entry e) -> e.weight)
+                .thenComparing(ENTRY_ORDER.reversed()));
+        Iterator<Entry> range = overlay.tailSet(new Entry(prefix, null, Long.MIN_VALUE, 0), true).iterator();
+        while (range.hasNext()) {
+            Entry entry = range.next();
+            if (!startsWith(entry.key, 0, entry.key.length, prefix)) {
+                break;
+            }
+            best.offer(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        candidates.addAll(best);
+    }
+
+    private void foldIfNeeded() {
+        int threshold = Math.max(MIN_OVERLAY, Math.min(MAX_OVERLAY, snapshot.size / 8));
+        if (overlay.size() + removedFromSnapshot < threshold) {
+            return;
+        }
+        // Only this (monitor-holding) thread mutates, so the current state can be read without the lock
+        Snapshot rebuilt = Snapshot.merge(snapshot, new ArrayList<>(overlay));
+
+        lock.writeLock().lock();
+        try {
+            snapshot = rebuilt;
+            overlay.clear();
+            overlayById.clear();
+            removedFromSnapshot = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static byte[] key(String name) {
+        return TextAnalyzer.normalizePhrase(name).strip().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean startsWith(byte[] bytes, int from, int to, byte[] prefix) {
+        return to - from >= prefix.length
+                && Arrays.equals(bytes, from, from + prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Sorted entries packed into primitive arrays, with a max segment tree over the weights that stores
+     * the position of the heaviest entry of every node. Equal weights favour the lower position, that is
+     * the alphabetically first name.
+     */
+    private static final class Snapshot {
+        private final int size;
+        private final byte[] keys;
+        private final int[] keyOffsets;
+        private final byte[] names;
+        private final int[] nameOffsets;
+        private final long[] productIds;
+        private final long[] weights;
+        private final int leaves;
+        private final int[] tree;
+        // Product ids in ascending order with their positions, for lookups without a boxed map
+        private final long[] sortedIds;
+        private final int[] positionsById;
+
+        private Snapshot(int size, byte[] keys, int[] keyOffsets, byte[] names, int[] nameOffsets,
+                         long[] productIds, long[] weights) {
+            this.size = size;
+            this.keys = keys;
+            this.keyOffsets = keyOffsets;
+            this.names = names;
+            this.nameOffsets = nameOffsets;
+            this.productIds = productIds;
+            this.weights = weights;
+
+            this.leaves = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+            this.tree = new int[2 * leaves];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < size; i++) {
+                tree[leaves + i] = i;
+            }
+            for (int node = leaves - 1; node >= 1; node--) {
+                tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+            }
+
+            this.positionsById = sortedByProductId(productIds, size);
+            this.sortedIds = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortedIds[i] = productIds[positionsById[i]];
+            }
+        }
+
+        /**
+         * Merges the live entries of {@code base} (null for none) with {@code pending}, which must be sorted,
+         * copying the packed bytes directly so a fold allocates no per-entry objects.
+         */
+        static Snapshot merge(Snapshot base, List<Entry> pending) {
+            int baseSize = base == null ? 0 : base.size;
+            List<byte[]> pendingNames = new ArrayList<>(pending.size());
+            int size = pending.size();
+            int keyBytes = 0;
+            int nameBytes = 0;
+            for (Entry entry : pending) {
+                byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+                pendingNames.add(name);
+                keyBytes += entry.key.length;
+                nameBytes += name.length;
+            }
+            for (int position = 0; position < baseSize; position++) {
+                if (base.weights[position] >= 0) {
+                    size++;
+                    keyBytes += base.keyOffsets[position + 1] - base.keyOffsets[position];
+                    nameBytes += base.nameOffsets[position + 1] - base.nameOffsets[position];
+                }
+            }
+
+            byte[] keys = new byte[keyBytes];
+            int[] keyOffsets = new int[size + 1];
+            byte[] names = new byte[nameBytes];
+            int[] nameOffsets = new int[size + 1];
+            long[] productIds = new long[size];
+            long[] weights = new long[size];
+            int position = 0;
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                while (position < baseSize && base.weights[position] < 0) {
+                    position++;
+                }
+                boolean fromBase = next == pending.size()
+                        || (position < baseSize && base.compareTo(position, pending.get(next)) < 0);
+                if (fromBase) {
+                    keyOffsets[i + 1] = copy(base.keys, base.keyOffsets, position, keys, keyOffsets[i]);
+                    nameOffsets[i + 1] = copy(base.names, base.nameOffsets, position, names, nameOffsets[i]);
+                    productIds[i] = base.productIds[position];
+                    weights[i] = base.weights[position];
+                    position++;
+                } else {
+                    Entry entry = pending.get(next);
+                    byte[] name = pendingNames.get(next);
+                    System.arraycopy(entry.key, 0, keys, keyOffsets[i], entry.key.length);
+                    keyOffsets[i + 1] = keyOffsets[i] + entry.key.length;
+                    System.arraycopy(name, 0, names, nameOffsets[i], name.length);
+                    nameOffsets[i + 1] = nameOffsets[i] + name.length;
+                    productIds[i] = entry.productId;
+                    weights[i] = entry.weight;
+                    next++;
+                }
+            }
+            return new Snapshot(size, keys, keyOffsets, names, nameOffsets, productIds, weights);
+        }
+
+        private static int copy(byte[] from, int[] fromOffsets, int position, byte[] to, int toOffset) {
+            int length = fromOffsets[position + 1] - fromOffsets[position];
+            System.arraycopy(from, fromOffsets[position], to, toOffset, length);
+            return toOffset + length;
+        }
+
+        private int compareTo(int position, Entry entry) {
+            int byKey = Arrays.compareUnsigned(keys, keyOffsets[position], keyOffsets[position + 1],
+                    entry.key, 0, entry.key.length);
+            return byKey != 0 ? byKey : Long.compare(productIds[position], entry.productId);
+        }
+
+        // Bottom-up merge sort of positions by product id, avoiding a boxed comparator sort
+        private static int[] sortedByProductId(long[] productIds, int size) {
+            int[] order = new int[size];
+            int[] buffer = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            for (int width = 1; width < size; width *= 2) {
+                for (int lo = 0; lo < size; lo += 2 * width) {
+                    int mid = Math.min(lo + width, size);
+                    int hi = Math.min(lo + 2 * width, size);
+                    int left = lo;
+                    int right = mid;
+                    for (int k = lo; k < hi; k++) {
+                        if (left < mid && (right >= hi || productIds[order[left]] <= productIds[order[right]])) {
+                            buffer[k] = order[left++];
+                        } else {
+                            buffer[k] = order[right++];
+                        }
+                    }
+                }
+                int[] swap = order;
+                order = buffer;
+                buffer = swap;
+            }
+            return order;
+        }
+
+        int positionOf(long productId) {
+            int i = Arrays.binarySearch(sortedIds, productId);
+            return i >= 0 && weights[positionsById[i]] >= 0 ? positionsById[i] : -1;
+        }
+
+        String name(int position) {
+            return new String(names, nameOffsets[position], nameOffsets[position + 1] - nameOffsets[position],
+                    StandardCharsets.UTF_8);
+        }
+
+        Entry entry(int position) {
+            byte[] key = Arrays.copyOfRange(keys, keyOffsets[position], keyOffsets[position + 1]);
+            return new Entry(key, name(position), productIds[position], weights[position]);
+        }
+
+        void setWeight(int position, long weight) {
+            weights[position] = weight;
+            for (int node = (leaves + position) >>> 1; node >= 1; node >>>= 1) {
+                tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        /**
+         * The heaviest {@code limit} live entries whose key starts with {@code prefix}.
+         */
+        List<Entry> top(byte[] prefix, int limit) {
+            int from = lowerBound(prefix);
+            int to = from;
+            int hi = size;
+            // First position past the prefix range; every key in [from, to) starts with the prefix
+            while (to < hi) {
+                int mid = (to + hi) >>> 1;
+                if (startsWith(keys, keyOffsets[mid], keyOffsets[mid + 1], prefix)) {
+                    to = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            List<Entry> result = new ArrayList<>(limit);
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[0] == heavier(a[0], b[0]) ? -1 : 1);
+            offerRange(ranges, from, to);
+            while (!ranges.isEmpty() && result.size() < limit) {
+                int[] range = ranges.poll();
+                int best = range[0];
+                result.add(entry(best));
+                offerRange(ranges, range[1], best);
+                offerRange(ranges, best + 1, range[2]);
+            }
+            return result;
+        }
+
+        private void offerRange(PriorityQueue<int[]> ranges, int from, int to) {
+            int best = heaviest(from, to);
+            if (best >= 0 && weights[best] >= 0) {
+                ranges.offer(new int[]{best, from, to});
+            }
+        }
+
+        private int lowerBound(byte[] prefix) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Arrays.compareUnsigned(keys, keyOffsets[mid], keyOffsets[mid + 1], prefix, 0, prefix.length) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private int heaviest(int from, int to) {
+            int best = -1;
+            for (int lo = from + leaves, hi = to + leaves; lo < hi; lo >>>= 1, hi >>>= 1) {
+                if ((lo & 1) == 1) {
+                    best = heavier(best, tree[lo++]);
+                }
+                if ((hi & 1) == 1) {
+                    best = heavier(best, tree[--hi]);
+                }
+            }
+            return best;
+        }
+
+        private int heavier(int a, int b) {
+            if (a < 0 || b < 0) {
+                return a < 0 ? b : a;
+            }
+            if (weights[a] != weights[b]) {
+                return weights[a] > weights[b] ? a : b;
+            }
+            return Math.min(a, b);
+        }
+
+        long memoryBytes() {
+            return keys.length + names.length
+                    + 4L * (keyOffsets.length + nameOffsets.length + tree.length + positionsById.length)
+                    + 8L * (productIds.length + weights.length + sortedIds.length);
+        }
+    }
+}
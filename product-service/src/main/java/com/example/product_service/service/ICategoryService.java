@@ -0,0 +1,14 @@
+package com.example.product_service.service;
+
+import com.example.product_service.dto.CategoryDto;
+import com.example.product_service.dto.CategoryRequestDto;
+
+import java.util.List;
+
+public interface ICategoryService {
+    List<CategoryDto> getCategories();
+    CategoryDto getCategoryById(long categoryId);
+    CategoryDto createCategory(CategoryRequestDto request);
+    CategoryDto updateCategory(long categoryId, CategoryRequestDto request);
+    void deleteCategory(long categoryId);
+}
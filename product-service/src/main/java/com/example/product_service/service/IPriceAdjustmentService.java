@@ -0,0 +1,14 @@
+package com.example.product_service.service;
+
+import com.example.product_service.dto.PriceAdjustmentDryRunDto;
+import com.example.product_service.dto.PriceAdjustmentJobDto;
+import com.example.product_service.dto.PriceAdjustmentRequest;
+
+import java.util.UUID;
+
+public interface IPriceAdjustmentService {
+    PriceAdjustmentDryRunDto dryRun(PriceAdjustmentRequest request);
+    PriceAdjustmentJobDto startJob(PriceAdjustmentRequest request);
+    PriceAdjustmentJobDto getJob(UUID jobId);
+    PriceAdjustmentJobDto cancelJob(UUID jobId);
+}
@@ -0,0 +1,7 @@
+package com.example.product_service.service;
+
+import com.example.product_service.dto.ProductChangeFeedDto;
+
+public interface IProductChangeService {
+    ProductChangeFeedDto getChanges(String after, Integer limit);
+}
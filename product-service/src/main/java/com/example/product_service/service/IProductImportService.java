@@ -0,0 +1,11 @@
+package com.example.product_service.service;
+
+import com.example.product_service.dto.ProductImportResultDto;
+import com.example.product_service.importer.ImportConflictMode;
+import com.example.product_service.importer.ImportFormat;
+
+import java.io.InputStream;
+
+public interface IProductImportService {
+    ProductImportResultDto importProducts(InputStream input, ImportFormat format, ImportConflictMode onConflict);
+}
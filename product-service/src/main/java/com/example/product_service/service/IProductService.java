@@ -1,18 +1,43 @@
 package com.example.product_service.service;
 
+import com.example.product_service.dto.ProductBatchDto;
 import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductFacetsDto;
+import com.example.product_service.dto.ProductFilter;
+import com.example.product_service.dto.ProductPageDto;
+import com.example.product_service.dto.ProductPatchRequest;
 import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.dto.ProductSearchPageDto;
+import com.example.product_service.dto.ProductSuggestionDto;
 import com.example.product_service.dto.ProductSummaryDto;
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.dto.StockLineResultDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface IProductService {
-    List<ProductSummaryDto> getProducts();
+    ProductPageDto getProducts(ProductFilter filter, String sort, String cursor, int size);
+    ProductSearchPageDto searchProducts(String query, int page, int size);
+    List<ProductSuggestionDto> suggestProducts(String prefix, int limit);
+    ProductFacetsDto getProductFacets(ProductFilter filter);
+    List<ProductSummaryDto> getLowStockProducts(int limit, Integer below);
     ProductDetailsDto getProductById(long productId);
+    Optional<String> getProductVersion(long productId);
+    long getCatalogVersion();
+    ProductBatchDto getProductsByIds(List<Long> productIds);
+    long exportProducts(LocalDateTime updatedSince, Consumer<ProductDetailsDto> sink);
     ProductDetailsDto createProduct(ProductRequestDto productRequestDto);
     ProductDetailsDto updateProduct(long productId, ProductRequestDto productRequestDto);
+    ProductDetailsDto patchProduct(long productId, ProductPatchRequest patch);
     void deleteProduct(long productId);
 
-    void reduceStock(long productId, Integer quantity);
-    void increaseStock(long productId, Integer quantity);
+    void reduceStock(long productId, Integer quantity, String orderReference);
+    void increaseStock(long productId, Integer quantity, String orderReference);
+    List<StockLineResultDto> reserveStock(List<StockLineRequest> lines, String orderReference);
+    List<StockLineResultDto> releaseStock(List<StockLineRequest> lines, String orderReference);
+    ProductDetailsDto enableStockStripes(long productId, int stripes);
+    ProductDetailsDto disableStockStripes(long productId);
 }
@@ -0,0 +1,18 @@
+package com.example.product_service.service;
+
+import com.example.product_service.dto.StockHoldDto;
+import com.example.product_service.dto.StockLineRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface IStockReservationService {
+    StockHoldDto placeHold(List<StockLineRequest> lines);
+
+    void commitHold(UUID holdId);
+
+    void releaseHold(UUID holdId);
+
+    int releaseExpired(LocalDateTime now, int batchSize);
+}
@@ -0,0 +1,141 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.dto.CategoryDto;
+import com.example.product_service.dto.CategoryRequestDto;
+import com.example.product_service.entity.Category;
+import com.example.product_service.event.CategoryChangedEvent;
+import com.example.product_service.exception.ConflictException;
+import com.example.product_service.exception.ResourceNotFoundException;
+import com.example.product_service.mapper.CategoryMapper;
+import com.example.product_service.repository.CategoryRepository;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.ICategoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class CategoryServiceImpl implements ICategoryService {
+    private static final Logger log = LoggerFactory.getLogger(CategoryServiceImpl.class);
+    private final CategoryRepository repository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CategoryServiceImpl(
+            CategoryRepository repository,
+            ProductRepository productRepository,
+            ApplicationEventPublisher eventPublisher
+    ) {
+        this.repository = repository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    private Category getCategory(long categoryId) {
+        return repository.findById(categoryId)
+                .orElseThrow(() -> {
+                    log.error("Category not found with ID: {}", categoryId);
+                    return new ResourceNotFoundException("Category", "categoryId", categoryId);
+                });
+    }
+
+    private void requireParent(long parentId) {
+        if (!repository.existsById(parentId)) {
+            log.error("Parent category not found with ID: {}", parentId);
+            throw new ResourceNotFoundException("Category", "parentId", parentId);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CategoryDto> getCategories() {
+        List<CategoryDto> categories = repository.findAll(Sort.by("id")).stream()
+                .map(CategoryMapper::toDto)
+                .toList();
+        log.debug("Retrieved {} categories", categories.size());
+        return categories;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CategoryDto getCategoryById(long categoryId) {
+        log.info("Fetching category with ID: {}", categoryId);
+        return CategoryMapper.toDto(getCategory(categoryId));
+    }
+
+    @Override
+    @Transactional
+    public CategoryDto createCategory(CategoryRequestDto request) {
+        log.info("Creating category: {}", request.name());
+        repository.lockPaths();
+        if (request.parentId() != null) {
+            requireParent(request.parentId());
+        }
+        Category category = new Category();
+        category.setName(request.name());
+        category.setParentId(request.parentId());
+
+        Category saved = repository.save(category);
+        repository.insertPaths(saved.getId(), saved.getParentId());
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId()));
+        log.debug("Category saved with ID: {}", saved.getId());
+        return CategoryMapper.toDto(saved);
+    }
+
+    /**
+     * Renames the category and, when the parent differs, moves it together with its whole subtree.
+     */
+    @Override
+    @Transactional
+    public CategoryDto updateCategory(long categoryId, CategoryRequestDto request) {
+        log.info("Updating category with ID: {}", categoryId);
+        repository.lockPaths();
+        Category category = getCategory(categoryId);
+        Long parentId = request.parentId();
+        if (!Objects.equals(parentId, category.getParentId())) {
+            if (parentId != null) {
+                requireParent(parentId);
+                if (parentId == categoryId || repository.isAncestorOf(categoryId, parentId)) {
+                    throw new IllegalArgumentException("Category " + categoryId
+                            + " cannot be moved under itself or one of its subcategories");
+                }
+            }
+            repository.detachSubtree(categoryId);
+            if (parentId != null) {
+                repository.attachSubtree(categoryId, parentId);
+            }
+            log.debug("Moved category {} from parent {} to {}", categoryId, category.getParentId(), parentId);
+            category.setParentId(parentId);
+        }
+        category.setName(request.name());
+
+        Category saved = repository.saveAndFlush(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+        log.info("Updated category with ID: {}", categoryId);
+        return CategoryMapper.toDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public void deleteCategory(long categoryId) {
+        log.info("Deleting category with ID: {}", categoryId);
+        repository.lockPaths();
+        Category category = getCategory(categoryId);
+        if (repository.existsByParentId(categoryId)) {
+            throw new ConflictException("Category " + categoryId + " has subcategories; move or delete them first");
+        }
+        if (productRepository.existsByCategoryId(categoryId)) {
+            throw new ConflictException("Category " + categoryId + " still has products; move or delete them first");
+        }
+        repository.deletePaths(categoryId);
+        repository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+        log.info("Deleted category with ID: {}", categoryId);
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.cache.CatalogVersion;
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.dto.PriceAdjustmentDryRunDto;
+import com.example.product_service.dto.PriceAdjustmentJobDto;
+import com.example.product_service.dto.PriceAdjustmentRequest;
+import com.example.product_service.entity.PriceAdjustmentJob;
+import com.example.product_service.entity.PriceAdjustmentJob.Status;
+import com.example.product_service.entity.Product;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.exception.ConflictException;
+import com.example.product_service.exception.ResourceNotFoundException;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.mapper.PriceAdjustmentJobMapper;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.CategoryRepository;
+import com.example.product_service.repository.OffRowStock;
+import com.example.product_service.repository.PriceAdjustmentJobRepository;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.IPriceAdjustmentService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk repricing. Instead of one entity update per product, a job walks the matching products in id order and
+ * reprices each chunk with a single set-based UPDATE, which also bumps the row version so an edit based on the
+ * old price is rejected rather than overwriting the new one. Every chunk commits on its own together with its
+ * change outbox rows and the job's progress, so a cancelled or failed job keeps the chunks it finished.
+ * <p>
+ * Derived views are notified once per chunk: the catalog version, which invalidates every cached listing,
+ * advances once for the whole chunk, and the chunk's products are read back with one query.
+ * <p>
+ * Jobs are queued in the database, not in memory. Each instance runs them one at a time on a single worker
+ * thread, claiming the oldest unfinished job whose lease is free or has run out; the instance that accepted a
+ * job starts looking right away, the others poll. Every chunk renews the lease and records how far the job got,
+ * so a job whose instance stopped or died is resumed, or finished as cancelled, by another one.
+ */
+@Service
+public class PriceAdjustmentServiceImpl implements IPriceAdjustmentService {
+    private static final Logger log = LoggerFactory.getLogger(PriceAdjustmentServiceImpl.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String COUNT = "SELECT count(*) FROM products p WHERE ";
+
+    // Skips jobs another instance is claiming right now instead of waiting for them
+    private static final String CLAIM = """
+            UPDATE price_adjustment_jobs j
+            SET lease_token = ?,
+                lease_expires_at = LOCALTIMESTAMP + make_interval(secs => ?),
+                updated_at = LOCALTIMESTAMP
+            WHERE j.id = (
+                SELECT id FROM price_adjustment_jobs
+                WHERE finished_at IS NULL AND (lease_expires_at IS NULL OR lease_expires_at < LOCALTIMESTAMP)
+                ORDER BY created_at
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING j.id
+            """;
+
+    // Prices are rounded to cents but never below one, so a large cut cannot zero a cheap product
+    private static final String REPRICE_CHUNK = """
+            WITH chunk AS (
+                SELECT p.id FROM products p
+                WHERE p.id > ? AND %s
+                ORDER BY p.id
+                LIMIT ?
+                FOR UPDATE
+            )
+            UPDATE products p
+            SET price = GREATEST(round(p.price * ?, 2), 0.01),
+                version = p.version + 1,
+                updated_at = LOCALTIMESTAMP
+            FROM chunk
+            WHERE p.id = chunk.id
+            RETURNING p.id
+            """;
+
+    private final PriceAdjustmentJobRepository jobRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductChangeOutbox changeOutbox;
+    private final StockLedger stockLedger;
+    private final CatalogVersion catalogVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final long leaseSeconds;
+    // At most one pass waits behind the running one, and it sees every job queued before it was requested
+    private final ThreadPoolExecutor worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), runnable -> {
+                Thread thread = new Thread(runnable, "price-adjustments");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private static final class LeaseLostException extends RuntimeException {
+    }
+
+    public PriceAdjustmentServiceImpl(
+            PriceAdjustmentJobRepository jobRepository,
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ProductChangeOutbox changeOutbox,
+            StockLedger stockLedger,
+            CatalogVersion catalogVersion,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${product.price-adjustments.chunk-size:500}") int chunkSize,
+            @Value("${product.price-adjustments.lease:5m}") Duration lease
+    ) {
+        this.jobRepository = jobRepository;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeOutbox = changeOutbox;
+        this.stockLedger = stockLedger;
+        this.catalogVersion = catalogVersion;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.leaseSeconds = lease.toSeconds();
+    }
+
+    /**
+     * Interrupts the running job, which gives its lease back before the next chunk.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        worker.shutdownNow();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Picks up jobs queued through other instances, and jobs whose instance stopped before finishing them.
+     */
+    @Scheduled(fixedDelayString = "${product.price-adjustments.claim-interval:10s}")
+    public void claimJobs() {
+        worker.execute(this::runClaimable);
+    }
+
+    @Override
+    public PriceAdjustmentDryRunDto dryRun(PriceAdjustmentRequest request) {
+        Selection selection = validate(request);
+        long matched = count(selection);
+        log.info("Price adjustment dry run matched {} products", matched);
+        return new PriceAdjustmentDryRunDto(matched);
+    }
+
+    @Override
+    public PriceAdjustmentJobDto startJob(PriceAdjustmentRequest request) {
+        validate(request);
+        PriceAdjustmentJob job = jobRepository.save(new PriceAdjustmentJob(UUID.randomUUID(), request.percent(),
+                request.minId(), request.maxId(), request.categoryId(), request.namePattern()));
+        log.info("Queued price adjustment job {} ({}%)", job.getId(), job.getPercent());
+        claimJobs();
+        return PriceAdjustmentJobMapper.toDto(job);
+    }
+
+    @Override
+    public PriceAdjustmentJobDto getJob(UUID jobId) {
+        return ReadRouting.onPrimary(() -> jobRepository.findById(jobId))
+                .map(PriceAdjustmentJobMapper::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Price adjustment job", "jobId", jobId.toString()));
+    }
+
+    /**
+     * Asks the job to stop. A queued job never starts; a running one stops before its next chunk. Either way
+     * the job ends up cancelled on whichever instance claims it next.
+     */
+    @Override
+    public PriceAdjustmentJobDto cancelJob(UUID jobId) {
+        if (jobRepository.requestCancel(jobId) == 0) {
+            PriceAdjustmentJobDto job = getJob(jobId);
+            throw new ConflictException("Price adjustment job " + jobId + " has already finished with status " + job.status());
+        }
+        log.info("Cancellation requested for price adjustment job {}", jobId);
+        return getJob(jobId);
+    }
+
+    private Selection validate(PriceAdjustmentRequest request) {
+        if (request.minId() == null && request.maxId() == null && request.categoryId() == null
+                && (request.namePattern() == null || request.namePattern().isBlank())) {
+            throw new IllegalArgumentException("At least one of minId, maxId, categoryId or namePattern is required");
+        }
+        if (request.minId() != null && request.maxId() != null && request.minId() > request.maxId()) {
+            throw new IllegalArgumentException("minId must not be greater than maxId");
+        }
+        if (request.categoryId() != null && !categoryRepository.existsById(request.categoryId())) {
+            throw new ResourceNotFoundException("Category", "categoryId", request.categoryId());
+        }
+        return Selection.of(request.minId(), request.maxId(), request.categoryId(), request.namePattern());
+    }
+
+    private long count(Selection selection) {
+        return jdbcTemplate.queryForObject(COUNT + selection.where(), Long.class, selection.params().toArray());
+    }
+
+    private void runClaimable() {
+        while (!Thread.currentThread().isInterrupted()) {
+            UUID leaseToken = UUID.randomUUID();
+            List<UUID> claimed = ReadRouting.onPrimary(() ->
+                    jdbcTemplate.queryForList(CLAIM, UUID.class, leaseToken, leaseSeconds));
+            if (claimed.isEmpty()) {
+                return;
+            }
+            run(claimed.get(0), leaseToken);
+        }
+    }
+
+    private void run(UUID jobId, UUID leaseToken) {
+        PriceAdjustmentJob job = ReadRouting.onPrimary(() -> jobRepository.findById(jobId)).orElseThrow();
+        Selection selection = Selection.of(job.getMinId(), job.getMaxId(), job.getCategoryId(), job.getNamePattern());
+        BigDecimal factor = BigDecimal.ONE.add(job.getPercent().movePointLeft(2));
+        String sql = REPRICE_CHUNK.formatted(selection.where());
+        long startedAt = System.nanoTime();
+        long lastId = job.getLastId();
+        long updated = job.getUpdated();
+        try {
+            if (job.getStatus() == Status.QUEUED && !job.isCancelRequested()) {
+                checkLease(jobRepository.start(jobId, leaseToken, Status.RUNNING, count(selection)));
+            } else if (lastId > 0) {
+                log.info("Resuming price adjustment job {} after product ID {}", jobId, lastId);
+            }
+            while (true) {
+                if (ReadRouting.onPrimary(() -> jobRepository.isCancelRequested(jobId))) {
+                    checkLease(jobRepository.finish(jobId, leaseToken, Status.CANCELLED, null));
+                    log.info("Price adjustment job {} cancelled after repricing {} products", jobId, updated);
+                    return;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    jobRepository.release(jobId, leaseToken);
+                    log.info("Price adjustment job {} released after product ID {} on shutdown", jobId, lastId);
+                    return;
+                }
+                List<Long> ids = repriceChunk(jobId, leaseToken, sql, selection, lastId, factor);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                lastId = ids.stream().mapToLong(Long::longValue).max().getAsLong();
+                updated += ids.size();
+                publishChanges(ids);
+                log.debug("Price adjustment job {} repriced {} products up to ID {}", jobId, updated, lastId);
+            }
+            checkLease(jobRepository.finish(jobId, leaseToken, Status.COMPLETED, null));
+            log.info("Price adjustment job {} repriced {} products in {} ms",
+                    jobId, updated, (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (LeaseLostException e) {
+            // Another instance claimed the job after the lease ran out and carries on from the last committed chunk
+            log.warn("Price adjustment job {} lost its lease after product ID {}", jobId, lastId);
+        } catch (RuntimeException e) {
+            log.error("Price adjustment job {} failed: {}", jobId, e.getMessage(), e);
+            String error = String.valueOf(e.getMessage());
+            jobRepository.finish(jobId, leaseToken, Status.FAILED, error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)));
+        }
+    }
+
+    private static void checkLease(int updatedRows) {
+        if (updatedRows == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    private List<Long> repriceChunk(UUID jobId, UUID leaseToken, String sql, Selection selection, long afterId,
+                                    BigDecimal factor) {
+        List<Object> params = new ArrayList<>();
+        params.add(afterId);
+        params.addAll(selection.params());
+        params.add(chunkSize);
+        params.add(factor);
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, params.toArray());
+            if (!ids.isEmpty()) {
+                changeOutbox.appendAll(ids, ChangeType.UPDATED);
+                long lastId = ids.stream().mapToLong(Long::longValue).max().getAsLong();
+                // Rolls the chunk back if another instance has taken the job over meanwhile
+                checkLease(jobRepository.addProgress(jobId, leaseToken, ids.size(), lastId, leaseSeconds));
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * Runs after the chunk has committed, so listeners evict and re-index the products with their new price.
+     */
+    private void publishChanges(List<Long> ids) {
+        List<Product> products = ReadRouting.onPrimary(() -> productRepository.findAllById(ids));
+        Map<Long, OffRowStock> offRow = ReadRouting.onPrimary(() -> stockLedger.offRowStock(products));
+        catalogVersion.coalesce(() -> products.forEach(product -> eventPublisher.publishEvent(new ProductChangedEvent(
+                product.getId(), ChangeType.UPDATED, ProductMapper.toDetailsDto(product, offRow.get(product.getId()))))));
+    }
+
+    private record Selection(String where, List<Object> params) {
+
+        static Selection of(Long minId, Long maxId, Long categoryId, String namePattern) {
+            List<String> conditions = new ArrayList<>();
+            List<Object> params = new ArrayList<>();
+            if (minId != null) {
+                conditions.add("p.id >= ?");
+                params.add(minId);
+            }
+            if (maxId != null) {
+                conditions.add("p.id <= ?");
+                params.add(maxId);
+            }
+            if (categoryId != null) {
+                conditions.add("p.category_id IN (SELECT descendant_id FROM category_paths WHERE ancestor_id = ?)");
+                params.add(categoryId);
+            }
+            if (namePattern != null && !namePattern.isBlank()) {
+                conditions.add("p.name LIKE ? ESCAPE '\\'");
+                params.add(toLike(namePattern));
+            }
+            return new Selection(String.join(" AND ", conditions), params);
+        }
+
+        private static String toLike(String pattern) {
+            return pattern.replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_")
+                    .replace("*", "%");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.outbox.ProductChangeOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Deletes outbox rows once they are older than the retention period, in batches so no single statement
+ * holds locks on a large part of the table.
+ */
+@Component
+public class ProductChangeCompactor {
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeCompactor.class);
+    private final ProductChangeOutbox outbox;
+    private final Duration retention;
+    private final int batchSize;
+
+    public ProductChangeCompactor(
+            ProductChangeOutbox outbox,
+            @Value("${product.changes.retention:7d}") Duration retention,
+            @Value("${product.changes.compaction-batch-size:10000}") int batchSize
+    ) {
+        this.outbox = outbox;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${product.changes.compaction-interval:1h}")
+    public void compact() {
+        compactExpired();
+    }
+
+    /**
+     * Deletes every change older than the retention period and returns how many there were.
+     */
+    public long compactExpired() {
+        long startedAt = System.nanoTime();
+        long deleted = 0;
+        int batch;
+        do {
+            batch = outbox.deleteOlderThan(retention, batchSize);
+            deleted += batch;
+        } while (batch == batchSize);
+
+        if (deleted > 0) {
+            log.info("Compacted {} product changes older than {} in {} ms",
+                    deleted, retention, (System.nanoTime() - startedAt) / 1_000_000);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.dto.ProductChangeDto;
+import com.example.product_service.dto.ProductChangeFeedDto;
+import com.example.product_service.exception.CursorExpiredException;
+import com.example.product_service.outbox.ProductChange;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.service.IProductChangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Serves the product change outbox as a feed. A consumer starts without a cursor, applies each batch and
+ * passes the returned cursor back for the next one. A cursor whose change has been compacted away is
+ * answered with {@link CursorExpiredException}: changes after it may be gone too, so the consumer has to
+ * rebuild its copy from the product listing and start over.
+ */
+@Service
+public class ProductChangeServiceImpl implements IProductChangeService {
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeServiceImpl.class);
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 1000;
+    private final ProductChangeOutbox outbox;
+
+    public ProductChangeServiceImpl(ProductChangeOutbox outbox) {
+        this.outbox = outbox;
+    }
+
+    @Override
+    public ProductChangeFeedDto getChanges(String after, Integer limit) {
+        int batchSize = limit == null ? DEFAULT_BATCH_SIZE : limit;
+        if (batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        ProductChange.Position position = after == null || after.isBlank()
+                ? ProductChange.Position.START
+                : ProductChange.Position.parse(after);
+        if (position != ProductChange.Position.START && !outbox.contains(position)) {
+            throw new CursorExpiredException("Change feed cursor " + after + " is no longer available");
+        }
+
+        // One extra row tells whether another batch is already waiting
+        List<ProductChange> changes = outbox.readAfter(position, batchSize + 1);
+        boolean hasMore = changes.size() > batchSize;
+        if (hasMore) {
+            changes = changes.subList(0, batchSize);
+        }
+        if (!changes.isEmpty()) {
+            position = changes.get(changes.size() - 1).position();
+        }
+        log.debug("Serving {} product changes up to {}", changes.size(), position);
+
+        List<ProductChangeDto> items = changes.stream()
+                .map(change -> new ProductChangeDto(
+                        change.productId(), change.changeType(), change.payload(), change.createdAt()))
+                .toList();
+        return new ProductChangeFeedDto(items, position == ProductChange.Position.START ? null : position.toString(),
+                hasMore);
+    }
+}
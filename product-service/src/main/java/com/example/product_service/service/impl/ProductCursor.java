@@ -0,0 +1,44 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.dto.ProductSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for product listings: the sort key and the last value returned on the previous page,
+ * encoded as URL-safe Base64 so clients treat it as a token rather than something to construct themselves.
+ */
+record ProductCursor(ProductSort sort, String lastValue) {
+
+    private static final char SEPARATOR = ':';
+
+    String encode() {
+        String raw = sort.key() + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    long lastId() {
+        return Long.parseLong(lastValue);
+    }
+
+    static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ProductCursor cursor = new ProductCursor(
+                    ProductSort.fromKey(raw.substring(0, separator)),
+                    raw.substring(separator + 1)
+            );
+            if (cursor.sort() == ProductSort.ID) {
+                cursor.lastId();
+            }
+            return cursor;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.cache.CatalogVersion;
+import com.example.product_service.cache.ProductExistence;
+import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductImportErrorDto;
+import com.example.product_service.dto.ProductImportResultDto;
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.importer.ImportConflictMode;
+import com.example.product_service.importer.ImportFormat;
+import com.example.product_service.importer.ImportRow;
+import com.example.product_service.importer.ProductImportReader;
+import com.example.product_service.importer.StagingCopyWriter;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.service.IProductImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import javax.sql.DataSource;
+
+/**
+ * Bulk product import. Rows are parsed and validated as they stream in and copied into a temporary
+ * staging table with PostgreSQL COPY, then merged into {@code products} with one set-based statement
+ * keyed on the unique product name. This works on a plain JDBC connection rather than through JPA:
+ * COPY is driver specific, and the entity path is what made one-by-one inserts slow in the first place.
+ * The change outbox is filled from the merged rows inside the same transaction. Derived views (cache,
+ * search index) are notified after commit by reading the affected products back in batches, so memory
+ * stays bounded by the number of affected ids.
+ */
+@Service
+public class ProductImportServiceImpl implements IProductImportService {
+    private static final Logger log = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int EVENT_BATCH_SIZE = 1000;
+
+    // Imported products are never striped, so their off-row stock is the ledger entries not yet folded
+    private static final String SELECT_DETAILS = """
+            SELECT p.id, p.name, p.description, p.price, p.stock + COALESCE(pending.delta, 0), p.created_at,
+                p.updated_at, p.category_id, p.version, p.stock_ledger_position, COALESCE(pending.entries, 0)
+            FROM products p
+            LEFT JOIN LATERAL (
+                SELECT SUM(l.delta) AS delta, COUNT(*) AS entries FROM stock_ledger l
+                WHERE l.product_id = p.id AND l.id > p.stock_ledger_position
+            ) pending ON true
+            WHERE p.id = ANY(?)
+            """;
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE product_import_staging (
+                line bigint NOT NULL,
+                name text NOT NULL,
+                description text NOT NULL,
+                price numeric NOT NULL,
+                stock integer NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING = """
+            COPY product_import_staging (line, name, description, price, stock) FROM STDIN WITH (FORMAT csv)
+            """;
+
+    // The last occurrence of a name wins; earlier ones are dropped and reported.
+    private static final String DELETE_DUPLICATES = """
+            DELETE FROM product_import_staging s
+            USING (
+                SELECT line, max(line) OVER (PARTITION BY name) AS superseded_by
+                FROM product_import_staging
+            ) d
+            WHERE s.line = d.line AND d.line < d.superseded_by
+            RETURNING s.line, d.superseded_by
+            """;
+
+    private static final String DELETE_EXISTING = """
+            DELETE FROM product_import_staging s
+            USING products p
+            WHERE p.name = s.name
+            RETURNING s.line
+            """;
+
+    // Takes the ledger lock of every product the import overwrites, in id order like any other batch of writers
+    private static final String LOCK_EXISTING = """
+            SELECT id, pg_advisory_xact_lock(%d, %s) FROM (
+                SELECT p.id FROM products p JOIN product_import_staging s ON s.name = p.name ORDER BY p.id
+            ) existing
+            """.formatted(StockLedger.LOCK_NAMESPACE, StockLedger.lockKey("id"));
+
+    // Striped products keep their stock in sub-counters that a plain upsert of products.stock would not reset.
+    private static final String DELETE_STRIPED = """
+            DELETE FROM product_import_staging s
+            USING products p
+            WHERE p.name = s.name AND p.stock_stripes > 0
+            RETURNING s.line
+            """;
+
+    // Stock an import replaces is recorded like any other adjustment, against the stock including unfolded entries
+    private static final String INSERT_ADJUSTMENTS = """
+            INSERT INTO stock_ledger (product_id, delta, reason)
+            SELECT p.id, s.stock - (p.stock + COALESCE(pending.delta, 0)), 'ADJUSTMENT'
+            FROM product_import_staging s
+            JOIN products p ON p.name = s.name
+            LEFT JOIN LATERAL (
+                SELECT SUM(l.delta) AS delta FROM stock_ledger l
+                WHERE l.product_id = p.id AND l.id > p.stock_ledger_position
+            ) pending ON true
+            WHERE p.stock_stripes = 0 AND s.stock <> p.stock + COALESCE(pending.delta, 0)
+            RETURNING product_id
+            """;
+
+    private static final String INSERT_NEW = """
+            INSERT INTO products (name, description, price, stock, created_at, updated_at)
+            SELECT name, description, price, stock, LOCALTIMESTAMP, LOCALTIMESTAMP
+            FROM product_import_staging
+            ON CONFLICT (name) DO NOTHING
+            RETURNING id, true AS inserted
+            """;
+
+    // Rows identical to the stored product are left untouched, so they cost no dead tuple and no event. The stock of
+    // existing products was recorded in the ledger beforehand; the snapshot in the row is left to the compactor.
+    private static final String UPSERT = """
+            INSERT INTO products (name, description, price, stock, created_at, updated_at)
+            SELECT name, description, price, stock, LOCALTIMESTAMP, LOCALTIMESTAMP
+            FROM product_import_staging
+            ON CONFLICT (name) DO UPDATE
+            SET description = EXCLUDED.description,
+                price = EXCLUDED.price,
+                version = products.version + 1,
+                updated_at = EXCLUDED.updated_at
+            WHERE (products.description, products.price) IS DISTINCT FROM (EXCLUDED.description, EXCLUDED.price)
+                OR products.id = ANY (CAST(? AS bigint[]))
+            RETURNING id, xmax = 0 AS inserted
+            """;
+
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ProductExistence productExistence;
+
+    public ProductImportServiceImpl(
+            DataSource dataSource,
+            ApplicationEventPublisher eventPublisher,
+            CatalogVersion catalogVersion,
+            Validator validator,
+            ObjectMapper objectMapper,
+            ProductExistence productExistence
+    ) {
+        this.dataSource = dataSource;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.productExistence = productExistence;
+    }
+
+    @Override
+    public ProductImportResultDto importProducts(InputStream input, ImportFormat format, ImportConflictMode onConflict) {
+        log.info("Importing products: format={}, onConflict={}", format, onConflict);
+        long startedAt = System.nanoTime();
+
+        MergeResult merge;
+        try (Connection connection = dataSource.getConnection()) {
+            ProductImportReader reader = ProductImportReader.open(format, input, objectMapper);
+            connection.setAutoCommit(false);
+            try {
+                merge = load(connection, reader, onConflict);
+                // New ids must be in the existence filter before anyone can read them
+                Arrays.stream(merge.insertedIds()).forEach(productExistence::added);
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+
+            if (merge.insertedIds().length > 0 || merge.updatedIds().length > 0) {
+                catalogVersion.coalesce(() -> {
+                    publishChanges(connection, merge.insertedIds(), ChangeType.CREATED);
+                    publishChanges(connection, merge.updatedIds(), ChangeType.UPDATED);
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Product import failed: " + e.getMessage(), e);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        long processed = merge.staged() + merge.errors().rejected;
+        log.info("Imported {} rows in {} ms ({} rows/s): inserted={}, updated={}, unchanged={}, rejected={}",
+                processed, elapsedMillis, processed * 1000 / elapsedMillis,
+                merge.insertedIds().length, merge.updatedIds().length, merge.unchanged(), merge.errors().rejected);
+
+        return new ProductImportResultDto(
+                merge.insertedIds().length,
+                merge.updatedIds().length,
+                merge.unchanged(),
+                merge.errors().rejected,
+                merge.errors().sorted()
+        );
+    }
+
+    private MergeResult load(Connection connection, ProductImportReader reader, ImportConflictMode onConflict)
+            throws SQLException, IOException {
+        ImportErrors errors = new ImportErrors();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        long staged;
+        try (StagingCopyWriter writer = new StagingCopyWriter(copyManager.copyIn(COPY_STAGING))) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                String error = row.isValid() ? validate(row.product()) : row.error();
+                if (error != null) {
+                    errors.add(row.line(), error);
+                } else {
+                    writer.write(row.line(), row.product());
+                }
+            }
+            staged = writer.finish();
+        }
+
+        long dropped = 0;
+        Long[] adjusted = new Long[0];
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet duplicates = statement.executeQuery(DELETE_DUPLICATES)) {
+                while (duplicates.next()) {
+                    errors.add(duplicates.getLong(1),
+                            "Duplicate name in import; superseded by line " + duplicates.getLong(2));
+                    dropped++;
+                }
+            }
+            if (onConflict == ImportConflictMode.SKIP) {
+                try (ResultSet existing = statement.executeQuery(DELETE_EXISTING)) {
+                    while (existing.next()) {
+                        errors.add(existing.getLong(1), "A product with this name already exists");
+                        dropped++;
+                    }
+                }
+            } else {
+                statement.execute(LOCK_EXISTING);
+                try (ResultSet striped = statement.executeQuery(DELETE_STRIPED)) {
+                    while (striped.next()) {
+                        errors.add(striped.getLong(1), "Product uses striped stock; disable striping before importing it");
+                        dropped++;
+                    }
+                }
+                adjusted = recordAdjustments(statement);
+            }
+
+            LongStream.Builder inserted = LongStream.builder();
+            LongStream.Builder updated = LongStream.builder();
+            try (PreparedStatement merge = connection.prepareStatement(
+                    onConflict == ImportConflictMode.SKIP ? INSERT_NEW : UPSERT)) {
+                if (onConflict != ImportConflictMode.SKIP) {
+                    merge.setArray(1, connection.createArrayOf("bigint", adjusted));
+                }
+                try (ResultSet merged = merge.executeQuery()) {
+                    while (merged.next()) {
+                        (merged.getBoolean(2) ? inserted : updated).add(merged.getLong(1));
+                    }
+                }
+            }
+
+            long[] insertedIds = inserted.build().toArray();
+            long[] updatedIds = updated.build().toArray();
+            recordChanges(connection, insertedIds, ChangeType.CREATED);
+            recordChanges(connection, updatedIds, ChangeType.UPDATED);
+            long unchanged = staged - dropped - insertedIds.length - updatedIds.length;
+            return new MergeResult(staged, insertedIds, updatedIds, unchanged, errors);
+        }
+    }
+
+    /**
+     * Records an adjustment for every existing product whose stock the import changes, under the ledger locks, and
+     * returns their ids. The audit trail thus covers import-driven stock changes like any other.
+     */
+    private Long[] recordAdjustments(Statement statement) throws SQLException {
+        LongStream.Builder adjusted = LongStream.builder();
+        try (ResultSet rows = statement.executeQuery(INSERT_ADJUSTMENTS)) {
+            while (rows.next()) {
+                adjusted.add(rows.getLong(1));
+            }
+        }
+        return adjusted.build().boxed().toArray(Long[]::new);
+    }
+
+    private String validate(ProductRequestDto product) {
+        Set<ConstraintViolation<ProductRequestDto>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        // Mirrors the entity constraint, which bean validation on the DTO does not cover.
+        if (product.price().signum() <= 0) {
+            return "Price must be greater than 0";
+        }
+        if (product.name().indexOf('\0') >= 0 || product.description().indexOf('\0') >= 0) {
+            return "Text must not contain NUL characters";
+        }
+        return null;
+    }
+
+    private void recordChanges(Connection connection, long[] productIds, ChangeType changeType) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(ProductChangeOutbox.INSERT_FROM_PRODUCTS)) {
+            for (int from = 0; from < productIds.length; from += EVENT_BATCH_SIZE) {
+                int to = Math.min(productIds.length, from + EVENT_BATCH_SIZE);
+                Long[] batch = Arrays.stream(productIds, from, to).boxed().toArray(Long[]::new);
+                statement.setString(1, changeType.name());
+                statement.setArray(2, connection.createArrayOf("bigint", batch));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Runs outside any transaction, so listeners receive each event as soon as it is published.
+     */
+    private void publishChanges(Connection connection, long[] productIds, ChangeType changeType) {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_DETAILS)) {
+            for (int from = 0; from < productIds.length; from += EVENT_BATCH_SIZE) {
+                int to = Math.min(productIds.length, from + EVENT_BATCH_SIZE);
+                Long[] batch = Arrays.stream(productIds, from, to).boxed().toArray(Long[]::new);
+                statement.setArray(1, connection.createArrayOf("bigint", batch));
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        ProductDetailsDto product = new ProductDetailsDto(
+                                rows.getLong(1),
+                                rows.getString(2),
+                                rows.getString(3),
+                                rows.getBigDecimal(4),
+                                rows.getInt(5),
+                                rows.getObject(8, Long.class),
+                                rows.getTimestamp(6).toLocalDateTime(),
+                                rows.getTimestamp(7).toLocalDateTime(),
+                                ProductMapper.revision(rows.getLong(9), rows.getLong(10), rows.getLong(11))
+                        );
+                        eventPublisher.publishEvent(new ProductChangedEvent(product.id(), changeType, product));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Product import failed: " + e.getMessage(), e);
+        }
+    }
+
+    private record MergeResult(long staged, long[] insertedIds, long[] updatedIds, long unchanged, ImportErrors errors) {
+    }
+
+    /**
+     * Counts every rejected row but keeps only the first {@link #MAX_REPORTED_ERRORS} messages.
+     */
+    private static final class ImportErrors {
+        private final List<ProductImportErrorDto> reported = new ArrayList<>();
+        private long rejected;
+
+        void add(long line, String message) {
+            rejected++;
+            if (reported.size() < MAX_REPORTED_ERRORS) {
+                reported.add(new ProductImportErrorDto(line, message));
+            }
+        }
+
+        List<ProductImportErrorDto> sorted() {
+            reported.sort(Comparator.comparingLong(ProductImportErrorDto::line));
+            return reported;
+        }
+    }
+}
@@ -1,28 +1,145 @@
 package com.example.product_service.service.impl;
 
+import com.example.product_service.dto.ProductBatchDto;
 import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductFacetsDto;
+import com.example.product_service.dto.ProductFilter;
+import com.example.product_service.dto.ProductPageDto;
+import com.example.product_service.dto.ProductPatchRequest;
 import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.dto.ProductSearchPageDto;
+import com.example.product_service.dto.ProductSort;
+import com.example.product_service.dto.ProductSuggestionDto;
 import com.example.product_service.dto.ProductSummaryDto;
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.dto.StockLineResultDto;
+import com.example.product_service.cache.CatalogVersion;
+import com.example.product_service.cache.ProductCache;
+import com.example.product_service.cache.ProductExistence;
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.entity.Category;
 import com.example.product_service.entity.Product;
+import com.example.product_service.entity.StockMovement.Reason;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.event.ProductDemandEvent;
 import com.example.product_service.exception.ConflictException;
 import com.example.product_service.exception.ResourceNotFoundException;
+import com.example.product_service.exception.StockBatchException;
+import com.example.product_service.facet.PriceFacetIndex;
+import com.example.product_service.inventory.ProductContention;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.inventory.StripedInventory;
+import com.example.product_service.lowstock.LowStockIndex;
+import com.example.product_service.search.ProductSearchIndex;
+import com.example.product_service.search.ProductSuggestIndex;
 import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.CategoryRepository;
 import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.ProductSpecifications;
+import com.example.product_service.repository.OffRowStock;
 import com.example.product_service.service.IProductService;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements IProductService {
     private static final Logger log = LoggerFactory.getLogger(ProductServiceImpl.class);
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_PAGE = 1000;
+    public static final int MAX_BATCH_SIZE = 200;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 20;
+    // Products exported per off-row stock query
+    private static final int EXPORT_CHUNK_SIZE = 500;
     private final ProductRepository repository;
+    private final ProductCache productCache;
+    private final CatalogVersion catalogVersion;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final PriceFacetIndex facetIndex;
+    private final LowStockIndex lowStockIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final StripedInventory stripedInventory;
+    private final ProductChangeOutbox changeOutbox;
+    private final ProductContention contention;
+    private final StockLedger stockLedger;
+    private final CategoryRepository categoryRepository;
+    private final ProductExistence productExistence;
 
-    public ProductServiceImpl(ProductRepository repository) {
+    public ProductServiceImpl(
+            ProductRepository repository,
+            ProductCache productCache,
+            CatalogVersion catalogVersion,
+            ProductSearchIndex searchIndex,
+            ProductSuggestIndex suggestIndex,
+            PriceFacetIndex facetIndex,
+            LowStockIndex lowStockIndex,
+            ApplicationEventPublisher eventPublisher,
+            EntityManager entityManager,
+            StripedInventory stripedInventory,
+            ProductChangeOutbox changeOutbox,
+            ProductContention contention,
+            StockLedger stockLedger,
+            CategoryRepository categoryRepository,
+            ProductExistence productExistence
+    ) {
         this.repository = repository;
+        this.productCache = productCache;
+        this.catalogVersion = catalogVersion;
+        this.searchIndex = searchIndex;
+        this.suggestIndex = suggestIndex;
+        this.facetIndex = facetIndex;
+        this.lowStockIndex = lowStockIndex;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.stripedInventory = stripedInventory;
+        this.changeOutbox = changeOutbox;
+        this.contention = contention;
+        this.stockLedger = stockLedger;
+        this.categoryRepository = categoryRepository;
+        this.productExistence = productExistence;
+    }
+
+    private void publishChange(long productId, ChangeType changeType) {
+        publishChange(new ProductChangedEvent(productId, changeType));
+    }
+
+    private void publishChange(ProductDetailsDto product, ChangeType changeType) {
+        publishChange(new ProductChangedEvent(product.id(), changeType, product));
+    }
+
+    // Called inside the mutating transaction, so the outbox row commits or rolls back with the change
+    private void publishChange(ProductChangedEvent event) {
+        changeOutbox.append(event);
+        eventPublisher.publishEvent(event);
     }
 
     private Product getProduct(long productId) {
@@ -34,25 +151,247 @@ public class ProductServiceImpl implements IProductService {
                 });
     }
 
+    private Product lockProduct(long productId) {
+        return repository.findAllByIdForUpdate(List.of(productId)).stream()
+                .findFirst()
+                .orElseThrow(() -> {
+                    log.error("Product not found with ID: {}", productId);
+                    return new ResourceNotFoundException("Product", "productId", productId);
+                });
+    }
+
+    private Category findCategory(Long categoryId) {
+        if (categoryId == null) {
+            return null;
+        }
+        return categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryId", categoryId));
+    }
+
+    private ProductDetailsDto toDetailsDto(Product product) {
+        return ProductMapper.toDetailsDto(product, stockLedger.offRowStock(List.of(product)).get(product.getId()));
+    }
+
     @Override
-    public List<ProductSummaryDto> getProducts() {
-        log.debug("Retrieving all products from repository");
-        List<Product> products = repository.findAll();
-        log.info("Retrieved {} products", products.size());
-        return products.stream()
-                .map(ProductMapper::toSummaryDto)
+    @Transactional(readOnly = true)
+    public ProductPageDto getProducts(ProductFilter filter, String sort, String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        ProductCursor position = cursor != null ? ProductCursor.decode(cursor) : null;
+        ProductSort order = sort != null ? ProductSort.fromKey(sort) : ProductSort.ID;
+        if (position != null && sort != null && position.sort() != order) {
+            throw new IllegalArgumentException("Cursor was issued for sort '" + position.sort().key() + "'");
+        }
+        if (position != null) {
+            order = position.sort();
+        }
+
+        Specification<Product> spec = ProductSpecifications.matching(filter);
+        if (position != null) {
+            spec = spec.and(order == ProductSort.ID
+                    ? ProductSpecifications.idAfter(position.lastId())
+                    : ProductSpecifications.nameAfter(position.lastValue()));
+        }
+
+        // Fetch one extra row to learn whether another page exists without issuing a count query
+        log.debug("Retrieving up to {} products sorted by {} after cursor {}", pageSize, order.key(), cursor);
+        Sort keyset = Sort.by(order.key());
+        List<Product> products = repository.findBy(spec, query -> query.sortBy(keyset).limit(pageSize + 1).all());
+
+        boolean hasNext = products.size() > pageSize;
+        Map<Long, OffRowStock> offRow = stockLedger.offRowStock(products);
+        List<ProductSummaryDto> items = products.stream()
+                .limit(pageSize)
+                .map(product -> ProductMapper.toSummaryDto(product, offRow.get(product.getId())))
                 .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductSummaryDto last = items.get(items.size() - 1);
+            String lastValue = order == ProductSort.ID ? String.valueOf(last.id()) : last.name();
+            nextCursor = new ProductCursor(order, lastValue).encode();
+        }
+        log.info("Retrieved {} products, hasNext={}", items.size(), hasNext);
+        return new ProductPageDto(items, nextCursor);
+    }
+
+    @Override
+    public ProductSearchPageDto searchProducts(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must be 0 or greater and size at least 1");
+        }
+        if (page > MAX_SEARCH_PAGE) {
+            throw new IllegalArgumentException("Page must not be greater than " + MAX_SEARCH_PAGE);
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        log.debug("Searching products for '{}' (page={}, size={})", query, page, pageSize);
+        ProductSearchPageDto result = searchIndex.search(query, page, pageSize);
+        log.info("Search for '{}' matched {} products", query, result.totalHits());
+        return result;
+    }
+
+    @Override
+    public List<ProductSuggestionDto> suggestProducts(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix must not be blank");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        List<ProductSuggestionDto> suggestions = suggestIndex.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS));
+        log.debug("Suggested {} products for prefix '{}'", suggestions.size(), prefix);
+        return suggestions;
+    }
+
+    @Override
+    public ProductFacetsDto getProductFacets(ProductFilter filter) {
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        ProductFacetsDto facets = facetIndex.facets(filter);
+        log.debug("Computed price facets for {}: {} products", filter, facets.total());
+        return facets;
+    }
+
+    @Override
+    public List<ProductSummaryDto> getLowStockProducts(int limit, Integer below) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        if (below != null && below < 1) {
+            throw new IllegalArgumentException("Stock threshold must be at least 1");
+        }
+        List<ProductSummaryDto> products = lowStockIndex.lowest(Math.min(limit, MAX_PAGE_SIZE), below);
+        log.debug("Found {} low-stock products (limit={}, below={})", products.size(), limit, below);
+        return products;
     }
 
     @Override
     public ProductDetailsDto getProductById(long productId) {
         log.info("Fetching product details for ID: {}", productId);
-        Product product = getProduct(productId);
-        log.debug("Converting product to DTO for ID: {}", productId);
-        return ProductMapper.toDetailsDto(product);
+        if (productExistence.isKnownAbsent(productId)) {
+            log.debug("Product ID {} is known not to exist", productId);
+            throw new ResourceNotFoundException("Product", "productId", productId);
+        }
+        long lookup = productExistence.beginLookup();
+        // A replica that has not replayed the latest change would put the old state back into the cache
+        return productCache.get(productId, id -> ReadRouting.onPrimary(() -> {
+            log.debug("Cache miss, loading product ID: {}", id);
+            Product product = repository.findById(id).orElseThrow(() -> {
+                log.debug("Product not found with ID: {}", id);
+                productExistence.recordAbsent(id, lookup);
+                return new ResourceNotFoundException("Product", "productId", id);
+            });
+            return toDetailsDto(product);
+        }));
     }
 
+    /**
+     * Returns the product's revision without loading it: from the cache when present, otherwise with a
+     * single-column query. Empty if the product does not exist.
+     */
     @Override
+    public Optional<String> getProductVersion(long productId) {
+        ProductDetailsDto cached = productCache.getIfPresent(productId);
+        if (cached != null) {
+            return Optional.of(cached.revision());
+        }
+        if (productExistence.isKnownAbsent(productId)) {
+            return Optional.empty();
+        }
+        return repository.findRevisionById(productId);
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return catalogVersion.visible();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductBatchDto getProductsByIds(List<Long> productIds) {
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(productIds);
+        if (requested.isEmpty() || requested.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_SIZE + " distinct product IDs are required");
+        }
+        log.info("Fetching {} products by ID", requested.size());
+
+        Map<Long, ProductDetailsDto> found = new LinkedHashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long productId : requested) {
+            ProductDetailsDto cached = productCache.getIfPresent(productId);
+            if (cached != null) {
+                found.put(productId, cached);
+            } else {
+                uncached.add(productId);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            log.debug("Loading {} uncached products from repository", uncached.size());
+            List<Product> products = repository.findAllById(uncached);
+            Map<Long, OffRowStock> offRow = stockLedger.offRowStock(products);
+            products.forEach(product ->
+                    found.put(product.getId(), ProductMapper.toDetailsDto(product, offRow.get(product.getId()))));
+        }
+
+        List<ProductDetailsDto> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long productId : requested) {
+            ProductDetailsDto product = found.get(productId);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missingIds.add(productId);
+            }
+        }
+        log.info("Fetched {} products, {} missing", items.size(), missingIds.size());
+        return new ProductBatchDto(items, missingIds);
+    }
+
+    /**
+     * Pushes every product (or those updated at or after {@code updatedSince}) to the sink in id order.
+     * Rows are read through a database cursor in chunks, whose off-row stock is read with one query each,
+     * and detached once handed off, so the persistence context never holds more than one chunk regardless
+     * of catalog size.
+     */
+    @Override
+    @Transactional
+    public long exportProducts(LocalDateTime updatedSince, Consumer<ProductDetailsDto> sink) {
+        log.info("Exporting products updated since {}", updatedSince);
+        long exported = 0;
+        try (Stream<Product> products = updatedSince == null
+                ? repository.streamAllForExport()
+                : repository.streamUpdatedSinceForExport(updatedSince)) {
+            Iterator<Product> iterator = products.iterator();
+            List<Product> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == EXPORT_CHUNK_SIZE || !iterator.hasNext()) {
+                    exportChunk(chunk, sink);
+                    exported += chunk.size();
+                    chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+                }
+            }
+        }
+        log.info("Exported {} products", exported);
+        return exported;
+    }
+
+    private void exportChunk(List<Product> chunk, Consumer<ProductDetailsDto> sink) {
+        Map<Long, OffRowStock> offRow = stockLedger.offRowStock(chunk);
+        for (Product product : chunk) {
+            sink.accept(ProductMapper.toDetailsDto(product, offRow.get(product.getId())));
+            entityManager.detach(product);
+        }
+    }
+
+    @Override
+    @Transactional
     public ProductDetailsDto createProduct(ProductRequestDto request) {
         log.info("Creating new product: {}", request.name());
         Product product = new Product();
@@ -61,13 +400,18 @@ public class ProductServiceImpl implements IProductService {
         product.setDescription(request.description());
         product.setPrice(request.price());
         product.setStock(request.stock());
+        product.setCategory(findCategory(request.categoryId()));
 
         Product saved = repository.save(product);
-        log.debug("Product saved with ID: {}", saved.getId());;
-        return ProductMapper.toDetailsDto(saved);
+        productExistence.added(saved.getId());
+        log.debug("Product saved with ID: {}", saved.getId());
+        ProductDetailsDto created = ProductMapper.toDetailsDto(saved);
+        publishChange(created, ChangeType.CREATED);
+        return created;
     }
 
     @Override
+    @Transactional
     public ProductDetailsDto updateProduct(long productId, ProductRequestDto request) {
         log.info("Updating product: {}", request.name());
         Product product = getProduct(productId);
@@ -75,46 +419,301 @@ public class ProductServiceImpl implements IProductService {
         product.setName(request.name());
         product.setDescription(request.description());
         product.setPrice(request.price());
-        product.setStock(request.stock());
+        product.setCategory(findCategory(request.categoryId()));
+        setStock(productId, product, request.stock());
 
-        Product updated = repository.save(product);
+        ProductDetailsDto updated = toDetailsDto(saveChecked(productId, product));
+        publishChange(updated, ChangeType.UPDATED);
         log.info("Updated product with ID: {}", productId);
-        return ProductMapper.toDetailsDto(updated);
+        return updated;
     }
 
+    /**
+     * Changes only the fields present in the patch. Products are updated dynamically, so the UPDATE covers just
+     * those columns and never writes back a stock snapshot that a concurrent stock fold has since replaced.
+     */
     @Override
+    @Transactional
+    public ProductDetailsDto patchProduct(long productId, ProductPatchRequest patch) {
+        log.info("Patching product with ID: {}", productId);
+        Product product = getProduct(productId);
+        if (patch.isEmpty()) {
+            return toDetailsDto(product);
+        }
+
+        // Validation has rejected nulls for every field except the category
+        if (patch.name() != null) {
+            product.setName(patch.name().orElseThrow());
+        }
+        if (patch.description() != null) {
+            product.setDescription(patch.description().orElseThrow());
+        }
+        if (patch.price() != null) {
+            product.setPrice(patch.price().orElseThrow());
+        }
+        if (patch.categoryId() != null) {
+            product.setCategory(findCategory(patch.categoryId().orElse(null)));
+        }
+        if (patch.stock() != null) {
+            setStock(productId, product, patch.stock().orElseThrow());
+        }
+
+        ProductDetailsDto patched = toDetailsDto(saveChecked(productId, product));
+        publishChange(patched, ChangeType.UPDATED);
+        log.info("Patched product with ID: {}", productId);
+        return patched;
+    }
+
+    // Stock is never written from the request into the row: it is moved through the ledger or the stripes
+    private void setStock(long productId, Product product, int stock) {
+        if (product.getStockStripes() > 0) {
+            stripedInventory.spread(productId, product.getStockStripes(), stock);
+            product.setStock(0);
+        } else if (!stockLedger.adjustTo(productId, stock, null)) {
+            throw new ConflictException("Stock mode of product ID " + productId + " changed concurrently, please retry");
+        }
+    }
+
+    private Product saveChecked(long productId, Product product) {
+        try {
+            return repository.saveAndFlush(product);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Another update committed since the product was read; overwriting it would lose it
+            contention.contended(productId, "update");
+            log.warn("Update of product {} lost to a concurrent change", productId);
+            throw new ConflictException("Product " + productId + " was changed concurrently, reload it and retry the update");
+        }
+    }
+
+    @Override
+    @Transactional
     public void deleteProduct(long productId) {
         log.info("Deleting product with ID: {}", productId);
         Product product = getProduct(productId);
+        if (product.getStockStripes() > 0) {
+            stripedInventory.spread(productId, 0, 0);
+        }
         repository.delete(product);
+        publishChange(productId, ChangeType.DELETED);
         log.info("Deleted product with ID: {}", productId);
     }
 
     // Inventory Management
 
     @Transactional
-    public void reduceStock(long productId, Integer quantity) {
+    public void reduceStock(long productId, Integer quantity, String orderReference) {
         log.info("Reducing stock for product {} by {}", productId, quantity);
-        Product product = getProduct(productId);
-
-        if (product.getStock() < quantity) {
-            log.error("Insufficient stock for product ID: {}. Current stock: {}, Requested: {}",
-                    productId, product.getStock(), quantity);
+        boolean taken = switch (stockLedger.take(productId, quantity, Reason.SALE, orderReference)) {
+            case APPLIED -> true;
+            case INSUFFICIENT -> false;
+            case NOT_LEDGERED -> {
+                // Striped products keep their stock in sub-counters instead
+                int stripes = repository.findStockStripesById(productId)
+                        .orElseThrow(() -> {
+                            log.error("Product not found with ID: {}", productId);
+                            return new ResourceNotFoundException("Product", "productId", productId);
+                        });
+                yield stripes > 0 && stripedInventory.tryDecrement(productId, quantity);
+            }
+        };
+        if (!taken) {
+            log.error("Insufficient stock for product ID: {}. Requested: {}", productId, quantity);
             throw new ConflictException("Insufficient stock for product ID " + productId);
         }
-
-        product.setStock(product.getStock() - quantity);
-        repository.save(product);
+        publishChange(productId, ChangeType.STOCK_CHANGED);
+        eventPublisher.publishEvent(new ProductDemandEvent(productId, quantity));
         log.debug("Stock reduced successfully for product ID: {}", productId);
     }
 
     @Transactional
-    public void increaseStock(long productId, Integer quantity) {
+    public void increaseStock(long productId, Integer quantity, String orderReference) {
         log.info("Increasing stock for product {} by {}", productId, quantity);
-        Product product = getProduct(productId);
-
-        product.setStock(product.getStock() + quantity);
-        repository.save(product);
+        if (!restock(productId, quantity, Reason.RESTOCK, orderReference)) {
+            log.error("Product not found with ID: {}", productId);
+            throw new ResourceNotFoundException("Product", "productId", productId);
+        }
+        publishChange(productId, ChangeType.STOCK_CHANGED);
         log.debug("Stock increased successfully for product ID: {}", productId);
     }
+
+    /**
+     * Records the added stock in the ledger, or adds it to a stripe when the product is striped. Striping may
+     * be switched on or off between the two, so the lookup is repeated a few times before giving up.
+     * Returns false if the product does not exist.
+     */
+    private boolean restock(long productId, int quantity, Reason reason, String orderReference) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            if (stockLedger.give(productId, quantity, reason, orderReference)) {
+                return true;
+            }
+            Optional<Integer> stripes = repository.findStockStripesById(productId);
+            if (stripes.isEmpty()) {
+                return false;
+            }
+            if (stripes.get() > 0 && stripedInventory.increment(productId, stripes.get(), quantity)) {
+                return true;
+            }
+        }
+        throw new ConflictException("Stock mode of product ID " + productId + " changed concurrently, please retry");
+    }
+
+    @Override
+    @Transactional
+    public ProductDetailsDto enableStockStripes(long productId, int stripes) {
+        if (stripes < StripedInventory.MIN_STRIPES || stripes > StripedInventory.MAX_STRIPES) {
+            throw new IllegalArgumentException("Stripe count must be between "
+                    + StripedInventory.MIN_STRIPES + " and " + StripedInventory.MAX_STRIPES);
+        }
+        log.info("Splitting stock of product {} across {} stripes", productId, stripes);
+        stockLedger.foldNow(productId);
+        Product product = lockProduct(productId);
+        long total = product.getStock() + stripedInventory.lockStock(productId);
+        stripedInventory.spread(productId, stripes, total);
+        product.setStock(0);
+        product.setStockStripes(stripes);
+
+        ProductDetailsDto updated = toDetailsDto(repository.saveAndFlush(product));
+        publishChange(updated, ChangeType.UPDATED);
+        log.info("Product {} now keeps {} units across {} stripes", productId, total, stripes);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public ProductDetailsDto disableStockStripes(long productId) {
+        log.info("Collapsing striped stock of product {}", productId);
+        stockLedger.foldNow(productId);
+        Product product = lockProduct(productId);
+        if (product.getStockStripes() == 0) {
+            return ProductMapper.toDetailsDto(product);
+        }
+        long total = product.getStock() + stripedInventory.lockStock(productId);
+        stripedInventory.spread(productId, 0, 0);
+        product.setStock(Math.toIntExact(total));
+        product.setStockStripes(0);
+
+        ProductDetailsDto updated = ProductMapper.toDetailsDto(repository.saveAndFlush(product));
+        publishChange(updated, ChangeType.UPDATED);
+        log.info("Product {} now keeps {} units in a single row", productId, total);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public List<StockLineResultDto> reserveStock(List<StockLineRequest> lines, String orderReference) {
+        SortedMap<Long, Integer> quantities = mergeLines(lines);
+        log.info("Reserving stock for {} products", quantities.size());
+        Map<Long, Product> products = loadProducts(quantities);
+        SortedSet<Long> ledgered = products.values().stream()
+                .filter(product -> product.getStockStripes() == 0)
+                .map(Product::getId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Integer> available = stockLedger.lockAvailable(ledgered, Reason.HOLD);
+
+        Map<String, String> failures = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                failures.put(String.valueOf(productId), "Product not found");
+            } else if (product.getStockStripes() > 0) {
+                // Taken right away; any failure in the batch rolls it back with the rest
+                if (!stripedInventory.tryDecrement(productId, quantity)) {
+                    failures.put(String.valueOf(productId), "Insufficient stock: requested " + quantity);
+                }
+            } else if (!available.containsKey(productId)) {
+                failures.put(String.valueOf(productId), "Stock mode changed concurrently, please retry");
+            } else if (available.get(productId) < quantity) {
+                failures.put(String.valueOf(productId),
+                        "Insufficient stock: requested " + quantity + ", available " + available.get(productId));
+            }
+        });
+        if (!failures.isEmpty()) {
+            throw new StockBatchException(
+                    "Stock reservation failed for " + failures.size() + " of " + quantities.size() + " products",
+                    failures
+            );
+        }
+
+        List<StockLineResultDto> results = applyDeltas(quantities, products, -1, orderReference);
+        log.debug("Reserved stock for products {}", quantities.keySet());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<StockLineResultDto> releaseStock(List<StockLineRequest> lines, String orderReference) {
+        SortedMap<Long, Integer> quantities = mergeLines(lines);
+        log.info("Releasing stock for {} products", quantities.size());
+        Map<Long, Product> products = loadProducts(quantities);
+
+        Map<String, String> failures = new LinkedHashMap<>();
+        quantities.keySet().stream()
+                .filter(productId -> !products.containsKey(productId))
+                .forEach(productId -> failures.put(String.valueOf(productId), "Product not found"));
+        if (!failures.isEmpty()) {
+            throw new StockBatchException(
+                    "Stock release failed for " + failures.size() + " of " + quantities.size() + " products",
+                    failures
+            );
+        }
+
+        List<StockLineResultDto> results = applyDeltas(quantities, products, 1, orderReference);
+        log.debug("Released stock for products {}", quantities.keySet());
+        return results;
+    }
+
+    // Duplicate product ids are summed and ordered by id, which is also the locking order
+    private SortedMap<Long, Integer> mergeLines(List<StockLineRequest> lines) {
+        return lines.stream().collect(Collectors.toMap(
+                StockLineRequest::productId,
+                StockLineRequest::quantity,
+                Integer::sum,
+                TreeMap::new
+        ));
+    }
+
+    /**
+     * Reads the products without locking their rows. Regular products are locked through the stock ledger,
+     * striped products have their stock changed through the stripes.
+     */
+    private Map<Long, Product> loadProducts(SortedMap<Long, Integer> quantities) {
+        Map<Long, Product> products = repository.findAllUnstripedById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() < quantities.size()) {
+            List<Long> remaining = quantities.keySet().stream()
+                    .filter(productId -> !products.containsKey(productId))
+                    .toList();
+            repository.findAllStripedById(remaining).forEach(product -> products.put(product.getId(), product));
+        }
+        return products;
+    }
+
+    private List<StockLineResultDto> applyDeltas(SortedMap<Long, Integer> quantities, Map<Long, Product> products,
+                                                 int sign, String orderReference) {
+        quantities.forEach((productId, quantity) -> {
+            if (sign > 0) {
+                restock(productId, quantity, Reason.HOLD_RELEASE, orderReference);
+            } else if (products.get(productId).getStockStripes() == 0) {
+                // Striped products were already taken from while the batch was checked
+                stockLedger.append(productId, -quantity, Reason.HOLD, orderReference);
+            }
+        });
+
+        Map<Long, OffRowStock> offRow = stockLedger.offRowStock(products.values());
+        List<StockLineResultDto> results = quantities.entrySet().stream()
+                .map(line -> {
+                    Product product = products.get(line.getKey());
+                    OffRowStock pending = offRow.get(line.getKey());
+                    int remaining = product.getStock() + (pending != null ? Math.toIntExact(pending.stock()) : 0);
+                    return new StockLineResultDto(line.getKey(), line.getValue(), remaining);
+                })
+                .toList();
+        quantities.forEach((productId, quantity) -> {
+            publishChange(productId, ChangeType.STOCK_CHANGED);
+            if (sign < 0) {
+                eventPublisher.publishEvent(new ProductDemandEvent(productId, quantity));
+            }
+        });
+        return results;
+    }
 }
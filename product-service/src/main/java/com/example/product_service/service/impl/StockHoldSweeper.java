@@ -0,0 +1,78 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.inventory.HoldExpiryIndex;
+import com.example.product_service.service.IStockReservationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Puts the stock of expired holds back. Each run first asks the in-memory expiry index whether one of this
+ * instance's holds is due, so an idle sweeper costs no query. Holds placed by other instances, or before a
+ * restart, are not in the index; a periodic full scan, starting right after startup, picks those up.
+ * Expired lines are released in batches, one transaction each, until a batch comes back short.
+ */
+@Component
+public class StockHoldSweeper {
+    private static final Logger log = LoggerFactory.getLogger(StockHoldSweeper.class);
+    private final IStockReservationService reservationService;
+    private final HoldExpiryIndex expiryIndex;
+    private final int batchSize;
+    private final Duration fullScanInterval;
+    private final Counter expiredLines;
+    private LocalDateTime nextFullScan = LocalDateTime.MIN;
+
+    public StockHoldSweeper(
+            IStockReservationService reservationService,
+            HoldExpiryIndex expiryIndex,
+            MeterRegistry meterRegistry,
+            @Value("${product.stock-holds.sweep-batch-size:500}") int batchSize,
+            @Value("${product.stock-holds.full-scan-interval:1m}") Duration fullScanInterval
+    ) {
+        this.reservationService = reservationService;
+        this.expiryIndex = expiryIndex;
+        this.batchSize = batchSize;
+        this.fullScanInterval = fullScanInterval;
+        this.expiredLines = Counter.builder("product.stock.holds.expired")
+                .description("Expired stock hold lines whose stock was released")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${product.stock-holds.sweep-interval:1s}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        boolean due = expiryIndex.pollDue(now);
+        if (!due && now.isBefore(nextFullScan)) {
+            return;
+        }
+        nextFullScan = now.plus(fullScanInterval);
+        sweepExpired(now);
+    }
+
+    /**
+     * Releases every hold line that expired at or before {@code now} and returns how many there were.
+     */
+    public long sweepExpired(LocalDateTime now) {
+        long startedAt = System.nanoTime();
+        long released = 0;
+        int batch;
+        do {
+            batch = reservationService.releaseExpired(now, batchSize);
+            released += batch;
+        } while (batch == batchSize);
+
+        if (released > 0) {
+            expiredLines.increment(released);
+            log.info("Released {} expired stock hold lines in {} ms",
+                    released, (System.nanoTime() - startedAt) / 1_000_000);
+        }
+        return released;
+    }
+}
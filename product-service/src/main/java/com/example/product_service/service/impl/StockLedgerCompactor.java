@@ -0,0 +1,104 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.inventory.StockLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Folds stock ledger entries into the product rows. Products whose stock this instance moved are marked once
+ * the movement has committed and folded on the next run, one batch per transaction; products a writer holds at
+ * that moment are skipped and stay marked for the run after. Movements recorded by other instances, or before a
+ * restart, are not marked here; a periodic full scan, starting right after startup, picks those up.
+ */
+@Component
+public class StockLedgerCompactor {
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerCompactor.class);
+    private final StockLedger ledger;
+    private final int batchSize;
+    private final Duration fullScanInterval;
+    private final Set<Long> marked = ConcurrentHashMap.newKeySet();
+    private LocalDateTime nextFullScan = LocalDateTime.MIN;
+
+    public StockLedgerCompactor(
+            StockLedger ledger,
+            @Value("${product.stock-ledger.compaction-batch-size:500}") int batchSize,
+            @Value("${product.stock-ledger.full-scan-interval:1m}") Duration fullScanInterval
+    ) {
+        this.ledger = ledger;
+        this.batchSize = batchSize;
+        this.fullScanInterval = fullScanInterval;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.changeType() == ChangeType.STOCK_CHANGED || event.changeType() == ChangeType.UPDATED) {
+            marked.add(event.productId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.stock-ledger.compaction-interval:1s}")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!now.isBefore(nextFullScan)) {
+            nextFullScan = now.plus(fullScanInterval);
+            markPending();
+        }
+        foldMarked();
+    }
+
+    /**
+     * Folds the pending entries of every product, whether marked or not.
+     */
+    public void foldAll() {
+        markPending();
+        foldMarked();
+    }
+
+    private void markPending() {
+        long afterId = 0;
+        List<Long> batch;
+        do {
+            batch = ledger.findWithPending(afterId, batchSize);
+            marked.addAll(batch);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void foldMarked() {
+        long startedAt = System.nanoTime();
+        int products = 0;
+        Set<Long> busy = new HashSet<>();
+        while (!marked.isEmpty()) {
+            List<Long> ids = new ArrayList<>(batchSize);
+            Iterator<Long> pending = marked.iterator();
+            while (pending.hasNext() && ids.size() < batchSize) {
+                ids.add(pending.next());
+                pending.remove();
+            }
+            busy.addAll(ledger.foldPending(ids));
+            products += ids.size();
+        }
+        marked.addAll(busy);
+        if (products > 0) {
+            log.debug("Folded stock ledger of {} products in {} ms, {} busy",
+                    products - busy.size(), (System.nanoTime() - startedAt) / 1_000_000, busy.size());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.product_service.service.impl;
+
+import com.example.product_service.dto.StockHoldDto;
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.dto.StockLineResultDto;
+import com.example.product_service.entity.StockReservation;
+import com.example.product_service.exception.ConflictException;
+import com.example.product_service.exception.ResourceNotFoundException;
+import com.example.product_service.inventory.HoldExpiryIndex;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.StockReservationRepository;
+import com.example.product_service.service.IProductService;
+import com.example.product_service.service.IStockReservationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Time-limited stock holds. Placing a hold takes the stock right away through the regular batch
+ * reservation, so {@code products.stock} is always net of active holds and every existing read path
+ * already reports what can still be sold. The hold's lines record what has to be put back if the hold
+ * is released or runs out before it is committed.
+ */
+@Service
+public class StockReservationServiceImpl implements IStockReservationService {
+    private static final Logger log = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final IProductService productService;
+    private final HoldExpiryIndex expiryIndex;
+    private final Duration ttl;
+
+    public StockReservationServiceImpl(
+            StockReservationRepository reservationRepository,
+            ProductRepository productRepository,
+            IProductService productService,
+            HoldExpiryIndex expiryIndex,
+            @Value("${product.stock-holds.ttl:15m}") Duration ttl
+    ) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.expiryIndex = expiryIndex;
+        this.ttl = ttl;
+    }
+
+    @Override
+    @Transactional
+    public StockHoldDto placeHold(List<StockLineRequest> lines) {
+        UUID holdId = UUID.randomUUID();
+        List<StockLineResultDto> reserved = productService.reserveStock(lines, holdId.toString());
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+
+        reservationRepository.saveAll(reserved.stream()
+                .map(line -> new StockReservation(
+                        holdId,
+                        productRepository.getReferenceById(line.productId()),
+                        line.quantity(),
+                        reserved.size(),
+                        expiresAt
+                ))
+                .toList());
+        expiryIndex.add(expiresAt);
+
+        log.info("Placed stock hold {} on {} products until {}", holdId, reserved.size(), expiresAt);
+        return new StockHoldDto(holdId, expiresAt, reserved);
+    }
+
+    /**
+     * The stock was taken when the hold was placed, so committing only drops the hold's lines. A hold that
+     * has expired, or that the sweeper has already started to release, cannot be committed any more.
+     */
+    @Override
+    @Transactional
+    public void commitHold(UUID holdId) {
+        List<StockReservation> lines = reservationRepository.findAllByHoldIdForUpdate(holdId);
+        if (lines.isEmpty()) {
+            throw new ResourceNotFoundException("Stock hold", "holdId", holdId.toString());
+        }
+        StockReservation first = lines.get(0);
+        if (!first.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new ConflictException("Stock hold " + holdId + " expired at " + first.getExpiresAt());
+        }
+        if (lines.size() != first.getHoldLines()) {
+            throw new ConflictException("Stock hold " + holdId + " is no longer complete");
+        }
+
+        reservationRepository.deleteAllByIdInBatch(lines.stream().map(StockReservation::getId).toList());
+        log.info("Committed stock hold {}", holdId);
+    }
+
+    /**
+     * Releasing a hold that is already gone (committed, released or swept) is a no-op, so callers can
+     * retry freely.
+     */
+    @Override
+    @Transactional
+    public void releaseHold(UUID holdId) {
+        List<StockReservation> lines = reservationRepository.findAllByHoldIdForUpdate(holdId);
+        if (lines.isEmpty()) {
+            log.debug("Stock hold {} is already gone", holdId);
+            return;
+        }
+        release(lines);
+        log.info("Released stock hold {}", holdId);
+    }
+
+    /**
+     * Releases up to {@code batchSize} expired lines in one transaction and returns how many there were.
+     */
+    @Override
+    @Transactional
+    public int releaseExpired(LocalDateTime now, int batchSize) {
+        List<StockReservation> expired = reservationRepository.findExpiredForUpdate(now, Limit.of(batchSize));
+        if (!expired.isEmpty()) {
+            release(expired);
+        }
+        return expired.size();
+    }
+
+    private void release(List<StockReservation> lines) {
+        reservationRepository.deleteAllByIdInBatch(lines.stream().map(StockReservation::getId).toList());
+        // Released per hold, so the ledger entries of a hold can be matched up
+        lines.stream()
+                .collect(Collectors.groupingBy(StockReservation::getHoldId, LinkedHashMap::new, Collectors.toList()))
+                .forEach((holdId, held) -> productService.releaseStock(held.stream()
+                        .map(line -> new StockLineRequest(line.getProductId(), line.getQuantity()))
+                        .toList(), holdId.toString()));
+    }
+}
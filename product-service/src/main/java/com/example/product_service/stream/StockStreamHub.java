@@ -0,0 +1,343 @@
+package com.example.product_service.stream;
+
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.entity.Product;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.outbox.ProductChange;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.OffRowStock;
+import com.example.product_service.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes stock levels of watched products to SSE subscribers.
+ * <p>
+ * Committed changes only mark the product: those of this instance as their events arrive, and those of every
+ * instance from the change outbox, which is read while anyone is watching. Every coalescing window the marked
+ * products that someone watches are read back in one batch, however many changes they had and however many
+ * clients watch them, and the new levels are queued on each subscriber. A small pool of sender threads then
+ * writes to the connections, one thread per connection at a time.
+ * <p>
+ * Writes block. A connection whose write has been stuck for longer than the send timeout is closed, and its
+ * client reconnects and starts over with current levels, but closing it does not free the sender: that thread
+ * stays in the write until the container's own write timeout (for Tomcat, the connection timeout) gives up on
+ * the socket. So that a few stalled clients cannot hold every sender meanwhile, each stuck thread is written off
+ * and the pool grows by one until it comes back, up to {@code max-replaced-senders} extra threads. Past that,
+ * sends wait for a free thread; stuck senders and put-off sends are counted, and logged.
+ */
+@Component
+public class StockStreamHub {
+    private static final Logger log = LoggerFactory.getLogger(StockStreamHub.class);
+    public static final int MAX_PRODUCTS_PER_STREAM = 50;
+    private static final int BATCH_SIZE = 1000;
+    private static final int SEND_QUEUE_CAPACITY = 1024;
+
+    private final ProductRepository repository;
+    private final StockLedger stockLedger;
+    private final ProductChangeOutbox outbox;
+    private final Duration streamTimeout;
+    private final long sendTimeoutNanos;
+    private final long heartbeatIntervalNanos;
+    private final Map<Long, Set<StockSubscription>> subscribersByProduct = new ConcurrentHashMap<>();
+    private final Set<StockSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final int senderThreads;
+    private final int maxReplacedSenders;
+    private final Object senderLock = new Object();
+    // Senders written off as stuck in a write that has not returned yet, guarded by senderLock
+    private int stuckSenders;
+    private final Counter evicted;
+    private final Counter putOff;
+    private final Object feedLock = new Object();
+    // Where reading the change outbox resumes; null while nobody watches, guarded by feedLock
+    private ProductChange.Position feedPosition;
+
+    public StockStreamHub(
+            ProductRepository repository,
+            StockLedger stockLedger,
+            ProductChangeOutbox outbox,
+            MeterRegistry meterRegistry,
+            @Value("${product.stock-stream.timeout:30m}") Duration streamTimeout,
+            @Value("${product.stock-stream.send-timeout:5s}") Duration sendTimeout,
+            @Value("${product.stock-stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+            @Value("${product.stock-stream.sender-threads:4}") int senderThreads,
+            @Value("${product.stock-stream.max-replaced-senders:16}") int maxReplacedSenders
+    ) {
+        this.repository = repository;
+        this.stockLedger = stockLedger;
+        this.outbox = outbox;
+        this.streamTimeout = streamTimeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.heartbeatIntervalNanos = heartbeatInterval.toNanos();
+        this.senderThreads = senderThreads;
+        this.maxReplacedSenders = maxReplacedSenders;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(SEND_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "stock-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("product.stock.stream.connections", subscriptions, Set::size)
+                .description("Open stock stream connections")
+                .register(meterRegistry);
+        this.evicted = Counter.builder("product.stock.stream.evicted")
+                .description("Stock stream connections closed because the client did not keep up")
+                .register(meterRegistry);
+        Gauge.builder("product.stock.stream.senders.stuck", this, hub -> hub.stuckSenders())
+                .description("Sender threads still blocked writing to a connection that was closed as stuck")
+                .register(meterRegistry);
+        Gauge.builder("product.stock.stream.senders.busy", senders, ThreadPoolExecutor::getActiveCount)
+                .description("Sender threads writing to a connection")
+                .register(meterRegistry);
+        this.putOff = Counter.builder("product.stock.stream.sends.put-off")
+                .description("Stock stream sends left for a later flush because every sender was busy")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Collection<Long> productIds) {
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        if (ids.isEmpty() || ids.size() > MAX_PRODUCTS_PER_STREAM) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_PRODUCTS_PER_STREAM + " product IDs can be watched");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        StockSubscription subscription = new StockSubscription(emitter, Set.copyOf(ids));
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+
+        // Registered before reading, so a change committed meanwhile is picked up by the next flush
+        subscriptions.add(subscription);
+        for (Long id : ids) {
+            subscribersByProduct.compute(id, (key, subscribers) -> {
+                Set<StockSubscription> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                set.add(subscription);
+                return set;
+            });
+        }
+        synchronized (feedLock) {
+            if (feedPosition == null) {
+                // Taken before the levels are read: anything they miss is committed after it and read from the feed
+                feedPosition = ReadRouting.onPrimary(outbox::latestPosition);
+            }
+        }
+        Map<Long, Integer> levels = loadStock(ids);
+        ids.forEach(id -> subscription.offer(id, levels.get(id)));
+        log.debug("Stock stream opened for {} products", ids.size());
+        return emitter;
+    }
+
+    public int connections() {
+        return subscriptions.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscribersByProduct.containsKey(event.productId())) {
+            changed.add(event.productId());
+        }
+    }
+
+    /**
+     * Marks watched products changed by any instance, as recorded in the change outbox. For changes made here
+     * this repeats what the change event did. Stops reading, and forgets the position, once nobody watches.
+     */
+    void catchUp() {
+        synchronized (feedLock) {
+            if (subscriptions.isEmpty()) {
+                feedPosition = null;
+                return;
+            }
+            ProductChange.Position position = feedPosition;
+            if (position == null) {
+                return;
+            }
+            List<ProductChange> changes;
+            do {
+                ProductChange.Position after = position;
+                changes = ReadRouting.onPrimary(() -> outbox.readKeysAfter(after, BATCH_SIZE));
+                for (ProductChange change : changes) {
+                    if (subscribersByProduct.containsKey(change.productId())) {
+                        changed.add(change.productId());
+                    }
+                    position = change.position();
+                }
+            } while (changes.size() == BATCH_SIZE);
+            feedPosition = position;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.stock-stream.coalesce-window:250ms}")
+    public void flush() {
+        catchUp();
+        while (!changed.isEmpty()) {
+            List<Long> ids = new ArrayList<>(BATCH_SIZE);
+            Iterator<Long> pending = changed.iterator();
+            while (pending.hasNext() && ids.size() < BATCH_SIZE) {
+                ids.add(pending.next());
+                pending.remove();
+            }
+            Map<Long, Integer> levels = loadStock(ids);
+            for (Long id : ids) {
+                Set<StockSubscription> subscribers = subscribersByProduct.get(id);
+                if (subscribers != null) {
+                    Integer stock = levels.get(id);
+                    subscribers.forEach(subscription -> subscription.offer(id, stock));
+                }
+            }
+        }
+
+        long now = System.nanoTime();
+        int rejected = 0;
+        for (StockSubscription subscription : subscriptions) {
+            if (subscription.sendingFor(now) > sendTimeoutNanos) {
+                log.warn("Closing stock stream whose client stopped reading");
+                evicted.increment();
+                unsubscribe(subscription);
+                if (subscription.abandonSending()) {
+                    senderStuck();
+                }
+                subscription.emitter().complete();
+            } else if (subscription.hasPending()) {
+                rejected += dispatch(subscription, subscription::sendPending) ? 0 : 1;
+            } else if (subscription.idleFor(now) > heartbeatIntervalNanos) {
+                rejected += dispatch(subscription, subscription::sendHeartbeat) ? 0 : 1;
+            }
+        }
+        if (rejected > 0) {
+            putOff.increment(rejected);
+            log.warn("Stock stream senders saturated: {} sends put off, {} senders stuck in writes",
+                    rejected, stuckSenders());
+        }
+    }
+
+    /**
+     * Hands the send to a sender thread. Returns false only if the send had to be put off because the senders
+     * and their queue are full; everything then stays queued on the subscription for the next flush.
+     */
+    private boolean dispatch(StockSubscription subscription, Send send) {
+        if (!subscription.tryStartSending()) {
+            return true;
+        }
+        try {
+            senders.execute(() -> {
+                try {
+                    send.run();
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Stock stream closed: {}", e.getMessage());
+                    unsubscribe(subscription);
+                    subscription.emitter().completeWithError(e);
+                } finally {
+                    if (subscription.finishSending()) {
+                        senderReturned();
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            subscription.finishSending();
+            return false;
+        }
+    }
+
+    private void senderStuck() {
+        synchronized (senderLock) {
+            stuckSenders++;
+            if (stuckSenders > maxReplacedSenders) {
+                log.warn("{} stock stream senders stuck in writes, more than the {} that are replaced",
+                        stuckSenders, maxReplacedSenders);
+            }
+            resizeSenders();
+        }
+    }
+
+    private void senderReturned() {
+        synchronized (senderLock) {
+            stuckSenders--;
+            resizeSenders();
+        }
+    }
+
+    private int stuckSenders() {
+        synchronized (senderLock) {
+            return stuckSenders;
+        }
+    }
+
+    // Growing raises the maximum first and shrinking lowers the core first, as the pool requires core <= maximum
+    private void resizeSenders() {
+        int size = senderThreads + Math.min(stuckSenders, maxReplacedSenders);
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else if (size < senders.getMaximumPoolSize()) {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private void unsubscribe(StockSubscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return;
+        }
+        for (Long id : subscription.productIds()) {
+            subscribersByProduct.computeIfPresent(id, (key, subscribers) -> {
+                subscribers.remove(subscription);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+
+    // From the primary: a lagging replica could push a level older than one already sent
+    private Map<Long, Integer> loadStock(Collection<Long> ids) {
+        return ReadRouting.onPrimary(() -> {
+            List<Product> products = repository.findAllById(ids);
+            Map<Long, OffRowStock> offRow = stockLedger.offRowStock(products);
+            Map<Long, Integer> levels = new HashMap<>();
+            products.forEach(product -> levels.put(product.getId(),
+                    ProductMapper.toDetailsDto(product, offRow.get(product.getId())).stock()));
+            return levels;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter().complete());
+    }
+
+    @FunctionalInterface
+    private interface Send {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.product_service.stream;
+
+import com.example.product_service.dto.StockLevelDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One SSE connection. Undelivered stock levels are kept per product, newest only, so what a slow client can
+ * pile up is bounded by the number of products it watches, not by how often their stock changes.
+ * At most one thread writes to the connection at a time; it calls {@link #finishSending} when its write returns.
+ */
+class StockSubscription {
+    static final String STOCK_EVENT = "stock";
+    static final String DELETED_EVENT = "deleted";
+
+    private final SseEmitter emitter;
+    private final Set<Long> productIds;
+    private final Map<Long, StockLevelDto> pending = new LinkedHashMap<>();
+    private static final int IDLE = 0;
+    private static final int SENDING = 1;
+    private static final int ABANDONED = 2;
+
+    private final AtomicInteger sendState = new AtomicInteger(IDLE);
+    private volatile long sendStartedAt;
+    private volatile long lastSentAt = System.nanoTime();
+
+    StockSubscription(SseEmitter emitter, Set<Long> productIds) {
+        this.emitter = emitter;
+        this.productIds = productIds;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    Set<Long> productIds() {
+        return productIds;
+    }
+
+    /**
+     * Queues a stock level, replacing one not yet sent for the same product. A null stock marks a deleted product.
+     */
+    synchronized void offer(long productId, Integer stock) {
+        pending.put(productId, stock == null ? null : new StockLevelDto(productId, stock));
+    }
+
+    synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    boolean tryStartSending() {
+        if (!sendState.compareAndSet(IDLE, SENDING)) {
+            return false;
+        }
+        sendStartedAt = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Releases the connection for the next sender. Returns true if the send had been abandoned meanwhile, that
+     * is, if its thread was written off as stuck and has only now come back.
+     */
+    boolean finishSending() {
+        return sendState.getAndSet(IDLE) == ABANDONED;
+    }
+
+    /**
+     * Writes off the send in progress, if there is one, as stuck. Only one of this and the sender's
+     * {@link #finishSending} sees the send as both running and abandoned.
+     */
+    boolean abandonSending() {
+        return sendState.compareAndSet(SENDING, ABANDONED);
+    }
+
+    /**
+     * Nanoseconds the current send has been running, or zero if none is.
+     */
+    long sendingFor(long now) {
+        return sendState.get() == SENDING ? now - sendStartedAt : 0;
+    }
+
+    long idleFor(long now) {
+        return now - lastSentAt;
+    }
+
+    /**
+     * Writes everything queued.
+     */
+    void sendPending() throws IOException {
+        List<Map.Entry<Long, StockLevelDto>> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(pending.entrySet());
+            pending.clear();
+        }
+        for (Map.Entry<Long, StockLevelDto> entry : batch) {
+            if (entry.getValue() == null) {
+                emitter.send(SseEmitter.event().name(DELETED_EVENT).data(new StockLevelDto(entry.getKey(), 0)));
+            } else {
+                emitter.send(SseEmitter.event().name(STOCK_EVENT).data(entry.getValue()));
+            }
+        }
+        lastSentAt = System.nanoTime();
+    }
+
+    void sendHeartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+        lastSentAt = System.nanoTime();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.cache.ProductPageCache;
+import com.example.product_service.dto.CategoryRequestDto;
+import com.example.product_service.dto.ProductPageDto;
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.dto.ProductSummaryDto;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.CategoryRepository;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.ICategoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class CategoryIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ICategoryService categoryService;
+
+    @Autowired
+    private ProductPageCache pageCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long electronics;
+    private long computers;
+    private long books;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM category_paths");
+        jdbcTemplate.update("DELETE FROM categories");
+        pageCache.invalidateAll();
+
+        // Electronics > Computers > Laptops, Electronics > Phones, Books
+        electronics = category("Electronics", null);
+        computers = category("Computers", electronics);
+        long laptops = category("Laptops", computers);
+        long phones = category("Phones", electronics);
+        books = category("Books", null);
+
+        saveProduct("Gaming Laptop", laptops);
+        saveProduct("Smartphone", phones);
+        saveProduct("Ultrabook", laptops);
+        saveProduct("Mouse", computers);
+        saveProduct("Novel", books);
+        saveProduct("Gift Card", null);
+    }
+
+    private long category(String name, Long parentId) {
+        return categoryService.createCategory(new CategoryRequestDto(name, parentId)).id();
+    }
+
+    private void saveProduct(String name, Long categoryId) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setPrice(new BigDecimal("25.00"));
+        product.setStock(10);
+        if (categoryId != null) {
+            product.setCategory(categoryRepository.findById(categoryId).orElseThrow());
+        }
+        productRepository.save(product);
+    }
+
+    private ProductPageDto page(long categoryId, String cursor, int size) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/products")
+                .param("category", String.valueOf(categoryId))
+                .param("size", String.valueOf(size));
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        String body = mockMvc.perform(request.with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, ProductPageDto.class);
+    }
+
+    private List<String> names(long categoryId) throws Exception {
+        return page(categoryId, null, 20).items().stream().map(ProductSummaryDto::name).toList();
+    }
+
+    @Test
+    void getProducts_ByCategory_PagesThroughTheWholeSubtree() throws Exception {
+        // Act
+        List<String> names = new ArrayList<>();
+        ProductPageDto first = page(electronics, null, 3);
+        first.items().forEach(item -> names.add(item.name()));
+        ProductPageDto second = page(electronics, first.nextCursor(), 3);
+        second.items().forEach(item -> names.add(item.name()));
+
+        // Assert
+        assertEquals(List.of("Gaming Laptop", "Smartphone", "Ultrabook", "Mouse"), names);
+        assertNull(second.nextCursor());
+        assertEquals(List.of("Gaming Laptop", "Ultrabook", "Mouse"), names(computers));
+    }
+
+    @Test
+    void getProducts_ByCategorySortedByName_KeepsKeysetOrder() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .param("category", String.valueOf(electronics))
+                        .param("sort", "name")
+                        .param("size", "2")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Gaming Laptop"))
+                .andExpect(jsonPath("$.items[1].name").value("Mouse"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    void updateCategory_MovingASubtree_InvalidatesCachedListings() throws Exception {
+        // Arrange
+        assertEquals(List.of("Gaming Laptop", "Smartphone", "Ultrabook", "Mouse"), names(electronics));
+        assertEquals(List.of("Novel"), names(books));
+
+        // Act
+        mockMvc.perform(put("/api/categories/{id}", computers)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CategoryRequestDto("Computers", books))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parentId").value(books));
+
+        // Assert
+        assertEquals(List.of("Smartphone"), names(electronics));
+        assertEquals(List.of("Gaming Laptop", "Ultrabook", "Mouse", "Novel"), names(books));
+    }
+
+    @Test
+    void updateCategory_UnderItsOwnSubcategory_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/categories/{id}", electronics)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CategoryRequestDto("Electronics", computers))))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(List.of("Gaming Laptop", "Ultrabook", "Mouse"), names(computers));
+    }
+
+    @Test
+    void createProduct_InCategory_AppearsInItsAncestorsListings() throws Exception {
+        // Arrange
+        names(electronics);
+        ProductRequestDto request = new ProductRequestDto("Keyboard", "Mechanical keyboard", new BigDecimal("79.00"), 5, computers);
+
+        // Act
+        mockMvc.perform(post("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.categoryId").value(computers));
+
+        // Assert
+        assertEquals(List.of("Gaming Laptop", "Smartphone", "Ultrabook", "Mouse", "Keyboard"), names(electronics));
+    }
+
+    @Test
+    void createProduct_InUnknownCategory_ReturnsNotFound() throws Exception {
+        // Arrange
+        ProductRequestDto request = new ProductRequestDto("Keyboard", "Mechanical keyboard", new BigDecimal("79.00"), 5, 999_999L);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteCategory_WithSubcategories_ReturnsConflict() throws Exception {
+        // Act & Assert
+        mockMvc.perform(delete("/api/categories/{id}", electronics)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void deleteCategory_WhenEmpty_RemovesIt() throws Exception {
+        // Arrange
+        long empty = category("Garden", books);
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/categories/{id}", empty)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/categories/{id}", empty)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createCategory_WithoutAdminRole_ReturnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/categories")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CategoryRequestDto("Garden", null))))
+                .andExpect(status().isForbidden());
+    }
+}
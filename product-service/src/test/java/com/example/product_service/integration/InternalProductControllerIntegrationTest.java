@@ -0,0 +1,154 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.dto.StockBatchRequest;
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.impl.StockLedgerCompactor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class InternalProductControllerIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLedgerCompactor compactor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product laptop;
+    private Product mouse;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        laptop = saveProduct("Laptop", 5);
+        mouse = saveProduct("Mouse", 20);
+    }
+
+    private Product saveProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    @Test
+    void reserveStock_WithSufficientStock_ReservesEveryLine() throws Exception {
+        // Arrange
+        StockBatchRequest request = new StockBatchRequest(List.of(
+                new StockLineRequest(mouse.getId(), 3),
+                new StockLineRequest(laptop.getId(), 2)
+        ), null);
+
+        // Act & Assert
+        mockMvc.perform(post("/internal/products/stock/reserve")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].productId").value(laptop.getId()))
+                .andExpect(jsonPath("$[0].remainingStock").value(3))
+                .andExpect(jsonPath("$[1].productId").value(mouse.getId()))
+                .andExpect(jsonPath("$[1].remainingStock").value(17));
+
+        compactor.foldAll();
+        assertEquals(3, productRepository.findById(laptop.getId()).orElseThrow().getStock());
+        assertEquals(17, productRepository.findById(mouse.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void reserveStock_WithOneInsufficientLine_ChangesNothing() throws Exception {
+        // Arrange
+        StockBatchRequest request = new StockBatchRequest(List.of(
+                new StockLineRequest(mouse.getId(), 3),
+                new StockLineRequest(laptop.getId(), 6)
+        ), null);
+
+        // Act & Assert
+        mockMvc.perform(post("/internal/products/stock/reserve")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errors." + laptop.getId()).exists())
+                .andExpect(jsonPath("$.errors." + mouse.getId()).doesNotExist());
+
+        compactor.foldAll();
+        assertEquals(5, productRepository.findById(laptop.getId()).orElseThrow().getStock());
+        assertEquals(20, productRepository.findById(mouse.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void releaseStock_WithExistingProducts_RestocksEveryLine() throws Exception {
+        // Arrange
+        StockBatchRequest request = new StockBatchRequest(List.of(
+                new StockLineRequest(laptop.getId(), 1),
+                new StockLineRequest(mouse.getId(), 2)
+        ), null);
+
+        // Act & Assert
+        mockMvc.perform(post("/internal/products/stock/release")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        compactor.foldAll();
+        assertEquals(6, productRepository.findById(laptop.getId()).orElseThrow().getStock());
+        assertEquals(22, productRepository.findById(mouse.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void reserveStock_WithEmptyBatch_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/internal/products/stock/reserve")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockBatchRequest(List.of(), null))))
+                .andExpect(status().isBadRequest());
+    }
+}
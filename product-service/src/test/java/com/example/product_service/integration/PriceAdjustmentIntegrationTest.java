@@ -0,0 +1,332 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.dto.CategoryRequestDto;
+import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.PriceAdjustmentJobDto;
+import com.example.product_service.dto.PriceAdjustmentRequest;
+import com.example.product_service.entity.PriceAdjustmentJob.Status;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.CategoryRepository;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.ICategoryService;
+import com.example.product_service.service.IPriceAdjustmentService;
+import com.example.product_service.service.IProductService;
+import com.example.product_service.service.impl.PriceAdjustmentServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class PriceAdjustmentIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ICategoryService categoryService;
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private IPriceAdjustmentService priceAdjustmentService;
+
+    @Autowired
+    private PriceAdjustmentServiceImpl priceAdjustmentServiceImpl;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long laptops;
+    private Product firstLaptop;
+    private Product mouse;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+        // Several chunks even for a handful of products
+        registry.add("product.price-adjustments.chunk-size", () -> "2");
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM category_paths");
+        jdbcTemplate.update("DELETE FROM categories");
+        jdbcTemplate.update("DELETE FROM price_adjustment_jobs");
+        jdbcTemplate.update("DELETE FROM product_changes");
+
+        long electronics = categoryService.createCategory(new CategoryRequestDto("Electronics", null)).id();
+        laptops = categoryService.createCategory(new CategoryRequestDto("Laptops", electronics)).id();
+
+        firstLaptop = saveProduct("Laptop 1", "100.00", laptops);
+        for (int i = 2; i <= 5; i++) {
+            saveProduct("Laptop " + i, "100.00", laptops);
+        }
+        mouse = saveProduct("Mouse", "20.00", electronics);
+        saveProduct("Laptop Bag", "40.00", null);
+    }
+
+    private Product saveProduct(String name, String price, Long categoryId) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setPrice(new BigDecimal(price));
+        product.setStock(10);
+        if (categoryId != null) {
+            product.setCategory(categoryRepository.findById(categoryId).orElseThrow());
+        }
+        return productRepository.save(product);
+    }
+
+    private BigDecimal priceOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getPrice();
+    }
+
+    private PriceAdjustmentJobDto awaitFinished(UUID jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        PriceAdjustmentJobDto job = priceAdjustmentService.getJob(jobId);
+        while (!job.status().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = priceAdjustmentService.getJob(jobId);
+        }
+        return job;
+    }
+
+    @Test
+    void dryRun_CountsMatchingProductsWithoutChangingThem() throws Exception {
+        // Arrange
+        PriceAdjustmentRequest request = new PriceAdjustmentRequest(new BigDecimal("5"), null, null, laptops, "Laptop*");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/price-adjustments/dry-run")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(5));
+
+        assertEquals(new BigDecimal("100.00"), priceOf(firstLaptop));
+    }
+
+    @Test
+    void startJob_RepricesEveryMatchingProductChunkByChunk() throws Exception {
+        // Arrange
+        assertEquals(new BigDecimal("100.00"), productService.getProductById(firstLaptop.getId()).price());
+        long catalogVersion = productService.getCatalogVersion();
+
+        // Act
+        String body = mockMvc.perform(post("/api/products/price-adjustments")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new PriceAdjustmentRequest(new BigDecimal("7.5"), null, null, laptops, null))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        PriceAdjustmentJobDto job = awaitFinished(objectMapper.readValue(body, PriceAdjustmentJobDto.class).id());
+
+        // Assert
+        assertEquals(Status.COMPLETED, job.status());
+        assertEquals(5, job.matched());
+        assertEquals(5, job.updated());
+        assertEquals(new BigDecimal("107.50"), priceOf(firstLaptop));
+        assertEquals(new BigDecimal("20.00"), priceOf(mouse));
+        assertEquals(1, productRepository.findById(firstLaptop.getId()).orElseThrow().getVersion());
+        // The cached details were replaced, and listings moved on to a new catalog version
+        assertEquals(new BigDecimal("107.50"), productService.getProductById(firstLaptop.getId()).price());
+        assertTrue(productService.getCatalogVersion() > catalogVersion);
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM product_changes WHERE change_type = 'UPDATED'", Integer.class));
+    }
+
+    @Test
+    void startJob_RecordsTheStockHeldOutsideTheRowInTheChangeFeed() throws Exception {
+        // Arrange
+        productService.reduceStock(firstLaptop.getId(), 3, null);
+        long stripedId = saveProduct("Laptop Striped", "100.00", laptops).getId();
+        productService.enableStockStripes(stripedId, 4);
+        productService.reduceStock(stripedId, 1, null);
+
+        // Act
+        PriceAdjustmentJobDto job = awaitFinished(priceAdjustmentService.startJob(
+                new PriceAdjustmentRequest(new BigDecimal("10"), null, null, laptops, null)).id());
+
+        // Assert
+        assertEquals(Status.COMPLETED, job.status());
+        for (long productId : List.of(firstLaptop.getId(), stripedId)) {
+            String payload = jdbcTemplate.queryForObject(
+                    "SELECT payload FROM product_changes WHERE product_id = ? AND change_type = 'UPDATED' ORDER BY id DESC LIMIT 1",
+                    String.class, productId);
+            assertEquals(productService.getProductById(productId).stock(),
+                    objectMapper.readValue(payload, ProductDetailsDto.class).stock());
+        }
+        assertEquals(7, productService.getProductById(firstLaptop.getId()).stock());
+        assertEquals(9, productService.getProductById(stripedId).stock());
+    }
+
+    @Test
+    void cancelJob_StopsBeforeTheNextChunk() throws Exception {
+        // Arrange
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        // Holds the first laptop's row lock, so the job waits inside its first chunk
+        Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM products WHERE id = ? FOR UPDATE", firstLaptop.getId());
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await(30, TimeUnit.SECONDS);
+        PriceAdjustmentJobDto job = priceAdjustmentService.startJob(
+                new PriceAdjustmentRequest(new BigDecimal("-10"), null, null, laptops, null));
+        while (jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()",
+                Integer.class) == 0) {
+            Thread.sleep(10);
+        }
+
+        // Act
+        mockMvc.perform(post("/api/products/price-adjustments/{jobId}/cancel", job.id())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cancelRequested").value(true));
+        release.countDown();
+        holder.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        PriceAdjustmentJobDto cancelled = awaitFinished(job.id());
+        assertEquals(Status.CANCELLED, cancelled.status());
+        assertEquals(2, cancelled.updated());
+        assertEquals(new BigDecimal("90.00"), priceOf(firstLaptop));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM products WHERE price = 100.00", Integer.class));
+
+        // A finished job cannot be cancelled again
+        mockMvc.perform(post("/api/products/price-adjustments/{jobId}/cancel", job.id())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isConflict());
+    }
+
+    private UUID insertAbandonedJob(String status, long lastId, long updated, boolean cancelRequested) {
+        UUID jobId = UUID.randomUUID();
+        // As left behind by an instance that stopped while holding the lease, which has since run out
+        jdbcTemplate.update("""
+                INSERT INTO price_adjustment_jobs (id, status, percent, category_id, matched, updated, cancel_requested,
+                    last_id, lease_token, lease_expires_at, created_at, updated_at)
+                VALUES (?, ?, 10, ?, 5, ?, ?, ?, ?, LOCALTIMESTAMP - interval '1 minute', LOCALTIMESTAMP, LOCALTIMESTAMP)
+                """, jobId, status, laptops, updated, cancelRequested, lastId, UUID.randomUUID());
+        return jobId;
+    }
+
+    @Test
+    void claimJobs_ResumesARunningJobWhoseLeaseRanOut() throws Exception {
+        // Arrange
+        long secondLaptop = jdbcTemplate.queryForObject("SELECT id FROM products WHERE name = 'Laptop 2'", Long.class);
+        UUID jobId = insertAbandonedJob("RUNNING", secondLaptop, 2, false);
+
+        // Act
+        priceAdjustmentServiceImpl.claimJobs();
+        PriceAdjustmentJobDto job = awaitFinished(jobId);
+
+        // Assert
+        assertEquals(Status.COMPLETED, job.status());
+        assertEquals(5, job.updated());
+        assertEquals(new BigDecimal("100.00"), priceOf(firstLaptop));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM products WHERE price = 110.00", Integer.class));
+    }
+
+    @Test
+    void claimJobs_CancelsAQueuedJobWhoseInstanceStopped() throws Exception {
+        // Arrange
+        UUID jobId = insertAbandonedJob("QUEUED", 0, 0, true);
+
+        // Act
+        priceAdjustmentServiceImpl.claimJobs();
+        PriceAdjustmentJobDto job = awaitFinished(jobId);
+
+        // Assert
+        assertEquals(Status.CANCELLED, job.status());
+        assertEquals(new BigDecimal("100.00"), priceOf(firstLaptop));
+    }
+
+    @Test
+    void startJob_WithoutSelector_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/products/price-adjustments")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new PriceAdjustmentRequest(new BigDecimal("5"), null, null, null, null))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getJob_WithoutAdminRole_ReturnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products/price-adjustments/{jobId}", UUID.randomUUID())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.exception.ConflictException;
+import com.example.product_service.importer.ImportConflictMode;
+import com.example.product_service.importer.ImportFormat;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.IProductImportService;
+import com.example.product_service.service.IProductService;
+import com.example.product_service.service.impl.ProductChangeCompactor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ProductChangeFeedIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private IProductImportService importService;
+
+    @Autowired
+    private ProductChangeCompactor compactor;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM product_changes");
+    }
+
+    private ProductDetailsDto createProduct(String name, int stock) {
+        return productService.createProduct(new ProductRequestDto(name, name + " description", new BigDecimal("10.00"), stock));
+    }
+
+    // The product payload is passed through as raw JSON, so the feed is read as a tree
+    private JsonNode readFeed(String after, int limit) throws Exception {
+        String body = mockMvc.perform(get("/internal/products/changes")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .param("after", after == null ? "" : after)
+                        .param("limit", String.valueOf(limit)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    @Test
+    void getChanges_ShouldListMutationsInCommitOrder() throws Exception {
+        // Arrange
+        ProductDetailsDto laptop = createProduct("Laptop", 5);
+        productService.reduceStock(laptop.id(), 2, null);
+        productService.updateProduct(laptop.id(), new ProductRequestDto("Laptop Pro", "Faster", new BigDecimal("20.00"), 3));
+        productService.deleteProduct(laptop.id());
+
+        // Act & Assert
+        mockMvc.perform(get("/internal/products/changes")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(4))
+                .andExpect(jsonPath("$.changes[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.changes[0].productId").value(laptop.id()))
+                .andExpect(jsonPath("$.changes[0].product.name").value("Laptop"))
+                .andExpect(jsonPath("$.changes[1].type").value("STOCK_CHANGED"))
+                .andExpect(jsonPath("$.changes[1].product").doesNotExist())
+                .andExpect(jsonPath("$.changes[2].type").value("UPDATED"))
+                .andExpect(jsonPath("$.changes[2].product.name").value("Laptop Pro"))
+                .andExpect(jsonPath("$.changes[2].product.stock").value(3))
+                .andExpect(jsonPath("$.changes[3].type").value("DELETED"))
+                .andExpect(jsonPath("$.cursor").isNotEmpty())
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void getChanges_WithCursor_ShouldServeTheRestInBatches() throws Exception {
+        // Arrange
+        createProduct("Laptop", 5);
+        createProduct("Mouse", 5);
+        createProduct("Keyboard", 5);
+
+        // Act
+        JsonNode first = readFeed(null, 2);
+        JsonNode second = readFeed(first.get("cursor").asText(), 2);
+        JsonNode caughtUp = readFeed(second.get("cursor").asText(), 2);
+
+        // Assert
+        assertEquals(2, first.get("changes").size());
+        assertTrue(first.get("hasMore").asBoolean());
+        assertEquals("Keyboard", second.get("changes").get(0).get("product").get("name").asText());
+        assertFalse(second.get("hasMore").asBoolean());
+        assertEquals(0, caughtUp.get("changes").size());
+        assertEquals(second.get("cursor"), caughtUp.get("cursor"));
+    }
+
+    @Test
+    void getChanges_ShouldNotListRolledBackMutations() throws Exception {
+        // Arrange
+        ProductDetailsDto laptop = createProduct("Laptop", 5);
+        String cursor = readFeed(null, 10).get("cursor").asText();
+
+        // Act
+        assertThrows(ConflictException.class, () -> productService.reduceStock(laptop.id(), 6, null));
+
+        // Assert
+        assertEquals(0, readFeed(cursor, 10).get("changes").size());
+    }
+
+    @Test
+    void getChanges_ShouldListImportedProducts() throws Exception {
+        // Arrange
+        createProduct("Laptop", 5);
+        String cursor = readFeed(null, 10).get("cursor").asText();
+        String csv = """
+                name,description,price,stock
+                Laptop,Faster laptop,1999.99,5
+                Mouse,Wireless mouse,49.99,10
+                """;
+
+        // Act
+        importService.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ImportFormat.CSV, ImportConflictMode.UPDATE);
+
+        // Assert
+        mockMvc.perform(get("/internal/products/changes")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(2))
+                .andExpect(jsonPath("$.changes[?(@.type == 'UPDATED')].product.description").value("Faster laptop"))
+                .andExpect(jsonPath("$.changes[?(@.type == 'CREATED')].product.name").value("Mouse"));
+    }
+
+    @Test
+    void getChanges_WithCompactedCursor_ShouldReturnGone() throws Exception {
+        // Arrange
+        createProduct("Laptop", 5);
+        String cursor = readFeed(null, 10).get("cursor").asText();
+        createProduct("Mouse", 5);
+        jdbcTemplate.update("UPDATE product_changes SET created_at = created_at - interval '30 days'");
+
+        // Act
+        long compacted = compactor.compactExpired();
+
+        // Assert
+        assertEquals(2, compacted);
+        mockMvc.perform(get("/internal/products/changes")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .param("after", cursor))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void getChanges_WithMalformedCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/internal/products/changes")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,10 +1,22 @@
 package com.example.product_service.integration;
 
 
+import com.example.product_service.cache.ProductCache;
+import com.example.product_service.cache.ProductExistence;
+import com.example.product_service.cache.ProductPageCache;
 import com.example.product_service.dto.ProductRequestDto;
 import com.example.product_service.entity.Product;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.facet.PriceFacetIndexer;
+import com.example.product_service.lowstock.LowStockIndexer;
+import com.example.product_service.outbox.ProductChangeOutbox;
 import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.search.ProductSearchIndexer;
+import com.example.product_service.service.IProductService;
+import com.example.product_service.service.impl.StockLedgerCompactor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,20 +24,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -47,6 +68,42 @@ class ProductControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private PriceFacetIndexer facetIndexer;
+
+    @Autowired
+    private LowStockIndexer lowStockIndexer;
+
+    @Autowired
+    private ProductSearchIndexer searchIndexer;
+
+    @Autowired
+    private ProductPageCache pageCache;
+
+    @Autowired
+    private StockLedgerCompactor compactor;
+
+    @Autowired
+    private ProductExistence productExistence;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductChangeOutbox changeOutbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Product existingProduct;
 
     @DynamicPropertySource
@@ -61,6 +118,8 @@ class ProductControllerIntegrationTest {
     void setUp() {
         productRepository.deleteAll();
 
+        // Rows written through the repository do not advance the catalog version that keys cached pages
+        pageCache.invalidateAll();
         existingProduct = new Product();
         existingProduct.setName("Test Product");
         existingProduct.setDescription("Test Description");
@@ -79,10 +138,89 @@ class ProductControllerIntegrationTest {
                                 .claim("email", "test@example.com")))
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].name").value("Test Product"))
-                .andExpect(jsonPath("$[0].price").value(99.99));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.items[0].price").value(99.99))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getProducts_WithCursor_WalksAllPagesInOrder() throws Exception {
+        // Arrange
+        for (int i = 1; i <= 4; i++) {
+            Product product = new Product();
+            product.setName("Paged Product " + i);
+            product.setDescription("Paged Description");
+            product.setPrice(new BigDecimal("10.00"));
+            product.setStock(i);
+            productRepository.save(product);
+        }
+
+        // Act
+        MvcResult firstPage = mockMvc.perform(get("/api/products")
+                        .param("sort", "name")
+                        .param("size", "3")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].name").value("Paged Product 1"))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn();
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString())
+                .get("nextCursor").asText();
+
+        // Assert
+        mockMvc.perform(get("/api/products")
+                        .param("cursor", cursor)
+                        .param("size", "3")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Paged Product 4"))
+                .andExpect(jsonPath("$.items[1].name").value("Test Product"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getProducts_WithFilters_ReturnsOnlyMatchingProducts() throws Exception {
+        // Arrange
+        Product soldOut = new Product();
+        soldOut.setName("Test Sold Out");
+        soldOut.setDescription("Sold out");
+        soldOut.setPrice(new BigDecimal("50.00"));
+        soldOut.setStock(0);
+        productRepository.save(soldOut);
+
+        Product cheap = new Product();
+        cheap.setName("Cheap Product");
+        cheap.setDescription("Cheap");
+        cheap.setPrice(new BigDecimal("5.00"));
+        cheap.setStock(10);
+        productRepository.save(cheap);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .param("namePrefix", "Test")
+                        .param("minPrice", "10")
+                        .param("inStock", "true")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Test Product"));
+    }
+
+    @Test
+    void getProducts_WithInvalidCursor_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .param("cursor", "%%%")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -93,6 +231,405 @@ class ProductControllerIntegrationTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void searchProducts_AfterCreate_FindsProductByDescription() throws Exception {
+        // Arrange
+        ProductRequestDto requestDto = new ProductRequestDto(
+                "Searchable Kettle",
+                "Stainless steel kettle with temperature control",
+                new BigDecimal("39.99"),
+                5
+        );
+        mockMvc.perform(post("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/search")
+                        .param("q", "STAINLESS kettles kettle")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalHits").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Searchable Kettle"));
+    }
+
+    @Test
+    void searchProducts_WithoutQuery_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products/search")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getProductFacets_TracksCreatedProductsAndTheirStock() throws Exception {
+        // Arrange
+        ProductRequestDto requestDto = new ProductRequestDto(
+                "Faceted Lamp",
+                "Desk lamp",
+                new BigDecimal("30.00"),
+                1
+        );
+        String created = mockMvc.perform(post("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long productId = objectMapper.readTree(created).get("id").asLong();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/facets")
+                        .param("namePrefix", "Faceted")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.inStock").value(1))
+                .andExpect(jsonPath("$.priceBuckets[2].from").value(25))
+                .andExpect(jsonPath("$.priceBuckets[2].count").value(1));
+
+        productService.reduceStock(productId, 1, null);
+        facetIndexer.refresh();
+
+        mockMvc.perform(get("/api/products/facets")
+                        .param("namePrefix", "Faceted")
+                        .param("inStock", "true")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.priceBuckets[2].count").value(0));
+    }
+
+    @Test
+    void getLowStockProducts_AfterStockReduced_ListsProduct() throws Exception {
+        // Arrange
+        ProductRequestDto requestDto = new ProductRequestDto(
+                "Scarce Candle",
+                "Beeswax candle",
+                new BigDecimal("8.00"),
+                3
+        );
+        String created = mockMvc.perform(post("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long productId = objectMapper.readTree(created).get("id").asLong();
+
+        mockMvc.perform(get("/api/products/low-stock")
+                        .param("below", "2")
+                        .param("limit", "100")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", not(hasItem("Scarce Candle"))));
+
+        // Act
+        productService.reduceStock(productId, 2, null);
+        lowStockIndexer.refresh();
+
+        // Assert
+        mockMvc.perform(get("/api/products/low-stock")
+                        .param("below", "2")
+                        .param("limit", "100")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'Scarce Candle')].stock", contains(1)));
+    }
+
+    @Test
+    void getLowStockProducts_WithoutAdminRole_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/products/low-stock")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void suggestProducts_AfterRename_SuggestsTheNewName() throws Exception {
+        // Arrange
+        ProductRequestDto requestDto = new ProductRequestDto(
+                "Suggested Teapot",
+                "Cast iron teapot",
+                new BigDecimal("24.99"),
+                5
+        );
+        mockMvc.perform(put("/api/products/" + existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/suggest")
+                        .param("prefix", "sugg")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(existingProduct.getId()))
+                .andExpect(jsonPath("$[0].name").value("Suggested Teapot"));
+
+        mockMvc.perform(get("/actuator/suggest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.memoryBytes").isNumber());
+    }
+
+    @Test
+    void searchAndSuggest_AfterRenameOnAnotherInstance_FindTheNewName() throws Exception {
+        // Arrange
+        long productId = existingProduct.getId();
+        // As another instance commits it: the row and its outbox entry, without an event here
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET name = 'Zanzibar Teapot', version = version + 1 WHERE id = ?",
+                    productId);
+            changeOutbox.append(new ProductChangedEvent(productId, ChangeType.UPDATED));
+        });
+
+        // Act
+        searchIndexer.refresh();
+
+        // Assert
+        mockMvc.perform(get("/api/products/search")
+                        .param("q", "zanzibar")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(productId));
+        mockMvc.perform(get("/api/products/suggest")
+                        .param("prefix", "zanz")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Zanzibar Teapot"));
+    }
+
+    @Test
+    void suggestProducts_WithBlankPrefix_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products/suggest")
+                        .param("prefix", " ")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getProductsByIds_WithValidJwt_ReturnsFoundAndMissingIds() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products/batch")
+                        .param("ids", existingProduct.getId() + ",999999")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(existingProduct.getId()))
+                .andExpect(jsonPath("$.missingIds[0]").value(999999));
+    }
+
+    @Test
+    void getProductsByIdsFromBody_AsUser_ReturnsProducts() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/products/batch")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + existingProduct.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.missingIds").isEmpty());
+    }
+
+    @Test
+    void getProductsByIdsFromBody_WithEmptyIds_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/products/batch")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportProducts_AsAdmin_StreamsOneJsonObjectPerLine() throws Exception {
+        // Arrange
+        Product second = new Product();
+        second.setName("Second Product");
+        second.setDescription("Second Description");
+        second.setPrice(new BigDecimal("5.00"));
+        second.setStock(1);
+        productRepository.save(second);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/products/export")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn();
+
+        // Assert
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Test Product", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals(second.getId(), objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
+    @Test
+    void exportProducts_WithUpdatedSinceInFuture_ReturnsNothing() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products/export")
+                        .param("updatedSince", LocalDateTime.now().plusDays(1).toString())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void exportProducts_AsUser_ReturnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/products/export")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getProductById_WithMatchingETag_ReturnsNotModified() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/products/{id}", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/{id}", existingProduct.getId())
+                        .header("If-None-Match", etag)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getProductById_AfterStockChange_ReturnsNewETag() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/products/{id}", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andReturn().getResponse().getHeader("ETag");
+        productService.reduceStock(existingProduct.getId(), 1, null);
+
+        // Act & Assert
+        String newEtag = mockMvc.perform(get("/api/products/{id}", existingProduct.getId())
+                        .header("If-None-Match", etag)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(99))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void getProductFacets_AfterChangeOnAnotherInstance_CountsTheNewState() throws Exception {
+        // Arrange
+        long productId = existingProduct.getId();
+        // As another instance commits it: the row and its outbox entry, without an event here
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET name = 'Relabelled Elsewhere', stock = 0, version = version + 1 "
+                    + "WHERE id = ?", productId);
+            changeOutbox.append(new ProductChangedEvent(productId, ChangeType.UPDATED));
+        });
+
+        // Act
+        facetIndexer.refresh();
+
+        // Assert
+        mockMvc.perform(get("/api/products/facets")
+                        .param("namePrefix", "Relabelled")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.inStock").value(0));
+    }
+
+    @Test
+    void getLowStockProducts_AfterStockReducedOnAnotherInstance_ListsProduct() throws Exception {
+        // Arrange
+        long productId = existingProduct.getId();
+        // As another instance commits it: the row and its outbox entry, without an event here
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET stock = 1 WHERE id = ?", productId);
+            changeOutbox.append(new ProductChangedEvent(productId, ChangeType.STOCK_CHANGED));
+        });
+
+        // Act
+        lowStockIndexer.refresh();
+
+        // Assert
+        mockMvc.perform(get("/api/products/low-stock")
+                        .param("below", "2")
+                        .param("limit", "100")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + productId + ")].stock", contains(1)));
+    }
+
+    @Test
+    void getProductById_AfterChangeOnAnotherInstance_ReturnsNewETag() throws Exception {
+        // Arrange
+        long productId = existingProduct.getId();
+        String etag = mockMvc.perform(get("/api/products/{id}", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andReturn().getResponse().getHeader("ETag");
+        // As another instance commits it: the row and its outbox entry, without an event here
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET name = 'Renamed Elsewhere', version = version + 1 WHERE id = ?",
+                    productId);
+            changeOutbox.append(new ProductChangedEvent(productId, ChangeType.UPDATED));
+        });
+
+        // Act
+        productCache.catchUp();
+
+        // Assert
+        String newEtag = mockMvc.perform(get("/api/products/{id}", productId)
+                        .header("If-None-Match", etag)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed Elsewhere"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void getProducts_WithMatchingETag_ReturnsNotModifiedUntilCatalogChanges() throws Exception {
+        // Arrange
+        String etag = mockMvc.perform(get("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .header("If-None-Match", etag)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isNotModified());
+
+        productService.increaseStock(existingProduct.getId(), 5, null);
+
+        mockMvc.perform(get("/api/products")
+                        .header("If-None-Match", etag)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].stock").value(105));
+    }
+
     @Test
     void getProductById_WithValidJwt_ReturnsProductDetails() throws Exception {
         // Arrange
@@ -225,6 +762,9 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.price").value(199.99))
                 .andExpect(jsonPath("$.stock").value(75));
 
+        // The new stock is recorded as a ledger adjustment until compaction folds it into the row
+        assertEquals(100, productRepository.findById(productId).orElseThrow().getStock());
+        compactor.foldAll();
         Product updated = productRepository.findById(productId).orElseThrow();
         assertEquals("Updated Product", updated.getName());
         assertEquals("Updated Description", updated.getDescription());
@@ -232,6 +772,35 @@ class ProductControllerIntegrationTest {
         assertEquals(75, updated.getStock());
     }
 
+    @Test
+    void getProductById_AfterUpdate_ReturnsFreshDetails() throws Exception {
+        // Arrange
+        Long productId = existingProduct.getId();
+        ProductRequestDto updateDto = new ProductRequestDto(
+                "Renamed Product",
+                "Test Description",
+                new BigDecimal("99.99"),
+                100
+        );
+        mockMvc.perform(get("/api/products/{id}", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(jsonPath("$.name").value("Test Product"));
+
+        // Act
+        mockMvc.perform(put("/api/products/{id}", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/api/products/{id}", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed Product"));
+    }
+
     @Test
     void updateProduct_WithInvalidId_ReturnsNotFound() throws Exception {
         // Arrange
@@ -312,4 +881,170 @@ class ProductControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    void stockStripes_AsAdmin_SplitAndCollapseStockWithoutChangingTotal() throws Exception {
+        // Arrange
+        Long productId = existingProduct.getId();
+
+        // Act & Assert
+        mockMvc.perform(put("/api/products/{id}/stock-stripes", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stripes\": 8}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(100));
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getStock());
+
+        productService.reduceStock(productId, 30, null);
+        productService.increaseStock(productId, 5, null);
+
+        mockMvc.perform(get("/api/products/{id}", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(75));
+        mockMvc.perform(get("/api/products")
+                        .param("inStock", "true")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].stock").value(75));
+
+        mockMvc.perform(delete("/api/products/{id}/stock-stripes", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(75));
+        assertEquals(75, productRepository.findById(productId).orElseThrow().getStock());
+    }
+
+    @Test
+    void stockStripes_WithOutOfRangeCount_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/products/{id}/stock-stripes", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stripes\": 1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patchProduct_WithDescriptionOnly_LeavesOtherFieldsUnchanged() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/products/{id}", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"description\": \"Patched description\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Test Product"))
+                .andExpect(jsonPath("$.description").value("Patched description"))
+                .andExpect(jsonPath("$.price").value(99.99))
+                .andExpect(jsonPath("$.stock").value(100));
+
+        Product patched = productRepository.findById(existingProduct.getId()).orElseThrow();
+        assertEquals("Patched description", patched.getDescription());
+        assertEquals(100, patched.getStock());
+    }
+
+    @Test
+    void patchProduct_WithNullName_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/products/{id}", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\": null, \"stock\": -1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.name").value("A product must have a name"))
+                .andExpect(jsonPath("$.errors.stock").value("Stock cannot be negative"));
+
+        assertEquals("Test Product", productRepository.findById(existingProduct.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void patchProduct_WithoutAdminRole_ReturnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/products/{id}", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"price\": 1.00}"))
+                .andExpect(status().isForbidden());
+    }
+
+    private double existenceHits(String source) {
+        return meterRegistry.get(ProductExistence.HITS).tag("source", source).counter().count();
+    }
+
+    @Test
+    void getProductById_WithUnknownId_IsAnsweredWithoutTheDatabase() throws Exception {
+        // Arrange
+        productExistence.rebuild();
+        // Below the highest known id, so the filter covers it
+        long unknownId = existingProduct.getId() - 1;
+        double hits = existenceHits("filter") + existenceHits("negative-cache");
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/products/{id}", unknownId)
+                            .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                    .andExpect(status().isNotFound());
+        }
+
+        // Assert
+        // The filter rules the id out, or a rare false positive puts it into the negative cache for the second call
+        assertTrue(existenceHits("filter") + existenceHits("negative-cache") > hits);
+    }
+
+    @Test
+    void getProductById_AfterDelete_IsCachedAsMissing() throws Exception {
+        // Arrange
+        long productId = existingProduct.getId();
+        productExistence.rebuild();
+        mockMvc.perform(delete("/api/products/{id}", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isNoContent());
+        double falsePositives = meterRegistry.get(ProductExistence.FALSE_POSITIVES).counter().count();
+        double negativeHits = existenceHits("negative-cache");
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/products/{id}", productId)
+                            .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                    .andExpect(status().isNotFound());
+        }
+
+        // Assert
+        // The deleted id is still in the filter, so only the first lookup queries the database
+        assertEquals(falsePositives + 1, meterRegistry.get(ProductExistence.FALSE_POSITIVES).counter().count());
+        assertEquals(negativeHits + 1, existenceHits("negative-cache"));
+    }
+
+    @Test
+    void getProductById_CreatedAfterTheFilterWasBuilt_IsFound() throws Exception {
+        // Arrange
+        productExistence.rebuild();
+        ProductRequestDto request = new ProductRequestDto("Fresh Product", "Just added", new BigDecimal("5.00"), 1);
+        String body = mockMvc.perform(post("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long productId = objectMapper.readTree(body).get("id").asLong();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products/{id}", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Fresh Product"));
+        // The existence check runs before the product cache, so this asks the rebuilt filter
+        productExistence.rebuild();
+        mockMvc.perform(get("/api/products/{id}", productId)
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk());
+    }
 }
@@ -0,0 +1,214 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.IProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ProductImportIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product existingProduct;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+
+        existingProduct = new Product();
+        existingProduct.setName("Laptop");
+        existingProduct.setDescription("Old description");
+        existingProduct.setPrice(new BigDecimal("1500.00"));
+        existingProduct.setStock(3);
+        productRepository.save(existingProduct);
+    }
+
+    @Test
+    void importCsv_AsAdmin_InsertsUpdatesAndReportsRejectedRows() throws Exception {
+        // Arrange
+        String csv = """
+                name,description,price,stock
+                Laptop,"New description, faster",1999.99,5
+                Mouse,Wireless mouse,49.99,10
+                Keyboard,Mechanical keyboard,-1,10
+                Cable,USB-C cable,5.00,100
+                Cable,USB-C cable (2m),7.00,50
+                """;
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/import")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.unchanged").value(0))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[0].message").value("Price cannot be negative"))
+                .andExpect(jsonPath("$.errors[1].line").value(5));
+
+        assertEquals(3, productRepository.count());
+        Product cable = productRepository.findAll().stream()
+                .filter(product -> product.getName().equals("Cable"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(new BigDecimal("7.00"), cable.getPrice());
+    }
+
+    @Test
+    void importNdjson_AfterProductWasCached_ServesImportedValues() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/products/{id}", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(jsonPath("$.price").value(1500.00));
+        String ndjson = """
+                {"name":"Laptop","description":"Old description","price":1750.00,"stock":3}
+                """;
+
+        // Act
+        mockMvc.perform(post("/api/products/import")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+
+        // Assert
+        mockMvc.perform(get("/api/products/{id}", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(1750.00));
+    }
+
+    @Test
+    void importCsv_OverPendingStockMovements_ReplacesTheWholeStockThroughTheLedger() throws Exception {
+        // Arrange
+        productService.reduceStock(existingProduct.getId(), 2, "order-1");
+        String csv = """
+                name,description,price,stock
+                Laptop,Old description,1500.00,3
+                """;
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/import")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+
+        mockMvc.perform(get("/api/products/{id}", existingProduct.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(3));
+        assertEquals(List.of("SALE:-2", "ADJUSTMENT:2"), jdbcTemplate.queryForList(
+                "SELECT reason || ':' || delta FROM stock_ledger WHERE product_id = ? ORDER BY id",
+                String.class, existingProduct.getId()));
+    }
+
+    @Test
+    void importCsv_WithSkipAndUnchangedRows_LeavesExistingProductsAlone() throws Exception {
+        // Arrange
+        String csv = """
+                name,description,price,stock
+                Laptop,Overwritten,1.00,1
+                Mouse,Wireless mouse,49.99,10
+                """;
+
+        // Act & Assert
+        mockMvc.perform(post("/api/products/import")
+                        .param("onConflict", "skip")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("A product with this name already exists"));
+
+        mockMvc.perform(post("/api/products/import")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType("text/csv")
+                        .content("name,description,price,stock\nMouse,Wireless mouse,49.99,10\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unchanged").value(1))
+                .andExpect(jsonPath("$.updated").value(0));
+
+        assertEquals("Old description",
+                productRepository.findById(existingProduct.getId()).orElseThrow().getDescription());
+    }
+
+    @Test
+    void importCsv_WithoutHeader_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/products/import")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType("text/csv")
+                        .content("Laptop,Fast,10,1\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importCsv_AsUser_ReturnsForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/products/import")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType("text/csv")
+                        .content("name,description,price,stock\n"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.cache.ProductPageCache;
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ProductPageCacheIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPageCacheIntegrationTest.class);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductPageCache pageCache;
+
+    private Product laptop;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            products.add(product(String.format("Product %03d", i)));
+        }
+        laptop = productRepository.save(product("Laptop"));
+        productRepository.saveAll(products);
+        pageCache.invalidateAll();
+    }
+
+    private static Product product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setPrice(new BigDecimal("25.00"));
+        product.setStock(10);
+        return product;
+    }
+
+    private byte[] listing(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Test
+    void getProducts_Repeated_ServesCachedPage() throws Exception {
+        // Arrange
+        byte[] first = listing(get("/api/products"));
+        // Bypasses the service, so the catalog version stays the same
+        laptop.setName("Renamed Laptop");
+        productRepository.save(laptop);
+
+        // Act
+        byte[] second = listing(get("/api/products"));
+
+        // Assert
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    void getProducts_AfterProductUpdate_ServesNewPage() throws Exception {
+        // Arrange
+        listing(get("/api/products"));
+        ProductRequestDto update = new ProductRequestDto("Gaming Laptop", "Laptop description", new BigDecimal("25.00"), 10);
+        mockMvc.perform(put("/api/products/{id}", laptop.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Gaming Laptop"));
+    }
+
+    @Test
+    void getProducts_WithDifferentFilters_CachesPagesSeparately() throws Exception {
+        listing(get("/api/products").param("size", "5"));
+
+        mockMvc.perform(get("/api/products")
+                        .param("size", "5")
+                        .param("namePrefix", "Lap")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Laptop"));
+    }
+
+    /**
+     * Compares bytes allocated per full-page request (100 products) when the page has to be queried, mapped
+     * and serialized against when it is written from the cache. Every uncached request uses a distinct price
+     * filter that still matches every product, so each one builds the same page from scratch.
+     */
+    @Test
+    void getProducts_CachedPage_AllocatesLessPerRequest() throws Exception {
+        // Arrange
+        IntFunction<MockHttpServletRequestBuilder> uncached = i -> get("/api/products")
+                .param("size", "100")
+                .param("minPrice", "0." + String.format("%04d", i + 1));
+        IntFunction<MockHttpServletRequestBuilder> cached = i -> get("/api/products").param("size", "100");
+        // Warm up with filters the measured requests do not use
+        for (int i = 0; i < 50; i++) {
+            listing(uncached.apply(1_000 + i));
+            listing(cached.apply(i));
+        }
+
+        // Act
+        long uncachedBytes = allocatedPerRequest(uncached);
+        long cachedBytes = allocatedPerRequest(cached);
+
+        // Assert
+        log.info("Listing allocations per request: uncached {} bytes, cached {} bytes", uncachedBytes, cachedBytes);
+        // Both include the request pipeline and the catalog version query, roughly 200 KB on their own
+        assertTrue(cachedBytes < uncachedBytes * 3 / 4,
+                "cached " + cachedBytes + " bytes vs uncached " + uncachedBytes + " bytes");
+    }
+
+    private long allocatedPerRequest(IntFunction<MockHttpServletRequestBuilder> request) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int requests = 200;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < requests; i++) {
+            listing(request.apply(i));
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / requests;
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.ProductStockStripe;
+import com.example.product_service.dto.ProductPatchRequest;
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.exception.ConflictException;
+import com.example.product_service.exception.StockBatchException;
+import com.example.product_service.inventory.ProductContention;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.ProductStockStripeRepository;
+import com.example.product_service.service.IProductService;
+import com.example.product_service.service.impl.StockLedgerCompactor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Testcontainers
+class ProductStockConcurrencyIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductStockConcurrencyIntegrationTest.class);
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final int INITIAL_STOCK = 500;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockStripeRepository stripeRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockLedgerCompactor compactor;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    private Product hotProduct;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+    }
+
+    @BeforeEach
+    void setUp() {
+        stripeRepository.deleteAll();
+        productRepository.deleteAll();
+
+        hotProduct = new Product();
+        hotProduct.setName("Hot Product");
+        hotProduct.setDescription("Flash sale item");
+        hotProduct.setPrice(new BigDecimal("9.99"));
+        hotProduct.setStock(INITIAL_STOCK);
+        productRepository.save(hotProduct);
+    }
+
+    @Test
+    void reduceStock_UnderContention_NeverOversells() throws Exception {
+        // Act & Assert
+        int finalStock = decrementConcurrently(hotProduct.getId(), "one product");
+        assertEquals(0, finalStock);
+        // Every decrement was a ledger insert; only compaction, which does not bump the version, touched the row
+        assertEquals(0, productRepository.findById(hotProduct.getId()).orElseThrow().getVersion());
+
+        compactor.foldAll();
+        assertEquals(0, productRepository.findById(hotProduct.getId()).orElseThrow().getStock());
+    }
+
+    /**
+     * Logs the decrement throughput, but does not show striping pay off: each decrement commits right away, so
+     * the lock is held only briefly. StockDecrementBenchmark measures the scaling with a lock hold (holdMillis).
+     */
+    @ParameterizedTest(name = "{0} stripes")
+    @ValueSource(ints = {2, 8, 32})
+    void reduceStock_WithStripedStock_NeverOversells(int stripes) throws Exception {
+        // Arrange
+        long productId = hotProduct.getId();
+        productService.enableStockStripes(productId, stripes);
+
+        // Act & Assert
+        int finalStock = decrementConcurrently(productId, stripes + " stripes");
+        assertEquals(0, finalStock);
+        assertEquals(0, stripeRepository.findAll().stream().mapToInt(ProductStockStripe::getStock).sum());
+    }
+
+    @Test
+    void getProductVersion_WhenStripeWritesCommitOutOfOrder_Advances() throws Exception {
+        // Arrange
+        long productId = hotProduct.getId();
+        productService.enableStockStripes(productId, 2);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        // Starts first and commits last, so its write carries the older transaction timestamp
+        Future<?> early = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            stripeRepository.incrementStock(productId, 0, 1);
+            written.countDown();
+            try {
+                commit.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        written.await(30, TimeUnit.SECONDS);
+        Thread.sleep(5);
+        transactionTemplate.executeWithoutResult(status -> stripeRepository.incrementStock(productId, 1, 1));
+        String beforeCommit = productService.getProductVersion(productId).orElseThrow();
+
+        // Act
+        commit.countDown();
+        early.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        String afterCommit = productService.getProductVersion(productId).orElseThrow();
+        assertNotEquals(beforeCommit, afterCommit);
+        // The revision read without loading the product is the one its cached details carry
+        assertEquals(productService.getProductById(productId).revision(), afterCommit);
+        assertEquals(afterCommit, productRepository.findRevisionById(productId).orElseThrow());
+    }
+
+    private int decrementConcurrently(long productId, String label) throws Exception {
+        // Arrange
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        productService.reduceStock(productId, 1, null);
+                        reserved.incrementAndGet();
+                    } catch (ConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        // Assert
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        log.info("{} stock decrements on {} in {} ms ({} ops/s)",
+                attempts, label, elapsedNanos / 1_000_000, attempts * 1_000_000_000L / elapsedNanos);
+
+        assertEquals(INITIAL_STOCK, reserved.get());
+        assertEquals(attempts - INITIAL_STOCK, rejected.get());
+        return productService.getProductById(productId).stock();
+    }
+
+    @Test
+    void increaseStock_UnderContention_LosesNoUpdates() throws Exception {
+        // Arrange
+        long productId = hotProduct.getId();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    productService.increaseStock(productId, 1, null);
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        compactor.foldAll();
+        int finalStock = productRepository.findById(productId).orElseThrow().getStock();
+        assertEquals(INITIAL_STOCK + THREADS * ATTEMPTS_PER_THREAD, finalStock);
+    }
+
+    @Test
+    void reserveStock_UnderContention_NeverOversellsAndCountsLockWaits() throws Exception {
+        // Arrange
+        long productId = hotProduct.getId();
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        productService.reserveStock(List.of(new StockLineRequest(productId, 1)), null);
+                        reserved.incrementAndGet();
+                    } catch (StockBatchException e) {
+                        // Out of stock
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(INITIAL_STOCK, reserved.get());
+        compactor.foldAll();
+        assertEquals(0, productRepository.findById(productId).orElseThrow().getStock());
+        double waits = Search.in(meterRegistry).name(ProductContention.CONTENTION)
+                .tag("product", String.valueOf(productId)).tag("operation", "hold").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+        log.info("{} of {} reservations succeeded after {} lock waits", reserved.get(), THREADS * ATTEMPTS_PER_THREAD, waits);
+        assertTrue(waits > 0);
+    }
+
+    @Test
+    void updateProduct_AfterConcurrentUpdate_IsRejected() throws Exception {
+        // Arrange
+        long productId = hotProduct.getId();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // Holds an uncommitted update, and with it the row lock, until told to commit
+        Future<?> other = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            Product product = productRepository.findById(productId).orElseThrow();
+            product.setDescription("Repriced elsewhere");
+            productRepository.saveAndFlush(product);
+            written.countDown();
+            try {
+                commit.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        written.await(30, TimeUnit.SECONDS);
+        ProductRequestDto request = new ProductRequestDto("Hot Product", "Restocked", new BigDecimal("9.99"), 1_000);
+
+        // Act
+        // Reads the last committed version, then waits on the row lock in its versioned UPDATE
+        Future<?> update = executor.submit(() -> productService.updateProduct(productId, request));
+        while (jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()",
+                Integer.class) == 0) {
+            Thread.sleep(10);
+        }
+        commit.countDown();
+        other.get(30, TimeUnit.SECONDS);
+
+        // Assert
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> update.get(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(failure.getCause() instanceof ConflictException);
+        assertEquals("Repriced elsewhere", productRepository.findById(productId).orElseThrow().getDescription());
+        // The stock adjustment was rolled back with the rest of the update
+        assertEquals(INITIAL_STOCK, productService.getProductById(productId).stock());
+        assertEquals(1.0, meterRegistry.get(ProductContention.CONTENTION)
+                .tag("product", String.valueOf(productId)).tag("operation", "update").counter().count());
+    }
+
+    @Test
+    void patchProduct_DuringStockFold_KeepsTheFoldedStock() throws Exception {
+        // Arrange
+        long productId = hotProduct.getId();
+        productService.reduceStock(productId, 5, null);
+        CountDownLatch folded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // Folds the pending entry into the row, which does not bump the version, and holds the row lock
+        Future<?> fold = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            stockLedger.foldNow(productId);
+            folded.countDown();
+            try {
+                commit.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        folded.await(30, TimeUnit.SECONDS);
+        ProductPatchRequest patch = new ProductPatchRequest(null, Optional.of("Back in stock soon"), null, null, null);
+
+        // Act
+        // Reads the row as it was before the fold, then waits on the row lock in its UPDATE
+        Future<?> patched = executor.submit(() -> productService.patchProduct(productId, patch));
+        while (jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()",
+                Integer.class) == 0) {
+            Thread.sleep(10);
+        }
+        commit.countDown();
+        fold.get(30, TimeUnit.SECONDS);
+        patched.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        // Only the description was written, so the stale stock snapshot did not undo the fold
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertEquals("Back in stock soon", product.getDescription());
+        assertEquals(INITIAL_STOCK - 5, product.getStock());
+        assertTrue(product.getStockLedgerPosition() > 0);
+        assertEquals(INITIAL_STOCK - 5, productService.getProductById(productId).stock());
+    }
+}
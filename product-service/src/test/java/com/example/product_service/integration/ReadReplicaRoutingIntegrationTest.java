@@ -0,0 +1,227 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.cache.ProductPageCache;
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.datasource.ReplicaPool;
+import com.example.product_service.datasource.ReplicaRoutingDataSource;
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs against two independent databases. The second one is not a streaming replica, so it never catches up
+ * with the primary; instead it holds differently named copies of the primary's rows, which shows from the
+ * response alone where a read was served.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ReadReplicaRoutingIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductPageCache pageCache;
+
+    private JdbcTemplate replicaJdbc;
+    private Product laptop;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+        registry.add("product.datasource.replicas[0].url", replica::getJdbcUrl);
+        registry.add("product.datasource.replicas[0].username", replica::getUsername);
+        registry.add("product.datasource.replicas[0].password", replica::getPassword);
+        // Health is set by the tests themselves after the check at startup
+        registry.add("product.datasource.replica-check-interval", () -> "1h");
+    }
+
+    @BeforeEach
+    void setUp() {
+        replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(
+                replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()));
+        replicaJdbc.execute("""
+                CREATE TABLE IF NOT EXISTS products (
+                    id bigint PRIMARY KEY,
+                    name varchar(255) NOT NULL UNIQUE,
+                    description varchar(1000) NOT NULL,
+                    price numeric(38, 2) NOT NULL,
+                    stock integer NOT NULL,
+                    stock_stripes integer NOT NULL DEFAULT 0,
+                    version bigint NOT NULL DEFAULT 0,
+                    stock_ledger_position bigint NOT NULL DEFAULT 0,
+                    category_id bigint,
+                    created_at timestamp(6),
+                    updated_at timestamp(6) NOT NULL
+                )
+                """);
+        replicaJdbc.execute("""
+                CREATE TABLE IF NOT EXISTS product_stock_stripes (
+                    product_id bigint NOT NULL,
+                    stripe integer NOT NULL,
+                    stock integer NOT NULL,
+                    updated_at timestamp(6) NOT NULL,
+                    PRIMARY KEY (product_id, stripe)
+                )
+                """);
+        replicaJdbc.execute("""
+                CREATE TABLE IF NOT EXISTS stock_ledger (
+                    id bigint PRIMARY KEY,
+                    product_id bigint NOT NULL,
+                    delta integer NOT NULL,
+                    reason varchar(20) NOT NULL,
+                    order_reference varchar(64),
+                    created_at timestamp(6) NOT NULL DEFAULT localtimestamp
+                )
+                """);
+        replicaJdbc.execute("TRUNCATE products, product_stock_stripes, stock_ledger");
+
+        productRepository.deleteAll();
+        laptop = saveProduct("Laptop");
+        // Rows written behind the service's back do not advance the catalog version that keys cached pages
+        pageCache.invalidateAll();
+        replicaJdbc.update("""
+                INSERT INTO products (id, name, description, price, stock, created_at, updated_at)
+                VALUES (?, 'Laptop (replica)', 'Copy on the replica', 10.00, 5, LOCALTIMESTAMP, LOCALTIMESTAMP)
+                """, laptop.getId());
+        replicaPool().setHealthy(true);
+    }
+
+    @AfterEach
+    void restoreReplica() {
+        replicaPool().setHealthy(true);
+    }
+
+    private ReplicaPool replicaPool() {
+        return replicaDataSource.replicas().get(0);
+    }
+
+    private Product saveProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(5);
+        return productRepository.save(product);
+    }
+
+    private double reads(String pool) {
+        return meterRegistry.get("product.datasource.reads").tag("pool", pool).counter().count();
+    }
+
+    @Test
+    void getProducts_ShouldBeServedByReplica() throws Exception {
+        // Arrange
+        double replicaReadsBefore = reads("replica-1");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Laptop (replica)"));
+        assertTrue(reads("replica-1") > replicaReadsBefore);
+    }
+
+    @Test
+    void getProductsByIds_ShouldBeServedByReplica() throws Exception {
+        mockMvc.perform(get("/api/products/batch")
+                        .param("ids", String.valueOf(laptop.getId()))
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Laptop (replica)"));
+    }
+
+    @Test
+    void getProductById_ShouldLoadCacheFromPrimary() throws Exception {
+        mockMvc.perform(get("/api/products/{id}", laptop.getId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Laptop"));
+    }
+
+    @Test
+    void getProducts_WhenReplicaUnhealthy_ShouldFallBackToPrimary() throws Exception {
+        // Arrange
+        replicaPool().setHealthy(false);
+        double fallbacksBefore = meterRegistry.get("product.datasource.replica.fallbacks").counter().count();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Laptop"));
+        assertTrue(meterRegistry.get("product.datasource.replica.fallbacks").counter().count() > fallbacksBefore);
+    }
+
+    @Test
+    void createProduct_ShouldWriteToPrimary() throws Exception {
+        // Arrange
+        ProductRequestDto requestDto = new ProductRequestDto("Keyboard", "Mechanical keyboard", new BigDecimal("49.99"), 3);
+
+        // Act
+        mockMvc.perform(post("/api/products")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated());
+
+        // Assert
+        List<String> primaryNames = ReadRouting.onPrimary(() ->
+                productRepository.findAll().stream().map(Product::getName).sorted().toList());
+        assertEquals(List.of("Keyboard", "Laptop"), primaryNames);
+        assertEquals(1, replicaJdbc.queryForObject("SELECT count(*) FROM products", Integer.class));
+    }
+}
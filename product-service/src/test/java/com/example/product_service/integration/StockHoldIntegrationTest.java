@@ -0,0 +1,249 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.dto.StockBatchRequest;
+import com.example.product_service.dto.StockHoldDto;
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.entity.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.StockReservationRepository;
+import com.example.product_service.service.IStockReservationService;
+import com.example.product_service.service.impl.StockHoldSweeper;
+import com.example.product_service.service.impl.StockLedgerCompactor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class StockHoldIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private IStockReservationService reservationService;
+
+    @Autowired
+    private StockHoldSweeper sweeper;
+
+    @Autowired
+    private StockLedgerCompactor compactor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Product laptop;
+    private Product mouse;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+    }
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        productRepository.deleteAll();
+        laptop = saveProduct("Laptop", 5);
+        mouse = saveProduct("Mouse", 20);
+    }
+
+    private Product saveProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    private int stockOf(Product product) {
+        compactor.foldAll();
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    private StockHoldDto placeHold() {
+        return reservationService.placeHold(List.of(
+                new StockLineRequest(laptop.getId(), 2),
+                new StockLineRequest(mouse.getId(), 3)
+        ));
+    }
+
+    @Test
+    void placeHold_ShouldTakeStockRightAway() throws Exception {
+        // Arrange
+        StockBatchRequest request = new StockBatchRequest(List.of(
+                new StockLineRequest(mouse.getId(), 3),
+                new StockLineRequest(laptop.getId(), 2)
+        ), null);
+
+        // Act & Assert
+        mockMvc.perform(post("/internal/products/stock/holds")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.holdId").isNotEmpty())
+                .andExpect(jsonPath("$.expiresAt").isNotEmpty())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].remainingStock").value(3));
+
+        assertEquals(3, stockOf(laptop));
+        assertEquals(17, stockOf(mouse));
+        assertEquals(2, reservationRepository.count());
+    }
+
+    @Test
+    void placeHold_WithInsufficientStock_ShouldHoldNothing() throws Exception {
+        // Arrange
+        StockBatchRequest request = new StockBatchRequest(List.of(
+                new StockLineRequest(mouse.getId(), 3),
+                new StockLineRequest(laptop.getId(), 6)
+        ), null);
+
+        // Act & Assert
+        mockMvc.perform(post("/internal/products/stock/holds")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+
+        assertEquals(5, stockOf(laptop));
+        assertEquals(20, stockOf(mouse));
+        assertEquals(0, reservationRepository.count());
+    }
+
+    @Test
+    void commitHold_ShouldKeepStockTakenAndDropTheHold() throws Exception {
+        // Arrange
+        StockHoldDto hold = placeHold();
+
+        // Act & Assert
+        mockMvc.perform(post("/internal/products/stock/holds/{holdId}/commit", hold.holdId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isNoContent());
+
+        assertEquals(3, stockOf(laptop));
+        assertEquals(17, stockOf(mouse));
+        assertEquals(0, reservationRepository.count());
+
+        // A committed hold can no longer be released
+        mockMvc.perform(delete("/internal/products/stock/holds/{holdId}", hold.holdId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isNoContent());
+        assertEquals(3, stockOf(laptop));
+    }
+
+    @Test
+    void releaseHold_ShouldReturnStock() throws Exception {
+        // Arrange
+        StockHoldDto hold = placeHold();
+
+        // Act & Assert
+        mockMvc.perform(delete("/internal/products/stock/holds/{holdId}", hold.holdId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isNoContent());
+
+        assertEquals(5, stockOf(laptop));
+        assertEquals(20, stockOf(mouse));
+        assertEquals(0, reservationRepository.count());
+
+        mockMvc.perform(post("/internal/products/stock/holds/{holdId}/commit", hold.holdId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void sweepExpired_ShouldReturnStockOfExpiredHoldsAndRejectTheirCommit() throws Exception {
+        // Arrange
+        StockHoldDto hold = placeHold();
+
+        // Act
+        long released = sweeper.sweepExpired(hold.expiresAt());
+
+        // Assert
+        assertEquals(2, released);
+        assertEquals(5, stockOf(laptop));
+        assertEquals(20, stockOf(mouse));
+        mockMvc.perform(post("/internal/products/stock/holds/{holdId}/commit", hold.holdId())
+                        .with(SecurityMockMvcRequestPostProcessors.jwt()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void sweepExpired_ShouldLeaveActiveHoldsAlone() {
+        // Arrange
+        StockHoldDto hold = placeHold();
+
+        // Act
+        long released = sweeper.sweepExpired(hold.expiresAt().minusSeconds(1));
+
+        // Assert
+        assertEquals(0, released);
+        assertEquals(3, stockOf(laptop));
+        assertEquals(2, reservationRepository.count());
+    }
+
+    @Test
+    void sweepExpired_WithMoreLinesThanOneBatch_ShouldReleaseThemAll() {
+        // Arrange
+        Product hot = saveProduct("Hot Product", 2000);
+        for (int i = 0; i < 1200; i++) {
+            reservationService.placeHold(List.of(new StockLineRequest(hot.getId(), 1)));
+        }
+
+        // Act
+        long released = sweeper.sweepExpired(LocalDateTime.now().plusHours(1));
+
+        // Assert
+        assertEquals(1200, released);
+        assertEquals(2000, stockOf(hot));
+        assertEquals(0, reservationRepository.count());
+    }
+
+    @Test
+    void deleteProduct_ShouldDropItsHoldLines() {
+        // Arrange
+        placeHold();
+
+        // Act
+        productRepository.deleteById(mouse.getId());
+
+        // Assert
+        assertEquals(1, reservationRepository.count());
+    }
+}
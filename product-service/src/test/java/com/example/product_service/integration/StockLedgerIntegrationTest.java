@@ -0,0 +1,233 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.StockMovement.Reason;
+import com.example.product_service.inventory.ProductContention;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.IProductService;
+import com.example.product_service.service.impl.StockLedgerCompactor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Testcontainers
+class StockLedgerIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private StockLedgerCompactor compactor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product product;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+        // The tests fold explicitly
+        registry.add("product.stock-ledger.compaction-interval", () -> "1h");
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM stock_ledger");
+
+        product = new Product();
+        product.setName("Ledgered Product");
+        product.setDescription("Stock kept in the ledger");
+        product.setPrice(new BigDecimal("12.50"));
+        product.setStock(10);
+        productRepository.save(product);
+    }
+
+    private long lastEntryId() {
+        return jdbcTemplate.queryForObject(
+                "SELECT max(id) FROM stock_ledger WHERE product_id = ?", Long.class, product.getId());
+    }
+
+    @Test
+    void stockMovements_AreRecordedWithReasonAndReference() {
+        // Act
+        productService.reduceStock(product.getId(), 3, "order-1");
+        productService.increaseStock(product.getId(), 2, "po-1");
+        productService.reserveStock(List.of(new StockLineRequest(product.getId(), 1)), "hold-1");
+        productService.releaseStock(List.of(new StockLineRequest(product.getId(), 1)), "hold-1");
+
+        // Assert
+        List<Map<String, Object>> entries = jdbcTemplate.queryForList(
+                "SELECT delta, reason, order_reference FROM stock_ledger WHERE product_id = ? ORDER BY id",
+                product.getId());
+        assertEquals(List.of(
+                Map.of("delta", -3, "reason", Reason.SALE.name(), "order_reference", "order-1"),
+                Map.of("delta", 2, "reason", Reason.RESTOCK.name(), "order_reference", "po-1"),
+                Map.of("delta", -1, "reason", Reason.HOLD.name(), "order_reference", "hold-1"),
+                Map.of("delta", 1, "reason", Reason.HOLD_RELEASE.name(), "order_reference", "hold-1")
+        ), entries);
+        assertEquals(9, productService.getProductById(product.getId()).stock());
+    }
+
+    @Test
+    void foldAll_MovesEntriesIntoTheSnapshotWithoutChangingStock() {
+        // Arrange
+        productService.reduceStock(product.getId(), 4, null);
+        productService.increaseStock(product.getId(), 1, null);
+
+        // Act
+        compactor.foldAll();
+
+        // Assert
+        Product folded = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(7, folded.getStock());
+        assertEquals(lastEntryId(), folded.getStockLedgerPosition());
+        assertEquals(0, folded.getVersion());
+        assertEquals(7, productService.getProductById(product.getId()).stock());
+    }
+
+    @Test
+    void foldAll_SkipsProductsHeldByAWriterUntilTheyAreReleased() throws Exception {
+        // Arrange
+        productService.reduceStock(product.getId(), 3, null);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        // Keeps an uncommitted restock, and with it the product's ledger lock, until told to commit
+        Future<?> writer = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            stockLedger.give(product.getId(), 2, Reason.RESTOCK, null);
+            held.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        held.await(30, TimeUnit.SECONDS);
+
+        // Act
+        compactor.foldAll();
+
+        // Assert
+        assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getStock());
+        double busy = Search.in(meterRegistry).name(ProductContention.CONTENTION)
+                .tag("product", String.valueOf(product.getId())).tag("operation", "fold").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+        assertTrue(busy > 0);
+
+        release.countDown();
+        writer.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        compactor.foldAll();
+        assertEquals(9, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void reduceStock_WhileAnotherAdvisoryLockUserHoldsTheProductId_DoesNotWait() throws Exception {
+        // Arrange
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // Some other user of advisory locks that happens to use the same number as a key
+        Future<?> other = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", product.getId());
+            held.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        held.await(30, TimeUnit.SECONDS);
+
+        // Act
+        Future<?> sale = executor.submit(() -> productService.reduceStock(product.getId(), 1, null));
+
+        // Assert
+        try {
+            sale.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            other.get(30, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+        assertEquals(9, productService.getProductById(product.getId()).stock());
+    }
+
+    @Test
+    void getProductVersion_WhenGivesCommitOutOfIdOrder_Advances() throws Exception {
+        // Arrange
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        // Takes the lower entry id and commits after the next restock, which shares the lock
+        Future<?> early = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            stockLedger.give(product.getId(), 2, Reason.RESTOCK, null);
+            written.countDown();
+            try {
+                commit.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        written.await(30, TimeUnit.SECONDS);
+        productService.increaseStock(product.getId(), 1, null);
+        String beforeCommit = productService.getProductVersion(product.getId()).orElseThrow();
+
+        // Act
+        commit.countDown();
+        early.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        String afterCommit = productService.getProductVersion(product.getId()).orElseThrow();
+        assertNotEquals(beforeCommit, afterCommit);
+        assertEquals(productService.getProductById(product.getId()).revision(), afterCommit);
+    }
+}
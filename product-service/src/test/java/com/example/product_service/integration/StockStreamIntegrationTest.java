@@ -0,0 +1,215 @@
+package com.example.product_service.integration;
+
+import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.entity.Product;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.IProductService;
+import com.example.product_service.stream.StockStreamHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class StockStreamIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockStreamHub stockStreamHub;
+
+    @Autowired
+    private ProductChangeOutbox changeOutbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<MvcResult> streams = new ArrayList<>();
+    private Product laptop;
+    private Product mouse;
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("EXTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("INTERNAL_KEYCLOAK_URL", () -> "http://localhost:8080");
+        registry.add("API_GATEWAY_URL", () -> "http://localhost:8080");
+        // Flushed by the test itself, so changes made in one step always land in the same window
+        registry.add("product.stock-stream.coalesce-window", () -> "1h");
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        laptop = saveProduct("Laptop", 5);
+        mouse = saveProduct("Mouse", 20);
+    }
+
+    @AfterEach
+    void closeStreams() {
+        streams.forEach(stream -> stream.getRequest().getAsyncContext().complete());
+    }
+
+    private Product saveProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    private MvcResult openStream(Long... ids) throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/products/stock/stream")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .param("ids", Arrays.stream(ids).map(String::valueOf).toArray(String[]::new)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        streams.add(stream);
+        return stream;
+    }
+
+    // Flushes until the stream has received the expected text; sending happens on the hub's own threads
+    private String awaitContent(MvcResult stream, String expected) throws Exception {
+        MockHttpServletResponse response = stream.getResponse();
+        for (int attempt = 0; attempt < 50 && !response.getContentAsString().contains(expected); attempt++) {
+            stockStreamHub.flush();
+            Thread.sleep(50);
+        }
+        return response.getContentAsString();
+    }
+
+    @Test
+    void streamStock_ShouldSendCurrentLevelsThenChanges() throws Exception {
+        // Arrange
+        MvcResult stream = openStream(laptop.getId());
+        awaitContent(stream, "\"stock\":5");
+
+        // Act
+        productService.reduceStock(laptop.getId(), 1, null);
+        productService.reduceStock(laptop.getId(), 1, null);
+        productService.increaseStock(mouse.getId(), 1, null);
+        String content = awaitContent(stream, "\"stock\":3");
+
+        // Assert
+        assertTrue(content.contains("event:stock"));
+        assertTrue(content.contains("\"productId\":" + laptop.getId() + ",\"stock\":3"));
+        // Both reductions arrived within one window and were sent as one level
+        assertFalse(content.contains("\"stock\":4"));
+        assertFalse(content.contains("\"productId\":" + mouse.getId()));
+    }
+
+    @Test
+    void streamStock_ShouldSendChangesCommittedByOtherInstances() throws Exception {
+        // Arrange
+        MvcResult stream = openStream(laptop.getId());
+        awaitContent(stream, "\"stock\":5");
+
+        // Act
+        // As another instance commits it: the row and its outbox entry, without an event here
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET stock = 2 WHERE id = ?", laptop.getId());
+            changeOutbox.append(new ProductChangedEvent(laptop.getId(), ChangeType.STOCK_CHANGED));
+        });
+        String content = awaitContent(stream, "\"stock\":2");
+
+        // Assert
+        assertTrue(content.contains("\"productId\":" + laptop.getId() + ",\"stock\":2"));
+    }
+
+    @Test
+    void streamStock_ShouldReportUpdatesAndDeletions() throws Exception {
+        // Arrange
+        MvcResult stream = openStream(laptop.getId(), mouse.getId());
+        awaitContent(stream, "\"stock\":20");
+
+        // Act
+        productService.updateProduct(laptop.getId(),
+                new ProductRequestDto("Laptop", "Laptop description", new BigDecimal("10.00"), 42));
+        productService.deleteProduct(mouse.getId());
+        awaitContent(stream, "event:deleted");
+        String content = awaitContent(stream, "\"stock\":42");
+
+        // Assert
+        assertTrue(content.contains("\"productId\":" + laptop.getId() + ",\"stock\":42"));
+        assertTrue(content.contains("event:deleted\ndata:{\"productId\":" + mouse.getId()));
+    }
+
+    @Test
+    void streamStock_WhenClientDisconnects_ShouldDropTheConnection() throws Exception {
+        // Arrange
+        int before = stockStreamHub.connections();
+        MvcResult stream = openStream(laptop.getId());
+        assertEquals(before + 1, stockStreamHub.connections());
+
+        // Act
+        stream.getRequest().getAsyncContext().complete();
+        streams.remove(stream);
+
+        // Assert
+        assertEquals(before, stockStreamHub.connections());
+    }
+
+    @Test
+    void streamStock_WithTooManyIds_ShouldReturnBadRequest() throws Exception {
+        String[] ids = LongStream.rangeClosed(1, StockStreamHub.MAX_PRODUCTS_PER_STREAM + 1)
+                .mapToObj(String::valueOf)
+                .toArray(String[]::new);
+
+        mockMvc.perform(get("/api/products/stock/stream")
+                        .with(SecurityMockMvcRequestPostProcessors.jwt())
+                        .param("ids", ids))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamStock_WithoutAuthentication_ShouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/products/stock/stream")
+                        .param("ids", String.valueOf(laptop.getId())))
+                .andExpect(status().isUnauthorized());
+    }
+}
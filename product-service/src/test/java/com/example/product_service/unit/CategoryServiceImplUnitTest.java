@@ -0,0 +1,179 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.dto.CategoryDto;
+import com.example.product_service.dto.CategoryRequestDto;
+import com.example.product_service.entity.Category;
+import com.example.product_service.event.CategoryChangedEvent;
+import com.example.product_service.exception.ConflictException;
+import com.example.product_service.exception.ResourceNotFoundException;
+import com.example.product_service.repository.CategoryRepository;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.impl.CategoryServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryServiceImplUnitTest {
+
+    @Mock
+    private CategoryRepository repository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CategoryServiceImpl categoryService;
+
+    private Category category(long id, String name, Long parentId) {
+        Category category = new Category();
+        ReflectionTestUtils.setField(category, "id", id);
+        category.setName(name);
+        category.setParentId(parentId);
+        return category;
+    }
+
+    @Test
+    void createCategory_UnderParent_ShouldLinkItToTheParentsAncestors() {
+        // Arrange
+        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.save(any(Category.class))).thenReturn(category(2L, "Laptops", 1L));
+
+        // Act
+        CategoryDto result = categoryService.createCategory(new CategoryRequestDto("Laptops", 1L));
+
+        // Assert
+        assertEquals(2L, result.id());
+        assertEquals(1L, result.parentId());
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).lockPaths();
+        inOrder.verify(repository).save(any(Category.class));
+        inOrder.verify(repository).insertPaths(2L, 1L);
+        verify(eventPublisher, times(1)).publishEvent(new CategoryChangedEvent(2L));
+    }
+
+    @Test
+    void createCategory_WithUnknownParent_ShouldThrowException() {
+        // Arrange
+        when(repository.existsById(999L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> categoryService.createCategory(new CategoryRequestDto("Laptops", 999L)));
+        verify(repository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateCategory_WithNewParent_ShouldMoveTheSubtree() {
+        // Arrange
+        when(repository.findById(2L)).thenReturn(Optional.of(category(2L, "Laptops", 1L)));
+        when(repository.existsById(3L)).thenReturn(true);
+        when(repository.isAncestorOf(2L, 3L)).thenReturn(false);
+        when(repository.saveAndFlush(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        CategoryDto result = categoryService.updateCategory(2L, new CategoryRequestDto("Notebooks", 3L));
+
+        // Assert
+        assertEquals("Notebooks", result.name());
+        assertEquals(3L, result.parentId());
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).lockPaths();
+        inOrder.verify(repository).detachSubtree(2L);
+        inOrder.verify(repository).attachSubtree(2L, 3L);
+        verify(eventPublisher, times(1)).publishEvent(new CategoryChangedEvent(2L));
+    }
+
+    @Test
+    void updateCategory_WithSameParent_ShouldOnlyRename() {
+        // Arrange
+        when(repository.findById(2L)).thenReturn(Optional.of(category(2L, "Laptops", 1L)));
+        when(repository.saveAndFlush(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        categoryService.updateCategory(2L, new CategoryRequestDto("Notebooks", 1L));
+
+        // Assert
+        verify(repository, never()).detachSubtree(anyLong());
+        verify(repository, never()).attachSubtree(anyLong(), anyLong());
+    }
+
+    @Test
+    void updateCategory_UnderItsOwnDescendant_ShouldThrowException() {
+        // Arrange
+        when(repository.findById(1L)).thenReturn(Optional.of(category(1L, "Electronics", null)));
+        when(repository.existsById(2L)).thenReturn(true);
+        when(repository.isAncestorOf(1L, 2L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> categoryService.updateCategory(1L, new CategoryRequestDto("Electronics", 2L)));
+        verify(repository, never()).detachSubtree(anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateCategory_UnderItself_ShouldThrowException() {
+        // Arrange
+        when(repository.findById(1L)).thenReturn(Optional.of(category(1L, "Electronics", null)));
+        when(repository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> categoryService.updateCategory(1L, new CategoryRequestDto("Electronics", 1L)));
+        verify(repository, never()).detachSubtree(anyLong());
+    }
+
+    @Test
+    void deleteCategory_WithSubcategories_ShouldThrowConflict() {
+        // Arrange
+        when(repository.findById(1L)).thenReturn(Optional.of(category(1L, "Electronics", null)));
+        when(repository.existsByParentId(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> categoryService.deleteCategory(1L));
+        verify(repository, never()).delete(any());
+    }
+
+    @Test
+    void deleteCategory_WithProducts_ShouldThrowConflict() {
+        // Arrange
+        when(repository.findById(1L)).thenReturn(Optional.of(category(1L, "Electronics", null)));
+        when(productRepository.existsByCategoryId(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> categoryService.deleteCategory(1L));
+        verify(repository, never()).delete(any());
+    }
+
+    @Test
+    void deleteCategory_WhenEmpty_ShouldDropItsPaths() {
+        // Arrange
+        Category category = category(1L, "Electronics", null);
+        when(repository.findById(1L)).thenReturn(Optional.of(category));
+
+        // Act
+        categoryService.deleteCategory(1L);
+
+        // Assert
+        verify(repository, times(1)).deletePaths(1L);
+        verify(repository, times(1)).delete(category);
+        verify(eventPublisher, times(1)).publishEvent(new CategoryChangedEvent(1L));
+    }
+}
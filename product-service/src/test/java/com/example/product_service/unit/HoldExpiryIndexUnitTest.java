@@ -0,0 +1,82 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.inventory.HoldExpiryIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldExpiryIndexUnitTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private HoldExpiryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new HoldExpiryIndex(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void pollDue_WhenNothingHasExpired_ShouldKeepEveryEntry() {
+        // Arrange
+        index.add(NOW.plusMinutes(5));
+        index.add(NOW.plusSeconds(1));
+
+        // Act
+        boolean due = index.pollDue(NOW);
+
+        // Assert
+        assertFalse(due);
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void pollDue_ShouldRemoveOnlyTheEntriesThatAreDue() {
+        // Arrange
+        index.add(NOW.plusMinutes(10));
+        index.add(NOW.minusMinutes(1));
+        index.add(NOW.plusMinutes(1));
+        index.add(NOW);
+
+        // Act
+        boolean due = index.pollDue(NOW);
+
+        // Assert
+        assertTrue(due);
+        assertEquals(2, index.size());
+        assertFalse(index.pollDue(NOW.plusSeconds(59)));
+        assertTrue(index.pollDue(NOW.plusMinutes(1)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void pollDue_WithFractionalExpiry_ShouldNotComeDueEarly() {
+        // Arrange
+        index.add(NOW.plusNanos(1));
+
+        // Act & Assert
+        assertFalse(index.pollDue(NOW));
+        assertTrue(index.pollDue(NOW.plusSeconds(1)));
+    }
+
+    @Test
+    void pollDue_WithManyEntries_ShouldDrainInExpiryOrder() {
+        // Arrange
+        int entries = 100_000;
+        for (int i = 0; i < entries; i++) {
+            index.add(NOW.plusSeconds((i * 7919L) % entries));
+        }
+
+        // Act & Assert
+        for (int second = 0; second < entries; second += 1000) {
+            index.pollDue(NOW.plusSeconds(second));
+            assertEquals(entries - second - 1, index.size());
+        }
+        assertTrue(index.pollDue(NOW.plusSeconds(entries)));
+        assertEquals(0, index.size());
+    }
+}
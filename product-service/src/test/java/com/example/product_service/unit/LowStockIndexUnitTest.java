@@ -0,0 +1,72 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.dto.ProductSummaryDto;
+import com.example.product_service.lowstock.LowStockIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LowStockIndexUnitTest {
+
+    private LowStockIndex index;
+
+    private List<Long> ids(List<ProductSummaryDto> products) {
+        return products.stream().map(ProductSummaryDto::id).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new LowStockIndex();
+        index.put(1L, "Mouse", new BigDecimal("9.99"), 40);
+        index.put(2L, "Keyboard", new BigDecimal("49.99"), 3);
+        index.put(3L, "Monitor", new BigDecimal("199.00"), 0);
+        index.put(4L, "Laptop", new BigDecimal("999.00"), 3);
+        index.put(5L, "Webcam", new BigDecimal("59.99"), 12);
+    }
+
+    @Test
+    void lowest_ShouldOrderByStockThenId() {
+        // Act
+        List<ProductSummaryDto> lowest = index.lowest(3, null);
+
+        // Assert
+        assertEquals(List.of(3L, 2L, 4L), ids(lowest));
+        assertEquals("Monitor", lowest.get(0).name());
+        assertEquals(0, lowest.get(0).stock());
+    }
+
+    @Test
+    void lowest_WithThreshold_ShouldStopAtFirstProductAtOrAboveIt() {
+        // Act
+        List<ProductSummaryDto> lowest = index.lowest(10, 12);
+
+        // Assert
+        assertEquals(List.of(3L, 2L, 4L), ids(lowest));
+    }
+
+    @Test
+    void put_ForKnownProduct_ShouldMoveItToItsNewStock() {
+        // Act
+        index.put(1L, "Mouse", new BigDecimal("9.99"), 1);
+        index.put(3L, "Monitor", new BigDecimal("199.00"), 50);
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 4L, 5L, 3L), ids(index.lowest(10, null)));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void remove_ShouldDropProduct() {
+        // Act
+        index.remove(3L);
+        index.remove(99L);
+
+        // Assert
+        assertEquals(List.of(2L, 4L), ids(index.lowest(2, null)));
+        assertEquals(4, index.size());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.dto.ProductSummaryDto;
+import com.example.product_service.entity.Product;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.lowstock.LowStockIndex;
+import com.example.product_service.lowstock.LowStockIndexer;
+import com.example.product_service.outbox.ProductChange;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockIndexerUnitTest {
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductChangeOutbox outbox;
+
+    private LowStockIndex index;
+    private LowStockIndexer indexer;
+
+    private Product product(int stock) {
+        return product(1L, "Keyboard", stock);
+    }
+
+    private Product product(long id, String name, int stock) {
+        Product product = new Product();
+        ReflectionTestUtils.setField(product, "id", id);
+        product.setName(name);
+        product.setPrice(new BigDecimal("49.99"));
+        product.setStock(stock);
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new LowStockIndex();
+        indexer = new LowStockIndexer(index, repository, stockLedger, outbox);
+        index.put(1L, "Keyboard", new BigDecimal("49.99"), 10);
+        lenient().when(stockLedger.offRowStock(anyCollection())).thenReturn(Map.of());
+        lenient().when(outbox.latestPosition()).thenReturn(ProductChange.Position.START);
+    }
+
+    @Test
+    void refresh_ShouldMoveMarkedProductsToTheirCurrentStock() {
+        // Arrange
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(product(2)));
+
+        // Act
+        indexer.onProductChanged(new ProductChangedEvent(1L, ChangeType.STOCK_CHANGED));
+        indexer.refresh();
+
+        // Assert
+        List<ProductSummaryDto> lowest = index.lowest(10, null);
+        assertEquals(1, lowest.size());
+        assertEquals(2, lowest.get(0).stock());
+    }
+
+    @Test
+    void refresh_WhenProductDeletedWhileItWasRead_ShouldNotPutItBack() {
+        // Arrange
+        when(repository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            indexer.onProductChanged(new ProductChangedEvent(1L, ChangeType.DELETED));
+            return List.of(product(2));
+        });
+
+        // Act
+        indexer.onProductChanged(new ProductChangedEvent(1L, ChangeType.STOCK_CHANGED));
+        indexer.refresh();
+
+        // Assert
+        assertEquals(0, index.size());
+        assertTrue(index.lowest(10, null).isEmpty());
+    }
+
+    @Test
+    void refresh_ShouldApplyChangesAfterAnEarlierRefreshSawThem() {
+        // Arrange
+        when(repository.findAllById(anyIterable()))
+                .thenAnswer(invocation -> {
+                    indexer.onProductChanged(new ProductChangedEvent(1L, ChangeType.DELETED));
+                    return List.of(product(2));
+                })
+                .thenReturn(List.of(product(5)));
+
+        // Act
+        indexer.onProductChanged(new ProductChangedEvent(1L, ChangeType.STOCK_CHANGED));
+        indexer.refresh();
+        index.put(1L, "Keyboard", new BigDecimal("49.99"), 10);
+        indexer.onProductChanged(new ProductChangedEvent(1L, ChangeType.STOCK_CHANGED));
+        indexer.refresh();
+
+        // Assert
+        assertEquals(5, index.lowest(10, null).get(0).stock());
+    }
+
+    @Test
+    void refresh_ShouldApplyChangesOtherInstancesRecordedInTheOutbox() {
+        // Arrange
+        indexer.refresh();
+        when(outbox.readKeysAfter(ProductChange.Position.START, 1000)).thenReturn(List.of(
+                new ProductChange(new ProductChange.Position(7, 1), 1L, ChangeType.DELETED, null, null),
+                new ProductChange(new ProductChange.Position(7, 2), 2L, ChangeType.STOCK_CHANGED, null, null)));
+        when(repository.findAllById(anyIterable())).thenReturn(List.of(product(2L, "Mouse", 1)));
+
+        // Act
+        indexer.refresh();
+
+        // Assert
+        List<ProductSummaryDto> lowest = index.lowest(10, null);
+        assertEquals(1, lowest.size());
+        assertEquals(2L, lowest.get(0).id());
+        assertEquals(1, lowest.get(0).stock());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.dto.PriceBucketDto;
+import com.example.product_service.dto.ProductFacetsDto;
+import com.example.product_service.dto.ProductFilter;
+import com.example.product_service.facet.PriceFacetIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceFacetIndexUnitTest {
+
+    private PriceFacetIndex index;
+
+    private static BigDecimal price(String value) {
+        return new BigDecimal(value);
+    }
+
+    private List<Long> counts(ProductFacetsDto facets) {
+        return facets.priceBuckets().stream().map(PriceBucketDto::count).toList();
+    }
+
+    private List<Long> inStock(ProductFacetsDto facets) {
+        return facets.priceBuckets().stream().map(PriceBucketDto::inStock).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new PriceFacetIndex(List.of(price("50"), price("10"), price("100")));
+        index.put(1L, "Mouse", price("9.99"), true);
+        index.put(2L, "Keyboard", price("10.00"), false);
+        index.put(3L, "Monitor", price("49.99"), true);
+        index.put(4L, "Laptop", price("999.00"), true);
+        index.put(5L, "Mouse Pad", price("12.50"), true);
+    }
+
+    @Test
+    void facets_WithoutFilter_ShouldCountEveryBucket() {
+        // Act
+        ProductFacetsDto facets = index.facets(ProductFilter.none());
+
+        // Assert
+        assertEquals(5, facets.total());
+        assertEquals(4, facets.inStock());
+        assertEquals(List.of(1L, 3L, 0L, 1L), counts(facets));
+        assertEquals(List.of(1L, 2L, 0L, 1L), inStock(facets));
+        assertEquals(0, price("10").compareTo(facets.priceBuckets().get(1).from()));
+        assertNull(facets.priceBuckets().get(3).to());
+    }
+
+    @Test
+    void facets_WithPriceRange_ShouldCountPartialBucketsExactly() {
+        // Act
+        ProductFacetsDto facets = index.facets(new ProductFilter(price("10.00"), price("12.50"), null, null, null));
+
+        // Assert
+        assertEquals(List.of(0L, 2L, 0L, 0L), counts(facets));
+        assertEquals(1, facets.inStock());
+    }
+
+    @Test
+    void facets_WithInStockFilter_ShouldCountOnlyProductsInStock() {
+        // Act
+        ProductFacetsDto facets = index.facets(new ProductFilter(null, null, true, null, null));
+
+        // Assert
+        assertEquals(4, facets.total());
+        assertEquals(List.of(1L, 2L, 0L, 1L), counts(facets));
+    }
+
+    @Test
+    void facets_WithNamePrefix_ShouldCountMatchingNamesOnly() {
+        // Act
+        ProductFacetsDto facets = index.facets(new ProductFilter(null, price("10"), null, "Mo", null));
+
+        // Assert
+        assertEquals(List.of(1L, 0L, 0L, 0L), counts(facets));
+    }
+
+    @Test
+    void put_WhenPriceChanges_ShouldMoveTheProductToItsNewBucket() {
+        // Act
+        index.put(4L, "Laptop", price("75.00"), true);
+        index.setInStock(2L, true);
+        index.remove(3L);
+
+        // Assert
+        ProductFacetsDto facets = index.facets(ProductFilter.none());
+        assertEquals(List.of(1L, 2L, 1L, 0L), counts(facets));
+        assertEquals(List.of(1L, 2L, 1L, 0L), inStock(facets));
+        assertEquals(4, index.size());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.dto.ProductChangeFeedDto;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.exception.CursorExpiredException;
+import com.example.product_service.outbox.ProductChange;
+import com.example.product_service.outbox.ProductChange.Position;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.service.impl.ProductChangeServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeServiceImplUnitTest {
+
+    @Mock
+    private ProductChangeOutbox outbox;
+
+    @InjectMocks
+    private ProductChangeServiceImpl changeService;
+
+    private ProductChange change(long txId, long id) {
+        return new ProductChange(new Position(txId, id), id, ChangeType.STOCK_CHANGED, null, LocalDateTime.now());
+    }
+
+    @Test
+    void getChanges_WithoutCursor_ShouldStartAtTheBeginning() {
+        // Arrange
+        when(outbox.readAfter(Position.START, ProductChangeServiceImpl.DEFAULT_BATCH_SIZE + 1))
+                .thenReturn(List.of(change(7, 1), change(9, 2)));
+
+        // Act
+        ProductChangeFeedDto result = changeService.getChanges(null, null);
+
+        // Assert
+        assertEquals(2, result.changes().size());
+        assertEquals("9-2", result.cursor());
+        assertFalse(result.hasMore());
+        verify(outbox, never()).contains(any());
+    }
+
+    @Test
+    void getChanges_WhenMoreAreWaiting_ShouldStopAtTheLimit() {
+        // Arrange
+        when(outbox.contains(new Position(7, 1))).thenReturn(true);
+        when(outbox.readAfter(new Position(7, 1), 2)).thenReturn(List.of(change(9, 2), change(9, 3), change(12, 4)));
+
+        // Act
+        ProductChangeFeedDto result = changeService.getChanges("7-1", 1);
+
+        // Assert
+        assertEquals(1, result.changes().size());
+        assertEquals(2L, result.changes().get(0).productId());
+        assertEquals("9-2", result.cursor());
+        assertTrue(result.hasMore());
+    }
+
+    @Test
+    void getChanges_WhenCaughtUp_ShouldKeepTheCursor() {
+        // Arrange
+        when(outbox.contains(new Position(7, 1))).thenReturn(true);
+        when(outbox.readAfter(any(), anyInt())).thenReturn(List.of());
+
+        // Act
+        ProductChangeFeedDto result = changeService.getChanges("7-1", 10);
+
+        // Assert
+        assertTrue(result.changes().isEmpty());
+        assertEquals("7-1", result.cursor());
+    }
+
+    @Test
+    void getChanges_WithCompactedCursor_ShouldThrowCursorExpiredException() {
+        // Arrange
+        when(outbox.contains(new Position(7, 1))).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(CursorExpiredException.class, () -> changeService.getChanges("7-1", 10));
+        verify(outbox, never()).readAfter(any(), anyInt());
+    }
+
+    @Test
+    void getChanges_WithInvalidArguments_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> changeService.getChanges("7", 10));
+        assertThrows(IllegalArgumentException.class, () -> changeService.getChanges("x-1", 10));
+        assertThrows(IllegalArgumentException.class, () -> changeService.getChanges(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> changeService.getChanges(null, ProductChangeServiceImpl.MAX_BATCH_SIZE + 1));
+        verifyNoInteractions(outbox);
+    }
+}
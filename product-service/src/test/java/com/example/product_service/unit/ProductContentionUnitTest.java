@@ -0,0 +1,32 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.inventory.ProductContention;
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductContentionUnitTest {
+
+    @Test
+    void contended_BeyondTheTaggedProducts_ShouldCountUnderOther() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProductContention contention = new ProductContention(registry, 2);
+
+        // Act
+        contention.contended(1L, "sale");
+        contention.contended(2L, "sale");
+        contention.contended(3L, "sale");
+        contention.contended(4L, "sale");
+        contention.contended(1L, "sale");
+
+        // Assert
+        assertEquals(2.0, registry.get(ProductContention.CONTENTION).tag("product", "1").counter().count());
+        assertEquals(1.0, registry.get(ProductContention.CONTENTION).tag("product", "2").counter().count());
+        assertEquals(2.0, registry.get(ProductContention.CONTENTION)
+                .tag("product", ProductContention.OTHER_PRODUCTS).counter().count());
+        assertEquals(3, Search.in(registry).name(ProductContention.CONTENTION).counters().size());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.cache.ProductIdFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductIdFilterUnitTest {
+
+    @Test
+    void mightContain_ShouldNeverMissAnIdThatWasPut() {
+        // Arrange
+        ProductIdFilter filter = new ProductIdFilter(10_000, 0.01);
+        LongStream.rangeClosed(1, 10_000).forEach(filter::put);
+
+        // Act & Assert
+        assertTrue(LongStream.rangeClosed(1, 10_000).allMatch(filter::mightContain));
+        assertEquals(10_000, filter.insertions());
+    }
+
+    @Test
+    void mightContain_ShouldKeepFalsePositivesNearTheConfiguredRate() {
+        // Arrange
+        ProductIdFilter filter = new ProductIdFilter(10_000, 0.01);
+        LongStream.rangeClosed(1, 10_000).forEach(filter::put);
+
+        // Act
+        long falsePositives = LongStream.rangeClosed(1_000_001, 1_100_000).filter(filter::mightContain).count();
+
+        // Assert
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void expectedFalsePositiveRate_ShouldGrowPastCapacity() {
+        // Arrange
+        ProductIdFilter filter = new ProductIdFilter(1_000, 0.01);
+
+        // Act
+        LongStream.rangeClosed(1, 5_000).forEach(filter::put);
+
+        // Assert
+        assertTrue(filter.expectedFalsePositiveRate() > 0.1);
+    }
+
+    @Test
+    void constructor_WithInvalidRate_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new ProductIdFilter(1_000, 1.0));
+    }
+}
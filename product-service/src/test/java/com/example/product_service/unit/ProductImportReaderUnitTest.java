@@ -0,0 +1,100 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.importer.ImportFormat;
+import com.example.product_service.importer.ImportRow;
+import com.example.product_service.importer.ProductImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportReaderUnitTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<ImportRow> readAll(ImportFormat format, String content) throws IOException {
+        ProductImportReader reader = ProductImportReader.open(
+                format, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), objectMapper);
+        List<ImportRow> rows = new ArrayList<>();
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    void csv_WithQuotedFields_ShouldParseCommasQuotesAndLineBreaks() throws IOException {
+        // Arrange
+        String csv = "stock,name,price,description\r\n"
+                + "5,Laptop,1999.99,\"Fast, light\"\r\n"
+                + "7,\"Mouse \"\"Pro\"\"\",49.50,\"Two\nlines\"\r\n"
+                + "\r\n"
+                + "1,Cable,3,Plain\n";
+
+        // Act
+        List<ImportRow> rows = readAll(ImportFormat.CSV, csv);
+
+        // Assert
+        assertEquals(3, rows.size());
+        assertEquals(2, rows.get(0).line());
+        assertEquals("Fast, light", rows.get(0).product().description());
+        assertEquals(new BigDecimal("1999.99"), rows.get(0).product().price());
+        assertEquals(5, rows.get(0).product().stock());
+        assertEquals("Mouse \"Pro\"", rows.get(1).product().name());
+        assertEquals("Two\nlines", rows.get(1).product().description());
+        assertEquals(6, rows.get(2).line());
+    }
+
+    @Test
+    void csv_WithInvalidRows_ShouldReportThemAndContinue() throws IOException {
+        // Arrange
+        String csv = "name,description,price,stock\n"
+                + "Laptop,Fast,abc,5\n"
+                + "Mouse,Small,10\n"
+                + "Cable,Plain,3,1\n";
+
+        // Act
+        List<ImportRow> rows = readAll(ImportFormat.CSV, csv);
+
+        // Assert
+        assertEquals(3, rows.size());
+        assertEquals("Invalid price: abc", rows.get(0).error());
+        assertEquals("Expected 4 columns but found 3", rows.get(1).error());
+        assertTrue(rows.get(2).isValid());
+    }
+
+    @Test
+    void csv_WithoutRequiredHeaderColumn_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> readAll(ImportFormat.CSV, "name,description,price\nLaptop,Fast,10\n"));
+    }
+
+    @Test
+    void ndjson_WithMalformedLine_ShouldReportItAndContinue() throws IOException {
+        // Arrange
+        String ndjson = "{\"name\":\"Laptop\",\"description\":\"Fast\",\"price\":1999.99,\"stock\":5}\n"
+                + "\n"
+                + "{\"name\":\"Broken\"\n"
+                + "{\"name\":\"Mouse\",\"description\":\"Small\",\"price\":10,\"stock\":1}\n";
+
+        // Act
+        List<ImportRow> rows = readAll(ImportFormat.NDJSON, ndjson);
+
+        // Assert
+        assertEquals(3, rows.size());
+        assertEquals("Laptop", rows.get(0).product().name());
+        assertEquals(3, rows.get(1).line());
+        assertFalse(rows.get(1).isValid());
+        assertEquals(4, rows.get(2).line());
+        assertEquals("Mouse", rows.get(2).product().name());
+    }
+}
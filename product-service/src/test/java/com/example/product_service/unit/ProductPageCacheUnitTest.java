@@ -0,0 +1,76 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.cache.ProductPageCache;
+import com.example.product_service.cache.ProductPageCache.PageKey;
+import com.example.product_service.dto.ProductFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPageCacheUnitTest {
+
+    private static final PageKey KEY = new PageKey(1, ProductFilter.none(), "id", null, 20);
+    private static final PageKey OTHER_KEY = new PageKey(1, ProductFilter.none(), "id", null, 50);
+
+    private ProductPageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductPageCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void get_WhileAPageRenders_ShouldServeOtherKeysAndRenderTheSameKeyOnce() throws Exception {
+        // Arrange
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger renders = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<byte[]> first = executor.submit(() -> cache.get(KEY, () -> {
+            renders.incrementAndGet();
+            rendering.countDown();
+            try {
+                finish.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new byte[]{1};
+        }));
+        rendering.await(30, TimeUnit.SECONDS);
+        Future<byte[]> second = executor.submit(() -> cache.get(KEY, () -> {
+            renders.incrementAndGet();
+            return new byte[]{2};
+        }));
+
+        // Act
+        byte[] other = cache.get(OTHER_KEY, () -> new byte[]{3});
+        finish.countDown();
+
+        // Assert
+        assertArrayEquals(new byte[]{3}, other);
+        assertArrayEquals(new byte[]{1}, first.get(30, TimeUnit.SECONDS));
+        assertArrayEquals(new byte[]{1}, second.get(30, TimeUnit.SECONDS));
+        assertEquals(1, renders.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void get_WhenRenderingFails_ShouldRethrowAndRenderAgainNextTime() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> cache.get(KEY, () -> {
+            throw new IllegalArgumentException("bad cursor");
+        }));
+        assertArrayEquals(new byte[]{1}, cache.get(KEY, () -> new byte[]{1}));
+    }
+}
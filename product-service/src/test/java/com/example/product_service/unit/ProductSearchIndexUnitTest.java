@@ -0,0 +1,122 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductSearchHitDto;
+import com.example.product_service.dto.ProductSearchPageDto;
+import com.example.product_service.search.ProductSearchIndex;
+import com.example.product_service.search.TextAnalyzer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexUnitTest {
+
+    private ProductSearchIndex index;
+
+    private ProductDetailsDto product(long id, String name, String description) {
+        return new ProductDetailsDto(id, name, description, new BigDecimal("9.99"), 1, null, null, null, null);
+    }
+
+    private List<Long> ids(ProductSearchPageDto page) {
+        return page.items().stream().map(ProductSearchHitDto::id).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(product(1L, "Gaming Laptop", "Fast laptop with a dedicated graphics card"));
+        index.index(product(2L, "Office Chair", "Ergonomic chair for long work days at the laptop"));
+        index.index(product(3L, "Wireless Mouse", "Compact mouse for gaming and office"));
+    }
+
+    @Test
+    void tokenize_ShouldNormalizeCaseAccentsAndStopWords() {
+        assertEquals(List.of("cafe", "creme", "brulee", "mug", "500ml"),
+                TextAnalyzer.tokenize("Café CRÈME-brûlée: the Mug (500ml)"));
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        ProductSearchPageDto result = index.search("laptop", 0, 10);
+
+        // Assert
+        assertEquals(2, result.totalHits());
+        assertEquals(List.of(1L, 2L), ids(result));
+    }
+
+    @Test
+    void search_WithMultipleTerms_ShouldReturnAnyMatchRankedByRelevance() {
+        // Act
+        ProductSearchPageDto result = index.search("gaming mouse", 0, 10);
+
+        // Assert
+        assertEquals(List.of(3L, 1L), ids(result));
+    }
+
+    @Test
+    void search_ShouldPaginateRankedResults() {
+        // Act
+        ProductSearchPageDto first = index.search("office gaming laptop", 0, 2);
+        ProductSearchPageDto second = index.search("office gaming laptop", 1, 2);
+
+        // Assert
+        assertEquals(3, first.totalHits());
+        assertEquals(2, first.items().size());
+        assertEquals(1, second.items().size());
+        assertFalse(ids(first).contains(ids(second).get(0)));
+    }
+
+    @Test
+    void search_WhenPageLiesPastTheMatches_ShouldReturnAnEmptyPage() {
+        // Act
+        ProductSearchPageDto past = index.search("laptop", 1, 2);
+        ProductSearchPageDto overflowing = index.search("laptop", 67_108_863, 64);
+
+        // Assert
+        assertTrue(past.items().isEmpty());
+        assertEquals(2, past.totalHits());
+        assertTrue(overflowing.items().isEmpty());
+        assertEquals(2, overflowing.totalHits());
+        assertEquals(List.of(1L, 2L), ids(index.search("laptop", 0, 10)));
+    }
+
+    @Test
+    void index_WhenProductUpdated_ShouldReplacePreviousTerms() {
+        // Act
+        index.index(product(1L, "Gaming Monitor", "Curved display"));
+
+        // Assert
+        assertEquals(List.of(2L), ids(index.search("laptop", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("monitor", 0, 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_ShouldExcludeProductFromResults() {
+        // Act
+        index.remove(3L);
+
+        // Assert
+        assertTrue(index.search("mouse", 0, 10).items().isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void index_AfterManyUpdates_ShouldCompactAndKeepResultsCorrect() {
+        // Act
+        for (int i = 0; i < 5000; i++) {
+            index.index(product(4L, "Desk Lamp " + i, "Bright lamp"));
+        }
+
+        // Assert
+        ProductSearchPageDto result = index.search("lamp", 0, 10);
+        assertEquals(1, result.totalHits());
+        assertEquals("Desk Lamp 4999", result.items().get(0).name());
+        assertEquals(List.of(1L, 2L), ids(index.search("laptop", 0, 10)));
+    }
+}
@@ -1,26 +1,72 @@
 package com.example.product_service.unit;
 
+import com.example.product_service.cache.CatalogVersion;
+import com.example.product_service.cache.ProductCache;
+import com.example.product_service.cache.ProductExistence;
+import com.example.product_service.dto.ProductBatchDto;
 import com.example.product_service.dto.ProductDetailsDto;
+import com.example.product_service.dto.ProductFacetsDto;
+import com.example.product_service.dto.ProductFilter;
+import com.example.product_service.dto.ProductPageDto;
+import com.example.product_service.dto.ProductPatchRequest;
 import com.example.product_service.dto.ProductRequestDto;
+import com.example.product_service.dto.ProductSearchPageDto;
+import com.example.product_service.dto.ProductSuggestionDto;
 import com.example.product_service.dto.ProductSummaryDto;
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.dto.StockLineResultDto;
+import com.example.product_service.entity.Category;
 import com.example.product_service.entity.Product;
+import com.example.product_service.entity.StockMovement.Reason;
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
 import com.example.product_service.exception.ConflictException;
 import com.example.product_service.exception.ResourceNotFoundException;
+import com.example.product_service.exception.StockBatchException;
+import com.example.product_service.inventory.ProductContention;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.inventory.StockLedger.Outcome;
+import com.example.product_service.inventory.StripedInventory;
+import com.example.product_service.lowstock.LowStockIndex;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.CategoryRepository;
+import com.example.product_service.repository.OffRowStock;
 import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.facet.PriceFacetIndex;
+import com.example.product_service.search.ProductSearchIndex;
+import com.example.product_service.search.ProductSuggestIndex;
 import com.example.product_service.service.impl.ProductServiceImpl;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +75,49 @@ class ProductServiceImplUnitTest {
     @Mock
     private ProductRepository repository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private StripedInventory stripedInventory;
+
+    @Mock
+    private ProductChangeOutbox changeOutbox;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductExistence productExistence;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(
+            mock(ProductChangeOutbox.class), new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Spy
+    private ProductSearchIndex searchIndex = new ProductSearchIndex();
+
+    @Spy
+    private ProductSuggestIndex suggestIndex = new ProductSuggestIndex();
+
+    @Spy
+    private PriceFacetIndex facetIndex = new PriceFacetIndex(List.of(new BigDecimal("10"), new BigDecimal("100")));
+
+    @Spy
+    private LowStockIndex lowStockIndex = new LowStockIndex();
+
+    @Spy
+    private ProductContention contention = new ProductContention(new SimpleMeterRegistry(), 100);
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -51,33 +140,169 @@ class ProductServiceImplUnitTest {
     }
 
     @Test
-    void getProducts_ShouldReturnAllProducts() {
+    void getProducts_ShouldReturnFirstPage() {
         // Arrange
         Product product1 = createTestProduct();
         Product product2 = createTestProduct();
         product2.setName("Test Product 2");
 
-        when(repository.findAll()).thenReturn(List.of(product1, product2));
+        when(repository.findBy(any(Specification.class), any())).thenReturn(List.of(product1, product2));
+
+        // Act
+        ProductPageDto result = productService.getProducts(ProductFilter.none(), null, null, 20);
+
+        // Assert
+        assertEquals(2, result.items().size());
+        assertNull(result.nextCursor());
+        verify(repository, times(1)).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void getProducts_WhenNoProducts_ShouldReturnEmptyPage() {
+        // Arrange
+        when(repository.findBy(any(Specification.class), any())).thenReturn(List.of());
 
         // Act
-        List<ProductSummaryDto> result = productService.getProducts();
+        ProductPageDto result = productService.getProducts(ProductFilter.none(), null, null, 20);
 
         // Assert
-        assertEquals(2, result.size());
-        verify(repository, times(1)).findAll();
+        assertTrue(result.items().isEmpty());
+        assertNull(result.nextCursor());
     }
 
     @Test
-    void getProducts_WhenNoProducts_ShouldReturnEmptyList() {
+    void getProducts_WhenMoreRowsThanPageSize_ShouldReturnCursorOfLastItem() {
         // Arrange
-        when(repository.findAll()).thenReturn(List.of());
+        Product product1 = createTestProduct();
+        ReflectionTestUtils.setField(product1, "id", 1L);
+        Product product2 = createTestProduct();
+        ReflectionTestUtils.setField(product2, "id", 2L);
+        Product product3 = createTestProduct();
+        ReflectionTestUtils.setField(product3, "id", 3L);
+
+        when(repository.findBy(any(Specification.class), any()))
+                .thenReturn(List.of(product1, product2, product3))
+                .thenReturn(List.of(product3));
 
         // Act
-        List<ProductSummaryDto> result = productService.getProducts();
+        ProductPageDto firstPage = productService.getProducts(ProductFilter.none(), "id", null, 2);
+        ProductPageDto secondPage = productService.getProducts(ProductFilter.none(), null, firstPage.nextCursor(), 2);
 
         // Assert
-        assertTrue(result.isEmpty());
-        verify(repository, times(1)).findAll();
+        assertEquals(2, firstPage.items().size());
+        assertNotNull(firstPage.nextCursor());
+        assertEquals(1, secondPage.items().size());
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    void getProducts_WithMalformedCursor_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProducts(ProductFilter.none(), null, "not-a-cursor", 20));
+        verify(repository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void getProducts_WithInvalidPageSize_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProducts(ProductFilter.none(), null, null, 0));
+        verify(repository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void searchProducts_ShouldQueryIndex() {
+        // Arrange
+        searchIndex.index(new ProductDetailsDto(7L, "Test Product", "Test Description",
+                new BigDecimal("19.99"), 10, null, null, null, null));
+
+        // Act
+        ProductSearchPageDto result = productService.searchProducts("product", 0, 20);
+
+        // Assert
+        assertEquals(1, result.totalHits());
+        assertEquals(7L, result.items().get(0).id());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void searchProducts_WithBlankQuery_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.searchProducts("  ", 0, 20));
+    }
+
+    @Test
+    void searchProducts_WithPageBeyondTheCap_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.searchProducts("product", ProductServiceImpl.MAX_SEARCH_PAGE + 1, 20));
+    }
+
+    @Test
+    void suggestProducts_ShouldQueryIndexAndCapTheLimit() {
+        // Arrange
+        for (long id = 1; id <= 30; id++) {
+            suggestIndex.put(id, "Test Product " + id);
+        }
+
+        // Act
+        List<ProductSuggestionDto> result = productService.suggestProducts("test pro", 100);
+
+        // Assert
+        assertEquals(ProductServiceImpl.MAX_SUGGESTIONS, result.size());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void suggestProducts_WithBlankPrefix_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.suggestProducts(" ", 10));
+    }
+
+    @Test
+    void getProductFacets_ShouldQueryIndex() {
+        // Arrange
+        facetIndex.put(7L, "Test Product", new BigDecimal("19.99"), true);
+
+        // Act
+        ProductFacetsDto result = productService.getProductFacets(ProductFilter.none());
+
+        // Assert
+        assertEquals(1, result.total());
+        assertEquals(1, result.priceBuckets().get(1).count());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getProductFacets_WithInvertedPriceRange_ShouldThrowException() {
+        // Act & Assert
+        ProductFilter filter = new ProductFilter(new BigDecimal("20"), new BigDecimal("10"), null, null, null);
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductFacets(filter));
+    }
+
+    @Test
+    void getLowStockProducts_ShouldQueryIndex() {
+        // Arrange
+        lowStockIndex.put(7L, "Test Product", new BigDecimal("19.99"), 2);
+        lowStockIndex.put(8L, "Other Product", new BigDecimal("5.00"), 30);
+
+        // Act
+        List<ProductSummaryDto> result = productService.getLowStockProducts(10, 5);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(7L, result.get(0).id());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getLowStockProducts_WithInvalidLimitOrThreshold_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.getLowStockProducts(0, null));
+        assertThrows(IllegalArgumentException.class, () -> productService.getLowStockProducts(10, 0));
     }
 
     @Test
@@ -96,6 +321,203 @@ class ProductServiceImplUnitTest {
         verify(repository, times(1)).findById(productId);
     }
 
+    @Test
+    void getProductById_WhenCached_ShouldNotHitRepositoryAgain() {
+        // Arrange
+        Long productId = 1L;
+        Product product = createTestProduct();
+        when(repository.findById(productId)).thenReturn(Optional.of(product));
+
+        // Act
+        productService.getProductById(productId);
+        ProductDetailsDto result = productService.getProductById(productId);
+
+        // Assert
+        assertEquals(product.getName(), result.name());
+        verify(repository, times(1)).findById(productId);
+    }
+
+    @Test
+    void getProductById_AfterProductChanged_ShouldReloadFromRepository() {
+        // Arrange
+        Long productId = 1L;
+        Product product = createTestProduct();
+        when(repository.findById(productId)).thenReturn(Optional.of(product));
+
+        // Act
+        productService.getProductById(productId);
+        productCache.onProductChanged(new ProductChangedEvent(productId, ChangeType.UPDATED));
+        productService.getProductById(productId);
+
+        // Assert
+        verify(repository, times(2)).findById(productId);
+    }
+
+    @Test
+    void getProductById_WhenKnownAbsent_ShouldNotHitRepository() {
+        // Arrange
+        Long productId = 999L;
+        when(productExistence.isKnownAbsent(productId)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(productId));
+        verify(repository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getProductById_WithUnknownId_ShouldRecordTheMiss() {
+        // Arrange
+        Long productId = 999L;
+        when(productExistence.beginLookup()).thenReturn(7L);
+        when(repository.findById(productId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProductById(productId));
+        verify(productExistence, times(1)).recordAbsent(productId, 7L);
+    }
+
+    @Test
+    void createProduct_ShouldAddTheIdToTheExistenceFilterBeforeCommit() {
+        // Arrange
+        when(repository.save(any(Product.class))).thenAnswer(invocation -> {
+            Product saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", 42L);
+            return saved;
+        });
+
+        // Act
+        productService.createProduct(createTestProductRequest());
+
+        // Assert
+        verify(productExistence, times(1)).added(42L);
+    }
+
+    @Test
+    void getProductsByIds_ShouldServeCachedProductsAndReportMissingIds() {
+        // Arrange
+        Product cached = createTestProduct();
+        ReflectionTestUtils.setField(cached, "id", 1L);
+        Product uncached = createTestProduct();
+        ReflectionTestUtils.setField(uncached, "id", 2L);
+        uncached.setName("Uncached Product");
+
+        when(repository.findById(1L)).thenReturn(Optional.of(cached));
+        when(repository.findAllById(List.of(2L, 3L))).thenReturn(List.of(uncached));
+        productService.getProductById(1L);
+
+        // Act
+        ProductBatchDto result = productService.getProductsByIds(List.of(2L, 1L, 3L, 2L));
+
+        // Assert
+        assertEquals(List.of(2L, 1L), result.items().stream().map(ProductDetailsDto::id).toList());
+        assertEquals(List.of(3L), result.missingIds());
+        verify(repository, times(1)).findAllById(List.of(2L, 3L));
+    }
+
+    @Test
+    void getProductsByIds_WithTooManyIds_ShouldThrowException() {
+        // Arrange
+        List<Long> ids = LongStream.rangeClosed(1, ProductServiceImpl.MAX_BATCH_SIZE + 1)
+                .boxed()
+                .toList();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsByIds(ids));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void exportProducts_ShouldStreamAllProductsAndDetachEach() {
+        // Arrange
+        Product first = createTestProduct();
+        ReflectionTestUtils.setField(first, "id", 1L);
+        Product second = createTestProduct();
+        ReflectionTestUtils.setField(second, "id", 2L);
+        when(repository.streamAllForExport()).thenReturn(Stream.of(first, second));
+        List<ProductDetailsDto> exported = new ArrayList<>();
+
+        // Act
+        long count = productService.exportProducts(null, exported::add);
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(List.of(1L, 2L), exported.stream().map(ProductDetailsDto::id).toList());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(stockLedger).offRowStock(List.of(first, second));
+        verify(repository, never()).streamUpdatedSinceForExport(any());
+    }
+
+    @Test
+    void exportProducts_ShouldReadOffRowStockOncePerChunk() {
+        // Arrange
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 1_200; id++) {
+            Product product = createTestProduct();
+            ReflectionTestUtils.setField(product, "id", id);
+            product.setUpdatedAt(LocalDateTime.now());
+            products.add(product);
+        }
+        when(repository.streamAllForExport()).thenReturn(products.stream());
+        when(stockLedger.offRowStock(any())).thenReturn(Map.of(1L, new OffRowStock(1L, 5, LocalDateTime.now(), 1)));
+        List<ProductDetailsDto> exported = new ArrayList<>();
+
+        // Act
+        long count = productService.exportProducts(null, exported::add);
+
+        // Assert
+        assertEquals(1_200, count);
+        assertEquals(products.get(0).getStock() + 5, exported.get(0).stock());
+        verify(stockLedger).offRowStock(products.subList(0, 500));
+        verify(stockLedger).offRowStock(products.subList(500, 1_000));
+        verify(stockLedger).offRowStock(products.subList(1_000, 1_200));
+        verify(stockLedger, times(3)).offRowStock(any());
+    }
+
+    @Test
+    void exportProducts_WithUpdatedSince_ShouldUseFilteredStream() {
+        // Arrange
+        LocalDateTime since = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(repository.streamUpdatedSinceForExport(since)).thenReturn(Stream.empty());
+
+        // Act
+        long count = productService.exportProducts(since, product -> fail("No products expected"));
+
+        // Assert
+        assertEquals(0, count);
+        verify(repository, never()).streamAllForExport();
+    }
+
+    @Test
+    void getProductVersion_WhenCached_ShouldNotQueryRepository() {
+        // Arrange
+        Product product = createTestProduct();
+        ReflectionTestUtils.setField(product, "id", 1L);
+        ReflectionTestUtils.setField(product, "version", 3L);
+        when(repository.findById(1L)).thenReturn(Optional.of(product));
+        productService.getProductById(1L);
+
+        // Act
+        Optional<String> version = productService.getProductVersion(1L);
+
+        // Assert
+        assertEquals(Optional.of("3.0.0"), version);
+        verify(repository, never()).findRevisionById(anyLong());
+    }
+
+    @Test
+    void getProductVersion_WhenNotCached_ShouldQueryOnlyTheRevision() {
+        // Arrange
+        when(repository.findRevisionById(1L)).thenReturn(Optional.of("3.0.7"));
+
+        // Act
+        Optional<String> version = productService.getProductVersion(1L);
+
+        // Assert
+        assertEquals(Optional.of("3.0.7"), version);
+        verify(repository, never()).findById(anyLong());
+    }
+
     @Test
     void getProductById_WithInvalidId_ShouldThrowException() {
         // Arrange
@@ -113,6 +535,7 @@ class ProductServiceImplUnitTest {
         // Arrange
         ProductRequestDto request = createTestProductRequest();
         Product savedProduct = createTestProduct();
+        ReflectionTestUtils.setField(savedProduct, "id", 1L);
 
         when(repository.save(any(Product.class))).thenReturn(savedProduct);
 
@@ -124,6 +547,40 @@ class ProductServiceImplUnitTest {
         assertEquals(savedProduct.getId(), result.id());
         assertEquals(request.name(), result.name());
         verify(repository, times(1)).save(any(Product.class));
+        verify(changeOutbox, times(1)).append(new ProductChangedEvent(1L, ChangeType.CREATED, result));
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(1L, ChangeType.CREATED, result));
+    }
+
+    @Test
+    void createProduct_WithCategory_ShouldAssignIt() {
+        // Arrange
+        Category category = new Category();
+        ReflectionTestUtils.setField(category, "id", 5L);
+        ProductRequestDto request = new ProductRequestDto("Test Product", "Test Description", new BigDecimal("19.99"), 10, 5L);
+
+        when(categoryRepository.findById(5L)).thenReturn(Optional.of(category));
+        when(repository.save(any(Product.class))).thenAnswer(invocation -> {
+            Product saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", 1L);
+            return saved;
+        });
+
+        // Act
+        ProductDetailsDto result = productService.createProduct(request);
+
+        // Assert
+        assertEquals(5L, result.categoryId());
+    }
+
+    @Test
+    void createProduct_WithUnknownCategory_ShouldThrowException() {
+        // Arrange
+        ProductRequestDto request = new ProductRequestDto("Test Product", "Test Description", new BigDecimal("19.99"), 10, 999L);
+        when(categoryRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> productService.createProduct(request));
+        verify(repository, never()).save(any(Product.class));
     }
 
     @Test
@@ -139,13 +596,15 @@ class ProductServiceImplUnitTest {
 
         Product existingProduct = createTestProduct();
         Product updatedProduct = createTestProduct();
+        ReflectionTestUtils.setField(updatedProduct, "id", productId);
         updatedProduct.setName("Updated Product");
         updatedProduct.setDescription("Updated Description");
         updatedProduct.setPrice(new BigDecimal("29.99"));
         updatedProduct.setStock(20);
 
         when(repository.findById(productId)).thenReturn(Optional.of(existingProduct));
-        when(repository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(stockLedger.adjustTo(productId, 20, null)).thenReturn(true);
+        when(repository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
 
         // Act
         ProductDetailsDto result = productService.updateProduct(productId, request);
@@ -154,8 +613,29 @@ class ProductServiceImplUnitTest {
         assertNotNull(result);
         assertEquals(request.name(), result.name());
         assertEquals(request.description(), result.description());
+        assertEquals(10, existingProduct.getStock());
         verify(repository, times(1)).findById(productId);
-        verify(repository, times(1)).save(existingProduct);
+        verify(stockLedger, times(1)).adjustTo(productId, 20, null);
+        verify(repository, times(1)).saveAndFlush(existingProduct);
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(productId, ChangeType.UPDATED, result));
+    }
+
+    @Test
+    void updateProduct_WhenChangedConcurrently_ShouldThrowConflict() {
+        // Arrange
+        Long productId = 1L;
+        ProductRequestDto request = createTestProductRequest();
+
+        when(repository.findById(productId)).thenReturn(Optional.of(createTestProduct()));
+        when(stockLedger.adjustTo(productId, 10, null)).thenReturn(true);
+        when(repository.saveAndFlush(any(Product.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, productId));
+
+        // Act & Assert
+        assertThrows(ConflictException.class,
+                () -> productService.updateProduct(productId, request));
+        verify(contention, times(1)).contended(productId, "update");
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -172,6 +652,67 @@ class ProductServiceImplUnitTest {
         verify(repository, never()).save(any(Product.class));
     }
 
+    @Test
+    void patchProduct_WithDescriptionOnly_ShouldLeaveOtherFieldsAndStockAlone() {
+        // Arrange
+        Long productId = 1L;
+        Product existingProduct = createTestProduct();
+        ReflectionTestUtils.setField(existingProduct, "id", productId);
+        ProductPatchRequest patch = new ProductPatchRequest(null, Optional.of("Patched Description"), null, null, null);
+
+        when(repository.findById(productId)).thenReturn(Optional.of(existingProduct));
+        when(repository.saveAndFlush(existingProduct)).thenReturn(existingProduct);
+
+        // Act
+        ProductDetailsDto result = productService.patchProduct(productId, patch);
+
+        // Assert
+        assertEquals("Test Product", result.name());
+        assertEquals("Patched Description", result.description());
+        assertEquals(new BigDecimal("19.99"), result.price());
+        verify(stockLedger, never()).adjustTo(anyLong(), anyInt(), any());
+        verify(categoryRepository, never()).findById(any());
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(productId, ChangeType.UPDATED, result));
+    }
+
+    @Test
+    void patchProduct_WithStockAndNullCategory_ShouldAdjustStockAndUncategorise() {
+        // Arrange
+        Long productId = 1L;
+        Product existingProduct = createTestProduct();
+        ReflectionTestUtils.setField(existingProduct, "id", productId);
+        existingProduct.setCategory(new Category());
+        ProductPatchRequest patch = new ProductPatchRequest(null, null, null, Optional.of(25), Optional.empty());
+
+        when(repository.findById(productId)).thenReturn(Optional.of(existingProduct));
+        when(stockLedger.adjustTo(productId, 25, null)).thenReturn(true);
+        when(repository.saveAndFlush(existingProduct)).thenReturn(existingProduct);
+
+        // Act
+        productService.patchProduct(productId, patch);
+
+        // Assert
+        assertNull(existingProduct.getCategory());
+        assertEquals(10, existingProduct.getStock());
+        verify(stockLedger, times(1)).adjustTo(productId, 25, null);
+    }
+
+    @Test
+    void patchProduct_WithEmptyPatch_ShouldNotWriteAnything() {
+        // Arrange
+        Long productId = 1L;
+        when(repository.findById(productId)).thenReturn(Optional.of(createTestProduct()));
+
+        // Act
+        ProductDetailsDto result = productService.patchProduct(productId,
+                new ProductPatchRequest(null, null, null, null, null));
+
+        // Assert
+        assertEquals("Test Product", result.name());
+        verify(repository, never()).saveAndFlush(any(Product.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void deleteProduct_WithValidId_ShouldDeleteProduct() {
         // Arrange
@@ -206,19 +747,17 @@ class ProductServiceImplUnitTest {
         // Arrange
         Long productId = 1L;
         Integer quantity = 5;
-        Product product = createTestProduct();
-        product.setStock(10);
 
-        when(repository.findById(productId)).thenReturn(Optional.of(product));
-        when(repository.save(any(Product.class))).thenReturn(product);
+        when(stockLedger.take(productId, quantity, Reason.SALE, "order-42")).thenReturn(Outcome.APPLIED);
 
         // Act
-        productService.reduceStock(productId, quantity);
+        productService.reduceStock(productId, quantity, "order-42");
 
         // Assert
-        assertEquals(5, product.getStock());
-        verify(repository, times(1)).findById(productId);
-        verify(repository, times(1)).save(product);
+        verify(stockLedger, times(1)).take(productId, quantity, Reason.SALE, "order-42");
+        verify(repository, never()).findStockStripesById(anyLong());
+        verify(repository, never()).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(productId, ChangeType.STOCK_CHANGED));
     }
 
     @Test
@@ -226,16 +765,28 @@ class ProductServiceImplUnitTest {
         // Arrange
         Long productId = 1L;
         Integer quantity = 15;
-        Product product = createTestProduct();
-        product.setStock(10);
 
-        when(repository.findById(productId)).thenReturn(Optional.of(product));
+        when(stockLedger.take(productId, quantity, Reason.SALE, null)).thenReturn(Outcome.INSUFFICIENT);
 
         // Act & Assert
         assertThrows(ConflictException.class,
-                () -> productService.reduceStock(productId, quantity));
-        verify(repository, times(1)).findById(productId);
-        verify(repository, never()).save(any(Product.class));
+                () -> productService.reduceStock(productId, quantity, null));
+        verify(repository, never()).findStockStripesById(anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void reduceStock_WithInvalidId_ShouldThrowNotFound() {
+        // Arrange
+        Long productId = 999L;
+        Integer quantity = 1;
+
+        when(stockLedger.take(productId, quantity, Reason.SALE, null)).thenReturn(Outcome.NOT_LEDGERED);
+        when(repository.findStockStripesById(productId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> productService.reduceStock(productId, quantity, null));
     }
 
     @Test
@@ -243,18 +794,241 @@ class ProductServiceImplUnitTest {
         // Arrange
         Long productId = 1L;
         Integer quantity = 5;
+
+        when(stockLedger.give(productId, quantity, Reason.RESTOCK, "po-7")).thenReturn(true);
+
+        // Act
+        productService.increaseStock(productId, quantity, "po-7");
+
+        // Assert
+        verify(stockLedger, times(1)).give(productId, quantity, Reason.RESTOCK, "po-7");
+        verify(repository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void increaseStock_WithInvalidId_ShouldThrowNotFound() {
+        // Arrange
+        Long productId = 999L;
+        Integer quantity = 5;
+
+        when(repository.findStockStripesById(productId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> productService.increaseStock(productId, quantity, null));
+    }
+
+    @Test
+    void reserveStock_WithSufficientStock_ShouldReserveAllLinesInIdOrder() {
+        // Arrange
+        Product product1 = createTestProduct();
+        ReflectionTestUtils.setField(product1, "id", 1L);
+        product1.setUpdatedAt(LocalDateTime.now());
+        Product product2 = createTestProduct();
+        ReflectionTestUtils.setField(product2, "id", 2L);
+        product2.setUpdatedAt(LocalDateTime.now());
+
+        when(repository.findAllUnstripedById(any())).thenReturn(List.of(product1, product2));
+        when(stockLedger.lockAvailable(new TreeSet<>(List.of(1L, 2L)), Reason.HOLD)).thenReturn(Map.of(1L, 10, 2L, 10));
+        when(stockLedger.offRowStock(any())).thenReturn(Map.of(
+                1L, new OffRowStock(1L, -4, LocalDateTime.now(), 1),
+                2L, new OffRowStock(2L, -4, LocalDateTime.now(), 1)));
+
+        // Act
+        List<StockLineResultDto> result = productService.reserveStock(List.of(
+                new StockLineRequest(2L, 3),
+                new StockLineRequest(1L, 4),
+                new StockLineRequest(2L, 1)
+        ), "hold-1");
+
+        // Assert
+        assertEquals(List.of(
+                new StockLineResultDto(1L, 4, 6),
+                new StockLineResultDto(2L, 4, 6)
+        ), result);
+        InOrder inOrder = inOrder(stockLedger);
+        inOrder.verify(stockLedger).append(1L, -4, Reason.HOLD, "hold-1");
+        inOrder.verify(stockLedger).append(2L, -4, Reason.HOLD, "hold-1");
+    }
+
+    @Test
+    void reserveStock_WithOneInsufficientLine_ShouldRejectWholeBatch() {
+        // Arrange
+        Product product1 = createTestProduct();
+        ReflectionTestUtils.setField(product1, "id", 1L);
+        Product product2 = createTestProduct();
+        ReflectionTestUtils.setField(product2, "id", 2L);
+
+        when(repository.findAllUnstripedById(any())).thenReturn(List.of(product1, product2));
+        when(stockLedger.lockAvailable(any(), eq(Reason.HOLD))).thenReturn(Map.of(1L, 10, 2L, 10));
+
+        // Act
+        StockBatchException exception = assertThrows(StockBatchException.class,
+                () -> productService.reserveStock(List.of(
+                        new StockLineRequest(1L, 5),
+                        new StockLineRequest(2L, 11),
+                        new StockLineRequest(3L, 1)
+                ), null));
+
+        // Assert
+        assertEquals(List.of("2", "3"), List.copyOf(exception.getFailures().keySet()));
+        verify(stockLedger, never()).append(anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void reserveStock_WhenProductWasStripedConcurrently_ShouldRejectWholeBatch() {
+        // Arrange
+        Product product = createTestProduct();
+        ReflectionTestUtils.setField(product, "id", 1L);
+
+        when(repository.findAllUnstripedById(any())).thenReturn(List.of(product));
+        // Striping was switched on between loading the product and locking it
+        when(stockLedger.lockAvailable(any(), eq(Reason.HOLD))).thenReturn(Map.of());
+
+        // Act
+        StockBatchException exception = assertThrows(StockBatchException.class,
+                () -> productService.reserveStock(List.of(new StockLineRequest(1L, 4)), null));
+
+        // Assert
+        assertEquals(List.of("1"), List.copyOf(exception.getFailures().keySet()));
+        verify(stockLedger, never()).append(anyLong(), anyInt(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void releaseStock_WithMissingProduct_ShouldRejectWholeBatch() {
+        // Arrange
+        Product product1 = createTestProduct();
+        ReflectionTestUtils.setField(product1, "id", 1L);
+
+        when(repository.findAllUnstripedById(any())).thenReturn(List.of(product1));
+
+        // Act & Assert
+        assertThrows(StockBatchException.class,
+                () -> productService.releaseStock(List.of(
+                        new StockLineRequest(1L, 5),
+                        new StockLineRequest(999L, 1)
+                ), null));
+        verify(stockLedger, never()).give(anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void releaseStock_WithExistingProducts_ShouldIncreaseStock() {
+        // Arrange
+        Product product1 = createTestProduct();
+        ReflectionTestUtils.setField(product1, "id", 1L);
+        product1.setUpdatedAt(LocalDateTime.now());
+
+        when(repository.findAllUnstripedById(any())).thenReturn(List.of(product1));
+        when(stockLedger.give(1L, 5, Reason.HOLD_RELEASE, "hold-1")).thenReturn(true);
+        when(stockLedger.offRowStock(any())).thenReturn(Map.of(1L, new OffRowStock(1L, 5, LocalDateTime.now(), 1)));
+
+        // Act
+        List<StockLineResultDto> result = productService.releaseStock(List.of(new StockLineRequest(1L, 5)), "hold-1");
+
+        // Assert
+        assertEquals(List.of(new StockLineResultDto(1L, 5, 15)), result);
+    }
+
+    @Test
+    void reduceStock_WithStripedProduct_ShouldTakeFromStripes() {
+        // Arrange
+        Long productId = 1L;
+        Integer quantity = 2;
+
+        when(stockLedger.take(productId, quantity, Reason.SALE, null)).thenReturn(Outcome.NOT_LEDGERED);
+        when(repository.findStockStripesById(productId)).thenReturn(Optional.of(8));
+        when(stripedInventory.tryDecrement(productId, quantity)).thenReturn(true);
+
+        // Act
+        productService.reduceStock(productId, quantity, null);
+
+        // Assert
+        verify(stripedInventory, times(1)).tryDecrement(productId, quantity);
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(productId, ChangeType.STOCK_CHANGED));
+    }
+
+    @Test
+    void reduceStock_WithExhaustedStripes_ShouldThrowException() {
+        // Arrange
+        Long productId = 1L;
+        Integer quantity = 2;
+
+        when(stockLedger.take(productId, quantity, Reason.SALE, null)).thenReturn(Outcome.NOT_LEDGERED);
+        when(repository.findStockStripesById(productId)).thenReturn(Optional.of(8));
+        when(stripedInventory.tryDecrement(productId, quantity)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ConflictException.class,
+                () -> productService.reduceStock(productId, quantity, null));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void increaseStock_WithStripedProduct_ShouldAddToStripe() {
+        // Arrange
+        Long productId = 1L;
+        Integer quantity = 5;
+
+        when(repository.findStockStripesById(productId)).thenReturn(Optional.of(4));
+        when(stripedInventory.increment(productId, 4, quantity)).thenReturn(true);
+
+        // Act
+        productService.increaseStock(productId, quantity, null);
+
+        // Assert
+        verify(stripedInventory, times(1)).increment(productId, 4, quantity);
+    }
+
+    @Test
+    void reserveStock_WithStripedProduct_ShouldNotLockItsRow() {
+        // Arrange
+        Product striped = createTestProduct();
+        ReflectionTestUtils.setField(striped, "id", 1L);
+        striped.setStock(0);
+        striped.setStockStripes(4);
+
+        when(repository.findAllUnstripedById(any())).thenReturn(List.of());
+        when(repository.findAllStripedById(List.of(1L))).thenReturn(List.of(striped));
+        when(stripedInventory.tryDecrement(1L, 3)).thenReturn(true);
+        when(stockLedger.offRowStock(any())).thenReturn(Map.of(1L, new OffRowStock(1L, 37, LocalDateTime.now(), 1)));
+
+        // Act
+        List<StockLineResultDto> result = productService.reserveStock(List.of(new StockLineRequest(1L, 3)), null);
+
+        // Assert
+        assertEquals(List.of(new StockLineResultDto(1L, 3, 37)), result);
+        assertEquals(0, striped.getStock());
+        verify(stockLedger, never()).append(anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void enableStockStripes_WithOutOfRangeCount_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.enableStockStripes(1L, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.enableStockStripes(1L, StripedInventory.MAX_STRIPES + 1));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void enableStockStripes_WithValidCount_ShouldMoveStockIntoStripes() {
+        // Arrange
         Product product = createTestProduct();
-        product.setStock(10);
+        ReflectionTestUtils.setField(product, "id", 1L);
+        product.setUpdatedAt(LocalDateTime.now());
 
-        when(repository.findById(productId)).thenReturn(Optional.of(product));
-        when(repository.save(any(Product.class))).thenReturn(product);
+        when(repository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(product));
+        when(stripedInventory.lockStock(1L)).thenReturn(0L);
+        when(repository.saveAndFlush(product)).thenReturn(product);
 
         // Act
-        productService.increaseStock(productId, quantity);
+        productService.enableStockStripes(1L, 4);
 
         // Assert
-        assertEquals(15, product.getStock());
-        verify(repository, times(1)).findById(productId);
-        verify(repository, times(1)).save(product);
+        verify(stockLedger, times(1)).foldNow(1L);
+        verify(stripedInventory, times(1)).spread(1L, 4, 10);
+        assertEquals(0, product.getStock());
+        assertEquals(4, product.getStockStripes());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.dto.ProductSuggestionDto;
+import com.example.product_service.search.ProductSuggestIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSuggestIndexUnitTest {
+
+    private ProductSuggestIndex index;
+
+    private List<Long> ids(List<ProductSuggestionDto> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDto::id).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSuggestIndex();
+        index.put(1L, "Gaming Laptop");
+        index.put(2L, "Gaming Mouse");
+        index.put(3L, "Garden Hose");
+        index.put(4L, "Office Chair");
+    }
+
+    @Test
+    void suggest_ShouldMatchNormalizedPrefixAlphabeticallyWhenEquallyPopular() {
+        // Act
+        List<ProductSuggestionDto> result = index.suggest("  GÁMING", 10);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), ids(result));
+        assertEquals("Gaming Laptop", result.get(0).name());
+    }
+
+    @Test
+    void suggest_ShouldRankByPopularity() {
+        // Arrange
+        index.addWeight(3L, 5);
+        index.addWeight(2L, 2);
+
+        // Act
+        List<ProductSuggestionDto> result = index.suggest("ga", 2);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), ids(result));
+    }
+
+    @Test
+    void suggest_WithTrailingSpace_ShouldOnlyMatchWholeWords() {
+        // Arrange
+        index.put(5L, "Gamingchair");
+
+        // Act & Assert
+        assertEquals(List.of(1L, 2L, 5L), ids(index.suggest("gaming", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.suggest("gaming-", 10)));
+    }
+
+    @Test
+    void put_WhenRenamed_ShouldMoveTheSuggestionAndKeepPopularity() {
+        // Arrange
+        index.addWeight(1L, 3);
+
+        // Act
+        index.put(1L, "Office Laptop");
+
+        // Assert
+        assertEquals(List.of(2L), ids(index.suggest("gaming", 10)));
+        assertEquals(List.of(1L, 4L), ids(index.suggest("office", 10)));
+    }
+
+    @Test
+    void remove_ShouldDropTheSuggestion() {
+        // Act
+        index.remove(2L);
+
+        // Assert
+        assertEquals(List.of(1L), ids(index.suggest("gaming", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void suggest_AfterOverlayIsFolded_ShouldKeepEveryChange() {
+        // Arrange
+        int products = 20_000;
+        for (long id = 10; id < 10 + products; id++) {
+            index.put(id, String.format("Item %05d", id));
+        }
+        index.addWeight(12_345L, 7);
+        index.addWeight(1L, 1);
+        index.remove(2L);
+        index.put(3L, "Item Garden Hose");
+
+        // Act
+        List<ProductSuggestionDto> items = index.suggest("item", 3);
+        List<ProductSuggestionDto> gaming = index.suggest("gaming", 10);
+
+        // Assert
+        assertEquals(List.of(12_345L, 10L, 11L), ids(items));
+        assertEquals(List.of(1L), ids(gaming));
+        assertEquals(products + 3, index.size());
+        assertTrue(index.stats().overlayEntries() < products);
+        assertTrue(index.stats().memoryBytes() > 0);
+    }
+
+    @Test
+    void suggest_WithBlankPrefix_ShouldReturnNothing() {
+        assertTrue(index.suggest(" - ", 10).isEmpty());
+    }
+}
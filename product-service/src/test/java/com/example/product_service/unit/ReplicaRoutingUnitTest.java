@@ -0,0 +1,196 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.cache.CatalogVersion;
+import com.example.product_service.datasource.ReadRouting;
+import com.example.product_service.datasource.ReplicaMonitor;
+import com.example.product_service.datasource.ReplicaPool;
+import com.example.product_service.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingUnitTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private HikariDataSource replicaPool1;
+
+    @Mock
+    private HikariDataSource replicaPool2;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private JdbcTemplate primaryJdbc;
+
+    @Mock
+    private JdbcTemplate replicaJdbc;
+
+    private ReplicaPool replica1;
+    private ReplicaPool replica2;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        replica1 = spy(new ReplicaPool("replica-1", replicaPool1, meterRegistry));
+        replica2 = new ReplicaPool("replica-2", replicaPool2, meterRegistry);
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), meterRegistry);
+    }
+
+    @Test
+    void getConnection_ShouldAlternateBetweenHealthyReplicas() throws SQLException {
+        // Arrange
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        when(replicaPool1.getConnection()).thenReturn(first);
+        when(replicaPool2.getConnection()).thenReturn(second);
+        replica1.setHealthy(true);
+        replica2.setHealthy(true);
+
+        // Act
+        List<Connection> connections = List.of(routing.getConnection(), routing.getConnection());
+
+        // Assert
+        assertEquals(List.of(first, second), connections);
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_WithoutHealthyReplica_ShouldUsePrimary() throws SQLException {
+        // Arrange
+        Connection connection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(connection);
+
+        // Act
+        Connection result = routing.getConnection();
+
+        // Assert
+        assertSame(connection, result);
+        verifyNoInteractions(replicaPool1, replicaPool2);
+    }
+
+    @Test
+    void getConnection_WhenReplicaUnreachable_ShouldMarkItUnhealthyAndUsePrimary() throws SQLException {
+        // Arrange
+        Connection connection = mock(Connection.class);
+        when(replicaPool1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(connection);
+        replica1.setHealthy(true);
+
+        // Act
+        Connection result = routing.getConnection();
+
+        // Assert
+        assertSame(connection, result);
+        assertFalse(replica1.isHealthy());
+    }
+
+    @Test
+    void getConnection_InsideOnPrimary_ShouldSkipReplicas() throws SQLException {
+        // Arrange
+        Connection connection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(connection);
+        replica1.setHealthy(true);
+
+        // Act
+        Connection result = ReadRouting.onPrimary(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        assertSame(connection, result);
+        verifyNoInteractions(replicaPool1);
+    }
+
+    @Test
+    void check_ShouldTagReadsWithTheVersionTheReplicaHasReplayed() {
+        // Arrange
+        ReplicaMonitor monitor = new ReplicaMonitor(catalogVersion, primaryJdbc, List.of(replica1), Duration.ofMinutes(1));
+        doReturn(replicaJdbc).when(replica1).jdbcTemplate();
+        when(catalogVersion.current()).thenReturn(4L, 7L);
+        when(primaryJdbc.queryForObject(anyString(), eq(Long.class))).thenReturn(100L, 200L);
+        replicaAt(true, 150L);
+
+        // Act
+        monitor.check();
+        monitor.check();
+
+        // Assert
+        assertTrue(replica1.isHealthy());
+        assertEquals(4, replica1.caughtUpVersion());
+        assertEquals(4, monitor.visibleVersion());
+    }
+
+    @Test
+    void check_WhenReplicaIsBehindTheAllowedLag_ShouldStopRoutingToItAndTagWithPrimaryVersion() {
+        // Arrange
+        ReplicaMonitor monitor = new ReplicaMonitor(catalogVersion, primaryJdbc, List.of(replica1), Duration.ofMinutes(1));
+        doReturn(replicaJdbc).when(replica1).jdbcTemplate();
+        replica1.setHealthy(true);
+        when(catalogVersion.current()).thenReturn(9L);
+        when(primaryJdbc.queryForObject(anyString(), eq(Long.class))).thenReturn(500L);
+        replicaAt(true, 100L);
+
+        // Act
+        monitor.check();
+
+        // Assert
+        assertFalse(replica1.isHealthy());
+        assertEquals(9, monitor.visibleVersion());
+    }
+
+    @Test
+    void check_WhenServerIsNotInRecovery_ShouldTreatItAsCaughtUp() {
+        // Arrange
+        ReplicaMonitor monitor = new ReplicaMonitor(catalogVersion, primaryJdbc, List.of(replica1), Duration.ofMinutes(1));
+        doReturn(replicaJdbc).when(replica1).jdbcTemplate();
+        when(catalogVersion.current()).thenReturn(3L);
+        when(primaryJdbc.queryForObject(anyString(), eq(Long.class))).thenReturn(500L);
+        replicaAt(false, null);
+
+        // Act
+        monitor.check();
+
+        // Assert
+        assertTrue(replica1.isHealthy());
+        assertEquals(3, monitor.visibleVersion());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void replicaAt(boolean inRecovery, Long replayPosition) {
+        when(replicaJdbc.queryForObject(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getBoolean(1)).thenReturn(inRecovery);
+            when(resultSet.getObject(2)).thenReturn(replayPosition);
+            return invocation.<RowMapper<?>>getArgument(1).mapRow(resultSet, 0);
+        });
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.dto.StockHoldDto;
+import com.example.product_service.dto.StockLineRequest;
+import com.example.product_service.dto.StockLineResultDto;
+import com.example.product_service.entity.Product;
+import com.example.product_service.entity.StockReservation;
+import com.example.product_service.exception.ConflictException;
+import com.example.product_service.exception.ResourceNotFoundException;
+import com.example.product_service.inventory.HoldExpiryIndex;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.repository.StockReservationRepository;
+import com.example.product_service.service.IProductService;
+import com.example.product_service.service.impl.StockReservationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceImplUnitTest {
+
+    private static final UUID HOLD_ID = UUID.fromString("0f8fad5b-d9cb-469f-a165-70867728950e");
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private IProductService productService;
+
+    @Mock
+    private HoldExpiryIndex expiryIndex;
+
+    private StockReservationServiceImpl reservationService;
+
+    private Product product1;
+    private Product product2;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new StockReservationServiceImpl(
+                reservationRepository, productRepository, productService, expiryIndex, Duration.ofMinutes(15));
+        product1 = new Product();
+        ReflectionTestUtils.setField(product1, "id", 1L);
+        product2 = new Product();
+        ReflectionTestUtils.setField(product2, "id", 2L);
+    }
+
+    private StockReservation line(Product product, int quantity, int holdLines, LocalDateTime expiresAt) {
+        return new StockReservation(HOLD_ID, product, quantity, holdLines, expiresAt);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void placeHold_ShouldReserveStockAndRecordOneLinePerProduct() {
+        // Arrange
+        List<StockLineRequest> lines = List.of(new StockLineRequest(2L, 1), new StockLineRequest(1L, 3));
+        when(productService.reserveStock(eq(lines), anyString())).thenReturn(List.of(
+                new StockLineResultDto(1L, 3, 7),
+                new StockLineResultDto(2L, 1, 4)
+        ));
+        when(productRepository.getReferenceById(1L)).thenReturn(product1);
+        when(productRepository.getReferenceById(2L)).thenReturn(product2);
+
+        // Act
+        StockHoldDto hold = reservationService.placeHold(lines);
+
+        // Assert
+        ArgumentCaptor<List<StockReservation>> saved = ArgumentCaptor.forClass(List.class);
+        verify(reservationRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertTrue(saved.getValue().stream().allMatch(line ->
+                line.getHoldId().equals(hold.holdId())
+                        && line.getHoldLines() == 2
+                        && line.getExpiresAt().equals(hold.expiresAt())));
+        assertEquals(3, saved.getValue().get(0).getQuantity());
+        assertTrue(hold.expiresAt().isAfter(LocalDateTime.now().plusMinutes(14)));
+        assertEquals(2, hold.items().size());
+        verify(expiryIndex).add(hold.expiresAt());
+        verify(productService).reserveStock(lines, hold.holdId().toString());
+    }
+
+    @Test
+    void commitHold_WhenHoldIsActive_ShouldDeleteItsLinesWithoutTouchingStock() {
+        // Arrange
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        when(reservationRepository.findAllByHoldIdForUpdate(HOLD_ID)).thenReturn(List.of(
+                line(product1, 3, 2, expiresAt),
+                line(product2, 1, 2, expiresAt)
+        ));
+
+        // Act
+        reservationService.commitHold(HOLD_ID);
+
+        // Assert
+        verify(reservationRepository).deleteAllByIdInBatch(anyList());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void commitHold_WhenHoldHasExpired_ShouldThrowConflictException() {
+        // Arrange
+        when(reservationRepository.findAllByHoldIdForUpdate(HOLD_ID)).thenReturn(List.of(
+                line(product1, 3, 1, LocalDateTime.now().minusSeconds(1))
+        ));
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> reservationService.commitHold(HOLD_ID));
+        verify(reservationRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void commitHold_WhenSomeLinesAreGone_ShouldThrowConflictException() {
+        // Arrange
+        when(reservationRepository.findAllByHoldIdForUpdate(HOLD_ID)).thenReturn(List.of(
+                line(product1, 3, 2, LocalDateTime.now().plusMinutes(5))
+        ));
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> reservationService.commitHold(HOLD_ID));
+        verify(reservationRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void commitHold_WhenHoldDoesNotExist_ShouldThrowResourceNotFoundException() {
+        // Arrange
+        when(reservationRepository.findAllByHoldIdForUpdate(HOLD_ID)).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> reservationService.commitHold(HOLD_ID));
+    }
+
+    @Test
+    void releaseHold_ShouldDeleteLinesAndReturnTheirStock() {
+        // Arrange
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        when(reservationRepository.findAllByHoldIdForUpdate(HOLD_ID)).thenReturn(List.of(
+                line(product1, 3, 2, expiresAt),
+                line(product2, 1, 2, expiresAt)
+        ));
+
+        // Act
+        reservationService.releaseHold(HOLD_ID);
+
+        // Assert
+        verify(reservationRepository).deleteAllByIdInBatch(anyList());
+        verify(productService).releaseStock(
+                List.of(new StockLineRequest(1L, 3), new StockLineRequest(2L, 1)), HOLD_ID.toString());
+    }
+
+    @Test
+    void releaseHold_WhenHoldIsAlreadyGone_ShouldDoNothing() {
+        // Arrange
+        when(reservationRepository.findAllByHoldIdForUpdate(HOLD_ID)).thenReturn(List.of());
+
+        // Act
+        reservationService.releaseHold(HOLD_ID);
+
+        // Assert
+        verify(reservationRepository, never()).deleteAllByIdInBatch(anyList());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void releaseExpired_WhenNothingHasExpired_ShouldReturnZero() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        when(reservationRepository.findExpiredForUpdate(now, Limit.of(500))).thenReturn(List.of());
+
+        // Act
+        int released = reservationService.releaseExpired(now, 500);
+
+        // Assert
+        assertEquals(0, released);
+        verify(productService, never()).releaseStock(any(), any());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.event.ProductChangedEvent;
+import com.example.product_service.event.ProductChangedEvent.ChangeType;
+import com.example.product_service.inventory.StockLedger;
+import com.example.product_service.outbox.ProductChange;
+import com.example.product_service.outbox.ProductChangeOutbox;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.stream.StockStreamHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockStreamHubUnitTest {
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductChangeOutbox outbox;
+
+    private StockStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new StockStreamHub(repository, stockLedger, outbox, new SimpleMeterRegistry(),
+                Duration.ofMinutes(30), Duration.ofSeconds(5), Duration.ofSeconds(15), 1, 2);
+        lenient().when(repository.findAllById(anyIterable())).thenReturn(List.of());
+        lenient().when(stockLedger.offRowStock(anyCollection())).thenReturn(Map.of());
+        lenient().when(outbox.latestPosition()).thenReturn(ProductChange.Position.START);
+    }
+
+    @Test
+    void flush_ShouldReadEachWatchedProductOnceHoweverOftenItChanged() {
+        // Arrange
+        hub.subscribe(List.of(1L, 2L));
+        hub.subscribe(List.of(1L));
+        clearInvocations(repository);
+
+        // Act
+        hub.onProductChanged(new ProductChangedEvent(1L, ChangeType.STOCK_CHANGED));
+        hub.onProductChanged(new ProductChangedEvent(1L, ChangeType.STOCK_CHANGED));
+        hub.onProductChanged(new ProductChangedEvent(2L, ChangeType.DELETED));
+        hub.flush();
+
+        // Assert
+        verify(repository, times(1)).findAllById(anyIterable());
+        assertEquals(2, hub.connections());
+    }
+
+    @Test
+    void flush_ShouldPickUpChangesCommittedByOtherInstances() {
+        // Arrange
+        hub.subscribe(List.of(1L));
+        clearInvocations(repository);
+        when(outbox.readKeysAfter(ProductChange.Position.START, 1000)).thenReturn(List.of(
+                new ProductChange(new ProductChange.Position(7, 1), 1L, ChangeType.STOCK_CHANGED, null, null),
+                new ProductChange(new ProductChange.Position(7, 2), 3L, ChangeType.STOCK_CHANGED, null, null)));
+
+        // Act
+        hub.flush();
+        hub.flush();
+
+        // Assert
+        verify(repository, times(1)).findAllById(List.of(1L));
+        verify(outbox).readKeysAfter(new ProductChange.Position(7, 2), 1000);
+    }
+
+    @Test
+    void flush_ShouldIgnoreChangesToProductsNobodyWatches() {
+        // Arrange
+        hub.subscribe(List.of(1L));
+        clearInvocations(repository);
+
+        // Act
+        hub.onProductChanged(new ProductChangedEvent(3L, ChangeType.STOCK_CHANGED));
+        hub.flush();
+
+        // Assert
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void subscribe_WithNoOrTooManyIds_ShouldThrowIllegalArgumentException() {
+        List<Long> tooMany = LongStream.rangeClosed(1, StockStreamHub.MAX_PRODUCTS_PER_STREAM + 1).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> hub.subscribe(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> hub.subscribe(tooMany));
+        assertEquals(0, hub.connections());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.product_service.unit;
+
+import com.example.product_service.entity.ProductStockStripe;
+import com.example.product_service.inventory.StripedInventory;
+import com.example.product_service.repository.ProductStockStripeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripedInventoryUnitTest {
+
+    @Mock
+    private ProductStockStripeRepository stripeRepository;
+
+    @InjectMocks
+    private StripedInventory stripedInventory;
+
+    private List<ProductStockStripe> stripes(int... stock) {
+        List<ProductStockStripe> stripes = new ArrayList<>();
+        for (int i = 0; i < stock.length; i++) {
+            stripes.add(new ProductStockStripe(1L, i, stock[i], LocalDateTime.now()));
+        }
+        return stripes;
+    }
+
+    @Test
+    void tryDecrement_WhenAFreeStripeHasEnough_ShouldTakeItFromThatStripe() {
+        // Arrange
+        when(stripeRepository.lockAnyStripeWithStock(1L, 2)).thenReturn(Optional.of(3));
+        when(stripeRepository.decrementStock(1L, 3, 2)).thenReturn(1);
+
+        // Act
+        boolean taken = stripedInventory.tryDecrement(1L, 2);
+
+        // Assert
+        assertTrue(taken);
+        verify(stripeRepository, never()).findAllByProductIdForUpdate(anyLong());
+    }
+
+    @Test
+    void tryDecrement_WhenStripesAreBusy_ShouldQueueOnOneOfThem() {
+        // Arrange
+        when(stripeRepository.lockAnyStripeWithStock(1L, 2)).thenReturn(Optional.empty());
+        when(stripeRepository.findStripesWithStock(1L, 2)).thenReturn(List.of(1));
+        when(stripeRepository.decrementStock(1L, 1, 2)).thenReturn(1);
+
+        // Act
+        boolean taken = stripedInventory.tryDecrement(1L, 2);
+
+        // Assert
+        assertTrue(taken);
+        verify(stripeRepository, never()).findAllByProductIdForUpdate(anyLong());
+    }
+
+    @Test
+    void tryDecrement_WhenNoSingleStripeHasEnough_ShouldTakeAcrossStripes() {
+        // Arrange
+        List<ProductStockStripe> locked = stripes(3, 0, 3);
+        when(stripeRepository.lockAnyStripeWithStock(1L, 5)).thenReturn(Optional.empty());
+        when(stripeRepository.findStripesWithStock(1L, 5)).thenReturn(List.of());
+        when(stripeRepository.sumStock(1L)).thenReturn(6L);
+        when(stripeRepository.findAllByProductIdForUpdate(1L)).thenReturn(locked);
+
+        // Act
+        boolean taken = stripedInventory.tryDecrement(1L, 5);
+
+        // Assert
+        assertTrue(taken);
+        assertEquals(List.of(0, 0, 1), locked.stream().map(ProductStockStripe::getStock).toList());
+        verify(stripeRepository, times(1)).saveAll(locked);
+        verify(stripeRepository, never()).decrementStock(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void tryDecrement_WhenStripesHoldTooLittle_ShouldRejectWithoutLocking() {
+        // Arrange
+        when(stripeRepository.lockAnyStripeWithStock(1L, 3)).thenReturn(Optional.empty());
+        when(stripeRepository.findStripesWithStock(1L, 3)).thenReturn(List.of());
+        when(stripeRepository.sumStock(1L)).thenReturn(2L);
+
+        // Act
+        boolean taken = stripedInventory.tryDecrement(1L, 3);
+
+        // Assert
+        assertFalse(taken);
+        verify(stripeRepository, never()).findAllByProductIdForUpdate(anyLong());
+        verify(stripeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void spread_ShouldShareTotalEvenlyAndDropSurplusStripes() {
+        // Arrange
+        List<ProductStockStripe> current = stripes(5, 5, 5, 5);
+        when(stripeRepository.findAllByProductIdForUpdate(1L)).thenReturn(current);
+
+        // Act
+        stripedInventory.spread(1L, 3, 10);
+
+        // Assert
+        assertEquals(List.of(4, 3, 3), current.subList(0, 3).stream().map(ProductStockStripe::getStock).toList());
+        verify(stripeRepository, times(1)).deleteAll(current.subList(3, 4));
+        verify(stripeRepository, never()).save(any());
+    }
+}